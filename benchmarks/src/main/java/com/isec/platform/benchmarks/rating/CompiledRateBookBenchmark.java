@@ -0,0 +1,74 @@
+package com.isec.platform.benchmarks.rating;
+
+import com.isec.platform.modules.rating.compiler.CompiledRateBookRegistry;
+import com.isec.platform.modules.rating.dto.PricingResult;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import com.isec.platform.modules.rating.service.PricingEngine;
+import com.isec.platform.modules.rating.service.RateBookSnapshotLoader;
+import com.isec.platform.modules.rating.service.RuleMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interpreted versus compiled rate book pricing through {@link PricingEngine#price(RatingContext)}.
+ * <p>
+ * {@code java -jar benchmarks/target/benchmarks.jar CompiledRateBookBenchmark -prof gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompiledRateBookBenchmark {
+
+    @Param({"interpreted", "compiled"})
+    public String engine;
+
+    @Param({"10", "100", "1000"})
+    public int ruleCount;
+
+    private PricingEngine pricingEngine;
+    private RatingContext[] contexts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        RateBookDto rateBook = SeedRateBooks.rateBook(ruleCount);
+        RateBookSnapshotLoader.Snapshot snapshot = RateBookSnapshotLoader.Snapshot.from(rateBook);
+        contexts = SeedRateBooks.contexts(rateBook, 64, 3);
+
+        CompiledRateBookRegistry registry = PricingEngines.registry(
+                "compiled".equals(engine) ? List.of(SeedRateBooks.TENANT) : List.of());
+        pricingEngine = PricingEngines.create(snapshot, new RuleMatcher(), registry);
+
+        // The first quote triggers the background compilation; wait for it so only steady state is measured
+        pricingEngine.price(contexts[0]).block();
+        for (int i = 0; "compiled".equals(engine) && registry.lookup(snapshot, null) == null; i++) {
+            if (i == 200) {
+                throw new IllegalStateException("Rate book did not compile");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    @Benchmark
+    public PricingResult price() {
+        RatingContext context = contexts[next++ & (contexts.length - 1)];
+        return pricingEngine.price(context).block();
+    }
+}
@@ -0,0 +1,66 @@
+package com.isec.platform.benchmarks.rating;
+
+import com.isec.platform.modules.rating.dto.PricingResult;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import com.isec.platform.modules.rating.service.PricingEngine;
+import com.isec.platform.modules.rating.service.RateBookSnapshotLoader;
+import com.isec.platform.modules.rating.service.RuleMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quote throughput of the interpreted engine, {@link PricingEngine#price(RatingContext)}, by rate book size, number
+ * of selected add-ons and whether quotes stay in one category or spread over all of them (rate books of ten rules
+ * only carry private car, so both mixes are the same there).
+ * <p>
+ * {@code java -jar benchmarks/target/benchmarks.jar PricingEngineBenchmark -prof gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingEngineBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int ruleCount;
+
+    @Param({"0", "3", "10"})
+    public int addonCount;
+
+    @Param({"single", "mixed"})
+    public String categoryMix;
+
+    private PricingEngine pricingEngine;
+    private RatingContext[] contexts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RateBookDto rateBook = SeedRateBooks.rateBook(ruleCount);
+        contexts = SeedRateBooks.contexts(rateBook, 64, addonCount, "mixed".equals(categoryMix));
+        pricingEngine = PricingEngines.create(RateBookSnapshotLoader.Snapshot.from(rateBook), new RuleMatcher(),
+                PricingEngines.registry(List.of()));
+    }
+
+    @Benchmark
+    public PricingResult price() {
+        RatingContext context = contexts[next++ & (contexts.length - 1)];
+        return pricingEngine.price(context).block();
+    }
+}
@@ -0,0 +1,68 @@
+package com.isec.platform.benchmarks.rating;
+
+import com.isec.platform.modules.rating.compiler.CompiledRateBookRegistry;
+import com.isec.platform.modules.rating.compiler.RateBookCompiler;
+import com.isec.platform.modules.rating.service.PricingEngine;
+import com.isec.platform.modules.rating.service.QuoteResultCache;
+import com.isec.platform.modules.rating.service.RateBookSnapshotLoader;
+import com.isec.platform.modules.rating.service.RatingMetrics;
+import com.isec.platform.modules.rating.service.RuleMatcher;
+import com.isec.platform.modules.rating.service.RuleSelectivity;
+import com.isec.platform.modules.rating.service.RuleTraceSampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Wires a {@link PricingEngine} outside Spring: a fixed snapshot instead of Redis/R2DBC and the statutory charges
+ * of application.yml.
+ */
+final class PricingEngines {
+
+    private PricingEngines() {
+    }
+
+    static PricingEngine create(RateBookSnapshotLoader.Snapshot snapshot, RuleMatcher ruleMatcher,
+                                CompiledRateBookRegistry registry) {
+        return create(snapshot, ruleMatcher, registry, new RuleTraceSampler());
+    }
+
+    static PricingEngine create(RateBookSnapshotLoader.Snapshot snapshot, RuleMatcher ruleMatcher,
+                                CompiledRateBookRegistry registry, RuleTraceSampler ruleTraceSampler) {
+        // Metrics are recorded as in production, into an in-memory registry; the quote cache is off since the
+        // benchmarks cycle over a few contexts and would otherwise measure cache hits
+        QuoteResultCache quoteResultCache = new QuoteResultCache();
+        setField(quoteResultCache, "excludedTenants", List.of("*"));
+        PricingEngine pricingEngine = new PricingEngine(fixedSnapshot(snapshot), ruleMatcher, registry,
+                new RatingMetrics(new SimpleMeterRegistry()), quoteResultCache, new RuleSelectivity(ruleMatcher), ruleTraceSampler);
+        setField(pricingEngine, "pcfRate", new BigDecimal("0.0025"));
+        setField(pricingEngine, "itlRate", new BigDecimal("0.0020"));
+        setField(pricingEngine, "certCharge", new BigDecimal("40.00"));
+        return pricingEngine;
+    }
+
+    static CompiledRateBookRegistry registry(List<String> compiledTenants) {
+        CompiledRateBookRegistry registry = new CompiledRateBookRegistry(new RateBookCompiler());
+        setField(registry, "compiledTenants", compiledTenants);
+        return registry;
+    }
+
+    private static RateBookSnapshotLoader fixedSnapshot(RateBookSnapshotLoader.Snapshot snapshot) {
+        return new RateBookSnapshotLoader(null, null, null, null, null) {
+            @Override
+            public Mono<Snapshot> loadActive(String tenantId) {
+                return Mono.just(snapshot);
+            }
+        };
+    }
+
+    static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,85 @@
+package com.isec.platform.benchmarks.rating;
+
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import com.isec.platform.modules.rating.service.RuleMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single rule evaluations through {@link RuleMatcher}, cycling over every condition or value expression of the rate
+ * book against varying contexts, with the expression cache warm as it is between rate book reloads. As in
+ * {@code PricingEngine}, values are only evaluated for contexts that match the rule's condition.
+ * <p>
+ * {@code java -jar benchmarks/target/benchmarks.jar RuleMatcherBenchmark -prof gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleMatcherBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int ruleCount;
+
+    private final RuleMatcher ruleMatcher = new RuleMatcher();
+    private RateBookDto.RateRuleDto[] conditionRules;
+    private RatingContext[] contexts;
+    private RateBookDto.RateRuleDto[] valueRules;
+    private RatingContext[] valueContexts;
+    private int nextCondition;
+    private int nextValue;
+    private int nextContext;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RateBookDto rateBook = SeedRateBooks.rateBook(ruleCount);
+        conditionRules = rateBook.getRules().stream()
+                .filter(rule -> rule.getConditionExpression() != null)
+                .toArray(RateBookDto.RateRuleDto[]::new);
+        contexts = SeedRateBooks.contexts(rateBook, 64, 3);
+
+        List<RateBookDto.RateRuleDto> rules = new ArrayList<>();
+        List<RatingContext> ruleContexts = new ArrayList<>();
+        for (RateBookDto.RateRuleDto rule : rateBook.getRules()) {
+            for (RatingContext context : contexts) {
+                if (rule.getValueExpression() != null && ruleMatcher.matches(rule, context)) {
+                    rules.add(rule);
+                    ruleContexts.add(context);
+                    ruleMatcher.evaluateBigDecimal(rule, context);
+                }
+            }
+        }
+        valueRules = rules.toArray(RateBookDto.RateRuleDto[]::new);
+        valueContexts = ruleContexts.toArray(RatingContext[]::new);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        RateBookDto.RateRuleDto rule = conditionRules[Integer.remainderUnsigned(nextCondition++, conditionRules.length)];
+        return ruleMatcher.matches(rule, contexts[nextContext++ & (contexts.length - 1)]);
+    }
+
+    @Benchmark
+    public BigDecimal evaluateBigDecimal() {
+        int i = Integer.remainderUnsigned(nextValue++, valueRules.length);
+        return ruleMatcher.evaluateBigDecimal(valueRules[i], valueContexts[i]);
+    }
+}
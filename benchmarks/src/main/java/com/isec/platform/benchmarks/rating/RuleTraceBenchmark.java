@@ -0,0 +1,73 @@
+package com.isec.platform.benchmarks.rating;
+
+import com.isec.platform.modules.rating.dto.PricingResult;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import com.isec.platform.modules.rating.service.PricingEngine;
+import com.isec.platform.modules.rating.service.RateBookSnapshotLoader;
+import com.isec.platform.modules.rating.service.RuleMatcher;
+import com.isec.platform.modules.rating.service.RuleTraceSampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rule tracing per quote: {@code off} (no sample rates), {@code unsampled} (a sample rate is configured but
+ * the quote is not drawn, the common case in production) and {@code always} (every quote sampled and traced). The
+ * first two must show the same {@code gc.alloc.rate.norm} as each other and as {@link PricingEngineBenchmark} with
+ * three add-ons in a single category; {@code always} shows what a traced quote costs. Escape analysis makes the
+ * allocation of one fork differ from another's by a few hundred bytes per quote, so compare forks' lowest values.
+ * <p>
+ * {@code java -jar benchmarks/target/benchmarks.jar RuleTraceBenchmark -prof gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(3)
+public class RuleTraceBenchmark {
+
+    @Param({"10", "100"})
+    public int ruleCount;
+
+    @Param({"off", "unsampled", "always"})
+    public String tracing;
+
+    private PricingEngine pricingEngine;
+    private RatingContext[] contexts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RateBookDto rateBook = SeedRateBooks.rateBook(ruleCount);
+        contexts = SeedRateBooks.contexts(rateBook, 64, 3, false);
+        RuleTraceSampler sampler = new RuleTraceSampler();
+        if ("unsampled".equals(tracing)) {
+            // Drawn for every quote; about one in a billion is traced
+            PricingEngines.setField(sampler, "sampleRates", List.of("*=0.000000001"));
+        } else if ("always".equals(tracing)) {
+            PricingEngines.setField(sampler, "sampleRates", List.of("*=1"));
+        }
+        pricingEngine = PricingEngines.create(RateBookSnapshotLoader.Snapshot.from(rateBook), new RuleMatcher(),
+                PricingEngines.registry(List.of()), sampler);
+    }
+
+    @Benchmark
+    public PricingResult price() {
+        RatingContext context = contexts[next++ & (contexts.length - 1)];
+        return pricingEngine.price(context).block();
+    }
+}
@@ -0,0 +1,125 @@
+package com.isec.platform.benchmarks.rating;
+
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rate books and rating contexts shaped like the Liquibase rating seeds (see 10-rating-seed and the Sanlam
+ * threshold changelogs), padded with further rules of the same shape up to the requested size.
+ */
+public final class SeedRateBooks {
+
+    public static final String TENANT = "SANLAM";
+
+    private static final String[] CATEGORIES = {"PRIVATE_CAR", "COMMERCIAL", "MOTOR_CYCLE", "PSV"};
+    private static final String[] MAKES = {"Toyota", "Nissan", "Mazda", "Subaru", "Isuzu", "Mercedes-Benz"};
+
+    private SeedRateBooks() {
+    }
+
+    public static RateBookDto rateBook(int ruleCount) {
+        List<RateBookDto.RateRuleDto> rules = new ArrayList<>();
+        List<String> categories = categories(ruleCount);
+        for (String category : categories) {
+            rules.add(rule(rules, RuleType.ELIGIBILITY, category, 1, "vehicleAge <= 20", null));
+            rules.add(rule(rules, RuleType.ELIGIBILITY, category, 2,
+                    "not (vehicleMake.equalsIgnoreCase('Ferrari') or vehicleMake.equalsIgnoreCase('Lamborghini'))", null));
+            rules.add(rule(rules, RuleType.REFERRAL, category, 1, "vehicleAge > 15", null));
+            rules.add(rule(rules, RuleType.BASE_PREMIUM, category, 4, "vehicleValue.doubleValue() <= 600000", "37500"));
+            rules.add(rule(rules, RuleType.BASE_PREMIUM, category, 10, "vehicleValue.doubleValue() > 600000", "0.04"));
+            rules.add(rule(rules, RuleType.MIN_PREMIUM, category, 1, "true", "15000"));
+            rules.add(rule(rules, RuleType.ADDON, category, 30, "true",
+                    "vehicleValue.doubleValue() <= 600000 ? 5000.0 : T(java.lang.Math).max(5000.0, vehicleValue.doubleValue() * 0.005)"));
+            rules.add(rule(rules, RuleType.ADDON, category, 31, "true",
+                    "vehicleValue.doubleValue() <= 600000 ? 3000.0 : T(java.lang.Math).max(3000.0, vehicleValue.doubleValue() * 0.0045)"));
+            rules.add(rule(rules, RuleType.ADDON, category, 35, "additionalData != null && additionalData['courtesyCarDays'] != null",
+                    "(T(java.lang.Integer).parseInt(additionalData['courtesyCarDays'].toString()) / 10) * 3000"));
+        }
+        // Pad with referral and add-on rules of the seed shapes, spread over the categories
+        for (int i = 0; rules.size() < ruleCount; i++) {
+            String category = categories.get(i % categories.size());
+            if (i % 3 == 0) {
+                rules.add(rule(rules, RuleType.REFERRAL, category, 100 + i,
+                        "vehicleValue >= " + (16_000_000 + i * 1000) + " and vehicleValue <= 25000000", null));
+            } else {
+                rules.add(rule(rules, RuleType.ADDON, category, 100 + i, "vehicleAge <= " + (5 + i % 15),
+                        "T(java.lang.Math).max(" + (1000 + i) + ".0, vehicleValue.doubleValue() * 0.00" + (1 + i % 9) + ")"));
+            }
+        }
+        return RateBookDto.builder()
+                .id(1L)
+                .tenantId(TENANT)
+                .name("Seed")
+                .versionName("v" + ruleCount)
+                .rules(rules)
+                .build();
+    }
+
+    /**
+     * Contexts cycling over categories, vehicle values and makes, each selecting {@code addonCount} add-ons of
+     * its category.
+     */
+    public static RatingContext[] contexts(RateBookDto rateBook, int count, int addonCount) {
+        return contexts(rateBook, count, addonCount, true);
+    }
+
+    /**
+     * As {@link #contexts(RateBookDto, int, int)}; without {@code mixedCategories} every context quotes the first
+     * category (private car), otherwise they cycle over all categories of the rate book.
+     */
+    public static RatingContext[] contexts(RateBookDto rateBook, int count, int addonCount, boolean mixedCategories) {
+        List<String> categories = rateBook.getRules().stream().map(RateBookDto.RateRuleDto::getCategory).distinct().toList();
+        if (!mixedCategories) {
+            categories = categories.subList(0, 1);
+        }
+        RatingContext[] contexts = new RatingContext[count];
+        for (int i = 0; i < count; i++) {
+            String category = categories.get(i % categories.size());
+            Set<Long> addons = new HashSet<>();
+            for (RateBookDto.RateRuleDto rule : rateBook.getRules()) {
+                if (addons.size() < addonCount && rule.getRuleType() == RuleType.ADDON && category.equals(rule.getCategory())) {
+                    addons.add(rule.getId());
+                }
+            }
+            contexts[i] = RatingContext.builder()
+                    .tenantId(TENANT)
+                    .category(category)
+                    .vehicleValue(BigDecimal.valueOf(450_000L + (i * 137_000L) % 3_000_000L))
+                    .vehicleAge(i % 14)
+                    .vehicleMake(MAKES[i % MAKES.length])
+                    .vehicleModel("Model " + i)
+                    .selectedAddonIds(addons)
+                    .additionalData(i % 2 == 0 ? Map.of("courtesyCarDays", 10 + i % 20) : Map.of())
+                    .build();
+        }
+        return contexts;
+    }
+
+    // The seeds price nine rules per category; small books only carry the private car category
+    private static List<String> categories(int ruleCount) {
+        int count = Math.max(1, Math.min(CATEGORIES.length, ruleCount / 18));
+        return List.of(CATEGORIES).subList(0, count);
+    }
+
+    private static RateBookDto.RateRuleDto rule(List<RateBookDto.RateRuleDto> rules, RuleType type, String category,
+                                                int priority, String condition, String value) {
+        long id = rules.size() + 1L;
+        return RateBookDto.RateRuleDto.builder()
+                .id(id)
+                .ruleType(type)
+                .category(category)
+                .priority(priority)
+                .description(type + " " + id)
+                .conditionExpression(condition)
+                .valueExpression(value)
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.isec.platform.benchmarks.rating;
+
+import com.isec.platform.common.cache.CachingConfig;
+import com.isec.platform.modules.rating.service.RateBookSnapshotLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a rate book snapshot back from its Redis representation, as {@link RateBookSnapshotLoader} does on a local
+ * miss: JSON with default typing through the cache {@code ObjectMapper} of {@link CachingConfig}, including
+ * rebuilding the rule index. Serialization is measured alongside for the write-through on a database load.
+ * <p>
+ * {@code java -jar benchmarks/target/benchmarks.jar SnapshotDeserializationBenchmark -prof gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotDeserializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int ruleCount;
+
+    private final GenericJackson2JsonRedisSerializer serializer =
+            new GenericJackson2JsonRedisSerializer(CachingConfig.createCacheObjectMapper());
+    private RateBookSnapshotLoader.Snapshot snapshot;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        snapshot = RateBookSnapshotLoader.Snapshot.from(SeedRateBooks.rateBook(ruleCount));
+        serialized = serializer.serialize(snapshot);
+        if (!(serializer.deserialize(serialized) instanceof RateBookSnapshotLoader.Snapshot)) {
+            throw new IllegalStateException("Snapshot did not round-trip through the cache serializer");
+        }
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(serialized);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(snapshot);
+    }
+}
@@ -17,6 +17,7 @@ import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
@@ -52,6 +53,15 @@ public class CachingConfig {
         return new ReactiveRedisTemplate<>(factory, context);
     }
 
+    /**
+     * Shares one Redis pub/sub connection between all channel subscriptions of this node, instead of a connection per
+     * {@code listenToChannel} call.
+     */
+    @Bean
+    public ReactiveRedisMessageListenerContainer reactiveRedisMessageListenerContainer(ReactiveRedisConnectionFactory factory) {
+        return new ReactiveRedisMessageListenerContainer(factory);
+    }
+
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
         GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(createCacheObjectMapper());
@@ -90,8 +100,9 @@ public class CachingConfig {
     /**
      * Creates a specialized ObjectMapper for Redis caching that includes type information.
      * This is separate from the primary web ObjectMapper to avoid leaking type info in API responses.
+     * Public so that tests and benchmarks exercise exactly the mapping used for cached values.
      */
-    private ObjectMapper createCacheObjectMapper() {
+    public static ObjectMapper createCacheObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
@@ -0,0 +1,38 @@
+package com.isec.platform.modules.applications.config;
+
+import com.isec.platform.modules.integrations.quote.provider.PartnerType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "quote.fleet")
+public class FleetQuoteProperties {
+    /**
+     * Most vehicles accepted in one fleet submission.
+     */
+    private int maxVehicles = 1000;
+
+    /**
+     * Quotes written per batched insert.
+     */
+    private int insertBatchSize = 100;
+
+    /**
+     * Limits for partners without an entry in {@link #partners}.
+     */
+    private PartnerLimits defaults = new PartnerLimits();
+
+    /**
+     * Limits per partner, shared by all fleet submissions on a node.
+     */
+    private Map<PartnerType, PartnerLimits> partners = new EnumMap<>(PartnerType.class);
+
+    public PartnerLimits limits(PartnerType partner) {
+        return partners.getOrDefault(partner, defaults);
+    }
+}
@@ -0,0 +1,20 @@
+package com.isec.platform.modules.applications.config;
+
+import lombok.Data;
+
+/**
+ * How hard a partner may be called by bulk or background work; see
+ * {@link com.isec.platform.modules.applications.service.motor.PartnerThrottle}.
+ */
+@Data
+public class PartnerLimits {
+    /**
+     * Calls in flight with the partner at once.
+     */
+    private int concurrency = 4;
+
+    /**
+     * Calls started with the partner per second.
+     */
+    private double ratePerSecond = 5;
+}
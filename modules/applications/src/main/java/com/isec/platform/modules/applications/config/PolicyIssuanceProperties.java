@@ -0,0 +1,35 @@
+package com.isec.platform.modules.applications.config;
+
+import com.isec.platform.modules.integrations.quote.provider.PartnerType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "quote.issuance")
+public class PolicyIssuanceProperties {
+    /**
+     * Limits for partners without an entry in {@link #partners}.
+     */
+    private PartnerLimits defaults = partnerLimits(2, 2);
+
+    /**
+     * Limits per partner, shared by all queued issuances on a node.
+     */
+    private Map<PartnerType, PartnerLimits> partners = new EnumMap<>(PartnerType.class);
+
+    public PartnerLimits limits(PartnerType partner) {
+        return partners.getOrDefault(partner, defaults);
+    }
+
+    private static PartnerLimits partnerLimits(int concurrency, double ratePerSecond) {
+        PartnerLimits limits = new PartnerLimits();
+        limits.setConcurrency(concurrency);
+        limits.setRatePerSecond(ratePerSecond);
+        return limits;
+    }
+}
@@ -0,0 +1,29 @@
+package com.isec.platform.modules.applications.controller.admin;
+
+import com.isec.platform.modules.applications.dto.QuoteStoreBackfillResult;
+import com.isec.platform.modules.applications.service.QuoteStoreBackfill;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/v1/admin/quote-store")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminQuoteStoreController {
+
+    private final QuoteStoreBackfill backfill;
+
+    @PostMapping("/backfill")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public Mono<ResponseEntity<QuoteStoreBackfillResult>> backfill() {
+        log.info("Admin request to backfill the quote store from Redis");
+        return backfill.backfill()
+                .map(ResponseEntity::ok);
+    }
+}
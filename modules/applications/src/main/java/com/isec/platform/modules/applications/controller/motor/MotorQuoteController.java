@@ -1,15 +1,29 @@
 package com.isec.platform.modules.applications.controller.motor;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.isec.platform.modules.applications.domain.motor.PaymentMethod;
+import com.isec.platform.modules.applications.dto.QuoteRequest;
 import com.isec.platform.modules.applications.dto.motor.CalculateMotorPremiumRequest;
+import com.isec.platform.modules.applications.dto.motor.CompareMotorPremiumRequest;
+import com.isec.platform.modules.applications.dto.motor.FleetQuoteRequest;
+import com.isec.platform.modules.applications.dto.motor.FleetQuoteResult;
+import com.isec.platform.modules.applications.dto.motor.MotorQuoteComparison;
 import com.isec.platform.modules.applications.dto.motor.MotorQuoteResponse;
 import com.isec.platform.modules.applications.dto.motor.MpesaInitiationRequest;
+import com.isec.platform.modules.applications.service.motor.FleetQuoteIntake;
+import com.isec.platform.modules.applications.service.motor.FleetVehicleCsv;
 import com.isec.platform.modules.applications.service.motor.MotorQuoteOrchestrator;
+import com.isec.platform.modules.applications.service.motor.PartnerQuoteComparison;
+import com.isec.platform.modules.applications.service.motor.QuoteStatusStream;
+import com.isec.platform.modules.integrations.quote.provider.PartnerType;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -19,6 +33,10 @@ import reactor.core.publisher.Mono;
 public class MotorQuoteController {
 
     private final MotorQuoteOrchestrator orchestrator;
+    private final QuoteStatusStream statusStream;
+    private final PartnerQuoteComparison quoteComparison;
+    private final FleetQuoteIntake fleetQuoteIntake;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/calculate-premium")
     public Mono<ResponseEntity<MotorQuoteResponse>> calculatePremium(
@@ -29,6 +47,58 @@ public class MotorQuoteController {
                 .map(ResponseEntity::ok);
     }
 
+    /**
+     * Premiums of every partner as server-sent events: the quotes received so far, best first, each time a partner
+     * answers, ending with a {@code complete} event once all partners answered or timed out.
+     */
+    @PostMapping(value = "/compare", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<MotorQuoteComparison>> comparePremiums(
+            @Valid @RequestBody CompareMotorPremiumRequest request
+    ) {
+        log.info("REST request to compare motor premiums of partners: {}", request.getPartners());
+        return quoteComparison.compare(request)
+                .map(comparison -> ServerSentEvent.builder(comparison)
+                        .event(comparison.isComplete() ? "complete" : "quotes")
+                        .build());
+    }
+
+    /**
+     * Quotes every vehicle of a corporate client's fleet, streaming one NDJSON line per vehicle as it finishes, with
+     * the fleet's progress and the vehicle's premium or error.
+     */
+    @PostMapping(value = "/fleet", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<FleetQuoteResult> quoteFleet(@Valid @RequestBody FleetQuoteRequest request) {
+        log.info("REST request to quote a fleet of {} vehicles with {}", request.getVehicles().size(), request.getPartner());
+        return fleetQuoteIntake.submit(request);
+    }
+
+    /**
+     * {@link #quoteFleet} for vehicles uploaded as CSV, one per line under a header naming the vehicle fields; the cover
+     * applying to all of them is given as parameters.
+     */
+    @PostMapping(value = "/fleet", consumes = "text/csv", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<FleetQuoteResult> quoteFleetCsv(
+            @RequestParam PartnerType partner,
+            @RequestParam String category,
+            @RequestParam(required = false) String coverType,
+            @RequestParam(required = false) String insuranceStartDate,
+            @RequestBody String csv
+    ) {
+        return Mono.fromCallable(() -> FleetVehicleCsv.parse(csv, objectMapper))
+                .flatMapMany(vehicles -> {
+                    log.info("REST request to quote a fleet of {} vehicles from CSV with {}", vehicles.size(), partner);
+                    return fleetQuoteIntake.submit(FleetQuoteRequest.builder()
+                            .partner(partner)
+                            .insuranceDetails(QuoteRequest.InsuranceDetails.builder()
+                                    .category(category)
+                                    .coverType(coverType)
+                                    .insuranceStartDate(insuranceStartDate)
+                                    .build())
+                            .vehicles(vehicles)
+                            .build());
+                });
+    }
+
     @PostMapping("/{quoteId}/accept")
     public Mono<ResponseEntity<MotorQuoteResponse>> acceptQuote(@PathVariable String quoteId) {
         log.info("REST request to accept motor quote: {}", quoteId);
@@ -60,6 +130,19 @@ public class MotorQuoteController {
                 .map(ResponseEntity::ok);
     }
 
+    /**
+     * The quote's status as server-sent events, one per change, instead of polling {@code /payments/status}. The
+     * stream ends once the quote reaches a final status.
+     */
+    @GetMapping(value = "/{quoteId}/status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<MotorQuoteResponse>> streamQuoteStatus(@PathVariable String quoteId) {
+        log.info("REST request to stream status of motor quote: {}", quoteId);
+        return statusStream.stream(quoteId)
+                .map(response -> ServerSentEvent.builder(response)
+                        .event(response.getStatus() == null ? null : response.getStatus().name())
+                        .build());
+    }
+
     @GetMapping("/{quoteId}")
     public Mono<ResponseEntity<MotorQuoteResponse>> getQuoteApplication(@PathVariable String quoteId) {
         log.info("REST request to get motor quote application: {}", quoteId);
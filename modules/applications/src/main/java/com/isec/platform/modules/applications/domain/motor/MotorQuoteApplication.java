@@ -4,6 +4,7 @@ import com.isec.platform.common.domain.TenantBaseEntity;
 import com.isec.platform.modules.integrations.quote.provider.PartnerType;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.relational.core.mapping.Table;
 
 import java.time.LocalDateTime;
@@ -36,4 +37,15 @@ public class MotorQuoteApplication extends TenantBaseEntity {
     // Partner references
     private String partnerReferences;
     private String rawPartnerResponses;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private final ParsedJsonColumns parsedColumns = new ParsedJsonColumns();
+
+    /**
+     * The JSON columns of this row, parsed at most once per value.
+     */
+    public ParsedJsonColumns json() {
+        return parsedColumns;
+    }
 }
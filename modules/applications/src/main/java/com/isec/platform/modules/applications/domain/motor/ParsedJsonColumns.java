@@ -0,0 +1,82 @@
+package com.isec.platform.modules.applications.domain.motor;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsed forms of the JSON columns of one loaded {@link MotorQuoteApplication}, so that a request parses each column
+ * once however many times the orchestrator and mapper read it.
+ * <p>
+ * A parsed value is kept together with the exact string it was parsed from and is only reused while the column still
+ * holds that string, so setting a column invalidates it. Values written through {@link #write} are remembered as
+ * the parsed form of the string they were serialized to, so reading back a column that was just written does not
+ * parse it again. A column that cannot be read as a type is remembered as {@code null} for that type.
+ * <p>
+ * Parsed values are shared by every reader of the row and must not be modified; parse a copy with the
+ * {@link ObjectMapper} to change one.
+ */
+@Slf4j
+public final class ParsedJsonColumns {
+
+    // The last string parsed per type; a row's columns parse to different types
+    private final Map<Class<?>, Parsed> values = new ConcurrentHashMap<>();
+
+    /**
+     * The column's value as {@code type}, or {@code null} if the column is empty or cannot be read as {@code type}.
+     */
+    public <T> T read(String json, Class<T> type, ObjectMapper objectMapper) {
+        if (json == null) {
+            return null;
+        }
+        Parsed parsed = values.get(type);
+        if (parsed != null && parsed.json() == json) {
+            return type.cast(parsed.value());
+        }
+        T value;
+        try {
+            value = objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            // Expected while trying the legacy payment result shapes
+            log.debug("Column cannot be read as {}: {}", type.getSimpleName(), e.getMessage());
+            value = null;
+        }
+        values.put(type, new Parsed(json, value));
+        return value;
+    }
+
+    /**
+     * Serializes a value to store in a column and remembers it as the column's parsed form.
+     *
+     * @return the JSON to set the column to, or {@code null} if the value cannot be serialized
+     */
+    public String write(Object value, ObjectMapper objectMapper) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return remember(objectMapper.writeValueAsString(value), value);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize {}", value.getClass().getSimpleName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Remembers {@code value} as the parsed form of {@code json}, which was serialized from it.
+     *
+     * @return {@code json}
+     */
+    public String remember(String json, Object value) {
+        if (json != null && value != null) {
+            values.put(value.getClass(), new Parsed(json, value));
+        }
+        return json;
+    }
+
+    private record Parsed(String json, Object value) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.isec.platform.modules.applications.domain.renewal;
+
+import com.isec.platform.common.domain.TenantBaseEntity;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Table("renewal_offers")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RenewalOffer extends TenantBaseEntity {
+    @Id
+    private Long id;
+
+    private Long policyId;
+
+    private Long applicationId;
+
+    private Long runId;
+
+    private LocalDate expiryDate;
+
+    private LocalDate renewalStartDate;
+
+    private Long rateBookId;
+
+    private String rateBookVersion;
+
+    private BigDecimal currentPremium;
+
+    private BigDecimal totalPremium;
+
+    private RenewalOfferStatus status;
+
+    // Referral, decline or failure reason
+    private String reason;
+
+    private String pricingSnapshot;
+}
@@ -0,0 +1,8 @@
+package com.isec.platform.modules.applications.domain.renewal;
+
+public enum RenewalOfferStatus {
+    OFFERED,
+    REFERRED,
+    DECLINED,
+    FAILED
+}
@@ -0,0 +1,53 @@
+package com.isec.platform.modules.applications.domain.renewal;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One night's renewal re-pricing of the policies expiring in {@code [windowFrom, windowUntil]}, with its checkpoint:
+ * policies are priced in ascending id order and {@code lastPolicyId} is the last one whose offer is stored.
+ */
+@Table("renewal_runs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RenewalRun {
+    @Id
+    private Long id;
+
+    private LocalDate runDate;
+
+    private LocalDate windowFrom;
+
+    private LocalDate windowUntil;
+
+    private Status status;
+
+    private long lastPolicyId;
+
+    private long offered;
+
+    private long referred;
+
+    private long declined;
+
+    private long failed;
+
+    private String lockedBy;
+
+    private LocalDateTime lockedUntil;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
+    public enum Status {
+        RUNNING, COMPLETED
+    }
+}
@@ -0,0 +1,20 @@
+package com.isec.platform.modules.applications.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of copying the quotes held in Redis into the quote store's Postgres records.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteStoreBackfillResult {
+    private long scanned;
+    private long copied;
+    private long alreadyStored;
+    private long failed;
+}
@@ -0,0 +1,27 @@
+package com.isec.platform.modules.applications.dto.motor;
+
+import com.isec.platform.modules.applications.dto.QuoteRequest;
+import com.isec.platform.modules.integrations.quote.provider.PartnerType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompareMotorPremiumRequest {
+    @Valid
+    @NotNull
+    private QuoteRequest.InsuranceDetails insuranceDetails;
+    @Valid
+    @NotNull
+    private QuoteRequest.VehicleDetails vehicleDetails;
+    // Every partner that calculates premiums if empty
+    private List<PartnerType> partners;
+}
@@ -0,0 +1,32 @@
+package com.isec.platform.modules.applications.dto.motor;
+
+import com.isec.platform.modules.applications.dto.QuoteRequest;
+import com.isec.platform.modules.integrations.quote.provider.PartnerType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetQuoteRequest {
+    @NotNull
+    private PartnerType partner;
+    // Applies to every vehicle of the fleet
+    @Valid
+    @NotNull
+    private QuoteRequest.InsuranceDetails insuranceDetails;
+    // The corporate client
+    @Valid
+    private QuoteRequest.KycDetails kycDetails;
+    // Validated per vehicle, so that one bad row does not reject the fleet
+    @NotEmpty
+    private List<QuoteRequest.VehicleDetails> vehicles;
+}
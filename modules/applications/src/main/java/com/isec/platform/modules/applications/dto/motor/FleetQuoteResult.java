@@ -0,0 +1,33 @@
+package com.isec.platform.modules.applications.dto.motor;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FleetQuoteResult {
+    private String fleetId;
+    // 1-based position of the vehicle in the submission
+    private int row;
+    private String licensePlateNumber;
+    // Absent for a vehicle rejected before a quote was created
+    private String quoteId;
+    private Outcome outcome;
+    private MotorQuoteResponse.PremiumInfo premium;
+    private String error;
+    // Vehicles finished so far, this one included, out of the fleet's total
+    private int completed;
+    private int total;
+
+    public enum Outcome {
+        PRICED,
+        FAILED,
+        INVALID
+    }
+}
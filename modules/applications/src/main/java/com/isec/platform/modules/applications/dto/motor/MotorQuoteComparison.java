@@ -0,0 +1,19 @@
+package com.isec.platform.modules.applications.dto.motor;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MotorQuoteComparison {
+    // Best first: quoted partners by gross premium, then those that failed or timed out
+    private List<PartnerPremiumQuote> quotes;
+    // Whether every partner has answered or timed out
+    private boolean complete;
+}
@@ -0,0 +1,29 @@
+package com.isec.platform.modules.applications.dto.motor;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.isec.platform.modules.integrations.quote.provider.PartnerType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PartnerPremiumQuote {
+    private PartnerType partner;
+    private Outcome outcome;
+    private MotorQuoteResponse.PremiumInfo premium;
+    private Long latencyMs;
+    // Answered by the second, hedged call to the partner
+    private boolean hedged;
+    private String message;
+
+    public enum Outcome {
+        QUOTED,
+        FAILED,
+        TIMED_OUT
+    }
+}
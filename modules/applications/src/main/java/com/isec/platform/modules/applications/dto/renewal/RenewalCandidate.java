@@ -0,0 +1,35 @@
+package com.isec.platform.modules.applications.dto.renewal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An expiring policy with what its renewal is priced from: the application it was issued for, the vehicle as
+ * currently recorded for the customer and the rules that priced it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RenewalCandidate {
+    private Long policyId;
+    private String tenantId;
+    private LocalDate expiryDate;
+    private BigDecimal currentPremium;
+
+    private Long applicationId;
+    private String vehicleMake;
+    private String vehicleModel;
+    private Integer yearOfManufacture;
+    private BigDecimal vehicleValue;
+
+    private List<Long> appliedRuleIds;
+    private Set<Long> addonRuleIds;
+}
@@ -20,6 +20,7 @@ import com.isec.platform.modules.integrations.premium.model.PremiumCalculationRe
 import com.isec.platform.modules.integrations.premium.model.PremiumCalculationResponse;
 import com.isec.platform.modules.integrations.premium.provider.PremiumProviderType;
 import com.isec.platform.modules.integrations.quote.model.*;
+import com.isec.platform.modules.integrations.quote.provider.PartnerType;
 import com.isec.platform.modules.integrations.quote.sanlam.service.SanlamTokenService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -69,10 +70,10 @@ public class MotorQuoteMapper {
     public void updateEntity(MotorQuoteApplication entity, CalculateMotorPremiumRequest request) {
         try {
             entity.setPartner(request.getPartner());
-            entity.setInsuranceDetails(objectMapper.writeValueAsString(request.getInsuranceDetails()));
-            entity.setVehicleDetails(objectMapper.writeValueAsString(request.getVehicleDetails()));
+            entity.setInsuranceDetails(write(entity, request.getInsuranceDetails()));
+            entity.setVehicleDetails(write(entity, request.getVehicleDetails()));
             if (request.getKycDetails() != null) {
-                entity.setKycDetails(objectMapper.writeValueAsString(request.getKycDetails()));
+                entity.setKycDetails(write(entity, request.getKycDetails()));
             }
         } catch (JsonProcessingException e) {
             throw new BusinessException("Failed to serialize request details");
@@ -82,7 +83,7 @@ public class MotorQuoteMapper {
     public void updateKycDetails(MotorQuoteApplication entity, QuoteRequest.KycDetails kycDetails) {
         if (kycDetails == null) return;
         try {
-            entity.setKycDetails(objectMapper.writeValueAsString(kycDetails));
+            entity.setKycDetails(write(entity, kycDetails));
         } catch (JsonProcessingException e) {
             throw new BusinessException("Failed to serialize KYC details");
         }
@@ -93,7 +94,7 @@ public class MotorQuoteMapper {
             return;
         }
 
-        QuoteRequest.KycDetails kyc = deserialize(app.getKycDetails(), QuoteRequest.KycDetails.class);
+        QuoteRequest.KycDetails kyc = deserialize(app, app.getKycDetails(), QuoteRequest.KycDetails.class);
         if (kyc == null) {
             return;
         }
@@ -134,11 +135,15 @@ public class MotorQuoteMapper {
     }
 
     public PremiumCalculationRequest toPremiumRequest(MotorQuoteApplication app) {
-        QuoteRequest.InsuranceDetails insurance = deserialize(app.getInsuranceDetails(), QuoteRequest.InsuranceDetails.class);
-        QuoteRequest.VehicleDetails vehicle = deserialize(app.getVehicleDetails(), QuoteRequest.VehicleDetails.class);
+        return toPremiumRequest(app.getPartner(),
+                deserialize(app, app.getInsuranceDetails(), QuoteRequest.InsuranceDetails.class),
+                deserialize(app, app.getVehicleDetails(), QuoteRequest.VehicleDetails.class));
+    }
 
+    public PremiumCalculationRequest toPremiumRequest(PartnerType partner, QuoteRequest.InsuranceDetails insurance,
+                                                      QuoteRequest.VehicleDetails vehicle) {
         PremiumCalculationRequest.PremiumCalculationRequestBuilder builder = PremiumCalculationRequest.builder()
-                .provider(PremiumProviderType.valueOf(app.getPartner().name()))
+                .provider(PremiumProviderType.valueOf(partner.name()))
                 .vehicleValue(vehicle.getValuationAmount())
                 .vehicleMake(vehicle.getMakeCode())
                 .vehicleModel(vehicle.getModelCode())
@@ -166,10 +171,10 @@ public class MotorQuoteMapper {
     }
 
     public Mono<DraftQuoteRequest> toDraftQuoteRequest(MotorQuoteApplication app) {
-        QuoteRequest.InsuranceDetails insurance = deserialize(app.getInsuranceDetails(), QuoteRequest.InsuranceDetails.class);
-        QuoteRequest.VehicleDetails vehicle = deserialize(app.getVehicleDetails(), QuoteRequest.VehicleDetails.class);
-        QuoteRequest.KycDetails kyc = deserialize(app.getKycDetails(), QuoteRequest.KycDetails.class);
-        PremiumCalculationResponse premium = deserialize(app.getPremiumResult(), PremiumCalculationResponse.class);
+        QuoteRequest.InsuranceDetails insurance = deserialize(app, app.getInsuranceDetails(), QuoteRequest.InsuranceDetails.class);
+        QuoteRequest.VehicleDetails vehicle = deserialize(app, app.getVehicleDetails(), QuoteRequest.VehicleDetails.class);
+        QuoteRequest.KycDetails kyc = deserialize(app, app.getKycDetails(), QuoteRequest.KycDetails.class);
+        PremiumCalculationResponse premium = deserialize(app, app.getPremiumResult(), PremiumCalculationResponse.class);
 
         if (kyc == null) {
             kyc = new QuoteRequest.KycDetails();
@@ -191,7 +196,7 @@ public class MotorQuoteMapper {
 
         QuoteDmvicCheck dmvicCheck = null;
         if (app.getDmvicCheckResult() != null) {
-            DoubleInsuranceCheckResponse check = deserialize(app.getDmvicCheckResult(), DoubleInsuranceCheckResponse.class);
+            DoubleInsuranceCheckResponse check = deserialize(app, app.getDmvicCheckResult(), DoubleInsuranceCheckResponse.class);
             dmvicCheck = QuoteDmvicCheck.builder()
                     .checkedAt(LocalDateTime.now()) // We don't have the original checkedAt, use now
                     .hasDoubleInsurance(check.isHasDuplicate())
@@ -256,7 +261,7 @@ public class MotorQuoteMapper {
                         .build());
 
         if (app.getDraftQuoteResult() != null) {
-            DraftQuoteResponse existingDraft = deserialize(app.getDraftQuoteResult(), DraftQuoteResponse.class);
+            DraftQuoteResponse existingDraft = deserialize(app, app.getDraftQuoteResult(), DraftQuoteResponse.class);
             if (existingDraft != null) {
                 builder.draftQuoteSysId(existingDraft.getDraftQuoteSysId());
                 builder.draftQuoteRef(existingDraft.getDraftQuoteRef());
@@ -276,37 +281,16 @@ public class MotorQuoteMapper {
                 .quoteId(app.getQuoteId())
                 .partner(app.getPartner())
                 .status(app.getStatus())
-                .insuranceDetails(deserialize(app.getInsuranceDetails(), QuoteRequest.InsuranceDetails.class))
-                .vehicleDetails(deserialize(app.getVehicleDetails(), QuoteRequest.VehicleDetails.class))
-                .kycDetails(deserialize(app.getKycDetails(), QuoteRequest.KycDetails.class));
+                .insuranceDetails(deserialize(app, app.getInsuranceDetails(), QuoteRequest.InsuranceDetails.class))
+                .vehicleDetails(deserialize(app, app.getVehicleDetails(), QuoteRequest.VehicleDetails.class))
+                .kycDetails(deserialize(app, app.getKycDetails(), QuoteRequest.KycDetails.class));
 
         if (app.getPremiumResult() != null) {
-            PremiumCalculationResponse premium = deserialize(app.getPremiumResult(), PremiumCalculationResponse.class);
-            BigDecimal annualPremium = premium.getGrossPremium();
-            BigDecimal monthlyPremium = null;
-            if (annualPremium != null) {
-                monthlyPremium = annualPremium.multiply(BigDecimal.valueOf(minPaymentPercentage)).setScale(2, RoundingMode.HALF_UP);
-            }
-
-            builder.premium(MotorQuoteResponse.PremiumInfo.builder()
-                    .basicPremium(premium.getBasicPremium())
-                    .benefitsTotal(premium.getBenefitsTotal())
-                    .netPremium(premium.getNetPremium())
-                    .levies(premium.getLevies())
-                    .stampDuty(premium.getStampDuty())
-                    .grossPremium(premium.getGrossPremium())
-                    .annualPremium(annualPremium)
-                    .monthlyPremium(monthlyPremium)
-                    .currency("KES")
-                    .rateSetUsed(premium.getRateSetUsed())
-                    .specialRateApplied(premium.isSpecialRateApplied())
-                    .benefitsBreakdown(premium.getBenefitsBreakdown())
-                    .grossPremiumBreakdown(premium.getGrossPremiumBreakdown())
-                    .build());
+            builder.premium(toPremiumInfo(deserialize(app, app.getPremiumResult(), PremiumCalculationResponse.class)));
         }
 
         if (app.getDraftQuoteResult() != null) {
-            DraftQuoteResponse draft = deserialize(app.getDraftQuoteResult(), DraftQuoteResponse.class);
+            DraftQuoteResponse draft = deserialize(app, app.getDraftQuoteResult(), DraftQuoteResponse.class);
             builder.draftQuote(MotorQuoteResponse.DraftQuoteInfo.builder()
                     .draftQuoteSysId(draft.getDraftQuoteSysId())
                     .draftQuoteRef(draft.getDraftQuoteRef())
@@ -315,56 +299,56 @@ public class MotorQuoteMapper {
         }
 
         if (app.getPaymentResult() != null) {
-            try {
-                // Try as MotorPaymentResult first (New structure)
-                MotorPaymentResult paymentResult = objectMapper.readValue(app.getPaymentResult(), MotorPaymentResult.class);
-                if (paymentResult.getPaymentMethod() != null) {
+            // Try as MotorPaymentResult first (New structure)
+            MotorPaymentResult paymentResult = deserialize(app, app.getPaymentResult(), MotorPaymentResult.class);
+            if (paymentResult != null && paymentResult.getPaymentMethod() != null) {
+                builder.payment(MotorQuoteResponse.PaymentInfo.builder()
+                        .checkoutId(paymentResult.getCheckoutId())
+                        .status(getMpesaPaymentStatus(paymentResult.getStatus()))
+                        .receiptNumber(paymentResult.getReceipt())
+                        .build());
+
+                if (paymentResult.getInstructions() != null && !paymentResult.getInstructions().isEmpty()) {
+                    builder.manualPayment(ManualPaymentInstructions.builder()
+                            .paymentMethod(PaymentMethod.MPESA_PAYBILL)
+                            .businessNumber(paymentResult.getBusinessNumber())
+                            .accountNumber(paymentResult.getAccountNumber())
+                            .amount(paymentResult.getAmount())
+                            .currency("KES") // Assuming KES for now
+                            .instructions(paymentResult.getInstructions())
+                            .build());
+                }
+            } else {
+                // Legacy structure support
+                // Try as Status response first
+                MpesaPaymentStatusResponse status = deserialize(app, app.getPaymentResult(), MpesaPaymentStatusResponse.class);
+                if (status != null && status.getCheckoutId() != null && status.getStatus() != null) {
                     builder.payment(MotorQuoteResponse.PaymentInfo.builder()
-                            .checkoutId(paymentResult.getCheckoutId())
-                            .status(getMpesaPaymentStatus(paymentResult.getStatus()))
-                            .receiptNumber(paymentResult.getReceipt())
+                            .checkoutId(status.getCheckoutId())
+                            .status(status.getStatus())
+                            .message(status.getMessage())
+                            .receiptNumber(status.getReceiptNumber())
                             .build());
-                    
-                    if (paymentResult.getInstructions() != null && !paymentResult.getInstructions().isEmpty()) {
-                        builder.manualPayment(ManualPaymentInstructions.builder()
-                                .paymentMethod(PaymentMethod.MPESA_PAYBILL)
-                                .businessNumber(paymentResult.getBusinessNumber())
-                                .accountNumber(paymentResult.getAccountNumber())
-                                .amount(paymentResult.getAmount())
-                                .currency("KES") // Assuming KES for now
-                                .instructions(paymentResult.getInstructions())
-                                .build());
-                    }
                 } else {
-                    // Legacy structure support
-                    // Try as Status response first
-                    MpesaPaymentStatusResponse status = objectMapper.readValue(app.getPaymentResult(), MpesaPaymentStatusResponse.class);
-                    if (status.getCheckoutId() != null && status.getStatus() != null) {
-                        builder.payment(MotorQuoteResponse.PaymentInfo.builder()
-                                .checkoutId(status.getCheckoutId())
-                                .status(status.getStatus())
-                                .message(status.getMessage())
-                                .receiptNumber(status.getReceiptNumber())
-                                .build());
-                    } else {
-                        // Try as Initiation response
-                        MpesaInitiatePaymentResponse init = objectMapper.readValue(app.getPaymentResult(), MpesaInitiatePaymentResponse.class);
+                    // Try as Initiation response
+                    MpesaInitiatePaymentResponse init = deserialize(app, app.getPaymentResult(), MpesaInitiatePaymentResponse.class);
+                    if (init != null) {
                         builder.payment(MotorQuoteResponse.PaymentInfo.builder()
                                 .checkoutId(init.getCheckoutId())
                                 .status(init.getStatus())
                                 .message(init.getMessage())
                                 .build());
+                    } else {
+                        log.warn("Failed to map payment result for quoteId: {}", app.getQuoteId());
                     }
                 }
-            } catch (Exception e) {
-                log.warn("Failed to map payment result for quoteId: {}. Error: {}", app.getQuoteId(), e.getMessage());
             }
         }
 
         builder.defaultPaymentMethod(PaymentMethod.MPESA_STK);
 
         if (app.getPolicyIssuanceResult() != null) {
-            PolicyIssuanceResult policy = deserialize(app.getPolicyIssuanceResult(), PolicyIssuanceResult.class);
+            PolicyIssuanceResult policy = deserialize(app, app.getPolicyIssuanceResult(), PolicyIssuanceResult.class);
             if (policy != null) {
                 builder.policy(MotorQuoteResponse.PolicyInfo.builder()
                         .policyReference(policy.getPolicyReference())
@@ -381,6 +365,30 @@ public class MotorQuoteMapper {
         return builder.build();
     }
 
+    public MotorQuoteResponse.PremiumInfo toPremiumInfo(PremiumCalculationResponse premium) {
+        BigDecimal annualPremium = premium.getGrossPremium();
+        BigDecimal monthlyPremium = null;
+        if (annualPremium != null) {
+            monthlyPremium = annualPremium.multiply(BigDecimal.valueOf(minPaymentPercentage)).setScale(2, RoundingMode.HALF_UP);
+        }
+
+        return MotorQuoteResponse.PremiumInfo.builder()
+                .basicPremium(premium.getBasicPremium())
+                .benefitsTotal(premium.getBenefitsTotal())
+                .netPremium(premium.getNetPremium())
+                .levies(premium.getLevies())
+                .stampDuty(premium.getStampDuty())
+                .grossPremium(premium.getGrossPremium())
+                .annualPremium(annualPremium)
+                .monthlyPremium(monthlyPremium)
+                .currency("KES")
+                .rateSetUsed(premium.getRateSetUsed())
+                .specialRateApplied(premium.isSpecialRateApplied())
+                .benefitsBreakdown(premium.getBenefitsBreakdown())
+                .grossPremiumBreakdown(premium.getGrossPremiumBreakdown())
+                .build();
+    }
+
     private List<String> deriveNextActions(MotorQuoteStatus status) {
         List<String> actions = new ArrayList<>();
         switch (status) {
@@ -425,6 +433,17 @@ public class MotorQuoteMapper {
         }
     }
 
+    /**
+     * A JSON column of the application, parsed once per value; the result is shared and must not be modified.
+     */
+    public <T> T deserialize(MotorQuoteApplication app, String json, Class<T> clazz) {
+        return app.json().read(json, clazz, objectMapper);
+    }
+
+    private String write(MotorQuoteApplication app, Object value) throws JsonProcessingException {
+        return app.json().remember(objectMapper.writeValueAsString(value), value);
+    }
+
     public <T> T deserialize(String json, Class<T> clazz) {
         if (json == null) return null;
         try {
@@ -0,0 +1,97 @@
+package com.isec.platform.modules.applications.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Plain SQL over {@code quote_records}, the system of record of the quote store: an append-only table partitioned by
+ * month of {@code created_at}, whose partitions are created ahead and dropped once all their records expired.
+ */
+@Repository
+@RequiredArgsConstructor
+public class QuoteRecordRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public record QuoteRecord(String payload, LocalDateTime expiresAt) {
+    }
+
+    public Mono<Void> insert(String kind, String quoteId, String tenantId, String payload,
+                             LocalDateTime createdAt, LocalDateTime expiresAt) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("INSERT INTO quote_records " +
+                        "(quote_id, kind, tenant_id, payload, created_at, expires_at) " +
+                        "VALUES (:quoteId, :kind, :tenantId, CAST(:payload AS JSONB), :createdAt, :expiresAt) " +
+                        "ON CONFLICT DO NOTHING")
+                .bind("quoteId", quoteId)
+                .bind("kind", kind)
+                .bind("payload", payload)
+                .bind("createdAt", createdAt)
+                .bind("expiresAt", expiresAt);
+        spec = tenantId != null ? spec.bind("tenantId", tenantId) : spec.bindNull("tenantId", String.class);
+        return spec.fetch().rowsUpdated().then();
+    }
+
+    /**
+     * The latest record of the quote, unless it expired.
+     */
+    public Mono<QuoteRecord> findLatest(String kind, String quoteId, LocalDateTime now) {
+        return databaseClient.sql("SELECT payload::text AS payload, expires_at FROM quote_records " +
+                        "WHERE quote_id = :quoteId AND kind = :kind AND expires_at > :now " +
+                        "ORDER BY created_at DESC LIMIT 1")
+                .bind("quoteId", quoteId)
+                .bind("kind", kind)
+                .bind("now", now)
+                .map((row, metadata) -> new QuoteRecord(row.get("payload", String.class),
+                        row.get("expires_at", LocalDateTime.class)))
+                .one();
+    }
+
+    public Mono<Void> createPartition(String name, LocalDate from, LocalDate until) {
+        return databaseClient.sql("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF quote_records " +
+                        "FOR VALUES FROM ('" + from + "') TO ('" + until + "')")
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    public Flux<String> findPartitionNames() {
+        return databaseClient.sql("SELECT c.relname AS name FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'quote_records'::regclass")
+                .map((row, metadata) -> row.get("name", String.class))
+                .all();
+    }
+
+    public Mono<Void> dropPartition(String name) {
+        return databaseClient.sql("DROP TABLE IF EXISTS " + name)
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    /**
+     * Removes expired records from the default partition, which only holds records written while their month's
+     * partition was missing and is never dropped.
+     */
+    public Mono<Long> deleteExpiredFromDefault(LocalDateTime now) {
+        return databaseClient.sql("DELETE FROM quote_records_default WHERE expires_at <= :now")
+                .bind("now", now)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Bytes used on disk by all partitions, including indexes and TOAST.
+     */
+    public Mono<Long> totalSizeBytes() {
+        return databaseClient.sql("SELECT COALESCE(SUM(pg_total_relation_size(i.inhrelid)), 0)::bigint AS size " +
+                        "FROM pg_inherits i WHERE i.inhparent = 'quote_records'::regclass")
+                .map((row, metadata) -> row.get("size", Long.class))
+                .one();
+    }
+}
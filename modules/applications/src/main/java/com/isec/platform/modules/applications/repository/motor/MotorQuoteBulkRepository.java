@@ -0,0 +1,69 @@
+package com.isec.platform.modules.applications.repository.motor;
+
+import com.isec.platform.modules.applications.domain.motor.MotorQuoteApplication;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Plain SQL for writing many motor quotes at once, e.g. a fleet submission, where saving them one by one would take a
+ * round trip per quote.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MotorQuoteBulkRepository {
+
+    private static final String INSERT_QUOTE = "INSERT INTO motor_quote_applications (quote_id, partner, status, " +
+            "insurance_details, vehicle_details, kyc_details, tenant_id, created_at, updated_at, version) " +
+            "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $8, 0)";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Writes new quotes in one batched statement; they are then found by quote id like any other and updated with
+     * their version starting at 0.
+     */
+    public Mono<Long> insertAll(List<MotorQuoteApplication> quotes) {
+        if (quotes.isEmpty()) {
+            return Mono.just(0L);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(INSERT_QUOTE);
+                    for (int i = 0; i < quotes.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        bindQuote(statement, quotes.get(i), now);
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                })
+                .reduce(0L, Long::sum);
+    }
+
+    private static void bindQuote(Statement statement, MotorQuoteApplication quote, LocalDateTime now) {
+        statement.bind(0, quote.getQuoteId());
+        statement.bind(1, quote.getPartner().name());
+        statement.bind(2, quote.getStatus().name());
+        bind(statement, 3, quote.getInsuranceDetails(), String.class);
+        bind(statement, 4, quote.getVehicleDetails(), String.class);
+        bind(statement, 5, quote.getKycDetails(), String.class);
+        bind(statement, 6, quote.getTenantId(), String.class);
+        statement.bind(7, now);
+    }
+
+    private static void bind(Statement statement, int index, Object value, Class<?> type) {
+        if (value == null) {
+            statement.bindNull(index, type);
+        } else {
+            statement.bind(index, value);
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package com.isec.platform.modules.applications.repository.motor;
 
 import com.isec.platform.modules.applications.domain.motor.MotorQuoteApplication;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 @Repository
 public interface MotorQuoteRepository extends ReactiveCrudRepository<MotorQuoteApplication, Long> {
     Mono<MotorQuoteApplication> findByQuoteId(String quoteId);
+
+    /**
+     * The next page of quotes whose payment is awaiting confirmation and that changed after {@code updatedAfter}, by
+     * ascending id after {@code afterId}.
+     */
+    @Query("SELECT * FROM motor_quote_applications WHERE status IN ('PAYMENT_INITIATED', 'PAYMENT_PENDING') " +
+            "AND updated_at > :updatedAfter AND id > :afterId ORDER BY id LIMIT :limit")
+    Flux<MotorQuoteApplication> findPendingPayments(LocalDateTime updatedAfter, long afterId, int limit);
 }
@@ -0,0 +1,241 @@
+package com.isec.platform.modules.applications.repository.renewal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.modules.applications.domain.renewal.RenewalOffer;
+import com.isec.platform.modules.applications.domain.renewal.RenewalRun;
+import com.isec.platform.modules.applications.dto.renewal.RenewalCandidate;
+import com.isec.platform.modules.rating.dto.AddonBreakdown;
+import com.isec.platform.modules.rating.dto.PricingResult;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Plain SQL for renewal re-pricing: it pages over policies joined with their applications and vehicles, writes
+ * offers in bulk and keeps each run's checkpoint and lease.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class RenewalRepository {
+
+    private static final String INSERT_OFFER = "INSERT INTO renewal_offers (tenant_id, policy_id, application_id, run_id, " +
+            "expiry_date, renewal_start_date, rate_book_id, rate_book_version, current_premium, total_premium, status, reason, " +
+            "pricing_snapshot, created_at, updated_at, version) " +
+            "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12, $13, $14, $15, 0) " +
+            // Only a failed attempt is replaced
+            "ON CONFLICT (policy_id, expiry_date) DO UPDATE SET run_id = EXCLUDED.run_id, " +
+            "renewal_start_date = EXCLUDED.renewal_start_date, rate_book_id = EXCLUDED.rate_book_id, " +
+            "rate_book_version = EXCLUDED.rate_book_version, current_premium = EXCLUDED.current_premium, " +
+            "total_premium = EXCLUDED.total_premium, status = EXCLUDED.status, reason = EXCLUDED.reason, " +
+            "pricing_snapshot = EXCLUDED.pricing_snapshot, updated_at = EXCLUDED.updated_at, version = renewal_offers.version + 1 " +
+            "WHERE renewal_offers.status = 'FAILED'";
+
+    private final DatabaseClient databaseClient;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Starts the run for {@code runDate} unless it exists, then takes its lease if the run is unfinished and nobody
+     * holds the lease, e.g. after the previous holder crashed. Empty if the run is completed or leased elsewhere.
+     */
+    public Mono<RenewalRun> claim(LocalDate runDate, LocalDate windowFrom, LocalDate windowUntil, String owner,
+                                  LocalDateTime now, LocalDateTime leaseUntil) {
+        Mono<Long> start = databaseClient.sql("INSERT INTO renewal_runs (run_date, window_from, window_until, status, " +
+                        "last_policy_id, offered, referred, declined, failed, started_at, updated_at) " +
+                        "VALUES (:runDate, :windowFrom, :windowUntil, 'RUNNING', 0, 0, 0, 0, 0, :now, :now) " +
+                        "ON CONFLICT (run_date) DO NOTHING")
+                .bind("runDate", runDate)
+                .bind("windowFrom", windowFrom)
+                .bind("windowUntil", windowUntil)
+                .bind("now", now)
+                .fetch()
+                .rowsUpdated();
+        Mono<RenewalRun> lease = databaseClient.sql("UPDATE renewal_runs SET locked_by = :owner, locked_until = :leaseUntil, " +
+                        "updated_at = :now WHERE run_date = :runDate AND status = 'RUNNING' " +
+                        "AND (locked_until IS NULL OR locked_until < :now) RETURNING *")
+                .bind("owner", owner)
+                .bind("leaseUntil", leaseUntil)
+                .bind("now", now)
+                .bind("runDate", runDate)
+                .map(RenewalRepository::toRun)
+                .one();
+        return start.then(lease);
+    }
+
+    /**
+     * The next {@code limit} active policies expiring in the window after {@code afterPolicyId}, in id order,
+     * skipping those that already have an offer for that expiry other than a failed one.
+     */
+    public Flux<RenewalCandidate> findCandidates(LocalDate windowFrom, LocalDate windowUntil, long afterPolicyId, int limit) {
+        return databaseClient.sql("SELECT p.id AS policy_id, COALESCE(p.tenant_id, a.tenant_id) AS tenant_id, p.expiry_date, " +
+                        "p.total_annual_premium, a.id AS application_id, " +
+                        "COALESCE(uv.vehicle_make, a.vehicle_make) AS vehicle_make, " +
+                        "COALESCE(uv.vehicle_model, a.vehicle_model) AS vehicle_model, " +
+                        "COALESCE(uv.year_of_manufacture, a.year_of_manufacture) AS year_of_manufacture, " +
+                        "COALESCE(uv.vehicle_value, a.vehicle_value) AS vehicle_value, a.pricing_snapshot " +
+                        "FROM policies p JOIN applications a ON a.id = p.application_id " +
+                        "LEFT JOIN user_vehicles uv ON uv.user_id = a.user_id AND uv.registration_number = a.registration_number " +
+                        "WHERE p.is_active = TRUE AND p.expiry_date >= :windowFrom AND p.expiry_date <= :windowUntil " +
+                        "AND p.id > :after AND NOT EXISTS (SELECT 1 FROM renewal_offers o WHERE o.policy_id = p.id " +
+                        "AND o.expiry_date = p.expiry_date AND o.status <> 'FAILED') " +
+                        "ORDER BY p.id LIMIT :limit")
+                .bind("windowFrom", windowFrom)
+                .bind("windowUntil", windowUntil)
+                .bind("after", afterPolicyId)
+                .bind("limit", limit)
+                .map(this::toCandidate)
+                .all();
+    }
+
+    /**
+     * Writes the offers in one batched statement.
+     */
+    public Mono<Long> insertOffers(List<RenewalOffer> offers) {
+        if (offers.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(INSERT_OFFER);
+                    for (int i = 0; i < offers.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        bindOffer(statement, offers.get(i));
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                })
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Moves the run's checkpoint past a stored page and extends the lease.
+     *
+     * @throws IllegalStateException if the lease was lost to another node meanwhile
+     */
+    public Mono<Void> advance(RenewalRun run, String owner, LocalDateTime now, LocalDateTime leaseUntil) {
+        return databaseClient.sql("UPDATE renewal_runs SET last_policy_id = :lastPolicyId, offered = :offered, " +
+                        "referred = :referred, declined = :declined, failed = :failed, locked_until = :leaseUntil, " +
+                        "updated_at = :now WHERE id = :id AND locked_by = :owner AND status = 'RUNNING'")
+                .bind("lastPolicyId", run.getLastPolicyId())
+                .bind("offered", run.getOffered())
+                .bind("referred", run.getReferred())
+                .bind("declined", run.getDeclined())
+                .bind("failed", run.getFailed())
+                .bind("leaseUntil", leaseUntil)
+                .bind("now", now)
+                .bind("id", run.getId())
+                .bind("owner", owner)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated == 1 ? Mono.<Void>empty()
+                        : Mono.error(new IllegalStateException("Lost the lease of renewal run " + run.getRunDate())));
+    }
+
+    public Mono<Void> complete(RenewalRun run, String owner, LocalDateTime now) {
+        return databaseClient.sql("UPDATE renewal_runs SET status = 'COMPLETED', completed_at = :now, updated_at = :now, " +
+                        "locked_by = NULL, locked_until = NULL WHERE id = :id AND locked_by = :owner")
+                .bind("now", now)
+                .bind("id", run.getId())
+                .bind("owner", owner)
+                .then();
+    }
+
+    static RenewalRun toRun(Readable row) {
+        return RenewalRun.builder()
+                .id(row.get("id", Long.class))
+                .runDate(row.get("run_date", LocalDate.class))
+                .windowFrom(row.get("window_from", LocalDate.class))
+                .windowUntil(row.get("window_until", LocalDate.class))
+                .status(RenewalRun.Status.valueOf(row.get("status", String.class)))
+                .lastPolicyId(count(row, "last_policy_id"))
+                .offered(count(row, "offered"))
+                .referred(count(row, "referred"))
+                .declined(count(row, "declined"))
+                .failed(count(row, "failed"))
+                .lockedBy(row.get("locked_by", String.class))
+                .lockedUntil(row.get("locked_until", LocalDateTime.class))
+                .startedAt(row.get("started_at", LocalDateTime.class))
+                .completedAt(row.get("completed_at", LocalDateTime.class))
+                .build();
+    }
+
+    RenewalCandidate toCandidate(Readable row) {
+        Long policyId = row.get("policy_id", Long.class);
+        PricingResult pricing = readPricing(row.get("pricing_snapshot", String.class), policyId);
+        Set<Long> addonRuleIds = pricing == null || pricing.getAddons() == null ? Set.of() : pricing.getAddons().stream()
+                .map(AddonBreakdown::getRuleId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return RenewalCandidate.builder()
+                .policyId(policyId)
+                .tenantId(row.get("tenant_id", String.class))
+                .expiryDate(row.get("expiry_date", LocalDate.class))
+                .currentPremium(row.get("total_annual_premium", BigDecimal.class))
+                .applicationId(row.get("application_id", Long.class))
+                .vehicleMake(row.get("vehicle_make", String.class))
+                .vehicleModel(row.get("vehicle_model", String.class))
+                .yearOfManufacture(row.get("year_of_manufacture", Integer.class))
+                .vehicleValue(row.get("vehicle_value", BigDecimal.class))
+                .appliedRuleIds(pricing == null || pricing.getAppliedRuleIds() == null ? List.of() : pricing.getAppliedRuleIds())
+                .addonRuleIds(addonRuleIds)
+                .build();
+    }
+
+    private PricingResult readPricing(String json, Long policyId) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, PricingResult.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable pricing snapshot of the application of policy {}: {}", policyId, e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    private static void bindOffer(Statement statement, RenewalOffer offer) {
+        bind(statement, 0, offer.getTenantId(), String.class);
+        bind(statement, 1, offer.getPolicyId(), Long.class);
+        bind(statement, 2, offer.getApplicationId(), Long.class);
+        bind(statement, 3, offer.getRunId(), Long.class);
+        bind(statement, 4, offer.getExpiryDate(), LocalDate.class);
+        bind(statement, 5, offer.getRenewalStartDate(), LocalDate.class);
+        bind(statement, 6, offer.getRateBookId(), Long.class);
+        bind(statement, 7, offer.getRateBookVersion(), String.class);
+        bind(statement, 8, offer.getCurrentPremium(), BigDecimal.class);
+        bind(statement, 9, offer.getTotalPremium(), BigDecimal.class);
+        bind(statement, 10, offer.getStatus().name(), String.class);
+        bind(statement, 11, offer.getReason(), String.class);
+        bind(statement, 12, offer.getPricingSnapshot(), String.class);
+        bind(statement, 13, offer.getCreatedAt(), LocalDateTime.class);
+        bind(statement, 14, offer.getUpdatedAt(), LocalDateTime.class);
+    }
+
+    private static void bind(Statement statement, int index, Object value, Class<?> type) {
+        if (value == null) {
+            statement.bindNull(index, type);
+        } else {
+            statement.bind(index, value);
+        }
+    }
+
+    private static long count(Readable row, String column) {
+        Long value = row.get(column, Long.class);
+        return value != null ? value : 0L;
+    }
+}
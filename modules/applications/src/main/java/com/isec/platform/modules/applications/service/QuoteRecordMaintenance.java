@@ -0,0 +1,91 @@
+package com.isec.platform.modules.applications.service;
+
+import com.isec.platform.modules.applications.repository.QuoteRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of {@code quote_records}: on startup and every
+ * {@code quote.store.maintenance-interval-ms} it purges expired records from the default partition, creates the
+ * partitions of this month and the next and drops those whose month ended more than
+ * {@code quote.store.retention-days} ago. Each step runs even if another failed. Every node runs it; all statements
+ * are idempotent.
+ * <p>
+ * Retention must be at least the longest quote lifetime, 30 days, since a partition is dropped with whatever it holds.
+ * The default partition only receives records while their month's partition is missing; Postgres refuses to create
+ * a partition over records already in the default one, so this is logged until they expired and were purged, which is
+ * why the purge comes first.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuoteRecordMaintenance {
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern PARTITION = Pattern.compile("quote_records_p(\\d{6})");
+
+    private final QuoteRecordRepository repository;
+
+    @Value("${quote.store.retention-days:31}")
+    private long retentionDays = 31;
+
+    @Scheduled(fixedDelayString = "${quote.store.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        run(LocalDate.now()).subscribe(
+                null,
+                e -> log.error("Quote records maintenance failed", e)
+        );
+    }
+
+    Mono<Void> run(LocalDate today) {
+        Mono<Void> purge = repository.deleteExpiredFromDefault(today.atStartOfDay())
+                .doOnNext(deleted -> {
+                    if (deleted > 0) {
+                        log.info("Purged {} expired quote records from the default partition", deleted);
+                    }
+                })
+                .then();
+        YearMonth month = YearMonth.from(today);
+        Mono<Void> create = Flux.just(month, month.plusMonths(1))
+                // Next month's partition is still created when this month's is blocked
+                .concatMap(m -> step("create partition " + partitionName(m),
+                        repository.createPartition(partitionName(m), m.atDay(1), m.plusMonths(1).atDay(1))))
+                .then();
+        LocalDate keepAfter = today.minusDays(retentionDays);
+        Mono<Void> drop = repository.findPartitionNames()
+                .filter(name -> {
+                    Matcher matcher = PARTITION.matcher(name);
+                    return matcher.matches()
+                            && !YearMonth.parse(matcher.group(1), MONTH).plusMonths(1).atDay(1).isAfter(keepAfter);
+                })
+                .concatMap(name -> repository.dropPartition(name)
+                        .doOnSuccess(v -> log.info("Dropped expired quote records partition {}", name)))
+                .then();
+        return step("purge the default partition", purge)
+                .then(create)
+                .then(step("drop expired partitions", drop));
+    }
+
+    private static Mono<Void> step(String name, Mono<Void> step) {
+        return Mono.defer(() -> step)
+                .onErrorResume(e -> {
+                    log.error("Quote records maintenance failed to {}: {}", name, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    static String partitionName(YearMonth month) {
+        return "quote_records_p" + month.format(MONTH);
+    }
+}
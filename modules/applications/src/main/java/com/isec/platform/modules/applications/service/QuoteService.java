@@ -21,7 +21,6 @@ import com.isec.platform.common.security.SecurityContextService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
@@ -37,7 +36,7 @@ public class QuoteService {
 
     private final PricingEngine pricingEngine;
     private final RateBookSnapshotLoader rateBookSnapshotLoader;
-    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final QuoteStore quoteStore;
     private final ApplicationDocumentService documentService;
     private final CustomerService customerService;
     private final UserVehicleService userVehicleService;
@@ -75,10 +74,9 @@ public class QuoteService {
                                         .doubleInsuranceCheck(doubleInsuranceCheck)
                                         .build();
 
-                                log.info("Caching initiated quote {} for {} minutes", quoteId, quoteCacheDurationMinutes);
-                                return redisTemplate.opsForValue()
-                                        .set("quote_init:" + quoteId, response, Duration.ofMinutes(quoteCacheDurationMinutes))
-                                        .thenReturn(response);
+                                log.info("Storing initiated quote {} for {} minutes", quoteId, quoteCacheDurationMinutes);
+                                return quoteStore.save(QuoteStore.Kind.INITIATED, quoteId, tenantId, response,
+                                        Duration.ofMinutes(quoteCacheDurationMinutes));
                             });
                     });
             });
@@ -127,13 +125,14 @@ public class QuoteService {
                 String quoteId = request.getQuoteId();
                 log.info("Calculating quote for tenant: {}, quoteId: {}", tenantId, quoteId);
 
-                return redisTemplate.opsForValue().get("quote_init:" + quoteId)
+                return Mono.justOrEmpty(quoteId)
+                        .flatMap(id -> quoteStore.get(QuoteStore.Kind.INITIATED, id, InitiateQuoteResponse.class))
                         .map(Optional::of)
                         .defaultIfEmpty(Optional.empty())
                         .flatMap(cachedInitOpt -> {
                             Object cachedInit = cachedInitOpt.orElse(null);
                             if (quoteId != null && cachedInit == null) {
-                                log.warn("Quote ID {} not found in cache or expired", quoteId);
+                                log.warn("Quote ID {} not found or expired", quoteId);
                             }
 
                             QuoteRequest.InsuranceDetails insurance = request.getInsuranceDetails();
@@ -206,22 +205,19 @@ public class QuoteService {
                                                             });
                                                 }
 
-                                                return kycTask.then(redisTemplate.opsForValue()
-                                                                .set("quote_v2:" + response.getQuoteId(), response, Duration.ofDays(30))
-                                                                .doOnSuccess(v -> log.info("Cached quote {} for application conversion", response.getQuoteId()))
-                                                                .thenReturn(response));
+                                                return kycTask.then(quoteStore.save(QuoteStore.Kind.CALCULATED,
+                                                                response.getQuoteId(), tenantId, response, Duration.ofDays(30))
+                                                        .doOnSuccess(v -> log.info("Stored quote {} for application conversion", response.getQuoteId())));
                                             }));
                         });
             });
     }
 
     public Mono<QuoteResponse> getQuote(String quoteId) {
-        return redisTemplate.opsForValue().get("quote_v2:" + quoteId)
-                .map(obj -> (QuoteResponse) obj);
+        return quoteStore.get(QuoteStore.Kind.CALCULATED, quoteId, QuoteResponse.class);
     }
 
     public Mono<InitiateQuoteResponse> getInitiatedQuote(String quoteId) {
-        return redisTemplate.opsForValue().get("quote_init:" + quoteId)
-                .map(obj -> (InitiateQuoteResponse) obj);
+        return quoteStore.get(QuoteStore.Kind.INITIATED, quoteId, InitiateQuoteResponse.class);
     }
 }
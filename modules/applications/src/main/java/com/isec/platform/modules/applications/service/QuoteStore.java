@@ -0,0 +1,117 @@
+package com.isec.platform.modules.applications.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.modules.applications.repository.QuoteRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Quote state that must outlive a request: initiated quotes, read back when the premium is calculated, and calculated
+ * quotes, read back when they are converted into an application.
+ * <p>
+ * Postgres is the system of record: every quote is stored as JSONB in {@code quote_records}, a table partitioned by
+ * month whose partitions are dropped once their quotes expired; see {@link QuoteRecordMaintenance}. Redis only holds
+ * quotes for at most {@code quote.store.hot-ttl-minutes}, under the same {@code quote_init:} and {@code quote_v2:}
+ * keys as before, and is filled again from Postgres when a quote is read after that. Redis memory therefore follows
+ * the quotes in use rather than all quotes issued in their lifetime, and a quote evicted from Redis is not lost.
+ * Redis failures are logged and fall back to Postgres.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuoteStore {
+
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final QuoteRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final QuoteStoreMetrics metrics;
+
+    @Value("${quote.store.hot-ttl-minutes:15}")
+    private long hotTtlMinutes = 15;
+
+    public enum Kind {
+        INITIATED("quote_init:"),
+        CALCULATED("quote_v2:");
+
+        private final String keyPrefix;
+
+        Kind(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+
+        public String key(String quoteId) {
+            return keyPrefix + quoteId;
+        }
+
+        public String keyPattern() {
+            return keyPrefix + "*";
+        }
+
+        public String quoteId(String key) {
+            return key.substring(keyPrefix.length());
+        }
+    }
+
+    /**
+     * Stores the quote until {@code ttl} from now. Completes once it is in Postgres; caching it in Redis is best
+     * effort.
+     */
+    public <T> Mono<T> save(Kind kind, String quoteId, String tenantId, T value, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(value))
+                .flatMap(payload -> repository.insert(kind.name(), quoteId, tenantId, payload, now, now.plus(ttl)))
+                .then(Mono.defer(() -> cache(kind, quoteId, value, ttl)))
+                .doOnSuccess(v -> metrics.write(kind))
+                .thenReturn(value);
+    }
+
+    public <T> Mono<T> get(Kind kind, String quoteId, Class<T> type) {
+        return redisTemplate.opsForValue().get(kind.key(quoteId))
+                .onErrorResume(e -> {
+                    log.warn("Failed to read quote {} from Redis, reading it from Postgres: {}",
+                            kind.key(quoteId), e.getMessage());
+                    return Mono.empty();
+                })
+                .map(type::cast)
+                .doOnNext(value -> metrics.read(kind, QuoteStoreMetrics.Tier.REDIS))
+                .switchIfEmpty(Mono.defer(() -> load(kind, quoteId, type)));
+    }
+
+    private <T> Mono<T> load(Kind kind, String quoteId, Class<T> type) {
+        LocalDateTime now = LocalDateTime.now();
+        return repository.findLatest(kind.name(), quoteId, now)
+                .flatMap(record -> Mono.fromCallable(() -> objectMapper.readValue(record.payload(), type))
+                        .flatMap(value -> cache(kind, quoteId, value, Duration.between(now, record.expiresAt()))
+                                .thenReturn(value)))
+                .doOnNext(value -> metrics.read(kind, QuoteStoreMetrics.Tier.POSTGRES))
+                .switchIfEmpty(Mono.<T>fromRunnable(() -> metrics.read(kind, QuoteStoreMetrics.Tier.MISS)));
+    }
+
+    /**
+     * Caches the quote in Redis for the hot TTL, or less if it expires sooner.
+     */
+    Mono<Void> cache(Kind kind, String quoteId, Object value, Duration ttl) {
+        Duration hotTtl = hotTtl(ttl);
+        if (hotTtl.isZero() || hotTtl.isNegative()) {
+            return Mono.empty();
+        }
+        return redisTemplate.opsForValue().set(kind.key(quoteId), value, hotTtl)
+                .onErrorResume(e -> {
+                    log.warn("Failed to cache quote {} in Redis: {}", kind.key(quoteId), e.getMessage());
+                    return Mono.just(false);
+                })
+                .then();
+    }
+
+    Duration hotTtl(Duration ttl) {
+        Duration hot = Duration.ofMinutes(hotTtlMinutes);
+        return ttl.compareTo(hot) < 0 ? ttl : hot;
+    }
+}
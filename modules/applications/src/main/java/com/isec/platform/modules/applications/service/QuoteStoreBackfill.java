@@ -0,0 +1,97 @@
+package com.isec.platform.modules.applications.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.modules.applications.dto.QuoteResponse;
+import com.isec.platform.modules.applications.dto.QuoteStoreBackfillResult;
+import com.isec.platform.modules.applications.repository.QuoteRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Moves the quotes cached in Redis before the {@link QuoteStore} existed into Postgres (admin
+ * {@code POST /api/v1/admin/quote-store/backfill}).
+ * <p>
+ * Every {@code quote_init:} and {@code quote_v2:} key is scanned; a quote without a record yet is stored until its
+ * key would have expired, and its key's TTL is then cut to the hot TTL, so that Redis lets go of old quotes over the
+ * next minutes instead of the next 30 days. Quotes already stored are left alone, so the backfill can be re-run, e.g.
+ * after a failure, and is safe while the application serves quotes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuoteStoreBackfill {
+
+    // Keys without a TTL are kept as long as a calculated quote
+    private static final Duration NO_TTL_LIFETIME = Duration.ofDays(30);
+
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final QuoteRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final QuoteStore quoteStore;
+
+    @Value("${quote.store.backfill-concurrency:8}")
+    private int concurrency = 8;
+
+    enum Outcome {
+        COPIED, ALREADY_STORED, FAILED
+    }
+
+    public Mono<QuoteStoreBackfillResult> backfill() {
+        return Flux.fromArray(QuoteStore.Kind.values())
+                .concatMap(kind -> redisTemplate.scan(ScanOptions.scanOptions().match(kind.keyPattern()).count(500).build())
+                        .flatMap(key -> copy(kind, key), concurrency))
+                .collect(() -> new EnumMap<Outcome, Long>(Outcome.class),
+                        (counts, outcome) -> counts.merge(outcome, 1L, Long::sum))
+                .map(QuoteStoreBackfill::result)
+                .doOnNext(result -> log.info("Quote store backfill finished: {}", result));
+    }
+
+    Mono<Outcome> copy(QuoteStore.Kind kind, String key) {
+        String quoteId = kind.quoteId(key);
+        LocalDateTime now = LocalDateTime.now();
+        return Mono.zip(redisTemplate.opsForValue().get(key), redisTemplate.getExpire(key).defaultIfEmpty(Duration.ZERO))
+                .flatMap(entry -> {
+                    Object value = entry.getT1();
+                    Duration ttl = entry.getT2().isZero() || entry.getT2().isNegative() ? NO_TTL_LIFETIME : entry.getT2();
+                    Mono<Outcome> store = repository.findLatest(kind.name(), quoteId, now)
+                            .map(existing -> Outcome.ALREADY_STORED)
+                            .switchIfEmpty(Mono.defer(() -> Mono.fromCallable(() -> objectMapper.writeValueAsString(value))
+                                    .flatMap(payload -> repository.insert(kind.name(), quoteId, tenantId(value),
+                                            payload, now, now.plus(ttl)))
+                                    .thenReturn(Outcome.COPIED)));
+                    return store.flatMap(outcome -> redisTemplate.expire(key, quoteStore.hotTtl(ttl))
+                            .thenReturn(outcome));
+                })
+                .onErrorResume(e -> {
+                    log.warn("Failed to backfill quote {}: {}", key, e.getMessage());
+                    return Mono.just(Outcome.FAILED);
+                });
+    }
+
+    private static String tenantId(Object value) {
+        return value instanceof QuoteResponse quote ? quote.getTenantId() : null;
+    }
+
+    private static QuoteStoreBackfillResult result(Map<Outcome, Long> counts) {
+        long copied = counts.getOrDefault(Outcome.COPIED, 0L);
+        long alreadyStored = counts.getOrDefault(Outcome.ALREADY_STORED, 0L);
+        long failed = counts.getOrDefault(Outcome.FAILED, 0L);
+        return QuoteStoreBackfillResult.builder()
+                .scanned(copied + alreadyStored + failed)
+                .copied(copied)
+                .alreadyStored(alreadyStored)
+                .failed(failed)
+                .build();
+    }
+}
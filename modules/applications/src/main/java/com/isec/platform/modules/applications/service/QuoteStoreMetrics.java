@@ -0,0 +1,109 @@
+package com.isec.platform.modules.applications.service;
+
+import com.isec.platform.modules.applications.repository.QuoteRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micrometer instrumentation of the {@link QuoteStore}, exported through {@code /actuator/prometheus}.
+ * <ul>
+ *   <li>{@value #READS}: lookups by {@code kind} and the {@code tier} that answered: {@code redis},
+ *   {@code postgres} or {@code miss}</li>
+ *   <li>{@value #WRITES}: quotes stored, by {@code kind}</li>
+ *   <li>{@value #REDIS_USED_MEMORY} / {@value #REDIS_MAX_MEMORY}: Redis {@code used_memory} and {@code maxmemory}
+ *   in bytes; a max of 0 means Redis is unbounded</li>
+ *   <li>{@value #POSTGRES_SIZE}: bytes on disk of all {@code quote_records} partitions</li>
+ * </ul>
+ * The gauges are refreshed every {@code quote.store.metrics-interval-ms}.
+ */
+@Component
+@Slf4j
+public class QuoteStoreMetrics {
+
+    public static final String READS = "quote.store.reads";
+    public static final String WRITES = "quote.store.writes";
+    public static final String REDIS_USED_MEMORY = "quote.store.redis.used.memory";
+    public static final String REDIS_MAX_MEMORY = "quote.store.redis.max.memory";
+    public static final String POSTGRES_SIZE = "quote.store.postgres.size";
+
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final QuoteRecordRepository repository;
+
+    private final Map<QuoteStore.Kind, Counter[]> reads = new EnumMap<>(QuoteStore.Kind.class);
+    private final Map<QuoteStore.Kind, Counter> writes = new EnumMap<>(QuoteStore.Kind.class);
+    private final AtomicLong redisUsedMemory = new AtomicLong();
+    private final AtomicLong redisMaxMemory = new AtomicLong();
+    private final AtomicLong postgresSize = new AtomicLong();
+
+    public QuoteStoreMetrics(MeterRegistry registry, ReactiveRedisTemplate<String, Object> redisTemplate,
+                             QuoteRecordRepository repository) {
+        this.redisTemplate = redisTemplate;
+        this.repository = repository;
+        for (QuoteStore.Kind kind : QuoteStore.Kind.values()) {
+            String tag = kind.name().toLowerCase(Locale.ROOT);
+            Counter[] byTier = new Counter[Tier.values().length];
+            for (Tier tier : Tier.values()) {
+                byTier[tier.ordinal()] = Counter.builder(READS)
+                        .description("Quote store lookups by the tier that answered")
+                        .tags("kind", tag, "tier", tier.name().toLowerCase(Locale.ROOT))
+                        .register(registry);
+            }
+            reads.put(kind, byTier);
+            writes.put(kind, Counter.builder(WRITES).description("Quotes stored").tags("kind", tag).register(registry));
+        }
+        Gauge.builder(REDIS_USED_MEMORY, redisUsedMemory, AtomicLong::get)
+                .description("Memory used by Redis").baseUnit("bytes").register(registry);
+        Gauge.builder(REDIS_MAX_MEMORY, redisMaxMemory, AtomicLong::get)
+                .description("Memory limit of Redis, 0 if unbounded").baseUnit("bytes").register(registry);
+        Gauge.builder(POSTGRES_SIZE, postgresSize, AtomicLong::get)
+                .description("Size of the quote records in Postgres").baseUnit("bytes").register(registry);
+    }
+
+    public enum Tier {
+        REDIS, POSTGRES, MISS
+    }
+
+    public void read(QuoteStore.Kind kind, Tier tier) {
+        reads.get(kind)[tier.ordinal()].increment();
+    }
+
+    public void write(QuoteStore.Kind kind) {
+        writes.get(kind).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${quote.store.metrics-interval-ms:60000}")
+    public void refresh() {
+        Mono<Void> redis = redisTemplate.execute(connection -> connection.serverCommands().info("memory"))
+                .next()
+                .doOnNext(info -> {
+                    redisUsedMemory.set(bytes(info, "used_memory"));
+                    redisMaxMemory.set(bytes(info, "maxmemory"));
+                })
+                .doOnError(e -> log.warn("Failed to read Redis memory usage: {}", e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+        Mono<Void> postgres = repository.totalSizeBytes()
+                .doOnNext(postgresSize::set)
+                .doOnError(e -> log.warn("Failed to read quote records size: {}", e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+        Mono.when(redis, postgres).subscribe();
+    }
+
+    private static long bytes(Properties info, String name) {
+        String value = info.getProperty(name);
+        return value == null ? 0 : Long.parseLong(value.trim());
+    }
+}
@@ -0,0 +1,58 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.common.multitenancy.TenantContext;
+import com.isec.platform.modules.applications.domain.motor.MotorQuoteApplication;
+import com.isec.platform.modules.applications.repository.motor.MotorQuoteRepository;
+import com.isec.platform.modules.integrations.quote.provider.PartnerType;
+import com.isec.platform.reactive.infra.outbox.OutboxEvent;
+import com.isec.platform.reactive.infra.outbox.OutboxEventHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Prepares a quote's draft quote in the background once the customer is about to pay for it; see
+ * {@link MotorQuoteOrchestrator#prepareDraftQuote}. A failed attempt is retried by the outbox worker, and payment
+ * initiation creates the draft quote itself if it is not ready by then.
+ * <p>
+ * Draft quotes reach the partner through the {@link PartnerThrottle} of fleet submissions, whose priced quotes queue
+ * one draft each, so that a fleet's drafts follow at the pace of its pricing instead of in a burst. Events queued
+ * before the partner was part of the payload are throttled by the partner of the stored quote.
+ */
+@Component
+@RequiredArgsConstructor
+public class DraftQuoteEventHandler implements OutboxEventHandler {
+
+    public static final String EVENT_TYPE = "motor.draft-quote.create";
+
+    private final MotorQuoteOrchestrator orchestrator;
+    private final MotorQuoteRepository repository;
+    private final ObjectMapper objectMapper;
+    private final PartnerThrottle throttle;
+
+    @Override
+    public boolean canHandle(String eventType) {
+        return EVENT_TYPE.equals(eventType);
+    }
+
+    @Override
+    public Mono<Void> handle(OutboxEvent event) {
+        return Mono.fromCallable(() -> objectMapper.readValue(event.getPayload(), Payload.class))
+                .flatMap(payload -> prepare(payload)
+                        .contextWrite(TenantContext.withTenantId(payload.tenantId())));
+    }
+
+    private Mono<Void> prepare(Payload payload) {
+        // Events queued before the partner was part of the payload; a quote that no longer exists needs no draft
+        if (payload.partner() == null) {
+            return repository.findByQuoteId(payload.quoteId())
+                    .map(MotorQuoteApplication::getPartner)
+                    .flatMap(partner -> throttle.run(partner, () -> orchestrator.prepareDraftQuote(payload.quoteId())));
+        }
+        return throttle.run(payload.partner(), () -> orchestrator.prepareDraftQuote(payload.quoteId()));
+    }
+
+    public record Payload(String quoteId, String tenantId, PartnerType partner) {
+    }
+}
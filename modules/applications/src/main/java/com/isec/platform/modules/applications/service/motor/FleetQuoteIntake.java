@@ -0,0 +1,149 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.isec.platform.common.exception.BusinessException;
+import com.isec.platform.common.multitenancy.TenantContext;
+import com.isec.platform.modules.applications.config.FleetQuoteProperties;
+import com.isec.platform.modules.applications.domain.motor.MotorQuoteApplication;
+import com.isec.platform.modules.applications.dto.QuoteRequest;
+import com.isec.platform.modules.applications.dto.motor.CalculateMotorPremiumRequest;
+import com.isec.platform.modules.applications.dto.motor.FleetQuoteRequest;
+import com.isec.platform.modules.applications.dto.motor.FleetQuoteResult;
+import com.isec.platform.modules.applications.mapper.motor.MotorQuoteMapper;
+import com.isec.platform.modules.applications.repository.motor.MotorQuoteBulkRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Quotes every vehicle of a corporate client's fleet in one submission.
+ * <p>
+ * Each valid vehicle gets its own motor quote, written in batched inserts, whose premium is then calculated through
+ * {@link MotorQuoteOrchestrator#calculatePremium} like a quote started by hand. Those calculations go through
+ * {@link PartnerThrottle}, so the partner sees them at its configured concurrency and rate. Results are emitted as
+ * vehicles finish, with the fleet's progress; a vehicle that fails validation or pricing, or whose batch of quotes
+ * could not be written, is reported on its own row without affecting the others.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FleetQuoteIntake {
+
+    private final MotorQuoteOrchestrator orchestrator;
+    private final MotorQuoteMapper mapper;
+    private final MotorQuoteBulkRepository bulkRepository;
+    private final PartnerThrottle throttle;
+    private final Validator validator;
+    private final FleetQuoteProperties properties;
+
+    public Flux<FleetQuoteResult> submit(FleetQuoteRequest request) {
+        if (request.getVehicles().size() > properties.getMaxVehicles()) {
+            return Flux.error(new BusinessException("A fleet submission may hold at most " + properties.getMaxVehicles()
+                    + " vehicles; split the fleet"));
+        }
+        return TenantContext.getTenantId()
+                .switchIfEmpty(Mono.error(new BusinessException("Missing required X-Tenant-Id header")))
+                .flatMapMany(tenantId -> submit(tenantId, request));
+    }
+
+    private Flux<FleetQuoteResult> submit(String tenantId, FleetQuoteRequest request) {
+        String fleetId = UUID.randomUUID().toString();
+        int total = request.getVehicles().size();
+        AtomicInteger completed = new AtomicInteger();
+        log.info("Quoting fleet {} of {} vehicles with {}", fleetId, total, request.getPartner());
+
+        List<FleetQuoteResult> invalid = new ArrayList<>();
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            QuoteRequest.VehicleDetails vehicle = request.getVehicles().get(i);
+            String violations = violations(vehicle);
+            FleetQuoteResult.FleetQuoteResultBuilder result = FleetQuoteResult.builder()
+                    .fleetId(fleetId)
+                    .row(i + 1)
+                    .licensePlateNumber(vehicle == null ? null : vehicle.getLicensePlateNumber())
+                    .total(total);
+            if (violations != null) {
+                invalid.add(result.outcome(FleetQuoteResult.Outcome.INVALID)
+                        .error(violations)
+                        .completed(completed.incrementAndGet())
+                        .build());
+                continue;
+            }
+            CalculateMotorPremiumRequest calculation = CalculateMotorPremiumRequest.builder()
+                    .quoteId(UUID.randomUUID().toString())
+                    .partner(request.getPartner())
+                    .insuranceDetails(request.getInsuranceDetails())
+                    .vehicleDetails(vehicle)
+                    .kycDetails(request.getKycDetails())
+                    .build();
+            MotorQuoteApplication quote = mapper.toEntity(calculation);
+            quote.setTenantId(tenantId);
+            rows.add(new Row(result.quoteId(calculation.getQuoteId()), calculation, quote, null));
+        }
+
+        int concurrency = Math.max(1, properties.limits(request.getPartner()).getConcurrency());
+        Flux<FleetQuoteResult> priced = Flux.fromIterable(rows)
+                .buffer(Math.max(1, properties.getInsertBatchSize()))
+                .concatMap(batch -> bulkRepository.insertAll(batch.stream().map(Row::quote).toList())
+                        .thenMany(Flux.fromIterable(batch))
+                        .onErrorResume(e -> {
+                            log.warn("Failed to save {} quotes of fleet {}: {}", batch.size(), fleetId, e.getMessage());
+                            return Flux.fromIterable(batch)
+                                    .map(row -> row.unsaved("Quote could not be saved: " + e.getMessage()));
+                        }), 1)
+                .flatMap(row -> (row.saveError() != null
+                                ? Mono.just(row.result().outcome(FleetQuoteResult.Outcome.FAILED).error(row.saveError()))
+                                : price(fleetId, request, row))
+                        .map(result -> result.completed(completed.incrementAndGet()).build()), concurrency);
+        return Flux.fromIterable(invalid)
+                .concatWith(priced)
+                .doOnComplete(() -> log.info("Fleet {} quoted: {} vehicles", fleetId, total));
+    }
+
+    private Mono<FleetQuoteResult.FleetQuoteResultBuilder> price(String fleetId, FleetQuoteRequest request, Row row) {
+        return throttle.run(request.getPartner(), () -> orchestrator.calculatePremium(row.calculation()))
+                .map(response -> row.result()
+                        .outcome(FleetQuoteResult.Outcome.PRICED)
+                        .premium(response.getPremium()))
+                .onErrorResume(e -> {
+                    log.warn("Premium calculation of quote {} in fleet {} failed: {}", row.calculation().getQuoteId(),
+                            fleetId, e.getMessage());
+                    return Mono.just(row.result()
+                            .outcome(FleetQuoteResult.Outcome.FAILED)
+                            .error(e.getMessage()));
+                });
+    }
+
+    private String violations(QuoteRequest.VehicleDetails vehicle) {
+        if (vehicle == null) {
+            return "Vehicle details are missing";
+        }
+        Set<ConstraintViolation<QuoteRequest.VehicleDetails>> violations = validator.validate(vehicle);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    // saveError is set when the row's quote could not be written, so it is reported instead of priced
+    private record Row(FleetQuoteResult.FleetQuoteResultBuilder result, CalculateMotorPremiumRequest calculation,
+                       MotorQuoteApplication quote, String saveError) {
+
+        Row unsaved(String error) {
+            return new Row(result, calculation, quote, error);
+        }
+    }
+}
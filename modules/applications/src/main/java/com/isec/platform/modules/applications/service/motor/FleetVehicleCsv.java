@@ -0,0 +1,93 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.common.exception.BusinessException;
+import com.isec.platform.modules.applications.dto.QuoteRequest;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the vehicles of a fleet from CSV: a header naming {@link QuoteRequest.VehicleDetails} fields, in any order and
+ * case, with or without underscores ({@code license_plate_number}, {@code makeCode}), then one vehicle per line.
+ * Fields may be quoted; unknown columns are ignored.
+ */
+public final class FleetVehicleCsv {
+
+    private static final Map<String, String> FIELDS = Arrays.stream(QuoteRequest.VehicleDetails.class.getDeclaredFields())
+            .filter(field -> !field.isSynthetic() && !Modifier.isStatic(field.getModifiers()))
+            .map(Field::getName)
+            .collect(Collectors.toMap(FleetVehicleCsv::normalize, name -> name));
+
+    private FleetVehicleCsv() {
+    }
+
+    /**
+     * @throws BusinessException if there is no header or a value cannot be read as its field's type
+     */
+    public static List<QuoteRequest.VehicleDetails> parse(String csv, ObjectMapper objectMapper) {
+        List<String> lines = csv == null ? List.of() : csv.lines().filter(line -> !line.isBlank()).toList();
+        if (lines.isEmpty()) {
+            throw new BusinessException("The CSV has no header");
+        }
+        List<String> header = split(lines.get(0)).stream()
+                .map(column -> FIELDS.get(normalize(column)))
+                .toList();
+
+        List<QuoteRequest.VehicleDetails> vehicles = new ArrayList<>(lines.size() - 1);
+        for (int i = 1; i < lines.size(); i++) {
+            List<String> values = split(lines.get(i));
+            Map<String, String> vehicle = new LinkedHashMap<>();
+            for (int column = 0; column < Math.min(header.size(), values.size()); column++) {
+                if (header.get(column) != null && !values.get(column).isBlank()) {
+                    vehicle.put(header.get(column), values.get(column).trim());
+                }
+            }
+            try {
+                vehicles.add(objectMapper.convertValue(vehicle, QuoteRequest.VehicleDetails.class));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException("Row " + i + " of the CSV cannot be read: " + e.getMessage());
+            }
+        }
+        return vehicles;
+    }
+
+    static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static String normalize(String column) {
+        return column.replace("_", "").replace(" ", "").trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,29 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * Redis scripts for leases held by one node, whose value identifies the holder: they change the lease only if it
+ * still holds the expected value, in one step, so that a node never touches a lease another node took in between.
+ */
+final class LeaseScripts {
+
+    // Deletes KEYS[1] if it holds ARGV[1]; returns 1 if deleted
+    static final RedisScript<Long> RELEASE = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    // Extends KEYS[1] to ARGV[2] milliseconds if it holds ARGV[1]; returns 1 if extended
+    static final RedisScript<Long> RENEW = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+
+    // Sets KEYS[1] to ARGV[2] for ARGV[3] milliseconds if it holds ARGV[1]; returns 1 if set
+    static final RedisScript<Long> REPLACE = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then "
+                    + "redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1 else return 0 end",
+            Long.class);
+
+    private LeaseScripts() {
+    }
+}
@@ -17,6 +17,7 @@ import com.isec.platform.modules.applications.dto.motor.MotorQuoteResponse;
 import com.isec.platform.modules.applications.dto.motor.MpesaInitiationRequest;
 import com.isec.platform.modules.applications.mapper.motor.MotorQuoteMapper;
 import com.isec.platform.modules.applications.repository.motor.MotorQuoteRepository;
+import com.isec.platform.modules.applications.service.QuoteStore;
 import com.isec.platform.modules.integrations.mpesa.model.*;
 import com.isec.platform.modules.integrations.mpesa.provider.MpesaPaymentProvider;
 import com.isec.platform.modules.integrations.mpesa.provider.MpesaProviderFactory;
@@ -26,11 +27,12 @@ import com.isec.platform.modules.integrations.quote.model.DraftQuoteStatus;
 import com.isec.platform.modules.integrations.quote.provider.PartnerQuoteProvider;
 import com.isec.platform.modules.integrations.quote.provider.PartnerQuoteProviderFactory;
 import com.isec.platform.modules.integrations.quote.provider.QuoteLifecycleCapability;
+import com.isec.platform.reactive.infra.executor.OutboxReactiveExecutor;
+import com.isec.platform.reactive.infra.outbox.OutboxEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.dao.OptimisticLockingFailureException;
 import reactor.core.publisher.Mono;
@@ -38,12 +40,18 @@ import reactor.util.retry.Retry;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MotorQuoteOrchestrator {
 
+    // Statuses in which a payment awaits its outcome
+    private static final Set<MotorQuoteStatus> PAYMENT_OPEN = EnumSet.of(MotorQuoteStatus.PAYMENT_INITIATED,
+            MotorQuoteStatus.PAYMENT_PENDING);
+
     private final MotorQuoteRepository repository;
     private final MotorQuoteMapper mapper;
     private final PartnerQuoteProviderFactory partnerFactory;
@@ -51,38 +59,54 @@ public class MotorQuoteOrchestrator {
     private final PartnerPaymentAccountService paymentAccountService;
     private final ManualPaymentInstructionService manualPaymentInstructionService;
     private final ObjectMapper objectMapper;
-    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final QuoteStore quoteStore;
+    private final QuoteSingleFlight singleFlight;
+    private final OutboxReactiveExecutor outboxExecutor;
 
     @Value("${quote.min-payment-percentage:0.35}")
     private double minPaymentPercentage;
 
+    /**
+     * Concurrent identical requests for a quote, e.g. a double submit or a retry, share one partner call and one
+     * update of the quote and receive the same result; see {@link QuoteSingleFlight}.
+     */
     public Mono<MotorQuoteResponse> calculatePremium(CalculateMotorPremiumRequest request) {
         log.info("Starting premium calculation for quoteId: {}, partner: {}", request.getQuoteId(), request.getPartner());
+        String payload = null;
         try {
-            log.info("Canonical Premium Calculation Request: {}", objectMapper.writeValueAsString(request));
+            payload = objectMapper.writeValueAsString(request);
+            log.info("Canonical Premium Calculation Request: {}", payload);
         } catch (JsonProcessingException e) {
             log.warn("Failed to log canonical request payload: {}", e.getMessage());
         }
+        String canonicalPayload = payload;
 
         return TenantContext.getTenantId()
                 .switchIfEmpty(Mono.error(new BusinessException("Missing required X-Tenant-Id header")))
-                .flatMap(tenantId -> repository.findByQuoteId(request.getQuoteId())
-                        .flatMap(existing -> {
-                            if (existing.getStatus() == MotorQuoteStatus.POLICY_ISSUED ||
-                                    existing.getStatus() == MotorQuoteStatus.POLICY_ISSUANCE_IN_PROGRESS) {
-                                return Mono.error(new BusinessException("Cannot recalculate premium for an already issued policy or one in progress of issuance."));
-                            }
-                            mapper.updateEntity(existing, request);
-                            existing.setTenantId(tenantId);
-                            return Mono.just(existing);
-                        })
-                        .switchIfEmpty(Mono.defer(() -> {
-                            MotorQuoteApplication newApp = mapper.toEntity(request);
-                            newApp.setTenantId(tenantId);
-                            return Mono.just(newApp);
-                        })))
-                .flatMap(app -> redisTemplate.opsForValue().get("quote_init:" + app.getQuoteId())
-                        .cast(InitiateQuoteResponse.class)
+                .flatMap(tenantId -> singleFlight.execute("premium calculation", request.getQuoteId(),
+                        QuoteSingleFlight.fingerprint(tenantId, canonicalPayload),
+                        () -> calculatePremium(tenantId, request),
+                        // Finished on another node, which stored the result on the quote
+                        () -> repository.findByQuoteId(request.getQuoteId()).map(mapper::toResponse)));
+    }
+
+    private Mono<MotorQuoteResponse> calculatePremium(String tenantId, CalculateMotorPremiumRequest request) {
+        return repository.findByQuoteId(request.getQuoteId())
+                .flatMap(existing -> {
+                    if (existing.getStatus() == MotorQuoteStatus.POLICY_ISSUED ||
+                            existing.getStatus() == MotorQuoteStatus.POLICY_ISSUANCE_IN_PROGRESS) {
+                        return Mono.error(new BusinessException("Cannot recalculate premium for an already issued policy or one in progress of issuance."));
+                    }
+                    mapper.updateEntity(existing, request);
+                    existing.setTenantId(tenantId);
+                    return Mono.just(existing);
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    MotorQuoteApplication newApp = mapper.toEntity(request);
+                    newApp.setTenantId(tenantId);
+                    return Mono.just(newApp);
+                }))
+                .flatMap(app -> quoteStore.get(QuoteStore.Kind.INITIATED, app.getQuoteId(), InitiateQuoteResponse.class)
                         .doOnNext(initResponse -> {
                             if (initResponse.getDoubleInsuranceCheck() != null) {
                                 try {
@@ -102,9 +126,10 @@ public class MotorQuoteOrchestrator {
                     return provider.calculatePremium(mapper.toPremiumRequest(app))
                             .flatMap(res -> {
                                 app.setStatus(MotorQuoteStatus.PREMIUM_CALCULATED);
-                                app.setPremiumResult(serialize(res));
-                                app.setRawPartnerResponses(serialize(res)); // Update raw response
-                                return repository.save(app);
+                                String premium = serialize(app, res);
+                                app.setPremiumResult(premium);
+                                app.setRawPartnerResponses(premium); // Update raw response
+                                return saveAndPrepareDraftQuote(app);
                             })
                             .onErrorResume(e -> {
                                 log.error("Premium calculation failed for quoteId: {}", app.getQuoteId(), e);
@@ -130,9 +155,13 @@ public class MotorQuoteOrchestrator {
                             if (app.getStatus() != MotorQuoteStatus.PREMIUM_CALCULATED && app.getStatus() != MotorQuoteStatus.QUOTE_ACCEPTED && app.getStatus() != MotorQuoteStatus.DRAFT_QUOTE_CREATED) {
                                 return Mono.error(new BusinessException("Invalid status for quote acceptance: " + app.getStatus()));
                             }
+                            if (app.getStatus() == MotorQuoteStatus.DRAFT_QUOTE_CREATED) {
+                                // Accepted before; keep the draft quote already created for it
+                                return Mono.just(app);
+                            }
 
                             app.setStatus(MotorQuoteStatus.QUOTE_ACCEPTED);
-                            return repository.save(app);
+                            return saveAndPrepareDraftQuote(app);
                         }))
                 .map(mapper::toResponse);
     }
@@ -153,7 +182,7 @@ public class MotorQuoteOrchestrator {
                             // 1. Validate KYC/client details presence
                             if (request.getKycDetails() == null) {
                                 // Try to see if we already have them
-                                QuoteRequest.KycDetails existingKyc = deserialize(app.getKycDetails(), QuoteRequest.KycDetails.class);
+                                QuoteRequest.KycDetails existingKyc = deserialize(app, app.getKycDetails(), QuoteRequest.KycDetails.class);
                                 if (existingKyc == null || StringUtils.isBlank(existingKyc.getFullName())) {
                                     return Mono.error(new BusinessException("KYC details are required before initiating payment."));
                                 }
@@ -163,9 +192,13 @@ public class MotorQuoteOrchestrator {
                                 mapper.updateKycDetails(app, request.getKycDetails());
                             }
 
-                            return createDraftQuoteIfMissing(app)
+                            return draftQuote(app)
                                     .flatMap(appWithDraft -> {
-                                        DraftQuoteResponse draft = deserialize(appWithDraft.getDraftQuoteResult(), DraftQuoteResponse.class);
+                                        if (appWithDraft != app && request.getKycDetails() != null) {
+                                            // Drafted in the background meanwhile; keep the KYC details given here
+                                            mapper.updateKycDetails(appWithDraft, request.getKycDetails());
+                                        }
+                                        DraftQuoteResponse draft = deserialize(appWithDraft, appWithDraft.getDraftQuoteResult(), DraftQuoteResponse.class);
                                         if (draft == null || draft.getDraftQuoteRef() == null) {
                                             return Mono.error(new BusinessException("Draft quote reference missing. Failed to create draft quote with partner."));
                                         }
@@ -183,7 +216,7 @@ public class MotorQuoteOrchestrator {
                                         // Get manual instructions
                                         return paymentAccountService.getDefaultActiveAccount(appWithDraft.getPartner(), "MPESA", PaymentMethod.MPESA_PAYBILL)
                                                 .flatMap(account -> {
-                                                    QuoteRequest.VehicleDetails vehicle = deserialize(appWithDraft.getVehicleDetails(), QuoteRequest.VehicleDetails.class);
+                                                    QuoteRequest.VehicleDetails vehicle = deserialize(appWithDraft, appWithDraft.getVehicleDetails(), QuoteRequest.VehicleDetails.class);
                                                     String accountNumber = vehicle != null && vehicle.getLicensePlateNumber() != null ? 
                                                             vehicle.getLicensePlateNumber() : draft.getDraftQuoteRef();
                                                     
@@ -197,6 +230,7 @@ public class MotorQuoteOrchestrator {
 
                                                     return provider.initiatePayment(initRequest)
                                                             .flatMap(res -> {
+                                                                String raw = serialize(res);
                                                                 MotorPaymentResult result = MotorPaymentResult.builder()
                                                                         .paymentMethod(PaymentMethod.MPESA_STK)
                                                                         .verificationMode(PaymentVerificationMode.STK_STATUS)
@@ -206,12 +240,12 @@ public class MotorQuoteOrchestrator {
                                                                         .businessNumber(account.getBusinessNumber())
                                                                         .accountNumber(accountNumber)
                                                                         .instructions(manualInstructions.getInstructions())
-                                                                        .rawResponse(serialize(res))
+                                                                        .rawResponse(raw)
                                                                         .build();
 
                                                                 appWithDraft.setStatus(MotorQuoteStatus.PAYMENT_INITIATED);
-                                                                appWithDraft.setPaymentResult(serialize(result));
-                                                                appWithDraft.setRawPartnerResponses(serialize(res));
+                                                                appWithDraft.setPaymentResult(serialize(appWithDraft, result));
+                                                                appWithDraft.setRawPartnerResponses(raw);
                                                                 return repository.save(appWithDraft);
                                                             });
                                                 });
@@ -235,13 +269,66 @@ public class MotorQuoteOrchestrator {
         }
     }
 
+    /**
+     * Creates the quote's draft quote with its partner ahead of payment, unless it exists or the quote has moved on.
+     * Queued through the outbox when the premium is calculated for a client with complete KYC details or accepted
+     * (see {@link DraftQuoteEventHandler}), so that payment initiation finds the draft quote ready.
+     */
+    public Mono<Void> prepareDraftQuote(String quoteId) {
+        return repository.findByQuoteId(quoteId)
+                .filter(this::draftQuoteExpected)
+                .flatMap(this::draftQuote)
+                .doOnNext(app -> log.info("Prepared draft quote for quote: {}", quoteId))
+                .then();
+    }
+
+    // Saves the quote, queueing its draft quote's creation in the same transaction if it will be needed
+    private Mono<MotorQuoteApplication> saveAndPrepareDraftQuote(MotorQuoteApplication app) {
+        if (!draftQuoteExpected(app)) {
+            return repository.save(app);
+        }
+        OutboxEvent event = OutboxEvent.builder()
+                .type(DraftQuoteEventHandler.EVENT_TYPE)
+                .payload(serialize(new DraftQuoteEventHandler.Payload(app.getQuoteId(), app.getTenantId(), app.getPartner())))
+                // One event per saved version of the quote
+                .idempotencyKey("draft-quote:" + app.getQuoteId() + ":" + app.getVersion())
+                .build();
+        return outboxExecutor.executeWithOutbox(repository.save(app), event);
+    }
+
+    // Whether the quote's next step is paying for a draft quote that its partner can already create
+    private boolean draftQuoteExpected(MotorQuoteApplication app) {
+        if (app.getStatus() != MotorQuoteStatus.PREMIUM_CALCULATED && app.getStatus() != MotorQuoteStatus.QUOTE_ACCEPTED) {
+            return false;
+        }
+        QuoteRequest.KycDetails kyc = deserialize(app, app.getKycDetails(), QuoteRequest.KycDetails.class);
+        if (kyc == null || StringUtils.isAnyBlank(kyc.getFullName(), kyc.getPhoneNumber(), kyc.getEmail(), kyc.getIdNumber())) {
+            return false;
+        }
+        return partnerFactory.getProvider(app.getPartner()).supportedCapabilities()
+                .contains(QuoteLifecycleCapability.CREATE_DRAFT_QUOTE);
+    }
+
+    /**
+     * The background preparation and payment initiation share one draft quote creation, so that a customer paying
+     * while the draft quote is being prepared waits for it instead of creating a second one.
+     */
+    private Mono<MotorQuoteApplication> draftQuote(MotorQuoteApplication app) {
+        return singleFlight.execute("draft quote", app.getQuoteId(),
+                QuoteSingleFlight.fingerprint(app.getTenantId(), app.getPremiumResult()),
+                () -> createDraftQuoteIfMissing(app),
+                // Created on another node, which stored it on the quote
+                () -> repository.findByQuoteId(app.getQuoteId())
+                        .doOnNext(created -> created.setTenantId(app.getTenantId())));
+    }
+
     private Mono<MotorQuoteApplication> createDraftQuoteIfMissing(MotorQuoteApplication app) {
         if (app.getStatus() == MotorQuoteStatus.DRAFT_QUOTE_CREATED ||
                 app.getStatus() == MotorQuoteStatus.PAYMENT_INITIATED ||
                 app.getStatus() == MotorQuoteStatus.PAYMENT_PENDING ||
                 app.getStatus() == MotorQuoteStatus.PAYMENT_SUCCESSFUL) {
 
-            DraftQuoteResponse existing = deserialize(app.getDraftQuoteResult(), DraftQuoteResponse.class);
+            DraftQuoteResponse existing = deserialize(app, app.getDraftQuoteResult(), DraftQuoteResponse.class);
             if (existing != null && existing.getDraftQuoteRef() != null) {
                 log.info("Draft quote already exists for quote: {}. Reusing reference: {}", app.getQuoteId(), existing.getDraftQuoteRef());
                 return Mono.just(app);
@@ -255,8 +342,9 @@ public class MotorQuoteOrchestrator {
                     .flatMap(provider::createDraftQuote)
                     .flatMap(res -> {
                         app.setStatus(MotorQuoteStatus.DRAFT_QUOTE_CREATED);
-                        app.setDraftQuoteResult(serialize(res));
-                        app.setRawPartnerResponses(serialize(res));
+                        String draft = serialize(app, res);
+                        app.setDraftQuoteResult(draft);
+                        app.setRawPartnerResponses(draft);
                         return repository.save(app);
                     });
         }
@@ -312,16 +400,17 @@ public class MotorQuoteOrchestrator {
         return provider.checkPaymentStatus(statusRequest)
                 .flatMap(res -> {
                     MotorQuoteStatus newStatus = getMotorQuoteStatus(res);
-                    
+                    String raw = serialize(res);
+
                     // Preserve existing manual info if present
-                    MotorPaymentResult existingResult = deserialize(app.getPaymentResult(), MotorPaymentResult.class);
+                    MotorPaymentResult existingResult = deserialize(app, app.getPaymentResult(), MotorPaymentResult.class);
                     MotorPaymentResult result = MotorPaymentResult.builder()
                             .paymentMethod(PaymentMethod.MPESA_STK)
                             .verificationMode(PaymentVerificationMode.STK_STATUS)
                             .status(newStatus)
                             .checkoutId(res.getCheckoutId())
                             .receipt(res.getReceiptNumber())
-                            .rawResponse(serialize(res))
+                            .rawResponse(raw)
                             .amount(existingResult != null ? existingResult.getAmount() : null)
                             .businessNumber(existingResult != null ? existingResult.getBusinessNumber() : null)
                             .accountNumber(existingResult != null ? existingResult.getAccountNumber() : null)
@@ -335,15 +424,15 @@ public class MotorQuoteOrchestrator {
                     }
 
                     app.setStatus(newStatus);
-                    app.setPaymentResult(serializedResult);
-                    app.setRawPartnerResponses(serialize(res));
+                    app.setPaymentResult(app.json().remember(serializedResult, result));
+                    app.setRawPartnerResponses(raw);
                     return repository.save(app);
                 })
                 .flatMap(this::triggerAutomaticPolicyIssuance);
     }
 
     private Mono<MotorQuoteApplication> verifyPaybillReceipt(MotorQuoteApplication app, String receipt) {
-        DraftQuoteResponse draft = deserialize(app.getDraftQuoteResult(), DraftQuoteResponse.class);
+        DraftQuoteResponse draft = deserialize(app, app.getDraftQuoteResult(), DraftQuoteResponse.class);
         if (draft == null || draft.getDraftQuoteRef() == null) {
             return Mono.error(new BusinessException("Draft quote reference missing for receipt verification"));
         }
@@ -359,8 +448,9 @@ public class MotorQuoteOrchestrator {
         return mpesaProvider.verifyReceiptAndMap(verifyRequest)
                 .flatMap(res -> {
                     MotorQuoteStatus newStatus = getMotorQuoteStatus(res);
-                    
-                    MotorPaymentResult existingResult = deserialize(app.getPaymentResult(), MotorPaymentResult.class);
+                    String raw = serialize(res);
+
+                    MotorPaymentResult existingResult = deserialize(app, app.getPaymentResult(), MotorPaymentResult.class);
                     
                     MotorPaymentResult result = MotorPaymentResult.builder()
                             .paymentMethod(PaymentMethod.MPESA_PAYBILL)
@@ -370,15 +460,15 @@ public class MotorQuoteOrchestrator {
                             .amount(res.getAmount() != null ? BigDecimal.valueOf(res.getAmount()) : (existingResult != null ? existingResult.getAmount() : null))
                             .paidAt(res.getPaidAt())
                             .checkoutId(res.getCheckoutId())
-                            .rawResponse(serialize(res))
+                            .rawResponse(raw)
                             .businessNumber(existingResult != null ? existingResult.getBusinessNumber() : null)
                             .accountNumber(existingResult != null ? existingResult.getAccountNumber() : null)
                             .instructions(existingResult != null ? existingResult.getInstructions() : null)
                             .build();
 
                     app.setStatus(newStatus);
-                    app.setPaymentResult(serialize(result)); // Keep MotorPaymentResult as the primary result
-                    app.setRawPartnerResponses(serialize(res));
+                    app.setPaymentResult(serialize(app, result)); // Keep MotorPaymentResult as the primary result
+                    app.setRawPartnerResponses(raw);
                     
                     // We also need to store the Manual Payment specific info somewhere if we want to keep it, 
                     // but MpesaPaymentStatusResponse should have enough (receipt, amount, paidAt).
@@ -389,15 +479,53 @@ public class MotorQuoteOrchestrator {
                 .flatMap(this::triggerAutomaticPolicyIssuance);
     }
 
+    /**
+     * Queues the policy's issuance rather than issuing it in the request that saw the payment succeed, so that the
+     * request returns right away with {@code POLICY_ISSUANCE_IN_PROGRESS}. The quote's move to that status and the
+     * queued event are saved in one transaction; of concurrent requests seeing the payment succeed, only the first
+     * saves it, the others retry on the optimistic lock and find issuance in progress.
+     */
     private Mono<MotorQuoteApplication> triggerAutomaticPolicyIssuance(MotorQuoteApplication app) {
         if (app.getStatus() == MotorQuoteStatus.PAYMENT_SUCCESSFUL) {
-            log.info("Payment successful for quote: {}. Triggering automatic policy issuance.", app.getQuoteId());
-            return issuePolicyInternal(app)
-                    .doOnNext(finalApp -> log.info("Automatic policy issuance completed for quote: {}. Final status: {}", app.getQuoteId(), finalApp.getStatus()));
+            log.info("Payment successful for quote: {}. Queueing automatic policy issuance.", app.getQuoteId());
+            OutboxEvent event = OutboxEvent.builder()
+                    .type(PolicyIssuanceEventHandler.EVENT_TYPE)
+                    .payload(serialize(new PolicyIssuanceEventHandler.Payload(app.getQuoteId(), app.getTenantId(), app.getPartner())))
+                    .idempotencyKey("policy-issuance:" + app.getQuoteId() + ":" + app.getVersion())
+                    .build();
+            app.setStatus(MotorQuoteStatus.POLICY_ISSUANCE_IN_PROGRESS);
+            return outboxExecutor.executeWithOutbox(repository.save(app), event);
         }
         return Mono.just(app);
     }
 
+    /**
+     * Issues a policy queued by {@link #triggerAutomaticPolicyIssuance}; see {@link PolicyIssuanceEventHandler}. Does
+     * nothing unless the quote is still {@code POLICY_ISSUANCE_IN_PROGRESS}, so that an issued policy is never issued
+     * again. A failure leaves the quote in progress for the queue to retry, except on the last attempt, which marks
+     * it {@code POLICY_ISSUANCE_FAILED}.
+     */
+    public Mono<Void> issueQueuedPolicy(String quoteId, boolean lastAttempt) {
+        return repository.findByQuoteId(quoteId)
+                .filter(app -> {
+                    if (app.getStatus() != MotorQuoteStatus.POLICY_ISSUANCE_IN_PROGRESS) {
+                        log.info("Skipping queued policy issuance for quote: {} in status {}", quoteId, app.getStatus());
+                        return false;
+                    }
+                    return true;
+                })
+                .flatMap(app -> issueWithPartner(app)
+                        .onErrorResume(e -> {
+                            if (lastAttempt) {
+                                return markIssuanceFailed(app, e);
+                            }
+                            log.warn("Policy issuance failed for quoteId: {}; will retry: {}", quoteId, e.getMessage());
+                            return Mono.error(e);
+                        }))
+                .doOnNext(app -> log.info("Automatic policy issuance completed for quote: {}. Final status: {}", quoteId, app.getStatus()))
+                .then();
+    }
+
     private MotorQuoteStatus getMotorQuoteStatus(MpesaPaymentStatusResponse res) {
         return getMotorQuoteStatusFromPaymentStatus(res.getStatus());
     }
@@ -433,6 +561,32 @@ public class MotorQuoteOrchestrator {
                 .map(mapper::toResponse);
     }
 
+    /**
+     * The quote's current state for the status stream: after asking the partner while an STK push is pending, as
+     * stored otherwise. A pending paybill payment waits for the customer's receipt and is not checked with the
+     * partner, which would replace the receipt with an STK status.
+     */
+    public Mono<MotorQuoteResponse> refreshQuoteStatus(String quoteId) {
+        return repository.findByQuoteId(quoteId)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("MotorQuoteApplication", quoteId)))
+                .flatMap(app -> PAYMENT_OPEN.contains(app.getStatus()) && isStkPayment(app, objectMapper)
+                        ? checkPaymentStatus(quoteId, PaymentMethod.MPESA_STK, null)
+                        : Mono.just(mapper.toResponse(app)));
+    }
+
+    /**
+     * Whether the quote's payment is an STK push, which the partner can be asked about. Reads the payment result
+     * through the row's parsed columns, so asking again for the same row does not parse it again.
+     */
+    static boolean isStkPayment(MotorQuoteApplication app, ObjectMapper objectMapper) {
+        if (app.getPaymentResult() == null) {
+            return false;
+        }
+        MotorPaymentResult result = app.json().read(app.getPaymentResult(), MotorPaymentResult.class, objectMapper);
+        // Older rows hold the partner's response; checkPaymentStatus resolves the checkout id from it
+        return result == null || result.getPaymentMethod() == null || result.getPaymentMethod() == PaymentMethod.MPESA_STK;
+    }
+
     public Mono<MotorQuoteResponse> issuePolicy(String quoteId) {
         log.info("Starting policy issuance for quoteId: {}", quoteId);
         return TenantContext.getTenantId()
@@ -458,72 +612,78 @@ public class MotorQuoteOrchestrator {
 
         app.setStatus(MotorQuoteStatus.POLICY_ISSUANCE_IN_PROGRESS);
         return repository.save(app)
-                .flatMap(savedApp -> {
-                    PartnerQuoteProvider provider = partnerFactory.getProvider(savedApp.getPartner());
-                    if (!provider.supportedCapabilities().contains(QuoteLifecycleCapability.ISSUE_POLICY)) {
-                        return Mono.error(new BusinessException("Partner does not support policy issuance: " + savedApp.getPartner()));
-                    }
+                .flatMap(savedApp -> issueWithPartner(savedApp)
+                        .onErrorResume(e -> markIssuanceFailed(savedApp, e)));
+    }
 
-                    DraftQuoteResponse draftQuote = deserialize(savedApp.getDraftQuoteResult(), DraftQuoteResponse.class);
-                    mapper.mergeLatestKyc(draftQuote, savedApp);
-                    MpesaPaymentStatusResponse paymentStatus = resolvePaymentStatus(savedApp);
+    // Issues the policy of a quote in POLICY_ISSUANCE_IN_PROGRESS with its partner and saves it as issued
+    private Mono<MotorQuoteApplication> issueWithPartner(MotorQuoteApplication savedApp) {
+        PartnerQuoteProvider provider = partnerFactory.getProvider(savedApp.getPartner());
+        if (!provider.supportedCapabilities().contains(QuoteLifecycleCapability.ISSUE_POLICY)) {
+            return Mono.error(new BusinessException("Partner does not support policy issuance: " + savedApp.getPartner()));
+        }
 
-                    return provider.issuePolicy(savedApp.getQuoteId(), draftQuote, paymentStatus)
-                            .flatMap(result -> {
-                                savedApp.setStatus(MotorQuoteStatus.POLICY_ISSUED);
-                                savedApp.setPolicyIssuanceResult(serialize(result));
+        // A copy of its own, as the latest KYC is merged into it
+        DraftQuoteResponse draftQuote = deserialize(savedApp.getDraftQuoteResult(), DraftQuoteResponse.class);
+        mapper.mergeLatestKyc(draftQuote, savedApp);
+        MpesaPaymentStatusResponse paymentStatus = resolvePaymentStatus(savedApp);
 
-                                // Update partner references with quotSysId if available
-                                if (result.getMetadata() != null && result.getMetadata().containsKey("quot_sys_id")) {
-                                    savedApp.setPartnerReferences(serialize(result.getMetadata()));
-                                }
+        return provider.issuePolicy(savedApp.getQuoteId(), draftQuote, paymentStatus)
+                .flatMap(result -> {
+                    savedApp.setStatus(MotorQuoteStatus.POLICY_ISSUED);
+                    savedApp.setPolicyIssuanceResult(serialize(savedApp, result));
 
-                                // NEW: Update draftQuoteResult with latest state from result metadata if available
-                                if (result.getMetadata() != null && result.getMetadata().containsKey("draft_quote_sys_id")) {
-                                    DraftQuoteResponse.DraftQuoteResponseBuilder draftBuilder = DraftQuoteResponse.builder()
-                                            .draftQuoteSysId(((Number) result.getMetadata().get("draft_quote_sys_id")).longValue())
-                                            .draftQuoteRef((String) result.getMetadata().get("draft_quote_ref"));
-
-                                    if (result.getMetadata().get("quot_sys_id") != null) {
-                                        draftBuilder.quotSysId(((Number) result.getMetadata().get("quot_sys_id")).longValue());
-                                    }
-
-                                    if (result.getMetadata().get("status") != null) {
-                                        String statusStr = (String) result.getMetadata().get("status");
-                                        try {
-                                            draftBuilder.status(DraftQuoteStatus.valueOf(statusStr.toUpperCase()));
-                                        } catch (Exception e) {
-                                            log.warn("Unknown draft quote status received from metadata: {}. Defaulting to UNKNOWN", statusStr);
-                                            draftBuilder.status(DraftQuoteStatus.UNKNOWN);
-                                        }
-                                    }
+                    // Update partner references with quotSysId if available
+                    if (result.getMetadata() != null && result.getMetadata().containsKey("quot_sys_id")) {
+                        savedApp.setPartnerReferences(serialize(result.getMetadata()));
+                    }
 
-                                    savedApp.setDraftQuoteResult(serialize(draftBuilder.build()));
-                                }
+                    // NEW: Update draftQuoteResult with latest state from result metadata if available
+                    if (result.getMetadata() != null && result.getMetadata().containsKey("draft_quote_sys_id")) {
+                        DraftQuoteResponse.DraftQuoteResponseBuilder draftBuilder = DraftQuoteResponse.builder()
+                                .draftQuoteSysId(((Number) result.getMetadata().get("draft_quote_sys_id")).longValue())
+                                .draftQuoteRef((String) result.getMetadata().get("draft_quote_ref"));
+
+                        if (result.getMetadata().get("quot_sys_id") != null) {
+                            draftBuilder.quotSysId(((Number) result.getMetadata().get("quot_sys_id")).longValue());
+                        }
+
+                        if (result.getMetadata().get("status") != null) {
+                            String statusStr = (String) result.getMetadata().get("status");
+                            try {
+                                draftBuilder.status(DraftQuoteStatus.valueOf(statusStr.toUpperCase()));
+                            } catch (Exception e) {
+                                log.warn("Unknown draft quote status received from metadata: {}. Defaulting to UNKNOWN", statusStr);
+                                draftBuilder.status(DraftQuoteStatus.UNKNOWN);
+                            }
+                        }
 
-                                savedApp.setRawPartnerResponses(serialize(result));
-                                return repository.save(savedApp);
-                            })
-                            .onErrorResume(e -> {
-                                log.error("Policy issuance failed for quoteId: {}", savedApp.getQuoteId(), e);
-                                savedApp.setStatus(MotorQuoteStatus.POLICY_ISSUANCE_FAILED);
-                                return repository.save(savedApp).then(Mono.error(e));
-                            });
+                        savedApp.setDraftQuoteResult(serialize(savedApp, draftBuilder.build()));
+                    }
+
+                    savedApp.setRawPartnerResponses(serialize(result));
+                    return repository.save(savedApp);
                 });
     }
 
+    private Mono<MotorQuoteApplication> markIssuanceFailed(MotorQuoteApplication app, Throwable e) {
+        log.error("Policy issuance failed for quoteId: {}", app.getQuoteId(), e);
+        app.setStatus(MotorQuoteStatus.POLICY_ISSUANCE_FAILED);
+        return repository.save(app).then(Mono.error(e));
+    }
+
     private MpesaPaymentStatusResponse resolvePaymentStatus(MotorQuoteApplication app) {
         String json = app.getPaymentResult();
         if (json == null) return null;
 
         // Try as MpesaPaymentStatusResponse first
-        MpesaPaymentStatusResponse statusRes = deserialize(json, MpesaPaymentStatusResponse.class);
+        MpesaPaymentStatusResponse statusRes = deserialize(app, json, MpesaPaymentStatusResponse.class);
         if (statusRes != null && statusRes.getStatus() != null) {
             return statusRes;
         }
 
         // Try as MotorPaymentResult and map it
-        MotorPaymentResult motorRes = deserialize(json, MotorPaymentResult.class);
+        MotorPaymentResult motorRes = deserialize(app, json, MotorPaymentResult.class);
         if (motorRes != null) {
             return MpesaPaymentStatusResponse.builder()
                     .provider(MpesaProviderType.valueOf(app.getPartner().name()))
@@ -538,52 +698,46 @@ public class MotorQuoteOrchestrator {
         }
 
         // Try as Initiation response as fallback
-        try {
-            com.isec.platform.modules.integrations.mpesa.model.MpesaInitiatePaymentResponse initRes =
-                    objectMapper.readValue(json, com.isec.platform.modules.integrations.mpesa.model.MpesaInitiatePaymentResponse.class);
-            if (initRes != null && initRes.getStatus() != null) {
-                return MpesaPaymentStatusResponse.builder()
-                        .provider(initRes.getProvider())
-                        .status(initRes.getStatus())
-                        .message(initRes.getMessage())
-                        .checkoutId(initRes.getCheckoutId())
-                        .rawResponse(initRes.getRawResponse())
-                        .build();
-            }
-        } catch (Exception e) {
-            // Ignore
+        com.isec.platform.modules.integrations.mpesa.model.MpesaInitiatePaymentResponse initRes =
+                deserialize(app, json, com.isec.platform.modules.integrations.mpesa.model.MpesaInitiatePaymentResponse.class);
+        if (initRes != null && initRes.getStatus() != null) {
+            return MpesaPaymentStatusResponse.builder()
+                    .provider(initRes.getProvider())
+                    .status(initRes.getStatus())
+                    .message(initRes.getMessage())
+                    .checkoutId(initRes.getCheckoutId())
+                    .rawResponse(initRes.getRawResponse())
+                    .build();
         }
 
         return null;
     }
 
     private MpesaCheckStatusRequest buildCheckStatusRequest(MotorQuoteApplication app) {
-        DraftQuoteResponse draft = deserialize(app.getDraftQuoteResult(), DraftQuoteResponse.class);
+        DraftQuoteResponse draft = deserialize(app, app.getDraftQuoteResult(), DraftQuoteResponse.class);
         String checkoutId = null;
 
         // Try to resolve from MotorPaymentResult first (New structure)
-        MotorPaymentResult motorRes = deserialize(app.getPaymentResult(), MotorPaymentResult.class);
+        MotorPaymentResult motorRes = deserialize(app, app.getPaymentResult(), MotorPaymentResult.class);
         if (motorRes != null && motorRes.getCheckoutId() != null) {
             checkoutId = motorRes.getCheckoutId();
         }
 
         if (checkoutId == null) {
-            try {
-                // Try as Status response (legacy/fallback)
-                MpesaPaymentStatusResponse statusRes = objectMapper.readValue(app.getPaymentResult(), MpesaPaymentStatusResponse.class);
+            // Try as Status response (legacy/fallback)
+            MpesaPaymentStatusResponse statusRes = deserialize(app, app.getPaymentResult(), MpesaPaymentStatusResponse.class);
+            if (statusRes != null) {
                 checkoutId = statusRes.getCheckoutId();
-            } catch (Exception e) {
-                // Ignore and try Initiation response
             }
         }
 
         if (checkoutId == null) {
-            try {
-                // Try as Initiation response (legacy/fallback)
-                com.isec.platform.modules.integrations.mpesa.model.MpesaInitiatePaymentResponse initRes =
-                        objectMapper.readValue(app.getPaymentResult(), com.isec.platform.modules.integrations.mpesa.model.MpesaInitiatePaymentResponse.class);
+            // Try as Initiation response (legacy/fallback)
+            com.isec.platform.modules.integrations.mpesa.model.MpesaInitiatePaymentResponse initRes =
+                    deserialize(app, app.getPaymentResult(), com.isec.platform.modules.integrations.mpesa.model.MpesaInitiatePaymentResponse.class);
+            if (initRes != null) {
                 checkoutId = initRes.getCheckoutId();
-            } catch (Exception e) {
+            } else if (app.getPaymentResult() != null) {
                 log.error("Failed to deserialize payment initiation result for quoteId: {}", app.getQuoteId());
             }
         }
@@ -607,6 +761,20 @@ public class MotorQuoteOrchestrator {
         }
     }
 
+    /**
+     * Serializes a value to store in one of the application's JSON columns, remembering it as the column's parsed form.
+     */
+    public String serialize(MotorQuoteApplication app, Object obj) {
+        return app.json().write(obj, objectMapper);
+    }
+
+    /**
+     * One of the application's JSON columns, parsed once per value; the result is shared and must not be modified.
+     */
+    public <T> T deserialize(MotorQuoteApplication app, String json, Class<T> clazz) {
+        return app.json().read(json, clazz, objectMapper);
+    }
+
     public <T> T deserialize(String json, Class<T> clazz) {
         if (json == null) return null;
         try {
@@ -0,0 +1,198 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.isec.platform.common.exception.BusinessException;
+import com.isec.platform.modules.applications.dto.motor.CompareMotorPremiumRequest;
+import com.isec.platform.modules.applications.dto.motor.MotorQuoteComparison;
+import com.isec.platform.modules.applications.dto.motor.PartnerPremiumQuote;
+import com.isec.platform.modules.applications.mapper.motor.MotorQuoteMapper;
+import com.isec.platform.modules.integrations.premium.model.PremiumCalculationRequest;
+import com.isec.platform.modules.integrations.premium.model.PremiumCalculationStatus;
+import com.isec.platform.modules.integrations.quote.provider.PartnerQuoteProvider;
+import com.isec.platform.modules.integrations.quote.provider.PartnerQuoteProviderFactory;
+import com.isec.platform.modules.integrations.quote.provider.PartnerType;
+import com.isec.platform.modules.integrations.quote.provider.QuoteLifecycleCapability;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Quotes a vehicle with every partner that calculates premiums at once, for customers comparing insurers.
+ * <p>
+ * Partners are called in parallel, each within {@code quote.comparison.deadline-ms}; a partner that has not answered
+ * by then is reported as timed out, so the comparison takes as long as the slowest partner up to the deadline rather
+ * than the sum of all of them. A call still running after the partner's recent p95 latency (or
+ * {@code quote.comparison.hedge-after-ms} until enough calls were seen) is hedged with a second call, and whichever
+ * answers first is used. Nothing is stored: the customer picks a partner and calculates the premium with it as usual.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PartnerQuoteComparison {
+
+    private static final Comparator<PartnerPremiumQuote> BEST_FIRST = Comparator
+            .comparing((PartnerPremiumQuote quote) -> quote.getOutcome() != PartnerPremiumQuote.Outcome.QUOTED)
+            .thenComparing(quote -> quote.getPremium() == null ? null : quote.getPremium().getGrossPremium(),
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final PartnerQuoteProviderFactory partnerFactory;
+    private final MotorQuoteMapper mapper;
+
+    @Value("${quote.comparison.deadline-ms:8000}")
+    private long deadlineMs = 8000;
+
+    // Hedging delay for a partner until hedge-min-samples of its calls were seen
+    @Value("${quote.comparison.hedge-after-ms:2500}")
+    private long hedgeAfterMs = 2500;
+
+    @Value("${quote.comparison.hedge-min-samples:20}")
+    private int hedgeMinSamples = 20;
+
+    // Recent call latencies kept per partner for its p95
+    @Value("${quote.comparison.latency-samples:200}")
+    private int latencySamples = 200;
+
+    private final Map<PartnerType, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    /**
+     * The partners' quotes ranked best-first, emitted again each time a partner answers; the last one is
+     * {@code complete}.
+     */
+    public Flux<MotorQuoteComparison> compare(CompareMotorPremiumRequest request) {
+        List<PartnerQuoteProvider> providers = partnerFactory.getProviders(QuoteLifecycleCapability.CALCULATE_PREMIUM).stream()
+                .filter(provider -> request.getPartners() == null || request.getPartners().isEmpty()
+                        || request.getPartners().contains(provider.providerType()))
+                .toList();
+        if (providers.isEmpty()) {
+            return Flux.error(new BusinessException("None of the requested partners calculates premiums"));
+        }
+        log.info("Comparing premiums of {} partners", providers.size());
+
+        List<PartnerPremiumQuote> received = new ArrayList<>();
+        return Flux.fromIterable(providers)
+                .flatMap(provider -> quote(provider, request))
+                .map(quote -> {
+                    received.add(quote);
+                    received.sort(BEST_FIRST);
+                    return MotorQuoteComparison.builder()
+                            .quotes(List.copyOf(received))
+                            .complete(received.size() == providers.size())
+                            .build();
+                });
+    }
+
+    private Mono<PartnerPremiumQuote> quote(PartnerQuoteProvider provider, CompareMotorPremiumRequest request) {
+        PartnerType partner = provider.providerType();
+        long start = System.nanoTime();
+        PremiumCalculationRequest premiumRequest;
+        try {
+            premiumRequest = mapper.toPremiumRequest(partner, request.getInsuranceDetails(), request.getVehicleDetails());
+        } catch (RuntimeException e) {
+            return Mono.just(failed(partner, start, e));
+        }
+
+        // The first call's failure is the partner's answer; a failed hedge leaves the first call to answer
+        Mono<PartnerPremiumQuote> first = attempt(provider, premiumRequest, start, false)
+                .onErrorResume(e -> Mono.just(failed(partner, start, e)));
+        Duration hedgeAfter = hedgeAfter(partner);
+        Mono<PartnerPremiumQuote> answer = first;
+        if (hedgeAfter.toMillis() < deadlineMs) {
+            Mono<PartnerPremiumQuote> hedge = Mono.delay(hedgeAfter)
+                    .doOnNext(tick -> log.info("Hedging premium calculation with {} after {} ms", partner, hedgeAfter.toMillis()))
+                    .then(attempt(provider, premiumRequest, start, true))
+                    .onErrorResume(e -> Mono.empty());
+            answer = Mono.firstWithValue(first, hedge);
+        }
+        return answer.timeout(Duration.ofMillis(deadlineMs), Mono.fromSupplier(() -> {
+            log.warn("Premium calculation with {} timed out after {} ms", partner, deadlineMs);
+            return PartnerPremiumQuote.builder()
+                    .partner(partner)
+                    .outcome(PartnerPremiumQuote.Outcome.TIMED_OUT)
+                    .latencyMs(elapsedMillis(start))
+                    .build();
+        }));
+    }
+
+    private Mono<PartnerPremiumQuote> attempt(PartnerQuoteProvider provider, PremiumCalculationRequest request,
+                                              long start, boolean hedged) {
+        return Mono.defer(() -> {
+            long attemptStart = System.nanoTime();
+            return provider.calculatePremium(request)
+                    .doOnNext(res -> latencies.computeIfAbsent(provider.providerType(), p -> new LatencyWindow(latencySamples))
+                            .record(System.nanoTime() - attemptStart))
+                    .map(res -> res.getStatus() == PremiumCalculationStatus.FAILED
+                            ? PartnerPremiumQuote.builder()
+                                    .partner(provider.providerType())
+                                    .outcome(PartnerPremiumQuote.Outcome.FAILED)
+                                    .latencyMs(elapsedMillis(start))
+                                    .hedged(hedged)
+                                    .message("Partner could not calculate the premium")
+                                    .build()
+                            : PartnerPremiumQuote.builder()
+                                    .partner(provider.providerType())
+                                    .outcome(PartnerPremiumQuote.Outcome.QUOTED)
+                                    .premium(mapper.toPremiumInfo(res))
+                                    .latencyMs(elapsedMillis(start))
+                                    .hedged(hedged)
+                                    .build());
+        });
+    }
+
+    private PartnerPremiumQuote failed(PartnerType partner, long start, Throwable e) {
+        log.warn("Premium calculation with {} failed: {}", partner, e.getMessage());
+        return PartnerPremiumQuote.builder()
+                .partner(partner)
+                .outcome(PartnerPremiumQuote.Outcome.FAILED)
+                .latencyMs(elapsedMillis(start))
+                .message(e.getMessage())
+                .build();
+    }
+
+    Duration hedgeAfter(PartnerType partner) {
+        LatencyWindow window = latencies.get(partner);
+        long p95 = window == null ? -1 : window.percentile(0.95, hedgeMinSamples);
+        return p95 < 0 ? Duration.ofMillis(hedgeAfterMs) : Duration.ofNanos(p95);
+    }
+
+    private static long elapsedMillis(long start) {
+        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+    }
+
+    // The last calls' latencies, in nanoseconds
+    private static final class LatencyWindow {
+
+        private final long[] samples;
+        private int count;
+        private int next;
+
+        LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        // -1 until minSamples were recorded
+        synchronized long percentile(double percentile, int minSamples) {
+            if (count == 0 || count < minSamples) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(percentile * count) - 1];
+        }
+    }
+}
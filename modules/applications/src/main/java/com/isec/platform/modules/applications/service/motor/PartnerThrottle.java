@@ -0,0 +1,137 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.isec.platform.modules.applications.config.FleetQuoteProperties;
+import com.isec.platform.modules.applications.config.PartnerLimits;
+import com.isec.platform.modules.integrations.quote.provider.PartnerType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caps the partner calls made on behalf of bulk work, so that a fleet submission reaches a partner at a steady rate
+ * instead of in a burst that trips its throttling.
+ * <p>
+ * Per partner, at most {@code concurrency} calls run at once and calls start at most {@code rate-per-second} apart
+ * (see {@link PartnerLimits}); callers beyond that wait without holding a thread. The limits are per node.
+ * <p>
+ * The bean applies the fleet limits of {@link FleetQuoteProperties}; other work that must not share them, such as
+ * policy issuance, constructs a throttle of its own.
+ */
+@Component
+public class PartnerThrottle {
+
+    private final Function<PartnerType, PartnerLimits> limits;
+
+    private final Map<PartnerType, Gate> gates = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PartnerThrottle(FleetQuoteProperties properties) {
+        this(properties::limits);
+    }
+
+    public PartnerThrottle(Function<PartnerType, PartnerLimits> limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Runs {@code work} once the partner's limits allow it.
+     */
+    public <T> Mono<T> run(PartnerType partner, Supplier<Mono<T>> work) {
+        Gate gate = gates.computeIfAbsent(partner, p -> new Gate(limits.apply(p)));
+        return Mono.defer(() -> {
+            AtomicBoolean held = new AtomicBoolean();
+            return gate.acquire()
+                    .doOnSuccess(permit -> held.set(true))
+                    .then(Mono.defer(() -> {
+                        long wait = gate.reserveStart();
+                        return wait > 0 ? Mono.delay(Duration.ofNanos(wait)).then() : Mono.<Void>empty();
+                    }))
+                    .then(Mono.defer(work))
+                    .doFinally(signal -> {
+                        if (held.getAndSet(false)) {
+                            gate.release();
+                        }
+                    });
+        });
+    }
+
+    private static final class Gate {
+
+        private final int concurrency;
+        private final long intervalNanos;
+        private final Queue<Waiter> waiting = new ArrayDeque<>();
+        private int active;
+        private long nextStart = System.nanoTime();
+
+        Gate(PartnerLimits limits) {
+            this.concurrency = Math.max(1, limits.getConcurrency());
+            this.intervalNanos = limits.getRatePerSecond() > 0 ? (long) (1_000_000_000L / limits.getRatePerSecond()) : 0;
+        }
+
+        Mono<Void> acquire() {
+            return Mono.defer(() -> {
+                Waiter waiter = new Waiter();
+                synchronized (this) {
+                    if (active < concurrency) {
+                        active++;
+                        return Mono.empty();
+                    }
+                    waiting.add(waiter);
+                }
+                return waiter.permit.asMono().doOnCancel(() -> cancel(waiter));
+            });
+        }
+
+        void release() {
+            while (true) {
+                Waiter next;
+                synchronized (this) {
+                    next = waiting.poll();
+                    if (next == null) {
+                        active--;
+                        return;
+                    }
+                }
+                // The permit passes straight to the next waiter, unless it gave up meanwhile
+                if (next.claimed.compareAndSet(false, true)) {
+                    next.permit.tryEmitEmpty();
+                    return;
+                }
+            }
+        }
+
+        private void cancel(Waiter waiter) {
+            if (waiter.claimed.compareAndSet(false, true)) {
+                synchronized (this) {
+                    waiting.remove(waiter);
+                }
+            } else {
+                // Granted a permit just as it gave up
+                release();
+            }
+        }
+
+        // Nanoseconds until the next call may start, reserving that start
+        synchronized long reserveStart() {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextStart);
+            nextStart = start + intervalNanos;
+            return start - now;
+        }
+    }
+
+    private static final class Waiter {
+        private final Sinks.One<Void> permit = Sinks.one();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+    }
+}
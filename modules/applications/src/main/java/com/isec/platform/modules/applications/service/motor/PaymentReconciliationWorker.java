@@ -0,0 +1,211 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.common.multitenancy.TenantContext;
+import com.isec.platform.modules.applications.domain.motor.MotorQuoteApplication;
+import com.isec.platform.modules.applications.domain.motor.PaymentMethod;
+import com.isec.platform.modules.applications.repository.motor.MotorQuoteRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Advances pending M-Pesa STK payments without waiting for the customer to poll, including queueing the automatic
+ * policy issuance that follows a successful payment.
+ * <p>
+ * Every {@code payments.reconciliation.interval-ms} one node, the holder of a Redis lease that it keeps renewing
+ * while it runs, reads the quotes in {@code PAYMENT_INITIATED} or {@code PAYMENT_PENDING} in pages of
+ * {@code batch-size} by ascending id and checks the ones that are due through
+ * {@link MotorQuoteOrchestrator#checkPaymentStatus}, at most {@code concurrency} at a time. How long a quote has been
+ * pending is measured from its row's last update. A quote is due every {@code base-seconds} during its first
+ * {@code fast-minutes} pending; after that the interval doubles every {@code fast-minutes} up to {@code max-seconds}.
+ * Quotes pending longer than {@code give-up-hours} are left to the customer and no longer read. Paybill payments need
+ * the customer's receipt and are skipped, as are quotes whose status a {@link QuoteStatusStream} watcher is polling
+ * already; they are checked again once it let go of its lease.
+ * <p>
+ * When a quote was last checked is kept by the node holding the lease; a node taking over checks every pending quote
+ * once and then continues at the interval its pending age calls for.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentReconciliationWorker {
+
+    private static final String LEASE_KEY = "payments:reconciliation:lease";
+
+    private final MotorQuoteRepository repository;
+    private final MotorQuoteOrchestrator orchestrator;
+    private final ReactiveStringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${payments.reconciliation.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${payments.reconciliation.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${payments.reconciliation.concurrency:8}")
+    private int concurrency = 8;
+
+    @Value("${payments.reconciliation.base-seconds:5}")
+    private long baseSeconds = 5;
+
+    @Value("${payments.reconciliation.fast-minutes:2}")
+    private long fastMinutes = 2;
+
+    @Value("${payments.reconciliation.max-seconds:120}")
+    private long maxSeconds = 120;
+
+    @Value("${payments.reconciliation.give-up-hours:24}")
+    private long giveUpHours = 24;
+
+    @Value("${payments.reconciliation.lease-seconds:60}")
+    private long leaseSeconds = 60;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    // When this node last checked each pending quote, by quote id
+    private final Map<String, LocalDateTime> lastChecked = new ConcurrentHashMap<>();
+
+    @Scheduled(fixedDelayString = "${payments.reconciliation.interval-ms:5000}")
+    public void reconcile() {
+        if (!enabled || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        lease()
+                .filter(Boolean.TRUE::equals)
+                .flatMap(held -> sweep())
+                .doFinally(signal -> sweeping.set(false))
+                .subscribe(checked -> {
+                            if (checked > 0) {
+                                log.info("Reconciled {} pending payments", checked);
+                            }
+                        },
+                        e -> log.error("Payment reconciliation failed", e));
+    }
+
+    /**
+     * Checks every pending payment that is due; emits how many were checked.
+     */
+    Mono<Integer> sweep() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Set<String> pending = ConcurrentHashMap.newKeySet();
+        AtomicInteger checked = new AtomicInteger();
+        long[] afterId = {0};
+        LocalDateTime updatedAfter = now.minusHours(giveUpHours);
+        return Mono.defer(() -> repository.findPendingPayments(updatedAfter, afterId[0], batchSize).collectList())
+                .flatMap(page -> {
+                    if (page.isEmpty()) {
+                        return Mono.just(false);
+                    }
+                    afterId[0] = page.get(page.size() - 1).getId();
+                    return Flux.fromIterable(page)
+                            .doOnNext(app -> pending.add(app.getQuoteId()))
+                            .filter(app -> isDue(app, now))
+                            .flatMap(app -> check(app, now).filter(Boolean::booleanValue)
+                                    .doOnNext(asked -> checked.incrementAndGet()), concurrency)
+                            .then(Mono.just(page.size() == batchSize));
+                })
+                .repeat()
+                .takeUntil(more -> !more)
+                .then(Mono.fromSupplier(() -> {
+                    lastChecked.keySet().retainAll(pending);
+                    return checked.get();
+                }));
+    }
+
+    // Emits whether the partner was asked
+    private Mono<Boolean> check(MotorQuoteApplication app, LocalDateTime now) {
+        lastChecked.put(app.getQuoteId(), now);
+        return watched(app.getQuoteId())
+                .flatMap(watched -> watched
+                        ? Mono.just(false)
+                        : orchestrator.checkPaymentStatus(app.getQuoteId(), PaymentMethod.MPESA_STK, null)
+                                .contextWrite(TenantContext.withTenantId(app.getTenantId()))
+                                .doOnNext(response -> log.debug("Reconciled payment of quote {}: {}",
+                                        app.getQuoteId(), response.getStatus()))
+                                .onErrorResume(e -> {
+                                    log.warn("Payment reconciliation of quote {} failed: {}",
+                                            app.getQuoteId(), e.getMessage());
+                                    return Mono.empty();
+                                })
+                                .thenReturn(true));
+    }
+
+    // Whether a status watcher polls the quote's payment, so that the partner is not asked twice
+    private Mono<Boolean> watched(String quoteId) {
+        return stringRedisTemplate.hasKey(QuoteStatusStream.WATCHER_PREFIX + quoteId)
+                .onErrorResume(e -> {
+                    log.warn("Could not read the status watcher lease of quote {}: {}", quoteId, e.getMessage());
+                    return Mono.just(false);
+                })
+                .defaultIfEmpty(false);
+    }
+
+    boolean isDue(MotorQuoteApplication app, LocalDateTime now) {
+        if (!MotorQuoteOrchestrator.isStkPayment(app, objectMapper)) {
+            return false;
+        }
+        // Rows without an update time, if any, count as just changed
+        Duration pendingFor = app.getUpdatedAt() == null ? Duration.ZERO : Duration.between(app.getUpdatedAt(), now);
+        if (pendingFor.compareTo(Duration.ofHours(giveUpHours)) > 0) {
+            return false;
+        }
+        LocalDateTime checked = lastChecked.get(app.getQuoteId());
+        return checked == null || !checked.plus(interval(pendingFor)).isAfter(now);
+    }
+
+    Duration interval(Duration pendingFor) {
+        Duration fast = Duration.ofMinutes(fastMinutes);
+        if (pendingFor.compareTo(fast) < 0) {
+            return Duration.ofSeconds(baseSeconds);
+        }
+        long doublings = Math.min(pendingFor.dividedBy(fast), 30);
+        return Duration.ofSeconds(Math.min(baseSeconds << doublings, maxSeconds));
+    }
+
+
+    // Takes the lease, or renews it if this node holds it
+    private Mono<Boolean> lease() {
+        Duration ttl = Duration.ofSeconds(leaseSeconds);
+        return stringRedisTemplate.opsForValue().setIfAbsent(LEASE_KEY, nodeId, ttl)
+                .flatMap(acquired -> acquired
+                        ? Mono.just(true)
+                        : stringRedisTemplate.execute(LeaseScripts.RENEW, List.of(LEASE_KEY),
+                                        List.of(nodeId, String.valueOf(ttl.toMillis())))
+                                .next()
+                                .map(renewed -> renewed == 1)
+                                .defaultIfEmpty(false));
+    }
+
+    // Lets another node take over right away rather than after the lease expires
+    @PreDestroy
+    public void release() {
+        stringRedisTemplate.execute(LeaseScripts.RELEASE, List.of(LEASE_KEY), List.of(nodeId))
+                .onErrorResume(e -> {
+                    log.warn("Could not release payment reconciliation lease: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then()
+                .block(Duration.ofSeconds(5));
+    }
+}
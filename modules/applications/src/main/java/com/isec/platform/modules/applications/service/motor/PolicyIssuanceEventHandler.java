@@ -0,0 +1,59 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.common.multitenancy.TenantContext;
+import com.isec.platform.modules.applications.config.PolicyIssuanceProperties;
+import com.isec.platform.modules.integrations.quote.provider.PartnerType;
+import com.isec.platform.reactive.infra.outbox.OutboxEvent;
+import com.isec.platform.reactive.infra.outbox.OutboxEventHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Issues the policies queued after a successful payment; see {@link MotorQuoteOrchestrator#issueQueuedPolicy}.
+ * <p>
+ * Issuances reach each partner through a {@link PartnerThrottle} of their own, at most {@code quote.issuance}
+ * concurrency and rate per node, so that a spike of payments is issued at a pace the partner accepts instead of all
+ * at once. A failed issuance is retried by the outbox worker with a randomized backoff, up to
+ * {@code infra.outbox.max-retries} attempts.
+ */
+@Component
+public class PolicyIssuanceEventHandler implements OutboxEventHandler {
+
+    public static final String EVENT_TYPE = "motor.policy.issue";
+
+    private final MotorQuoteOrchestrator orchestrator;
+    private final ObjectMapper objectMapper;
+    private final PartnerThrottle throttle;
+
+    // The outbox worker's; the last attempt marks the quote's issuance failed
+    @Value("${infra.outbox.max-retries:5}")
+    private int maxAttempts = 5;
+
+    public PolicyIssuanceEventHandler(MotorQuoteOrchestrator orchestrator, ObjectMapper objectMapper,
+                                      PolicyIssuanceProperties properties) {
+        this.orchestrator = orchestrator;
+        this.objectMapper = objectMapper;
+        this.throttle = new PartnerThrottle(properties::limits);
+    }
+
+    @Override
+    public boolean canHandle(String eventType) {
+        return EVENT_TYPE.equals(eventType);
+    }
+
+    @Override
+    public Mono<Void> handle(OutboxEvent event) {
+        // An event without a retry count has not failed yet
+        int failures = event.getRetryCount() == null ? 0 : event.getRetryCount();
+        boolean lastAttempt = failures + 1 >= maxAttempts;
+        return Mono.fromCallable(() -> objectMapper.readValue(event.getPayload(), Payload.class))
+                .flatMap(payload -> throttle.run(payload.partner(),
+                                () -> orchestrator.issueQueuedPolicy(payload.quoteId(), lastAttempt))
+                        .contextWrite(TenantContext.withTenantId(payload.tenantId())));
+    }
+
+    public record Payload(String quoteId, String tenantId, PartnerType partner) {
+    }
+}
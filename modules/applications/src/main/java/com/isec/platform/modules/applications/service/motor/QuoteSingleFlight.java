@@ -0,0 +1,185 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.isec.platform.common.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent runs of the same operation on a quote, e.g. a double-submitted premium calculation, into one.
+ * <p>
+ * Callers on this node with the same fingerprint share the in-flight run and its result. Across nodes, the run holds
+ * a Redis lease on the quote; callers elsewhere with the same fingerprint wait for it to finish and then read the
+ * outcome it stored instead of running again, as do identical retries shortly after it succeeded. A caller with a
+ * different fingerprint while a run is in progress is rejected rather than racing it on the quote's row. When a run
+ * fails its lease is released, so waiting callers and retries run it again. The lease is only released or marked
+ * completed while it still holds this run, so a run that outlived its lease never touches another node's. If Redis is
+ * unavailable, runs are only coalesced per node.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QuoteSingleFlight {
+
+    private static final String KEY_PREFIX = "quote_flight:";
+    private static final String RUNNING = "RUNNING";
+    private static final String DONE = "DONE";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    // Bounds a run that does not finish, e.g. because its node died; waiting callers then take over
+    @Value("${quote.single-flight.lease-seconds:60}")
+    private long leaseSeconds = 60;
+
+    // How long identical requests after a successful run read its outcome instead of running again
+    @Value("${quote.single-flight.completed-seconds:30}")
+    private long completedSeconds = 30;
+
+    @Value("${quote.single-flight.poll-millis:200}")
+    private long pollMillis = 200;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Flight<?>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Identifies a request, so that only requests with identical content are coalesced.
+     */
+    public static String fingerprint(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                // A request whose content is unknown is never coalesced with another
+                digest.update((part == null ? UUID.randomUUID().toString() : part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Runs {@code work} for {@code operation} on the quote, or joins the run already in progress for the same
+     * fingerprint.
+     *
+     * @param completed reads the outcome of a run that finished on another node, e.g. from the quote's row
+     * @throws BusinessException (as error signal) if a run with a different fingerprint is in progress, or the run on
+     *                           another node does not finish in time
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(String operation, String quoteId, String fingerprint,
+                               Supplier<Mono<T>> work, Supplier<Mono<T>> completed) {
+        Call<T> call = new Call<>(operation, quoteId, KEY_PREFIX + operation + ":" + quoteId, fingerprint, work, completed);
+        Flight<?> flight = flights.get(call.key());
+        if (flight == null) {
+            // Only this flight's own entry is removed, never a newer one registered under the same key
+            AtomicReference<Flight<T>> self = new AtomicReference<>();
+            Flight<T> started = new Flight<>(fingerprint,
+                    Mono.defer(() -> attempt(call, System.nanoTime() + Duration.ofSeconds(leaseSeconds * 2).toNanos()))
+                            .doFinally(signal -> flights.remove(call.key(), self.get()))
+                            .cache());
+            self.set(started);
+            flight = flights.putIfAbsent(call.key(), started);
+            if (flight == null) {
+                return started.result();
+            }
+        }
+        if (!flight.fingerprint().equals(fingerprint)) {
+            return Mono.error(inProgress(call));
+        }
+        log.info("Joining in-flight {} for quote {}", operation, quoteId);
+        return (Mono<T>) flight.result();
+    }
+
+    private <T> Mono<T> attempt(Call<T> call, long deadline) {
+        String running = RUNNING + ":" + nodeId + ":" + call.fingerprint();
+        return redisTemplate.opsForValue().setIfAbsent(call.key(), running, Duration.ofSeconds(leaseSeconds))
+                .onErrorResume(e -> {
+                    log.warn("Could not take lease {}; coalescing on this node only: {}", call.key(), e.getMessage());
+                    return Mono.just(true);
+                })
+                .flatMap(acquired -> Boolean.TRUE.equals(acquired) ? lead(call, running) : follow(call, deadline));
+    }
+
+    private <T> Mono<T> lead(Call<T> call, String running) {
+        return call.work().get()
+                .flatMap(result -> redisTemplate.execute(LeaseScripts.REPLACE, List.of(call.key()),
+                                List.of(running, DONE + ":" + call.fingerprint(),
+                                        String.valueOf(Duration.ofSeconds(completedSeconds).toMillis())))
+                        .next()
+                        .doOnNext(replaced -> {
+                            if (replaced == 0) {
+                                log.warn("Lease {} expired before its run completed; not marking it completed",
+                                        call.key());
+                            }
+                        })
+                        .onErrorResume(e -> {
+                            log.warn("Could not mark {} completed: {}", call.key(), e.getMessage());
+                            return Mono.empty();
+                        })
+                        .thenReturn(result))
+                .onErrorResume(e -> release(call.key(), running).then(Mono.error(e)));
+    }
+
+    private <T> Mono<T> follow(Call<T> call, long deadline) {
+        return redisTemplate.opsForValue().get(call.key())
+                .defaultIfEmpty("")
+                .flatMap(holder -> {
+                    if (holder.isEmpty()) {
+                        // Released or expired since the lease was tried
+                        return attempt(call, deadline);
+                    }
+                    boolean same = holder.endsWith(":" + call.fingerprint());
+                    if (holder.startsWith(DONE)) {
+                        return same
+                                ? call.completed().get()
+                                : release(call.key(), holder).then(Mono.defer(() -> attempt(call, deadline)));
+                    }
+                    if (!same) {
+                        return Mono.error(inProgress(call));
+                    }
+                    if (System.nanoTime() - deadline > 0) {
+                        return Mono.error(new BusinessException("Timed out waiting for the " + call.operation()
+                                + " of quote " + call.quoteId() + " running on another node"));
+                    }
+                    return Mono.delay(Duration.ofMillis(pollMillis)).then(Mono.defer(() -> attempt(call, deadline)));
+                });
+    }
+
+    // Deletes the lease only if it still holds the given value
+    private Mono<Void> release(String key, String value) {
+        return redisTemplate.execute(LeaseScripts.RELEASE, List.of(key), List.of(value))
+                .onErrorResume(e -> {
+                    log.warn("Could not release lease {}: {}", key, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static BusinessException inProgress(Call<?> call) {
+        return new BusinessException("A " + call.operation() + " with different details is in progress for quote "
+                + call.quoteId() + "; retry once it completes");
+    }
+
+    private record Call<T>(String operation, String quoteId, String key, String fingerprint,
+                           Supplier<Mono<T>> work, Supplier<Mono<T>> completed) {
+    }
+
+    private record Flight<T>(String fingerprint, Mono<T> result) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.common.exception.BusinessException;
+import com.isec.platform.common.multitenancy.TenantContext;
+import com.isec.platform.modules.applications.domain.motor.MotorQuoteStatus;
+import com.isec.platform.modules.applications.dto.motor.MotorQuoteResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes the status of a quote to every client watching it, instead of each client polling
+ * {@link MotorQuoteOrchestrator#checkPaymentStatus}.
+ * <p>
+ * One node per quote, the holder of a Redis lease on it, polls the quote: the partner's STK status while an STK
+ * payment is pending, otherwise just the quote's row; see {@link MotorQuoteOrchestrator#refreshQuoteStatus}. It
+ * publishes each result on the quote's Redis channel ({@value #CHANNEL_PREFIX}{@code <quoteId>}), which every node
+ * holding a client connection for the quote listens to, once per node and over the node's one shared pub/sub
+ * connection. The watcher stops when the quote reaches a
+ * final status, when no node is listening any more or after {@code quote.status-stream.max-minutes}; if its node
+ * dies, another node watching the quote takes the lease over once it expires.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QuoteStatusStream {
+
+    public static final String CHANNEL_PREFIX = "quote_status:";
+    static final String WATCHER_PREFIX = "quote_status_watcher:";
+
+    // Statuses after which the quote no longer changes without a client action
+    private static final Set<MotorQuoteStatus> FINAL = EnumSet.of(MotorQuoteStatus.PAYMENT_FAILED,
+            MotorQuoteStatus.POLICY_ISSUED, MotorQuoteStatus.POLICY_ISSUANCE_FAILED);
+
+    private final MotorQuoteOrchestrator orchestrator;
+    private final ReactiveStringRedisTemplate stringRedisTemplate;
+    private final ReactiveRedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+
+    @Value("${quote.status-stream.poll-seconds:3}")
+    private long pollSeconds = 3;
+
+    // Renewed with every poll; a watcher whose node died is taken over after this long
+    @Value("${quote.status-stream.lease-seconds:15}")
+    private long leaseSeconds = 15;
+
+    @Value("${quote.status-stream.max-minutes:10}")
+    private long maxMinutes = 10;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    // One Redis subscription per quote on this node, shared by its clients
+    private final Map<String, Flux<MotorQuoteResponse>> channels = new ConcurrentHashMap<>();
+    private final Map<String, Disposable> watchers = new ConcurrentHashMap<>();
+
+    /**
+     * The quote's current state, then every change until it reaches a final status or
+     * {@code quote.status-stream.max-minutes} pass.
+     */
+    public Flux<MotorQuoteResponse> stream(String quoteId) {
+        return TenantContext.getTenantId()
+                .switchIfEmpty(Mono.error(new BusinessException("Missing required X-Tenant-Id header")))
+                .flatMapMany(tenantId -> stream(tenantId, quoteId));
+    }
+
+    private Flux<MotorQuoteResponse> stream(String tenantId, String quoteId) {
+        Flux<MotorQuoteResponse> updates = channels.computeIfAbsent(quoteId, this::listen);
+        // Also retries taking the lease, in case the node watching the quote dies
+        Flux<MotorQuoteResponse> keepWatched = Flux.interval(Duration.ZERO, Duration.ofSeconds(leaseSeconds))
+                .concatMap(tick -> ensureWatcher(tenantId, quoteId).then(Mono.<MotorQuoteResponse>empty()));
+        return Flux.merge(orchestrator.getQuoteApplication(quoteId), updates, keepWatched)
+                .distinctUntilChanged()
+                .takeUntil(response -> FINAL.contains(response.getStatus()))
+                .take(Duration.ofMinutes(maxMinutes));
+    }
+
+    private Flux<MotorQuoteResponse> listen(String quoteId) {
+        return listenerContainer.receive(ChannelTopic.of(CHANNEL_PREFIX + quoteId))
+                .map(ReactiveSubscription.Message::getMessage)
+                .flatMap(message -> {
+                    try {
+                        return Mono.just(objectMapper.readValue(message, MotorQuoteResponse.class));
+                    } catch (JsonProcessingException e) {
+                        log.warn("Ignoring unreadable status of quote {}: {}", quoteId, e.getMessage());
+                        return Mono.empty();
+                    }
+                })
+                .doFinally(signal -> channels.remove(quoteId))
+                .share();
+    }
+
+    private Mono<Void> ensureWatcher(String tenantId, String quoteId) {
+        if (watchers.containsKey(quoteId)) {
+            return Mono.empty();
+        }
+        return stringRedisTemplate.opsForValue().setIfAbsent(WATCHER_PREFIX + quoteId, nodeId, Duration.ofSeconds(leaseSeconds))
+                .filter(Boolean.TRUE::equals)
+                .doOnNext(acquired -> watchers.computeIfAbsent(quoteId, q -> watch(tenantId, q)
+                        .doFinally(signal -> watchers.remove(q))
+                        .subscribe()))
+                .onErrorResume(e -> {
+                    log.warn("Could not take the status watcher lease of quote {}: {}", quoteId, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    Mono<Void> watch(String tenantId, String quoteId) {
+        log.info("Watching status of quote {}", quoteId);
+        String lease = WATCHER_PREFIX + quoteId;
+        return Flux.interval(Duration.ZERO, Duration.ofSeconds(pollSeconds))
+                .concatMap(tick -> poll(tenantId, quoteId)
+                        .flatMap(response -> publish(quoteId, response)
+                                // The first result may be published before this node's own subscription is in place
+                                // Stops once another node took the lease over, e.g. after this one stalled
+                                .flatMap(listeners -> renew(lease)
+                                        .map(renewed -> !renewed
+                                                || tick > 0 && listeners == 0
+                                                || FINAL.contains(response.getStatus()))))
+                        .onErrorResume(e -> {
+                            log.warn("Status poll of quote {} failed: {}", quoteId, e.getMessage());
+                            return Mono.just(false);
+                        }))
+                .takeUntil(Boolean::booleanValue)
+                .take(Duration.ofMinutes(maxMinutes))
+                .then()
+                .doFinally(signal -> release(lease).subscribe());
+    }
+
+    private Mono<MotorQuoteResponse> poll(String tenantId, String quoteId) {
+        return orchestrator.refreshQuoteStatus(quoteId)
+                .contextWrite(TenantContext.withTenantId(tenantId));
+    }
+
+    private Mono<Long> publish(String quoteId, MotorQuoteResponse response) {
+        try {
+            return stringRedisTemplate.convertAndSend(CHANNEL_PREFIX + quoteId, objectMapper.writeValueAsString(response));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+
+    // Extends the lease only if this node still holds it
+    private Mono<Boolean> renew(String lease) {
+        return stringRedisTemplate.execute(LeaseScripts.RENEW, List.of(lease),
+                        List.of(nodeId, String.valueOf(Duration.ofSeconds(leaseSeconds).toMillis())))
+                .next()
+                .map(renewed -> renewed == 1);
+    }
+
+    // Deletes the lease only if this node still holds it
+    private Mono<Void> release(String lease) {
+        return stringRedisTemplate.execute(LeaseScripts.RELEASE, List.of(lease), List.of(nodeId))
+                .onErrorResume(e -> {
+                    log.warn("Could not release {}: {}", lease, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    @PreDestroy
+    public void stop() {
+        watchers.values().forEach(Disposable::dispose);
+    }
+}
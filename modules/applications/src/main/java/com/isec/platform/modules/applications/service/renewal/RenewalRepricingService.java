@@ -0,0 +1,248 @@
+package com.isec.platform.modules.applications.service.renewal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.modules.applications.domain.renewal.RenewalOffer;
+import com.isec.platform.modules.applications.domain.renewal.RenewalOfferStatus;
+import com.isec.platform.modules.applications.domain.renewal.RenewalRun;
+import com.isec.platform.modules.applications.dto.renewal.RenewalCandidate;
+import com.isec.platform.modules.applications.repository.renewal.RenewalRepository;
+import com.isec.platform.modules.rating.domain.RateRule;
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.PricingResult;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import com.isec.platform.modules.rating.dto.ReferralDecision;
+import com.isec.platform.modules.rating.repository.RateRuleRepository;
+import com.isec.platform.modules.rating.service.PricingEngine;
+import com.isec.platform.modules.rating.service.RateBookSnapshotLoader;
+import com.isec.platform.reactive.infra.tx.ReactiveTransactionRunner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Nightly re-pricing of policies expiring within {@code renewals.lead-days}, writing one {@link RenewalOffer} per
+ * policy and expiry.
+ * <p>
+ * Each policy's {@link RatingContext} is rebuilt from its application, the customer's vehicle record and the rules
+ * that priced it, as in what-if simulations, and priced against the rate book in effect on the day after expiry.
+ * Policies are read in pages of {@code renewals.batch-size} by ascending id. Each page is priced on the CPU
+ * scheduler, at most {@code renewals.concurrency} at a time, and its offers are written in one batched statement
+ * together with the run's checkpoint. The job holds one database connection at a time.
+ * <p>
+ * A run is leased by one node. The lease is extended with every page; when a node dies, the next trigger after the
+ * lease expires resumes the run from its checkpoint. Policies that already have an offer for their expiry are
+ * skipped, so consecutive nights only price the policies entering the window plus earlier failures.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RenewalRepricingService {
+
+    private static final String DEFAULT_CATEGORY = "PRIVATE_CAR";
+    private static final int MAX_REASON_LENGTH = 500;
+
+    private final RenewalRepository renewalRepository;
+    private final RateBookSnapshotLoader snapshotLoader;
+    private final RateRuleRepository rateRuleRepository;
+    private final PricingEngine pricingEngine;
+    private final ReactiveTransactionRunner transactionRunner;
+    private final ObjectMapper objectMapper;
+
+    @Value("${renewals.lead-days:30}")
+    private int leadDays = 30;
+
+    @Value("${renewals.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${renewals.concurrency:4}")
+    private int concurrency = 4;
+
+    @Value("${renewals.lease-minutes:10}")
+    private long leaseMinutes = 10;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    private final String owner = "renewals-" + UUID.randomUUID();
+
+    /**
+     * Starts tonight's run, or resumes it if it was interrupted; a no-op once it is completed or while another node
+     * holds it.
+     */
+    @Scheduled(cron = "${renewals.cron:0 */15 0-5 * * *}")
+    public void runNightly() {
+        run(LocalDate.now(clock))
+                .subscribe(run -> log.info("Renewal run {} completed: {} offered, {} referred, {} declined, {} failed",
+                                run.getRunDate(), run.getOffered(), run.getReferred(), run.getDeclined(), run.getFailed()),
+                        e -> log.error("Renewal run failed; it resumes from its checkpoint once the lease expires", e));
+    }
+
+    Mono<RenewalRun> run(LocalDate runDate) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return renewalRepository.claim(runDate, runDate, runDate.plusDays(leadDays), owner, now, now.plusMinutes(leaseMinutes))
+                .flatMap(run -> {
+                    log.info("Re-pricing policies expiring {} to {} from policy {}", run.getWindowFrom(), run.getWindowUntil(),
+                            run.getLastPolicyId());
+                    Tariffs tariffs = new Tariffs();
+                    return Mono.defer(() -> nextPage(run, tariffs))
+                            .repeat()
+                            .takeUntil(more -> !more)
+                            .then(Mono.defer(() -> renewalRepository.complete(run, owner, LocalDateTime.now(clock))))
+                            .thenReturn(run);
+                });
+    }
+
+    // Prices and stores the page after the checkpoint; false once no policies are left
+    private Mono<Boolean> nextPage(RenewalRun run, Tariffs tariffs) {
+        return renewalRepository.findCandidates(run.getWindowFrom(), run.getWindowUntil(), run.getLastPolicyId(), batchSize)
+                .collectList()
+                .flatMap(page -> {
+                    if (page.isEmpty()) {
+                        return Mono.just(false);
+                    }
+                    return Flux.fromIterable(page)
+                            .flatMap(candidate -> offer(run, candidate, tariffs), concurrency)
+                            .collectList()
+                            .flatMap(offers -> store(run, offers, page.get(page.size() - 1).getPolicyId()))
+                            .thenReturn(page.size() == batchSize);
+                });
+    }
+
+    private Mono<Void> store(RenewalRun run, List<RenewalOffer> offers, long lastPolicyId) {
+        RenewalRun next = RenewalRun.builder()
+                .id(run.getId())
+                .runDate(run.getRunDate())
+                .lastPolicyId(lastPolicyId)
+                .offered(run.getOffered() + count(offers, RenewalOfferStatus.OFFERED))
+                .referred(run.getReferred() + count(offers, RenewalOfferStatus.REFERRED))
+                .declined(run.getDeclined() + count(offers, RenewalOfferStatus.DECLINED))
+                .failed(run.getFailed() + count(offers, RenewalOfferStatus.FAILED))
+                .build();
+        LocalDateTime now = LocalDateTime.now(clock);
+        return transactionRunner.inTransaction(renewalRepository.insertOffers(offers)
+                        .then(renewalRepository.advance(next, owner, now, now.plusMinutes(leaseMinutes)))
+                        .thenReturn(next))
+                .doOnNext(stored -> {
+                    run.setLastPolicyId(stored.getLastPolicyId());
+                    run.setOffered(stored.getOffered());
+                    run.setReferred(stored.getReferred());
+                    run.setDeclined(stored.getDeclined());
+                    run.setFailed(stored.getFailed());
+                    log.debug("Renewal run {} stored {} offers up to policy {}", run.getRunDate(), offers.size(), lastPolicyId);
+                })
+                .then();
+    }
+
+    private Mono<RenewalOffer> offer(RenewalRun run, RenewalCandidate candidate, Tariffs tariffs) {
+        LocalDate renewalStart = candidate.getExpiryDate().plusDays(1);
+        return Mono.zip(tariffs.snapshot(candidate.getTenantId(), renewalStart), tariffs.baseRuleCategories(candidate.getTenantId()))
+                .publishOn(Schedulers.parallel())
+                .map(tariff -> price(run, candidate, renewalStart, tariff.getT1(), tariff.getT2()))
+                .switchIfEmpty(Mono.fromSupplier(() -> unpriced(run, candidate, renewalStart, RenewalOfferStatus.FAILED,
+                        "No rate book in effect on " + renewalStart)))
+                .onErrorResume(e -> Mono.just(unpriced(run, candidate, renewalStart, RenewalOfferStatus.FAILED, e.getMessage())));
+    }
+
+    RenewalOffer price(RenewalRun run, RenewalCandidate candidate, LocalDate renewalStart,
+                       RateBookSnapshotLoader.Snapshot snapshot, Map<Long, String> baseRuleCategories) {
+        RatingContext context = RatingContext.builder()
+                .tenantId(candidate.getTenantId())
+                .category(category(candidate.getAppliedRuleIds(), baseRuleCategories))
+                .vehicleValue(candidate.getVehicleValue())
+                .vehicleAge(candidate.getYearOfManufacture() != null ? renewalStart.getYear() - candidate.getYearOfManufacture() : null)
+                .vehicleMake(candidate.getVehicleMake())
+                .vehicleModel(candidate.getVehicleModel())
+                .selectedAddonIds(new HashSet<>(candidate.getAddonRuleIds()))
+                .build();
+        PricingResult pricing;
+        try {
+            pricing = pricingEngine.priceCandidate(snapshot, context);
+        } catch (RuntimeException e) {
+            return unpriced(run, candidate, renewalStart,
+                    PricingEngine.isDeclined(e) ? RenewalOfferStatus.DECLINED : RenewalOfferStatus.FAILED, e.getMessage());
+        }
+        RenewalOffer offer = unpriced(run, candidate, renewalStart,
+                pricing.getReferralDecision() == ReferralDecision.REFERRED ? RenewalOfferStatus.REFERRED : RenewalOfferStatus.OFFERED,
+                pricing.getReferralReason());
+        offer.setRateBookId(snapshot.rateBookId());
+        offer.setRateBookVersion(snapshot.version());
+        offer.setTotalPremium(pricing.getTotalPremium());
+        offer.setPricingSnapshot(write(pricing));
+        return offer;
+    }
+
+    private RenewalOffer unpriced(RenewalRun run, RenewalCandidate candidate, LocalDate renewalStart, RenewalOfferStatus status,
+                                  String reason) {
+        RenewalOffer offer = RenewalOffer.builder()
+                .policyId(candidate.getPolicyId())
+                .applicationId(candidate.getApplicationId())
+                .runId(run.getId())
+                .expiryDate(candidate.getExpiryDate())
+                .renewalStartDate(renewalStart)
+                .currentPremium(candidate.getCurrentPremium())
+                .status(status)
+                .reason(reason != null && reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason)
+                .build();
+        offer.setTenantId(candidate.getTenantId());
+        LocalDateTime now = LocalDateTime.now(clock);
+        offer.setCreatedAt(now);
+        offer.setUpdatedAt(now);
+        return offer;
+    }
+
+    private String write(PricingResult pricing) {
+        try {
+            return objectMapper.writeValueAsString(pricing);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize renewal pricing", e);
+        }
+    }
+
+    private static String category(List<Long> appliedRuleIds, Map<Long, String> baseRuleCategories) {
+        for (Long ruleId : appliedRuleIds) {
+            String category = baseRuleCategories.get(ruleId);
+            if (category != null) {
+                return category;
+            }
+        }
+        return DEFAULT_CATEGORY;
+    }
+
+    private static long count(List<RenewalOffer> offers, RenewalOfferStatus status) {
+        return offers.stream().filter(offer -> offer.getStatus() == status).count();
+    }
+
+    /**
+     * Rate books and rule categories loaded once per run, tenant and renewal date.
+     */
+    private final class Tariffs {
+        private final Map<String, Mono<RateBookSnapshotLoader.Snapshot>> snapshots = new ConcurrentHashMap<>();
+        private final Map<String, Mono<Map<Long, String>>> categories = new ConcurrentHashMap<>();
+
+        Mono<RateBookSnapshotLoader.Snapshot> snapshot(String tenantId, LocalDate renewalStart) {
+            return snapshots.computeIfAbsent(tenantId + '|' + renewalStart,
+                    key -> snapshotLoader.loadAt(tenantId, renewalStart.atStartOfDay()).cache());
+        }
+
+        Mono<Map<Long, String>> baseRuleCategories(String tenantId) {
+            return categories.computeIfAbsent(tenantId, key -> rateRuleRepository
+                    .findAllByTenantIdAndRuleType(tenantId, RuleType.BASE_PREMIUM)
+                    .collectMap(RateRule::getId, RateRule::getCategory)
+                    .cache());
+        }
+    }
+}
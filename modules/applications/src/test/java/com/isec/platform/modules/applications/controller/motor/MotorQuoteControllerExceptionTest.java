@@ -5,6 +5,9 @@ import com.isec.platform.common.exception.ErrorResponse;
 import com.isec.platform.common.exception.GlobalExceptionHandler;
 import com.isec.platform.modules.applications.dto.motor.MpesaInitiationRequest;
 import com.isec.platform.modules.applications.service.motor.MotorQuoteOrchestrator;
+import com.isec.platform.modules.applications.service.motor.FleetQuoteIntake;
+import com.isec.platform.modules.applications.service.motor.PartnerQuoteComparison;
+import com.isec.platform.modules.applications.service.motor.QuoteStatusStream;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
@@ -31,6 +34,15 @@ public class MotorQuoteControllerExceptionTest {
     @MockBean
     private MotorQuoteOrchestrator orchestrator;
 
+    @MockBean
+    private QuoteStatusStream statusStream;
+
+    @MockBean
+    private PartnerQuoteComparison quoteComparison;
+
+    @MockBean
+    private FleetQuoteIntake fleetQuoteIntake;
+
     @MockBean
     private com.isec.platform.common.multitenancy.TenantProperties tenantProperties;
 
@@ -0,0 +1,66 @@
+package com.isec.platform.modules.applications.domain.motor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.modules.applications.dto.motor.MotorPaymentResult;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ParsedJsonColumnsTest {
+
+    private final ObjectMapper objectMapper = spy(new ObjectMapper());
+
+    @Test
+    void read_parsesColumnOncePerValue() throws Exception {
+        // given
+        MotorQuoteApplication app = MotorQuoteApplication.builder()
+                .paymentResult("{\"checkoutId\":\"ws_1\"}")
+                .build();
+
+        // when
+        MotorPaymentResult first = app.json().read(app.getPaymentResult(), MotorPaymentResult.class, objectMapper);
+        MotorPaymentResult second = app.json().read(app.getPaymentResult(), MotorPaymentResult.class, objectMapper);
+
+        // then
+        assertThat(first.getCheckoutId()).isEqualTo("ws_1");
+        assertThat(second).isSameAs(first);
+        verify(objectMapper, times(1)).readValue(anyString(), eq(MotorPaymentResult.class));
+    }
+
+    @Test
+    void read_parsesAgainAfterColumnIsSet() {
+        // given
+        MotorQuoteApplication app = MotorQuoteApplication.builder()
+                .paymentResult("{\"checkoutId\":\"ws_1\"}")
+                .build();
+        app.json().read(app.getPaymentResult(), MotorPaymentResult.class, objectMapper);
+
+        // when
+        app.setPaymentResult("{\"checkoutId\":\"ws_2\"}");
+
+        // then
+        assertThat(app.json().read(app.getPaymentResult(), MotorPaymentResult.class, objectMapper).getCheckoutId())
+                .isEqualTo("ws_2");
+    }
+
+    @Test
+    void write_remembersWrittenValueWithoutParsingIt() throws Exception {
+        // given
+        MotorQuoteApplication app = new MotorQuoteApplication();
+        MotorPaymentResult result = MotorPaymentResult.builder().checkoutId("ws_3").build();
+
+        // when
+        app.setPaymentResult(app.json().write(result, objectMapper));
+
+        // then
+        assertThat(app.getPaymentResult()).contains("ws_3");
+        assertThat(app.json().read(app.getPaymentResult(), MotorPaymentResult.class, objectMapper)).isSameAs(result);
+        verify(objectMapper, never()).readValue(anyString(), eq(MotorPaymentResult.class));
+    }
+}
@@ -0,0 +1,63 @@
+package com.isec.platform.modules.applications.service;
+
+import com.isec.platform.modules.applications.repository.QuoteRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuoteRecordMaintenanceTest {
+
+    private final QuoteRecordRepository repository = mock(QuoteRecordRepository.class);
+    private final QuoteRecordMaintenance maintenance = new QuoteRecordMaintenance(repository);
+
+    @Test
+    void run_createsUpcomingPartitions_andDropsExpiredOnes() {
+        // given
+        when(repository.createPartition(anyString(), any(), any())).thenReturn(Mono.empty());
+        when(repository.findPartitionNames()).thenReturn(Flux.just(
+                "quote_records_p202608", "quote_records_p202609", "quote_records_p202610", "quote_records_default"));
+        when(repository.dropPartition(anyString())).thenReturn(Mono.empty());
+        when(repository.deleteExpiredFromDefault(any())).thenReturn(Mono.just(0L));
+
+        // when & then
+        StepVerifier.create(maintenance.run(LocalDate.of(2026, 10, 17))).verifyComplete();
+        verify(repository).createPartition("quote_records_p202610", LocalDate.of(2026, 10, 1), LocalDate.of(2026, 11, 1));
+        verify(repository).createPartition("quote_records_p202611", LocalDate.of(2026, 11, 1), LocalDate.of(2026, 12, 1));
+        // September's quotes may live until mid-October
+        verify(repository).dropPartition("quote_records_p202608");
+        verify(repository, never()).dropPartition("quote_records_p202609");
+        verify(repository, never()).dropPartition("quote_records_default");
+    }
+
+    @Test
+    void run_purgesAndDropsEvenWhenAPartitionCannotBeCreated() {
+        // given - the default partition still holds records of this month
+        when(repository.deleteExpiredFromDefault(any())).thenReturn(Mono.just(3L));
+        when(repository.createPartition(eq("quote_records_p202610"), any(), any()))
+                .thenReturn(Mono.error(new IllegalStateException("updated partition constraint for default partition would be violated")));
+        when(repository.createPartition(eq("quote_records_p202611"), any(), any())).thenReturn(Mono.empty());
+        when(repository.findPartitionNames()).thenReturn(Flux.just("quote_records_p202608"));
+        when(repository.dropPartition(anyString())).thenReturn(Mono.empty());
+
+        // when & then
+        StepVerifier.create(maintenance.run(LocalDate.of(2026, 10, 17))).verifyComplete();
+        InOrder order = inOrder(repository);
+        order.verify(repository).deleteExpiredFromDefault(any());
+        order.verify(repository).createPartition(eq("quote_records_p202610"), any(), any());
+        order.verify(repository).createPartition(eq("quote_records_p202611"), any(), any());
+        verify(repository).dropPartition("quote_records_p202608");
+    }
+}
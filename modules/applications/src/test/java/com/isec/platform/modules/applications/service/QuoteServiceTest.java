@@ -1,10 +1,12 @@
 package com.isec.platform.modules.applications.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.isec.platform.common.multitenancy.TenantContext;
 import com.isec.platform.modules.applications.dto.InitiateQuoteRequest;
 import com.isec.platform.modules.applications.dto.InitiateQuoteResponse;
 import com.isec.platform.modules.applications.dto.QuoteRequest;
 import com.isec.platform.modules.applications.dto.QuoteResponse;
+import com.isec.platform.modules.applications.repository.QuoteRecordRepository;
 import com.isec.platform.modules.customers.service.CustomerService;
 import com.isec.platform.modules.documents.service.ApplicationDocumentService;
 import com.isec.platform.modules.vehicles.service.UserVehicleService;
@@ -15,6 +17,7 @@ import com.isec.platform.common.security.SecurityContextService;
 import com.isec.platform.modules.documents.dto.ApplicationDocumentDto;
 import com.isec.platform.modules.integrations.common.adapter.InsuranceIntegrationAdapter;
 import com.isec.platform.modules.integrations.common.dto.DoubleInsuranceCheckResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,6 +26,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -50,6 +54,8 @@ class QuoteServiceTest {
     @Mock
     private ReactiveValueOperations<String, Object> valueOperations;
     @Mock
+    private QuoteRecordRepository recordRepository;
+    @Mock
     private ApplicationDocumentService documentService;
     @Mock
     private CustomerService customerService;
@@ -67,16 +73,19 @@ class QuoteServiceTest {
         Map<String, InsuranceIntegrationAdapter> adapters = new HashMap<>();
         adapters.put("SANLAMIntegrationAdapter", insuranceIntegrationAdapter);
         
+        QuoteStore quoteStore = new QuoteStore(redisTemplate, recordRepository, new ObjectMapper().findAndRegisterModules(),
+                new QuoteStoreMetrics(new SimpleMeterRegistry(), redisTemplate, recordRepository));
         quoteService = new QuoteService(
             pricingEngine,
             rateBookSnapshotLoader,
-            redisTemplate,
+            quoteStore,
             documentService,
             customerService,
             userVehicleService,
             securityContextService,
             adapters
         );
+        ReflectionTestUtils.setField(quoteService, "quoteCacheDurationMinutes", 30);
     }
 
     @Test
@@ -94,6 +103,7 @@ class QuoteServiceTest {
                 .hasDuplicate(false)
                 .build()));
         when(valueOperations.set(anyString(), any(), any())).thenReturn(Mono.just(true));
+        when(recordRepository.insert(any(), any(), any(), any(), any(), any())).thenReturn(Mono.empty());
 
         InitiateQuoteRequest request = InitiateQuoteRequest.builder()
                 .licensePlateNumber("KAA 123X")
@@ -110,6 +120,7 @@ class QuoteServiceTest {
                 })
                 .verifyComplete();
 
+        verify(recordRepository).insert(eq("INITIATED"), anyString(), eq("SANLAM"), anyString(), any(), any());
         verify(valueOperations).set(contains("quote_init:"), any(), any());
     }
 
@@ -176,6 +187,8 @@ class QuoteServiceTest {
         QuoteRequest request = createSampleRequest();
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         when(valueOperations.get(anyString())).thenReturn(Mono.empty());
+        when(recordRepository.findLatest(eq("INITIATED"), eq("user123-quote"), any())).thenReturn(Mono.empty());
+        when(recordRepository.insert(any(), any(), any(), any(), any(), any())).thenReturn(Mono.empty());
         doReturn(Mono.just(PricingResult.builder()
                 .totalPremium(new BigDecimal("10000"))
                 .build())).when(pricingEngine).price(any());
@@ -203,6 +216,7 @@ class QuoteServiceTest {
 
         verify(customerService).createOrUpdateCustomer(eq("user123"), any());
         verify(userVehicleService).saveOrUpdateVehicle(eq("user123"), any());
+        verify(recordRepository).insert(eq("CALCULATED"), eq("user123-quote"), eq("SANLAM"), anyString(), any(), any());
         verify(valueOperations).set(contains("quote_v2:"), any(), any());
     }
 
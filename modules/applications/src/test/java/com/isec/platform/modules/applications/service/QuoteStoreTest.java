@@ -0,0 +1,112 @@
+package com.isec.platform.modules.applications.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.modules.applications.dto.QuoteResponse;
+import com.isec.platform.modules.applications.repository.QuoteRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteStoreTest {
+
+    @Mock
+    private ReactiveRedisTemplate<String, Object> redisTemplate;
+    @Mock
+    private ReactiveValueOperations<String, Object> valueOperations;
+    @Mock
+    private QuoteRecordRepository repository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private QuoteStore quoteStore;
+
+    @BeforeEach
+    void setUp() {
+        quoteStore = new QuoteStore(redisTemplate, repository, objectMapper,
+                new QuoteStoreMetrics(meterRegistry, redisTemplate, repository));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void save_keepsQuoteInRedisForHotTtlOnly() {
+        // given
+        QuoteResponse quote = QuoteResponse.builder().quoteId("Q-1").tenantId("SANLAM").build();
+        when(repository.insert(eq("CALCULATED"), eq("Q-1"), eq("SANLAM"), anyString(), any(), any()))
+                .thenReturn(Mono.empty());
+        when(valueOperations.set("quote_v2:Q-1", quote, Duration.ofMinutes(15))).thenReturn(Mono.just(true));
+
+        // when & then
+        StepVerifier.create(quoteStore.save(QuoteStore.Kind.CALCULATED, "Q-1", "SANLAM", quote, Duration.ofDays(30)))
+                .expectNext(quote)
+                .verifyComplete();
+        assertThat(meterRegistry.get(QuoteStoreMetrics.WRITES).tags("kind", "calculated").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void save_succeedsOnceInPostgres_whenRedisIsDown() {
+        // given
+        QuoteResponse quote = QuoteResponse.builder().quoteId("Q-1").build();
+        when(repository.insert(any(), any(), any(), any(), any(), any())).thenReturn(Mono.empty());
+        when(valueOperations.set(anyString(), any(), any()))
+                .thenReturn(Mono.error(new RedisConnectionFailureException("down")));
+
+        // when & then
+        StepVerifier.create(quoteStore.save(QuoteStore.Kind.CALCULATED, "Q-1", null, quote, Duration.ofDays(30)))
+                .expectNext(quote)
+                .verifyComplete();
+    }
+
+    @Test
+    void get_readsThroughFromPostgres_andCachesUntilTheQuoteExpires() throws Exception {
+        // given
+        QuoteResponse quote = QuoteResponse.builder().quoteId("Q-1").expiryDate(LocalDateTime.of(2026, 11, 16, 10, 0)).build();
+        when(valueOperations.get("quote_v2:Q-1")).thenReturn(Mono.empty());
+        when(repository.findLatest(eq("CALCULATED"), eq("Q-1"), any())).thenReturn(Mono.just(
+                new QuoteRecordRepository.QuoteRecord(objectMapper.writeValueAsString(quote),
+                        LocalDateTime.now().plusMinutes(5))));
+        when(valueOperations.set(eq("quote_v2:Q-1"), eq(quote), any())).thenReturn(Mono.just(true));
+
+        // when & then
+        StepVerifier.create(quoteStore.get(QuoteStore.Kind.CALCULATED, "Q-1", QuoteResponse.class))
+                .expectNext(quote)
+                .verifyComplete();
+        verify(valueOperations).set(eq("quote_v2:Q-1"), eq(quote),
+                org.mockito.ArgumentMatchers.<Duration>argThat(ttl -> ttl.compareTo(Duration.ofMinutes(5)) <= 0));
+        assertThat(meterRegistry.get(QuoteStoreMetrics.READS).tags("kind", "calculated", "tier", "postgres")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_fallsBackToPostgres_whenRedisIsDown_andCountsMisses() {
+        // given
+        when(valueOperations.get("quote_init:Q-1"))
+                .thenReturn(Mono.error(new RedisConnectionFailureException("down")));
+        when(repository.findLatest(eq("INITIATED"), eq("Q-1"), any())).thenReturn(Mono.empty());
+
+        // when & then
+        StepVerifier.create(quoteStore.get(QuoteStore.Kind.INITIATED, "Q-1", QuoteResponse.class))
+                .verifyComplete();
+        assertThat(meterRegistry.get(QuoteStoreMetrics.READS).tags("kind", "initiated", "tier", "miss")
+                .counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,136 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.common.multitenancy.TenantContext;
+import com.isec.platform.modules.applications.config.PartnerLimits;
+import com.isec.platform.modules.applications.domain.motor.MotorQuoteApplication;
+import com.isec.platform.modules.applications.repository.motor.MotorQuoteRepository;
+import com.isec.platform.modules.integrations.quote.provider.PartnerType;
+import com.isec.platform.reactive.infra.outbox.OutboxEvent;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DraftQuoteEventHandlerTest {
+
+    private final MotorQuoteOrchestrator orchestrator = mock(MotorQuoteOrchestrator.class);
+    private final MotorQuoteRepository repository = mock(MotorQuoteRepository.class);
+    private final DraftQuoteEventHandler handler = new DraftQuoteEventHandler(orchestrator, repository, new ObjectMapper(),
+            new PartnerThrottle(partner -> limits(1)));
+
+    @Test
+    void handle_preparesDraftQuoteForEventsTenant() {
+        // given
+        AtomicReference<String> tenant = new AtomicReference<>();
+        when(orchestrator.prepareDraftQuote("Q-123"))
+                .thenReturn(TenantContext.getTenantId().doOnNext(tenant::set).then());
+        OutboxEvent event = OutboxEvent.builder()
+                .type(DraftQuoteEventHandler.EVENT_TYPE)
+                .payload("{\"quoteId\":\"Q-123\",\"tenantId\":\"TEST-TENANT\",\"partner\":\"SANLAM\"}")
+                .build();
+
+        // when & then
+        assertThat(handler.canHandle(event.getType())).isTrue();
+        assertThat(handler.canHandle("PAYMENT_CREATED")).isFalse();
+        StepVerifier.create(handler.handle(event)).verifyComplete();
+        assertThat(tenant.get()).isEqualTo("TEST-TENANT");
+    }
+
+    @Test
+    void handle_waitsForThePartnersThrottle() {
+        // given
+        Sinks.Empty<Void> first = Sinks.empty();
+        AtomicInteger started = new AtomicInteger();
+        when(orchestrator.prepareDraftQuote("Q-1")).thenReturn(first.asMono().doOnSubscribe(s -> started.incrementAndGet()));
+        when(orchestrator.prepareDraftQuote("Q-2")).thenReturn(Mono.<Void>empty().doOnSubscribe(s -> started.incrementAndGet()));
+
+        // when
+        handler.handle(event("Q-1")).subscribe();
+        Mono<Void> second = handler.handle(event("Q-2"));
+
+        // then
+        StepVerifier.create(second)
+                .then(() -> assertThat(started).hasValue(1))
+                .then(first::tryEmitEmpty)
+                .verifyComplete();
+        assertThat(started).hasValue(2);
+    }
+
+    @Test
+    void handle_throttlesEventsQueuedWithoutPartnerByTheStoredQuotesPartner() {
+        // given
+        Sinks.Empty<Void> first = Sinks.empty();
+        AtomicInteger started = new AtomicInteger();
+        when(orchestrator.prepareDraftQuote("Q-1")).thenReturn(first.asMono().doOnSubscribe(s -> started.incrementAndGet()));
+        when(orchestrator.prepareDraftQuote("Q-123")).thenReturn(Mono.<Void>empty().doOnSubscribe(s -> started.incrementAndGet()));
+        when(repository.findByQuoteId("Q-123")).thenReturn(Mono.just(MotorQuoteApplication.builder()
+                .quoteId("Q-123")
+                .partner(PartnerType.SANLAM)
+                .build()));
+        handler.handle(event("Q-1")).subscribe();
+
+        // when
+        Mono<Void> legacy = handler.handle(OutboxEvent.builder()
+                .type(DraftQuoteEventHandler.EVENT_TYPE)
+                .payload("{\"quoteId\":\"Q-123\",\"tenantId\":\"TEST-TENANT\"}")
+                .build());
+
+        // then
+        StepVerifier.create(legacy)
+                .then(() -> assertThat(started).hasValue(1))
+                .then(first::tryEmitEmpty)
+                .verifyComplete();
+        assertThat(started).hasValue(2);
+    }
+
+    @Test
+    void handle_skipsEventsQueuedWithoutPartnerForQuotesThatNoLongerExist() {
+        // given
+        when(repository.findByQuoteId("Q-123")).thenReturn(Mono.empty());
+        OutboxEvent event = OutboxEvent.builder()
+                .type(DraftQuoteEventHandler.EVENT_TYPE)
+                .payload("{\"quoteId\":\"Q-123\",\"tenantId\":\"TEST-TENANT\"}")
+                .build();
+
+        // when & then
+        StepVerifier.create(handler.handle(event)).verifyComplete();
+        verify(orchestrator, never()).prepareDraftQuote(any());
+    }
+
+    @Test
+    void handle_failsOnUnreadablePayload_soTheEventIsRetried() {
+        // given
+        OutboxEvent event = OutboxEvent.builder()
+                .type(DraftQuoteEventHandler.EVENT_TYPE)
+                .payload("not json")
+                .build();
+
+        // when & then
+        StepVerifier.create(handler.handle(event)).expectError().verify();
+    }
+
+    private static OutboxEvent event(String quoteId) {
+        return OutboxEvent.builder()
+                .type(DraftQuoteEventHandler.EVENT_TYPE)
+                .payload("{\"quoteId\":\"" + quoteId + "\",\"tenantId\":\"TEST-TENANT\",\"partner\":\"SANLAM\"}")
+                .build();
+    }
+
+    private static PartnerLimits limits(int concurrency) {
+        PartnerLimits limits = new PartnerLimits();
+        limits.setConcurrency(concurrency);
+        limits.setRatePerSecond(0);
+        return limits;
+    }
+}
@@ -0,0 +1,159 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.isec.platform.common.multitenancy.TenantContext;
+import com.isec.platform.modules.applications.config.FleetQuoteProperties;
+import com.isec.platform.modules.applications.domain.motor.MotorQuoteApplication;
+import com.isec.platform.modules.applications.dto.QuoteRequest;
+import com.isec.platform.modules.applications.dto.motor.CalculateMotorPremiumRequest;
+import com.isec.platform.modules.applications.dto.motor.FleetQuoteRequest;
+import com.isec.platform.modules.applications.dto.motor.FleetQuoteResult;
+import com.isec.platform.modules.applications.dto.motor.MotorQuoteResponse;
+import com.isec.platform.modules.applications.mapper.motor.MotorQuoteMapper;
+import com.isec.platform.modules.applications.repository.motor.MotorQuoteBulkRepository;
+import com.isec.platform.modules.integrations.quote.provider.PartnerType;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FleetQuoteIntakeTest {
+
+    @Mock
+    private MotorQuoteOrchestrator orchestrator;
+    @Mock
+    private MotorQuoteMapper mapper;
+    @Mock
+    private MotorQuoteBulkRepository bulkRepository;
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private final FleetQuoteProperties properties = new FleetQuoteProperties();
+    private FleetQuoteIntake intake;
+
+    @BeforeEach
+    void setUp() {
+        properties.setInsertBatchSize(2);
+        properties.getDefaults().setRatePerSecond(0);
+        intake = new FleetQuoteIntake(orchestrator, mapper, bulkRepository, new PartnerThrottle(properties), validator, properties);
+        when(mapper.toEntity(any())).thenAnswer(invocation -> MotorQuoteApplication.builder()
+                .quoteId(invocation.<CalculateMotorPremiumRequest>getArgument(0).getQuoteId())
+                .build());
+        when(bulkRepository.insertAll(any())).thenAnswer(invocation -> Mono.just((long) invocation.<List<?>>getArgument(0).size()));
+    }
+
+    @Test
+    void submit_reportsEachVehicleWithProgress() {
+        // given
+        FleetQuoteRequest request = request(vehicle("KDA 001A"), vehicle(null), vehicle("KDB 002B"), vehicle("KDC 003C"));
+        when(orchestrator.calculatePremium(argThat(calculation -> calculation != null
+                && "KDB 002B".equals(calculation.getVehicleDetails().getLicensePlateNumber()))))
+                .thenReturn(Mono.error(new IllegalStateException("partner down")));
+        when(orchestrator.calculatePremium(argThat(calculation -> calculation != null
+                && !"KDB 002B".equals(calculation.getVehicleDetails().getLicensePlateNumber()))))
+                .thenReturn(Mono.just(MotorQuoteResponse.builder()
+                        .premium(MotorQuoteResponse.PremiumInfo.builder().grossPremium(new BigDecimal("42000")).build())
+                        .build()));
+        List<FleetQuoteResult> results = new ArrayList<>();
+
+        // when
+        StepVerifier.create(intake.submit(request).contextWrite(TenantContext.withTenantId("TENANT")))
+                .recordWith(() -> results)
+                .expectNextCount(4)
+                .verifyComplete();
+
+        // then
+        assertThat(results).extracting(FleetQuoteResult::getCompleted).containsExactly(1, 2, 3, 4);
+        assertThat(results).allMatch(result -> result.getTotal() == 4);
+        assertThat(results.get(0).getRow()).isEqualTo(2);
+        assertThat(results.get(0).getOutcome()).isEqualTo(FleetQuoteResult.Outcome.INVALID);
+        assertThat(results.get(0).getError()).contains("licensePlateNumber");
+        assertThat(results.get(0).getQuoteId()).isNull();
+        assertThat(results).filteredOn(result -> result.getOutcome() == FleetQuoteResult.Outcome.PRICED)
+                .extracting(FleetQuoteResult::getRow).containsExactlyInAnyOrder(1, 4);
+        assertThat(results).filteredOn(result -> result.getOutcome() == FleetQuoteResult.Outcome.FAILED)
+                .singleElement()
+                .satisfies(result -> assertThat(result.getError()).isEqualTo("partner down"));
+    }
+
+    @Test
+    void submit_insertsQuotesInBatchesWithTenant() {
+        // given
+        FleetQuoteRequest request = request(vehicle("KDA 001A"), vehicle("KDB 002B"), vehicle("KDC 003C"));
+        when(orchestrator.calculatePremium(any())).thenReturn(Mono.just(new MotorQuoteResponse()));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MotorQuoteApplication>> batches = ArgumentCaptor.forClass(List.class);
+
+        // when
+        StepVerifier.create(intake.submit(request).contextWrite(TenantContext.withTenantId("TENANT")))
+                .expectNextCount(3)
+                .verifyComplete();
+
+        // then
+        verify(bulkRepository, times(2)).insertAll(batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        assertThat(batches.getAllValues().get(0)).allMatch(quote -> "TENANT".equals(quote.getTenantId()));
+    }
+
+    @Test
+    void submit_reportsVehiclesOfAFailedBatchInsertAsFailed() {
+        // given
+        FleetQuoteRequest request = request(vehicle("KDA 001A"), vehicle("KDB 002B"), vehicle("KDC 003C"));
+        doReturn(Mono.error(new IllegalStateException("connection reset")))
+                .when(bulkRepository).insertAll(argThat(batch -> batch.size() == 2));
+        when(orchestrator.calculatePremium(any())).thenReturn(Mono.just(new MotorQuoteResponse()));
+        List<FleetQuoteResult> results = new ArrayList<>();
+
+        // when
+        StepVerifier.create(intake.submit(request).contextWrite(TenantContext.withTenantId("TENANT")))
+                .recordWith(() -> results)
+                .expectNextCount(3)
+                .verifyComplete();
+
+        // then
+        assertThat(results).extracting(FleetQuoteResult::getCompleted).containsExactlyInAnyOrder(1, 2, 3);
+        assertThat(results).filteredOn(result -> result.getOutcome() == FleetQuoteResult.Outcome.FAILED)
+                .extracting(FleetQuoteResult::getRow).containsExactlyInAnyOrder(1, 2);
+        assertThat(results).filteredOn(result -> result.getOutcome() == FleetQuoteResult.Outcome.FAILED)
+                .allMatch(result -> result.getError().contains("connection reset"));
+        assertThat(results).filteredOn(result -> result.getOutcome() == FleetQuoteResult.Outcome.PRICED)
+                .extracting(FleetQuoteResult::getRow).containsExactly(3);
+        verify(orchestrator, times(1)).calculatePremium(any());
+    }
+
+    private static FleetQuoteRequest request(QuoteRequest.VehicleDetails... vehicles) {
+        return FleetQuoteRequest.builder()
+                .partner(PartnerType.SANLAM)
+                .insuranceDetails(QuoteRequest.InsuranceDetails.builder().category("PRIVATE_CAR").build())
+                .vehicles(Arrays.asList(vehicles))
+                .build();
+    }
+
+    private static QuoteRequest.VehicleDetails vehicle(String licensePlateNumber) {
+        return QuoteRequest.VehicleDetails.builder()
+                .licensePlateNumber(licensePlateNumber)
+                .makeCode("Toyota")
+                .modelCode("Probox")
+                .yearOfManufacture(2019)
+                .valuationAmount(new BigDecimal("1200000"))
+                .build();
+    }
+}
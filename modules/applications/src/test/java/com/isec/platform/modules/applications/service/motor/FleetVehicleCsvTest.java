@@ -0,0 +1,48 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.common.exception.BusinessException;
+import com.isec.platform.modules.applications.dto.QuoteRequest;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FleetVehicleCsvTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void parse_readsVehiclesByHeaderInAnySpelling() {
+        // given
+        String csv = "license_plate_number,MakeCode,model code,yearOfManufacture,valuationAmount,notes\n"
+                + "KDA 001A,Toyota,\"Probox, 1.5\",2019,1200000,ignored\n"
+                + "\n"
+                + "KDB 002B,Isuzu,NQR,,3500000,\n";
+
+        // when
+        List<QuoteRequest.VehicleDetails> vehicles = FleetVehicleCsv.parse(csv, objectMapper);
+
+        // then
+        assertThat(vehicles).hasSize(2);
+        assertThat(vehicles.get(0).getLicensePlateNumber()).isEqualTo("KDA 001A");
+        assertThat(vehicles.get(0).getModelCode()).isEqualTo("Probox, 1.5");
+        assertThat(vehicles.get(0).getYearOfManufacture()).isEqualTo(2019);
+        assertThat(vehicles.get(0).getValuationAmount()).isEqualByComparingTo(new BigDecimal("1200000"));
+        assertThat(vehicles.get(1).getYearOfManufacture()).isNull();
+    }
+
+    @Test
+    void parse_rejectsValueOfWrongType() {
+        // given
+        String csv = "licensePlateNumber,yearOfManufacture\nKDA 001A,recent\n";
+
+        // when & then
+        assertThatThrownBy(() -> FleetVehicleCsv.parse(csv, objectMapper))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Row 1");
+    }
+}
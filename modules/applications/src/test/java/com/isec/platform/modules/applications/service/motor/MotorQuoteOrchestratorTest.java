@@ -11,9 +11,11 @@ import com.isec.platform.modules.applications.dto.InitiateQuoteResponse;
 import com.isec.platform.modules.applications.dto.QuoteRequest;
 import com.isec.platform.modules.applications.dto.motor.CalculateMotorPremiumRequest;
 import com.isec.platform.modules.applications.dto.motor.ManualPaymentInstructions;
+import com.isec.platform.modules.applications.dto.motor.MotorPaymentResult;
 import com.isec.platform.modules.applications.dto.motor.MotorQuoteResponse;
 import com.isec.platform.modules.applications.mapper.motor.MotorQuoteMapper;
 import com.isec.platform.modules.applications.repository.motor.MotorQuoteRepository;
+import com.isec.platform.modules.applications.service.QuoteStore;
 import com.isec.platform.modules.integrations.premium.model.PremiumCalculationResponse;
 import com.isec.platform.modules.integrations.quote.provider.PartnerQuoteProvider;
 import com.isec.platform.modules.integrations.quote.provider.PartnerQuoteProviderFactory;
@@ -28,22 +30,28 @@ import com.isec.platform.common.multitenancy.TenantContext;
 import com.isec.platform.modules.integrations.quote.model.DraftQuoteRequest;
 import com.isec.platform.common.exception.BusinessException;
 import com.isec.platform.common.exception.ResourceNotFoundException;
+import com.isec.platform.reactive.infra.executor.OutboxReactiveExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.util.Set;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.mockito.ArgumentMatchers.argThat;
@@ -68,9 +76,9 @@ class MotorQuoteOrchestratorTest {
     @Mock
     private ObjectMapper objectMapper;
     @Mock
-    private ReactiveRedisTemplate<String, Object> redisTemplate;
+    private QuoteStore quoteStore;
     @Mock
-    private ReactiveValueOperations<String, Object> valueOperations;
+    private OutboxReactiveExecutor outboxExecutor;
 
     @InjectMocks
     private MotorQuoteOrchestrator orchestrator;
@@ -81,9 +89,19 @@ class MotorQuoteOrchestratorTest {
     private MotorQuoteApplication application;
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
         ReflectionTestUtils.setField(orchestrator, "minPaymentPercentage", 0.35);
         ReflectionTestUtils.setField(orchestrator, "objectMapper", realObjectMapper);
+        // A real single flight over mocked Redis
+        ReactiveStringRedisTemplate flightRedisTemplate = mock(ReactiveStringRedisTemplate.class);
+        ReactiveValueOperations<String, String> flightValueOperations = mock(ReactiveValueOperations.class);
+        ReflectionTestUtils.setField(orchestrator, "singleFlight", new QuoteSingleFlight(flightRedisTemplate));
+        lenient().when(flightRedisTemplate.opsForValue()).thenReturn(flightValueOperations);
+        lenient().when(flightValueOperations.setIfAbsent(anyString(), any(), any())).thenReturn(Mono.just(true));
+        lenient().when(flightRedisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(1L));
+        lenient().when(flightValueOperations.get(anyString())).thenReturn(Mono.empty());
+        lenient().when(outboxExecutor.executeWithOutbox(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         PartnerPaymentAccount account = PartnerPaymentAccount.builder()
                 .businessNumber("7146151")
@@ -119,8 +137,8 @@ class MotorQuoteOrchestratorTest {
 
     @Test
     void calculatePremium_ShouldSucceed() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(anyString())).thenReturn(Mono.just(InitiateQuoteResponse.builder().build()));
+        when(quoteStore.get(eq(QuoteStore.Kind.INITIATED), anyString(), eq(InitiateQuoteResponse.class)))
+                .thenReturn(Mono.just(InitiateQuoteResponse.builder().build()));
         when(repository.findByQuoteId(anyString())).thenReturn(Mono.empty());
         when(mapper.toEntity(any())).thenReturn(application);
         when(repository.save(any())).thenReturn(Mono.just(application));
@@ -154,6 +172,35 @@ class MotorQuoteOrchestratorTest {
         verify(partnerProvider).calculatePremium(any());
     }
 
+    @Test
+    void calculatePremium_ShouldShareOnePartnerCall_ForConcurrentIdenticalRequests() {
+        when(quoteStore.get(eq(QuoteStore.Kind.INITIATED), anyString(), eq(InitiateQuoteResponse.class)))
+                .thenReturn(Mono.just(InitiateQuoteResponse.builder().build()));
+        when(repository.findByQuoteId(anyString())).thenReturn(Mono.empty());
+        when(mapper.toEntity(any())).thenReturn(application);
+        when(repository.save(any())).thenReturn(Mono.just(application));
+        when(partnerFactory.getProvider(any())).thenReturn(partnerProvider);
+        Sinks.One<PremiumCalculationResponse> partner = Sinks.one();
+        when(partnerProvider.calculatePremium(any())).thenReturn(partner.asMono());
+        when(mapper.toResponse(any())).thenReturn(MotorQuoteResponse.builder()
+                .quoteId("Q-123")
+                .status(MotorQuoteStatus.PREMIUM_CALCULATED)
+                .build());
+
+        Mono<MotorQuoteResponse> first = orchestrator.calculatePremium(calculateRequest)
+                .contextWrite(TenantContext.withTenantId("TEST-TENANT"));
+        Mono<MotorQuoteResponse> retry = orchestrator.calculatePremium(calculateRequest)
+                .contextWrite(TenantContext.withTenantId("TEST-TENANT"));
+
+        StepVerifier.create(Mono.zip(first, retry))
+                .then(() -> partner.tryEmitValue(PremiumCalculationResponse.builder().grossPremium(new BigDecimal("50000")).build()))
+                .expectNextMatches(results -> results.getT1() == results.getT2())
+                .verifyComplete();
+
+        verify(partnerProvider, times(1)).calculatePremium(any());
+        verify(repository, times(2)).save(any());
+    }
+
     @Test
     void acceptQuote_ShouldFail_WhenPolicyAlreadyIssued() {
         application.setStatus(MotorQuoteStatus.POLICY_ISSUED);
@@ -186,6 +233,67 @@ class MotorQuoteOrchestratorTest {
         verify(partnerProvider, never()).createDraftQuote(any());
     }
 
+    @Test
+    void acceptQuote_ShouldQueueDraftQuote_WhenKycComplete() {
+        // given
+        application.setStatus(MotorQuoteStatus.PREMIUM_CALCULATED);
+        application.setVersion(3L);
+        application.setKycDetails("{\"fullName\":\"John Doe\",\"phoneNumber\":\"0712345678\",\"email\":\"john@example.com\",\"idNumber\":\"12345678\"}");
+        when(repository.findByQuoteId("Q-123")).thenReturn(Mono.just(application));
+        when(repository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(partnerFactory.getProvider(any())).thenReturn(partnerProvider);
+        when(partnerProvider.supportedCapabilities()).thenReturn(Set.of(QuoteLifecycleCapability.CREATE_DRAFT_QUOTE));
+        when(mapper.toResponse(any())).thenReturn(MotorQuoteResponse.builder().status(MotorQuoteStatus.QUOTE_ACCEPTED).build());
+
+        // when & then
+        StepVerifier.create(orchestrator.acceptQuote("Q-123")
+                .contextWrite(TenantContext.withTenantId("TEST-TENANT")))
+                .expectNextMatches(res -> res.getStatus() == MotorQuoteStatus.QUOTE_ACCEPTED)
+                .verifyComplete();
+
+        verify(outboxExecutor).executeWithOutbox(any(), argThat(event ->
+                DraftQuoteEventHandler.EVENT_TYPE.equals(event.getType())
+                        && "draft-quote:Q-123:3".equals(event.getIdempotencyKey())
+                        && event.getPayload().contains("TEST-TENANT")));
+        verify(partnerProvider, never()).createDraftQuote(any());
+    }
+
+    @Test
+    void prepareDraftQuote_ShouldCreateDraftQuote_ThatPaymentInitiationReuses() {
+        // given
+        application.setStatus(MotorQuoteStatus.QUOTE_ACCEPTED);
+        application.setTenantId("TEST-TENANT");
+        application.setKycDetails("{\"fullName\":\"John Doe\",\"phoneNumber\":\"0712345678\",\"email\":\"john@example.com\",\"idNumber\":\"12345678\"}");
+        when(repository.findByQuoteId("Q-123")).thenReturn(Mono.just(application));
+        when(repository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(partnerFactory.getProvider(any())).thenReturn(partnerProvider);
+        when(partnerProvider.supportedCapabilities()).thenReturn(Set.of(QuoteLifecycleCapability.CREATE_DRAFT_QUOTE));
+        when(mapper.toDraftQuoteRequest(any())).thenReturn(Mono.just(DraftQuoteRequest.builder().build()));
+        when(partnerProvider.createDraftQuote(any())).thenReturn(Mono.just(DraftQuoteResponse.builder()
+                .draftQuoteRef("REF-123")
+                .draftQuoteAmount(new BigDecimal("50000"))
+                .clientPhone("0712345678")
+                .build()));
+        when(partnerProvider.initiatePayment(any())).thenReturn(Mono.just(MpesaInitiatePaymentResponse.builder()
+                .checkoutId("CH-123")
+                .build()));
+        when(mapper.toResponse(any())).thenReturn(MotorQuoteResponse.builder().status(MotorQuoteStatus.PAYMENT_INITIATED).build());
+
+        // when
+        StepVerifier.create(orchestrator.prepareDraftQuote("Q-123")
+                .contextWrite(TenantContext.withTenantId("TEST-TENANT")))
+                .verifyComplete();
+
+        // then
+        assertThat(application.getStatus()).isEqualTo(MotorQuoteStatus.DRAFT_QUOTE_CREATED);
+        StepVerifier.create(orchestrator.initiatePayment("Q-123", new com.isec.platform.modules.applications.dto.motor.MpesaInitiationRequest())
+                .contextWrite(TenantContext.withTenantId("TEST-TENANT")))
+                .expectNextMatches(res -> res.getStatus() == MotorQuoteStatus.PAYMENT_INITIATED)
+                .verifyComplete();
+        verify(partnerProvider, times(1)).createDraftQuote(any());
+        verify(partnerProvider).initiatePayment(any());
+    }
+
     @Test
     void initiatePayment_ShouldSucceed_AndCreateDraftQuote() throws Exception {
         application.setStatus(MotorQuoteStatus.QUOTE_ACCEPTED);
@@ -382,42 +490,38 @@ class MotorQuoteOrchestratorTest {
     }
 
     @Test
-    void checkPaymentStatus_ShouldUpdateStatusAndTriggerPolicyIssuance() throws Exception {
+    void checkPaymentStatus_ShouldUpdateStatusAndQueuePolicyIssuance() throws Exception {
         application.setStatus(MotorQuoteStatus.PAYMENT_INITIATED);
+        application.setVersion(7L);
         application.setDraftQuoteResult("{\"draftQuoteRef\":\"REF-123\"}");
         application.setPaymentResult("{\"checkoutId\":\"CH-123\"}");
 
         when(repository.findByQuoteId("Q-123")).thenReturn(Mono.just(application));
-        // Expect at least two saves: one for status update to PAYMENT_SUCCESSFUL, one for POLICY_ISSUANCE_IN_PROGRESS, and one for POLICY_ISSUED
+        // One save for the status update to PAYMENT_SUCCESSFUL, one for POLICY_ISSUANCE_IN_PROGRESS with the queued event
         when(repository.save(any())).thenReturn(Mono.just(application));
         when(partnerFactory.getProvider(any())).thenReturn(partnerProvider);
-        when(partnerProvider.supportedCapabilities()).thenReturn(Set.of(QuoteLifecycleCapability.ISSUE_POLICY));
 
         MpesaPaymentStatusResponse statusRes = MpesaPaymentStatusResponse.builder()
                 .status(MpesaPaymentStatus.SUCCESS)
                 .checkoutId("CH-123")
                 .build();
         when(partnerProvider.checkPaymentStatus(any())).thenReturn(Mono.just(statusRes));
-
-        PolicyIssuanceResult policyResult = PolicyIssuanceResult.builder()
-                .status("POLICY_ISSUED")
-                .policyReference("P-123")
-                .build();
-        when(partnerProvider.issuePolicy(anyString(), any(), any())).thenReturn(Mono.just(policyResult));
-
-        MotorQuoteResponse response = MotorQuoteResponse.builder()
+        when(mapper.toResponse(any())).thenAnswer(invocation -> MotorQuoteResponse.builder()
                 .quoteId("Q-123")
-                .status(MotorQuoteStatus.POLICY_ISSUED)
-                .build();
-        when(mapper.toResponse(any())).thenReturn(response);
+                .status(invocation.<MotorQuoteApplication>getArgument(0).getStatus())
+                .build());
 
         StepVerifier.create(orchestrator.checkPaymentStatus("Q-123", PaymentMethod.MPESA_STK, null)
                 .contextWrite(TenantContext.withTenantId("TEST-TENANT")))
-                .expectNextMatches(res -> res.getStatus() == MotorQuoteStatus.POLICY_ISSUED)
+                .expectNextMatches(res -> res.getStatus() == MotorQuoteStatus.POLICY_ISSUANCE_IN_PROGRESS)
                 .verifyComplete();
 
         verify(partnerProvider).checkPaymentStatus(any());
-        verify(partnerProvider).issuePolicy(anyString(), any(), any());
+        verify(outboxExecutor).executeWithOutbox(any(), argThat(event ->
+                PolicyIssuanceEventHandler.EVENT_TYPE.equals(event.getType())
+                        && "policy-issuance:Q-123:7".equals(event.getIdempotencyKey())
+                        && event.getPayload().contains("SANLAM")));
+        verify(partnerProvider, never()).issuePolicy(anyString(), any(), any());
     }
 
     @Test
@@ -484,31 +588,56 @@ class MotorQuoteOrchestratorTest {
     }
 
     @Test
-    void checkPaymentStatus_ShouldHandlePolicyIssuanceErrorGracefully() throws Exception {
-        application.setStatus(MotorQuoteStatus.PAYMENT_INITIATED);
+    void issueQueuedPolicy_ShouldLeaveIssuanceInProgress_WhenAttemptsRemain() throws Exception {
+        application.setStatus(MotorQuoteStatus.POLICY_ISSUANCE_IN_PROGRESS);
         application.setDraftQuoteResult("{\"draftQuoteRef\":\"REF-123\"}");
         application.setPaymentResult("{\"checkoutId\":\"CH-123\"}");
 
         when(repository.findByQuoteId("Q-123")).thenReturn(Mono.just(application));
-        when(repository.save(any())).thenReturn(Mono.just(application));
         when(partnerFactory.getProvider(any())).thenReturn(partnerProvider);
         when(partnerProvider.supportedCapabilities()).thenReturn(Set.of(QuoteLifecycleCapability.ISSUE_POLICY));
+        when(partnerProvider.issuePolicy(anyString(), any(), any())).thenReturn(Mono.error(new RuntimeException("Issuance failed")));
 
-        MpesaPaymentStatusResponse statusRes = MpesaPaymentStatusResponse.builder()
-                .status(MpesaPaymentStatus.SUCCESS)
-                .checkoutId("CH-123")
-                .build();
-        when(partnerProvider.checkPaymentStatus(any())).thenReturn(Mono.just(statusRes));
+        StepVerifier.create(orchestrator.issueQueuedPolicy("Q-123", false)
+                .contextWrite(TenantContext.withTenantId("TEST-TENANT")))
+                .expectError(RuntimeException.class)
+                .verify();
 
+        verify(repository, never()).save(any());
+        assertThat(application.getStatus()).isEqualTo(MotorQuoteStatus.POLICY_ISSUANCE_IN_PROGRESS);
+    }
+
+    @Test
+    void issueQueuedPolicy_ShouldMarkIssuanceFailed_OnLastAttempt() throws Exception {
+        application.setStatus(MotorQuoteStatus.POLICY_ISSUANCE_IN_PROGRESS);
+        application.setDraftQuoteResult("{\"draftQuoteRef\":\"REF-123\"}");
+        application.setPaymentResult("{\"checkoutId\":\"CH-123\"}");
+
+        when(repository.findByQuoteId("Q-123")).thenReturn(Mono.just(application));
+        when(repository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(partnerFactory.getProvider(any())).thenReturn(partnerProvider);
+        when(partnerProvider.supportedCapabilities()).thenReturn(Set.of(QuoteLifecycleCapability.ISSUE_POLICY));
         when(partnerProvider.issuePolicy(anyString(), any(), any())).thenReturn(Mono.error(new RuntimeException("Issuance failed")));
 
-        StepVerifier.create(orchestrator.checkPaymentStatus("Q-123", PaymentMethod.MPESA_STK, null)
+        StepVerifier.create(orchestrator.issueQueuedPolicy("Q-123", true)
                 .contextWrite(TenantContext.withTenantId("TEST-TENANT")))
                 .expectError(RuntimeException.class)
                 .verify();
 
-        verify(partnerProvider).checkPaymentStatus(any());
-        verify(partnerProvider).issuePolicy(anyString(), any(), any());
+        verify(repository).save(argThat(app -> app.getStatus() == MotorQuoteStatus.POLICY_ISSUANCE_FAILED));
+    }
+
+    @Test
+    void issueQueuedPolicy_ShouldNotIssueAgain_OnceIssued() {
+        application.setStatus(MotorQuoteStatus.POLICY_ISSUED);
+        when(repository.findByQuoteId("Q-123")).thenReturn(Mono.just(application));
+
+        StepVerifier.create(orchestrator.issueQueuedPolicy("Q-123", false)
+                .contextWrite(TenantContext.withTenantId("TEST-TENANT")))
+                .verifyComplete();
+
+        verify(partnerProvider, never()).issuePolicy(anyString(), any(), any());
+        verify(repository, never()).save(any());
     }
 
     @Test
@@ -534,20 +663,23 @@ class MotorQuoteOrchestratorTest {
                 .policyReference("P-123")
                 .build();
         when(partnerProvider.issuePolicy(anyString(), any(), any())).thenReturn(Mono.just(policyResult));
-
-        MotorQuoteResponse response = MotorQuoteResponse.builder()
+        when(mapper.toResponse(any())).thenAnswer(invocation -> MotorQuoteResponse.builder()
                 .quoteId("Q-123")
-                .status(MotorQuoteStatus.POLICY_ISSUED)
-                .build();
-        when(mapper.toResponse(any())).thenReturn(response);
+                .status(invocation.<MotorQuoteApplication>getArgument(0).getStatus())
+                .build());
 
         StepVerifier.create(orchestrator.checkPaymentStatus("Q-123", PaymentMethod.MPESA_STK, null)
                 .contextWrite(TenantContext.withTenantId("TEST-TENANT")))
-                .expectNextMatches(res -> res.getStatus() == MotorQuoteStatus.POLICY_ISSUED)
+                .expectNextMatches(res -> res.getStatus() == MotorQuoteStatus.POLICY_ISSUANCE_IN_PROGRESS)
+                .verifyComplete();
+        // Then the queue issues it
+        StepVerifier.create(orchestrator.issueQueuedPolicy("Q-123", false)
+                .contextWrite(TenantContext.withTenantId("TEST-TENANT")))
                 .verifyComplete();
 
         verify(partnerProvider).checkPaymentStatus(argThat(req -> req.getCheckoutId().equals("CH-123")));
         verify(partnerProvider).issuePolicy(anyString(), any(), any());
+        assertThat(application.getStatus()).isEqualTo(MotorQuoteStatus.POLICY_ISSUED);
     }
 
     @Test
@@ -650,9 +782,6 @@ class MotorQuoteOrchestratorTest {
         when(repository.findByQuoteId("Q-123")).thenReturn(Mono.just(application));
         when(repository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         
-        when(partnerFactory.getProvider(any())).thenReturn(partnerProvider);
-        when(partnerProvider.supportedCapabilities()).thenReturn(Set.of(QuoteLifecycleCapability.ISSUE_POLICY));
-        
         MpesaPaymentProvider mpesaProvider = mock(MpesaPaymentProvider.class);
         when(mpesaProviderFactory.getProvider(any())).thenReturn(mpesaProvider);
         
@@ -670,8 +799,6 @@ class MotorQuoteOrchestratorTest {
                 .status(MotorQuoteStatus.PAYMENT_SUCCESSFUL)
                 .build();
         when(mapper.toResponse(any())).thenReturn(quoteResponse);
-        
-        when(partnerProvider.issuePolicy(anyString(), any(), any())).thenReturn(Mono.just(PolicyIssuanceResult.builder().status("SUCCESS").build()));
 
         StepVerifier.create(orchestrator.checkPaymentStatus("Q-123", PaymentMethod.MPESA_PAYBILL, "UEDEM48QTT")
                 .contextWrite(TenantContext.withTenantId("TEST-TENANT")))
@@ -681,5 +808,55 @@ class MotorQuoteOrchestratorTest {
                 .verifyComplete();
         
         verify(mpesaProvider).verifyReceiptAndMap(argThat(req -> req.getReceipt().equals("UEDEM48QTT")));
+        verify(outboxExecutor).executeWithOutbox(any(), argThat(event -> PolicyIssuanceEventHandler.EVENT_TYPE.equals(event.getType())));
+        assertThat(application.getStatus()).isEqualTo(MotorQuoteStatus.POLICY_ISSUANCE_IN_PROGRESS);
+    }
+
+    @Test
+    void refreshQuoteStatus_ShouldLeavePendingPaybillPaymentAsStored() throws Exception {
+        application.setStatus(MotorQuoteStatus.PAYMENT_PENDING);
+        application.setPaymentResult(realObjectMapper.writeValueAsString(MotorPaymentResult.builder()
+                .paymentMethod(PaymentMethod.MPESA_PAYBILL)
+                .receipt("UEDEM48QTT")
+                .build()));
+        when(repository.findByQuoteId("Q-123")).thenReturn(Mono.just(application));
+        when(mapper.toResponse(application)).thenReturn(MotorQuoteResponse.builder()
+                .quoteId("Q-123")
+                .status(MotorQuoteStatus.PAYMENT_PENDING)
+                .build());
+
+        StepVerifier.create(orchestrator.refreshQuoteStatus("Q-123")
+                .contextWrite(TenantContext.withTenantId("TEST-TENANT")))
+                .expectNextMatches(res -> res.getStatus() == MotorQuoteStatus.PAYMENT_PENDING)
+                .verifyComplete();
+
+        verify(partnerFactory, never()).getProvider(any());
+        verify(repository, never()).save(any());
+        assertThat(application.getPaymentResult()).contains("UEDEM48QTT");
+    }
+
+    @Test
+    void refreshQuoteStatus_ShouldAskPartner_ForPendingStkPayment() {
+        application.setStatus(MotorQuoteStatus.PAYMENT_INITIATED);
+        application.setDraftQuoteResult("{\"draftQuoteRef\":\"REF-123\"}");
+        application.setPaymentResult("{\"checkoutId\":\"CH-123\"}");
+        when(repository.findByQuoteId("Q-123")).thenReturn(Mono.just(application));
+        when(repository.save(any())).thenReturn(Mono.just(application));
+        when(partnerFactory.getProvider(any())).thenReturn(partnerProvider);
+        when(partnerProvider.checkPaymentStatus(any())).thenReturn(Mono.just(MpesaPaymentStatusResponse.builder()
+                .status(MpesaPaymentStatus.PENDING)
+                .checkoutId("CH-123")
+                .build()));
+        when(mapper.toResponse(any())).thenAnswer(invocation -> MotorQuoteResponse.builder()
+                .quoteId("Q-123")
+                .status(invocation.<MotorQuoteApplication>getArgument(0).getStatus())
+                .build());
+
+        StepVerifier.create(orchestrator.refreshQuoteStatus("Q-123")
+                .contextWrite(TenantContext.withTenantId("TEST-TENANT")))
+                .expectNextMatches(res -> res.getStatus() == MotorQuoteStatus.PAYMENT_PENDING)
+                .verifyComplete();
+
+        verify(partnerProvider).checkPaymentStatus(any());
     }
 }
@@ -0,0 +1,117 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.isec.platform.modules.applications.dto.motor.CompareMotorPremiumRequest;
+import com.isec.platform.modules.applications.dto.motor.MotorQuoteResponse;
+import com.isec.platform.modules.applications.dto.motor.PartnerPremiumQuote;
+import com.isec.platform.modules.applications.mapper.motor.MotorQuoteMapper;
+import com.isec.platform.modules.integrations.premium.model.PremiumCalculationRequest;
+import com.isec.platform.modules.integrations.premium.model.PremiumCalculationResponse;
+import com.isec.platform.modules.integrations.quote.provider.PartnerQuoteProvider;
+import com.isec.platform.modules.integrations.quote.provider.PartnerQuoteProviderFactory;
+import com.isec.platform.modules.integrations.quote.provider.PartnerType;
+import com.isec.platform.modules.integrations.quote.provider.QuoteLifecycleCapability;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PartnerQuoteComparisonTest {
+
+    @Mock
+    private PartnerQuoteProviderFactory partnerFactory;
+    @Mock
+    private MotorQuoteMapper mapper;
+    @Mock
+    private PartnerQuoteProvider provider;
+
+    @InjectMocks
+    private PartnerQuoteComparison comparison;
+
+    private final CompareMotorPremiumRequest request = new CompareMotorPremiumRequest();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(comparison, "deadlineMs", 500L);
+        ReflectionTestUtils.setField(comparison, "hedgeAfterMs", 50L);
+        when(partnerFactory.getProviders(QuoteLifecycleCapability.CALCULATE_PREMIUM)).thenReturn(List.of(provider));
+        when(provider.providerType()).thenReturn(PartnerType.SANLAM);
+        when(mapper.toPremiumRequest(any(), any(), any())).thenReturn(new PremiumCalculationRequest());
+    }
+
+    @Test
+    void compare_emitsCompleteComparisonWithPartnerQuote() {
+        // given
+        PremiumCalculationResponse premium = PremiumCalculationResponse.builder().grossPremium(new BigDecimal("42000")).build();
+        when(provider.calculatePremium(any())).thenReturn(Mono.just(premium));
+        when(mapper.toPremiumInfo(premium)).thenReturn(MotorQuoteResponse.PremiumInfo.builder()
+                .grossPremium(new BigDecimal("42000")).build());
+
+        // when & then
+        StepVerifier.create(comparison.compare(request))
+                .expectNextMatches(result -> result.isComplete()
+                        && result.getQuotes().size() == 1
+                        && result.getQuotes().get(0).getOutcome() == PartnerPremiumQuote.Outcome.QUOTED
+                        && !result.getQuotes().get(0).isHedged()
+                        && new BigDecimal("42000").equals(result.getQuotes().get(0).getPremium().getGrossPremium()))
+                .verifyComplete();
+    }
+
+    @Test
+    void compare_hedgesCallSlowerThanHedgeDelay() {
+        // given
+        PremiumCalculationResponse premium = PremiumCalculationResponse.builder().grossPremium(new BigDecimal("42000")).build();
+        when(provider.calculatePremium(any())).thenReturn(Mono.never(), Mono.just(premium));
+        when(mapper.toPremiumInfo(premium)).thenReturn(MotorQuoteResponse.PremiumInfo.builder().build());
+
+        // when & then
+        StepVerifier.create(comparison.compare(request))
+                .expectNextMatches(result -> result.getQuotes().get(0).getOutcome() == PartnerPremiumQuote.Outcome.QUOTED
+                        && result.getQuotes().get(0).isHedged())
+                .verifyComplete();
+        verify(provider, times(2)).calculatePremium(any());
+    }
+
+    @Test
+    void compare_reportsPartnerThatMissesDeadlineAsTimedOut() {
+        // given
+        when(provider.calculatePremium(any())).thenReturn(Mono.never());
+
+        // when & then
+        StepVerifier.create(comparison.compare(request))
+                .expectNextMatches(result -> result.isComplete()
+                        && result.getQuotes().get(0).getOutcome() == PartnerPremiumQuote.Outcome.TIMED_OUT)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void hedgeAfter_followsPartnerP95OnceEnoughCallsWereSeen() {
+        // given
+        ReflectionTestUtils.setField(comparison, "hedgeMinSamples", 1);
+        PremiumCalculationResponse premium = PremiumCalculationResponse.builder().build();
+        when(provider.calculatePremium(any())).thenReturn(Mono.just(premium));
+        when(mapper.toPremiumInfo(premium)).thenReturn(MotorQuoteResponse.PremiumInfo.builder().build());
+
+        // when
+        comparison.compare(request).blockLast();
+
+        // then
+        assertThat(comparison.hedgeAfter(PartnerType.SANLAM)).isLessThan(Duration.ofMillis(50));
+    }
+}
@@ -0,0 +1,80 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.isec.platform.modules.applications.config.FleetQuoteProperties;
+import com.isec.platform.modules.integrations.quote.provider.PartnerType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartnerThrottleTest {
+
+    private final FleetQuoteProperties properties = new FleetQuoteProperties();
+    private PartnerThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        properties.getDefaults().setConcurrency(2);
+        properties.getDefaults().setRatePerSecond(0);
+        throttle = new PartnerThrottle(properties);
+    }
+
+    @Test
+    void run_capsCallsInFlightPerPartner() {
+        // given
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        // when
+        Flux<Integer> calls = Flux.range(1, 10)
+                .flatMap(i -> throttle.run(PartnerType.SANLAM, () -> Mono.fromRunnable(() -> peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                        .then(Mono.delay(Duration.ofMillis(20)))
+                        .doOnTerminate(inFlight::decrementAndGet)
+                        .thenReturn(i)));
+
+        // then
+        StepVerifier.create(calls).expectNextCount(10).verifyComplete();
+        assertThat(peak).hasValue(2);
+    }
+
+    @Test
+    void run_spacesCallStartsByRate() {
+        // given
+        properties.getDefaults().setConcurrency(10);
+        properties.getDefaults().setRatePerSecond(20);
+        throttle = new PartnerThrottle(properties);
+        long start = System.nanoTime();
+
+        // when
+        Flux<Integer> calls = Flux.range(1, 5).flatMap(i -> throttle.run(PartnerType.SANLAM, () -> Mono.just(i)));
+
+        // then
+        StepVerifier.create(calls).expectNextCount(5).verifyComplete();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+    }
+
+    @Test
+    void run_releasesPermitOfCancelledWaiter() {
+        // given
+        Disposable first = throttle.run(PartnerType.SANLAM, Mono::never).subscribe();
+        Disposable second = throttle.run(PartnerType.SANLAM, Mono::never).subscribe();
+        Disposable waiting = throttle.run(PartnerType.SANLAM, Mono::never).subscribe();
+
+        // when
+        waiting.dispose();
+        first.dispose();
+
+        // then
+        StepVerifier.create(throttle.run(PartnerType.SANLAM, () -> Mono.just("next")))
+                .expectNext("next")
+                .verifyComplete();
+        second.dispose();
+    }
+}
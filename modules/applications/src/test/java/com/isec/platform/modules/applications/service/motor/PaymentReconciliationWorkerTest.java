@@ -0,0 +1,177 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.modules.applications.domain.motor.MotorQuoteApplication;
+import com.isec.platform.modules.applications.domain.motor.MotorQuoteStatus;
+import com.isec.platform.modules.applications.domain.motor.PaymentMethod;
+import com.isec.platform.modules.applications.dto.motor.MotorPaymentResult;
+import com.isec.platform.modules.applications.dto.motor.MotorQuoteResponse;
+import com.isec.platform.modules.applications.repository.motor.MotorQuoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentReconciliationWorkerTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-17T10:00:00Z");
+    private static final LocalDateTime UPDATED_AFTER = LocalDateTime.parse("2026-10-16T10:00:00");
+
+    @Mock
+    private MotorQuoteRepository repository;
+    @Mock
+    private MotorQuoteOrchestrator orchestrator;
+    @Mock
+    private ReactiveStringRedisTemplate stringRedisTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PaymentReconciliationWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new PaymentReconciliationWorker(repository, orchestrator, stringRedisTemplate, objectMapper);
+        ReflectionTestUtils.setField(worker, "batchSize", 2);
+        clock(NOW);
+        lenient().when(stringRedisTemplate.hasKey(anyString())).thenReturn(Mono.just(false));
+    }
+
+    @Test
+    void sweep_checksDueStkPaymentsPageByPageAndBacksOff() throws Exception {
+        // given
+        MotorQuoteApplication first = pending(1L, "Q-1", PaymentMethod.MPESA_STK);
+        MotorQuoteApplication paybill = pending(2L, "Q-2", PaymentMethod.MPESA_PAYBILL);
+        MotorQuoteApplication third = pending(3L, "Q-3", PaymentMethod.MPESA_STK);
+        // Later sweeps move the cutoff along with the clock
+        when(repository.findPendingPayments(any(LocalDateTime.class), eq(0L), eq(2))).thenReturn(Flux.just(first, paybill));
+        when(repository.findPendingPayments(any(LocalDateTime.class), eq(2L), eq(2))).thenReturn(Flux.just(third));
+        when(orchestrator.checkPaymentStatus(any(), eq(PaymentMethod.MPESA_STK), eq(null)))
+                .thenReturn(Mono.just(MotorQuoteResponse.builder().status(MotorQuoteStatus.PAYMENT_PENDING).build()));
+
+        // when & then
+        StepVerifier.create(worker.sweep()).expectNext(2).verifyComplete();
+        verify(orchestrator).checkPaymentStatus("Q-1", PaymentMethod.MPESA_STK, null);
+        verify(orchestrator).checkPaymentStatus("Q-3", PaymentMethod.MPESA_STK, null);
+        verify(orchestrator, never()).checkPaymentStatus(eq("Q-2"), any(), any());
+
+        // Not due again before the base interval has passed
+        clock(NOW.plusSeconds(2));
+        StepVerifier.create(worker.sweep()).expectNext(0).verifyComplete();
+        clock(NOW.plusSeconds(5));
+        StepVerifier.create(worker.sweep()).expectNext(2).verifyComplete();
+        verify(orchestrator, times(2)).checkPaymentStatus("Q-1", PaymentMethod.MPESA_STK, null);
+    }
+
+    @Test
+    void sweep_keepsGoingWhenOneCheckFails() throws Exception {
+        // given
+        when(repository.findPendingPayments(UPDATED_AFTER, 0L, 2)).thenReturn(Flux.just(
+                pending(1L, "Q-1", PaymentMethod.MPESA_STK), pending(2L, "Q-2", PaymentMethod.MPESA_STK)));
+        when(repository.findPendingPayments(UPDATED_AFTER, 2L, 2)).thenReturn(Flux.empty());
+        when(orchestrator.checkPaymentStatus("Q-1", PaymentMethod.MPESA_STK, null)).thenReturn(Mono.error(new RuntimeException("timeout")));
+        when(orchestrator.checkPaymentStatus("Q-2", PaymentMethod.MPESA_STK, null))
+                .thenReturn(Mono.just(MotorQuoteResponse.builder().status(MotorQuoteStatus.POLICY_ISSUED).build()));
+
+        // when & then
+        StepVerifier.create(worker.sweep()).expectNext(2).verifyComplete();
+    }
+
+    @Test
+    void sweep_leavesQuotesToTheirStatusWatcher() throws Exception {
+        // given
+        when(repository.findPendingPayments(UPDATED_AFTER, 0L, 2)).thenReturn(Flux.just(
+                pending(1L, "Q-1", PaymentMethod.MPESA_STK), pending(2L, "Q-2", PaymentMethod.MPESA_STK)));
+        when(repository.findPendingPayments(UPDATED_AFTER, 2L, 2)).thenReturn(Flux.empty());
+        when(stringRedisTemplate.hasKey("quote_status_watcher:Q-1")).thenReturn(Mono.just(true));
+        when(orchestrator.checkPaymentStatus("Q-2", PaymentMethod.MPESA_STK, null))
+                .thenReturn(Mono.just(MotorQuoteResponse.builder().status(MotorQuoteStatus.PAYMENT_PENDING).build()));
+
+        // when & then
+        StepVerifier.create(worker.sweep()).expectNext(1).verifyComplete();
+        verify(orchestrator, never()).checkPaymentStatus(eq("Q-1"), any(), any());
+    }
+
+    @Test
+    void isDue_measuresPendingAgeFromTheRowRatherThanWhenThisNodeFirstSawIt() throws Exception {
+        // given
+        MotorQuoteApplication longPending = pending(1L, "Q-1", PaymentMethod.MPESA_STK);
+        longPending.setUpdatedAt(LocalDateTime.parse("2026-10-17T07:00:00"));
+        MotorQuoteApplication abandoned = pending(2L, "Q-2", PaymentMethod.MPESA_STK);
+        abandoned.setUpdatedAt(LocalDateTime.parse("2026-10-16T09:00:00"));
+        LocalDateTime now = LocalDateTime.parse("2026-10-17T10:00:00");
+
+        // when & then
+        assertThat(worker.isDue(longPending, now)).isTrue();
+        ReflectionTestUtils.invokeMethod(worker, "check", longPending, now);
+        // Pending for three hours, so at the slowest interval even though this node only just saw it
+        assertThat(worker.isDue(longPending, now.plusSeconds(5))).isFalse();
+        assertThat(worker.isDue(longPending, now.plusSeconds(120))).isTrue();
+        assertThat(worker.isDue(abandoned, now)).isFalse();
+    }
+
+    @Test
+    void isDue_parsesEachRowsPaymentResultOnce() throws Exception {
+        // given
+        ObjectMapper countingMapper = Mockito.spy(new ObjectMapper());
+        worker = new PaymentReconciliationWorker(repository, orchestrator, stringRedisTemplate, countingMapper);
+        MotorQuoteApplication app = pending(1L, "Q-1", PaymentMethod.MPESA_STK);
+        LocalDateTime now = LocalDateTime.parse("2026-10-17T10:00:00");
+
+        // when
+        worker.isDue(app, now);
+        worker.isDue(app, now.plusSeconds(1));
+
+        // then
+        verify(countingMapper, times(1)).readValue(anyString(), eq(MotorPaymentResult.class));
+    }
+
+    @Test
+    void interval_isFastAtFirstThenDoublesUpToMax() {
+        assertThat(worker.interval(Duration.ofSeconds(30))).isEqualTo(Duration.ofSeconds(5));
+        assertThat(worker.interval(Duration.ofMinutes(2))).isEqualTo(Duration.ofSeconds(10));
+        assertThat(worker.interval(Duration.ofMinutes(4))).isEqualTo(Duration.ofSeconds(20));
+        assertThat(worker.interval(Duration.ofHours(3))).isEqualTo(Duration.ofSeconds(120));
+    }
+
+    private void clock(Instant now) {
+        ReflectionTestUtils.setField(worker, "clock", Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private MotorQuoteApplication pending(Long id, String quoteId, PaymentMethod method) throws Exception {
+        MotorQuoteApplication app = MotorQuoteApplication.builder()
+                .id(id)
+                .quoteId(quoteId)
+                .status(MotorQuoteStatus.PAYMENT_INITIATED)
+                .paymentResult(objectMapper.writeValueAsString(MotorPaymentResult.builder()
+                        .paymentMethod(method)
+                        .checkoutId("CH-" + id)
+                        .build()))
+                .build();
+        app.setTenantId("SANLAM");
+        app.setUpdatedAt(LocalDateTime.parse("2026-10-17T09:59:00"));
+        return app;
+    }
+}
@@ -0,0 +1,67 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.modules.applications.config.PolicyIssuanceProperties;
+import com.isec.platform.reactive.infra.outbox.OutboxEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PolicyIssuanceEventHandlerTest {
+
+    private final MotorQuoteOrchestrator orchestrator = mock(MotorQuoteOrchestrator.class);
+    private PolicyIssuanceEventHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new PolicyIssuanceEventHandler(orchestrator, new ObjectMapper(), new PolicyIssuanceProperties());
+        ReflectionTestUtils.setField(handler, "maxAttempts", 3);
+        when(orchestrator.issueQueuedPolicy(eq("Q-123"), anyBoolean())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void handle_issuesQueuedPolicy_withRetriesLeft() {
+        // given
+        OutboxEvent event = event(1);
+
+        // when & then
+        StepVerifier.create(handler.handle(event)).verifyComplete();
+        verify(orchestrator).issueQueuedPolicy("Q-123", false);
+    }
+
+    @Test
+    void handle_marksLastAttempt_soAFailureIsFinal() {
+        // given
+        OutboxEvent event = event(2);
+
+        // when & then
+        StepVerifier.create(handler.handle(event)).verifyComplete();
+        verify(orchestrator).issueQueuedPolicy("Q-123", true);
+    }
+
+    @Test
+    void handle_treatsMissingRetryCountAsFirstAttempt() {
+        // given
+        OutboxEvent event = event(null);
+
+        // when & then
+        StepVerifier.create(handler.handle(event)).verifyComplete();
+        verify(orchestrator).issueQueuedPolicy("Q-123", false);
+    }
+
+    private static OutboxEvent event(Integer retryCount) {
+        return OutboxEvent.builder()
+                .type(PolicyIssuanceEventHandler.EVENT_TYPE)
+                .payload("{\"quoteId\":\"Q-123\",\"tenantId\":\"TEST-TENANT\",\"partner\":\"SANLAM\"}")
+                .retryCount(retryCount)
+                .build();
+    }
+}
@@ -0,0 +1,171 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.isec.platform.common.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteSingleFlightTest {
+
+    private static final String KEY = "quote_flight:premium calculation:Q-1";
+
+    @Mock
+    private ReactiveStringRedisTemplate redisTemplate;
+    @Mock
+    private ReactiveValueOperations<String, String> valueOperations;
+
+    private QuoteSingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        singleFlight = new QuoteSingleFlight(redisTemplate);
+        ReflectionTestUtils.setField(singleFlight, "pollMillis", 10L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void execute_concurrentIdenticalCallsShareOneRun() {
+        // given
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(redisTemplate.execute(eq(LeaseScripts.REPLACE), eq(List.of(KEY)), anyList())).thenReturn(Flux.just(1L));
+        Sinks.One<String> partner = Sinks.one();
+        AtomicInteger runs = new AtomicInteger();
+        String fingerprint = QuoteSingleFlight.fingerprint("TENANT", "{\"quoteId\":\"Q-1\"}");
+
+        // when
+        Mono<String> first = singleFlight.execute("premium calculation", "Q-1", fingerprint,
+                () -> partner.asMono().doOnSubscribe(s -> runs.incrementAndGet()), Mono::empty);
+        Mono<String> second = singleFlight.execute("premium calculation", "Q-1",
+                QuoteSingleFlight.fingerprint("TENANT", "{\"quoteId\":\"Q-1\"}"),
+                () -> partner.asMono().doOnSubscribe(s -> runs.incrementAndGet()), Mono::empty);
+
+        // then
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> partner.tryEmitValue("premium"))
+                .expectNextMatches(results -> "premium".equals(results.getT1()) && "premium".equals(results.getT2()))
+                .verifyComplete();
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void execute_rejectsDifferentRequestWhileOneIsInFlight() {
+        // given
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        Sinks.One<String> partner = Sinks.one();
+        singleFlight.execute("premium calculation", "Q-1", QuoteSingleFlight.fingerprint("TENANT", "a"),
+                partner::asMono, Mono::empty).subscribe();
+
+        // when & then
+        StepVerifier.create(singleFlight.execute("premium calculation", "Q-1", QuoteSingleFlight.fingerprint("TENANT", "b"),
+                        () -> Mono.just("other"), Mono::empty))
+                .expectErrorMatches(e -> e instanceof BusinessException && e.getMessage().contains("in progress for quote Q-1"))
+                .verify();
+    }
+
+    @Test
+    void execute_waitsForRunOnAnotherNodeAndReadsItsOutcome() {
+        // given
+        String fingerprint = QuoteSingleFlight.fingerprint("TENANT", "a");
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(Mono.just(false));
+        when(valueOperations.get(KEY)).thenReturn(
+                Mono.just("RUNNING:other-node:" + fingerprint),
+                Mono.just("DONE:" + fingerprint));
+
+        // when & then
+        StepVerifier.create(singleFlight.execute("premium calculation", "Q-1", fingerprint,
+                        () -> Mono.just("recalculated"), () -> Mono.just("stored")))
+                .expectNext("stored")
+                .verifyComplete();
+    }
+
+    @Test
+    void execute_releasesLeaseWhenRunFails() {
+        // given
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(redisTemplate.execute(LeaseScripts.RELEASE, List.of(KEY), List.of(runningValue())))
+                .thenReturn(Flux.just(1L));
+
+        // when & then
+        StepVerifier.create(singleFlight.execute("premium calculation", "Q-1", QuoteSingleFlight.fingerprint("TENANT", "a"),
+                        () -> Mono.error(new RuntimeException("partner down")), Mono::empty))
+                .expectErrorMessage("partner down")
+                .verify();
+        verify(redisTemplate).execute(LeaseScripts.RELEASE, List.of(KEY), List.of(runningValue()));
+        verify(redisTemplate, never()).execute(eq(LeaseScripts.REPLACE), anyList(), anyList());
+    }
+
+    @Test
+    void execute_marksCompletedOnlyWhileStillHoldingTheLease() {
+        // given
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        // The lease expired during the run and another node took it
+        when(redisTemplate.execute(eq(LeaseScripts.REPLACE), eq(List.of(KEY)), anyList())).thenReturn(Flux.just(0L));
+
+        // when & then
+        StepVerifier.create(singleFlight.execute("premium calculation", "Q-1", QuoteSingleFlight.fingerprint("TENANT", "a"),
+                        () -> Mono.just("premium"), Mono::empty))
+                .expectNext("premium")
+                .verifyComplete();
+        verify(redisTemplate).execute(LeaseScripts.REPLACE, List.of(KEY),
+                List.of(runningValue(), "DONE:" + QuoteSingleFlight.fingerprint("TENANT", "a"), "30000"));
+        verify(redisTemplate, never()).execute(eq(LeaseScripts.RELEASE), anyList(), anyList());
+    }
+
+    @Test
+    void execute_finishingFlightLeavesANewerFlightForTheSameQuoteRegistered() {
+        // given
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(redisTemplate.execute(eq(LeaseScripts.REPLACE), eq(List.of(KEY)), anyList())).thenReturn(Flux.just(1L));
+        Sinks.One<String> older = Sinks.one();
+        Sinks.One<String> newer = Sinks.one();
+        AtomicInteger newerRuns = new AtomicInteger();
+        String fingerprint = QuoteSingleFlight.fingerprint("TENANT", "b");
+        singleFlight.execute("premium calculation", "Q-1", QuoteSingleFlight.fingerprint("TENANT", "a"),
+                older::asMono, Mono::empty).subscribe();
+        // The older flight's entry is gone, e.g. because it was cancelled, and a newer one took its key
+        Map<?, ?> flights = (Map<?, ?>) ReflectionTestUtils.getField(singleFlight, "flights");
+        flights.clear();
+        singleFlight.execute("premium calculation", "Q-1", fingerprint,
+                () -> newer.asMono().doOnSubscribe(s -> newerRuns.incrementAndGet()), Mono::empty).subscribe();
+
+        // when
+        older.tryEmitValue("older premium");
+
+        // then
+        StepVerifier.create(singleFlight.execute("premium calculation", "Q-1", fingerprint,
+                        () -> newer.asMono().doOnSubscribe(s -> newerRuns.incrementAndGet()), Mono::empty))
+                .then(() -> newer.tryEmitValue("newer premium"))
+                .expectNext("newer premium")
+                .verifyComplete();
+        assertThat(newerRuns).hasValue(1);
+    }
+
+    private String runningValue() {
+        String nodeId = (String) ReflectionTestUtils.getField(singleFlight, "nodeId");
+        return "RUNNING:" + nodeId + ":" + QuoteSingleFlight.fingerprint("TENANT", "a");
+    }
+}
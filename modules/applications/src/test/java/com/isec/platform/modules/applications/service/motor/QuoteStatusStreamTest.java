@@ -0,0 +1,137 @@
+package com.isec.platform.modules.applications.service.motor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.common.multitenancy.TenantContext;
+import com.isec.platform.modules.applications.domain.motor.MotorQuoteStatus;
+import com.isec.platform.modules.applications.dto.motor.MotorQuoteResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteStatusStreamTest {
+
+    @Mock
+    private MotorQuoteOrchestrator orchestrator;
+    @Mock
+    private ReactiveStringRedisTemplate stringRedisTemplate;
+    @Mock
+    private ReactiveValueOperations<String, String> valueOperations;
+    @Mock
+    private ReactiveRedisMessageListenerContainer listenerContainer;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private QuoteStatusStream statusStream;
+
+    @BeforeEach
+    void setUp() {
+        statusStream = new QuoteStatusStream(orchestrator, stringRedisTemplate, listenerContainer, objectMapper);
+        ReflectionTestUtils.setField(statusStream, "pollSeconds", 0L);
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void stream_emitsCurrentStateThenChangesUntilFinalStatus() throws Exception {
+        // given
+        when(orchestrator.getQuoteApplication("Q-1")).thenReturn(Mono.just(response(MotorQuoteStatus.PAYMENT_INITIATED)));
+        // Another node watches the quote
+        when(valueOperations.setIfAbsent(eq("quote_status_watcher:Q-1"), anyString(), any(Duration.class))).thenReturn(Mono.just(false));
+        doReturn(Flux.just(
+                        message(response(MotorQuoteStatus.PAYMENT_INITIATED)),
+                        message(response(MotorQuoteStatus.PAYMENT_SUCCESSFUL)),
+                        message(response(MotorQuoteStatus.POLICY_ISSUED)),
+                        message(response(MotorQuoteStatus.POLICY_ISSUED)))
+                .delayElements(Duration.ofMillis(10)))
+                .when(listenerContainer).receive(ChannelTopic.of("quote_status:Q-1"));
+
+        // when & then
+        StepVerifier.create(statusStream.stream("Q-1").contextWrite(TenantContext.withTenantId("TENANT")))
+                .expectNextMatches(r -> r.getStatus() == MotorQuoteStatus.PAYMENT_INITIATED)
+                .expectNextMatches(r -> r.getStatus() == MotorQuoteStatus.PAYMENT_SUCCESSFUL)
+                .expectNextMatches(r -> r.getStatus() == MotorQuoteStatus.POLICY_ISSUED)
+                .verifyComplete();
+    }
+
+    @Test
+    void watch_pollsQuoteAndStopsAtFinalStatus() {
+        // given
+        when(orchestrator.refreshQuoteStatus("Q-1")).thenReturn(
+                Mono.just(response(MotorQuoteStatus.PAYMENT_PENDING)),
+                Mono.just(response(MotorQuoteStatus.PAYMENT_FAILED)));
+        when(stringRedisTemplate.convertAndSend(eq("quote_status:Q-1"), anyString())).thenReturn(Mono.just(1L));
+        when(stringRedisTemplate.execute(eq(LeaseScripts.RENEW), eq(List.of("quote_status_watcher:Q-1")), anyList()))
+                .thenReturn(Flux.just(1L));
+        when(stringRedisTemplate.execute(eq(LeaseScripts.RELEASE), eq(List.of("quote_status_watcher:Q-1")), anyList()))
+                .thenReturn(Flux.just(1L));
+
+        // when & then
+        StepVerifier.create(statusStream.watch("TENANT", "Q-1"))
+                .verifyComplete();
+        verify(orchestrator, times(2)).refreshQuoteStatus("Q-1");
+        verify(stringRedisTemplate, times(2)).convertAndSend(eq("quote_status:Q-1"), anyString());
+    }
+
+    @Test
+    void watch_stopsWhenNoNodeListens() {
+        // given
+        when(orchestrator.refreshQuoteStatus("Q-1")).thenReturn(Mono.just(response(MotorQuoteStatus.QUOTE_ACCEPTED)));
+        when(stringRedisTemplate.convertAndSend(eq("quote_status:Q-1"), anyString())).thenReturn(Mono.just(0L));
+        when(stringRedisTemplate.execute(eq(LeaseScripts.RENEW), eq(List.of("quote_status_watcher:Q-1")), anyList()))
+                .thenReturn(Flux.just(1L));
+        when(stringRedisTemplate.execute(eq(LeaseScripts.RELEASE), eq(List.of("quote_status_watcher:Q-1")), anyList()))
+                .thenReturn(Flux.just(1L));
+
+        // when & then
+        StepVerifier.create(statusStream.watch("TENANT", "Q-1"))
+                .verifyComplete();
+        verify(stringRedisTemplate, times(2)).convertAndSend(eq("quote_status:Q-1"), anyString());
+    }
+
+    @Test
+    void watch_stopsOnceAnotherNodeTookTheLeaseOver() {
+        // given
+        when(orchestrator.refreshQuoteStatus("Q-1")).thenReturn(Mono.just(response(MotorQuoteStatus.PAYMENT_PENDING)));
+        when(stringRedisTemplate.convertAndSend(eq("quote_status:Q-1"), anyString())).thenReturn(Mono.just(1L));
+        when(stringRedisTemplate.execute(eq(LeaseScripts.RENEW), eq(List.of("quote_status_watcher:Q-1")), anyList()))
+                .thenReturn(Flux.just(0L));
+        when(stringRedisTemplate.execute(eq(LeaseScripts.RELEASE), eq(List.of("quote_status_watcher:Q-1")), anyList()))
+                .thenReturn(Flux.just(0L));
+
+        // when & then
+        StepVerifier.create(statusStream.watch("TENANT", "Q-1"))
+                .verifyComplete();
+        verify(orchestrator, times(1)).refreshQuoteStatus("Q-1");
+    }
+
+    private static MotorQuoteResponse response(MotorQuoteStatus status) {
+        return MotorQuoteResponse.builder().quoteId("Q-1").status(status).build();
+    }
+
+    private ReactiveSubscription.Message<String, String> message(MotorQuoteResponse response) throws Exception {
+        return new ReactiveSubscription.ChannelMessage<>("quote_status:Q-1", objectMapper.writeValueAsString(response));
+    }
+}
@@ -0,0 +1,193 @@
+package com.isec.platform.modules.applications.service.renewal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.modules.applications.domain.renewal.RenewalOffer;
+import com.isec.platform.modules.applications.domain.renewal.RenewalOfferStatus;
+import com.isec.platform.modules.applications.domain.renewal.RenewalRun;
+import com.isec.platform.modules.applications.dto.renewal.RenewalCandidate;
+import com.isec.platform.modules.applications.repository.renewal.RenewalRepository;
+import com.isec.platform.modules.rating.domain.RateRule;
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.PricingResult;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import com.isec.platform.modules.rating.dto.ReferralDecision;
+import com.isec.platform.modules.rating.repository.RateRuleRepository;
+import com.isec.platform.modules.rating.service.PricingEngine;
+import com.isec.platform.modules.rating.service.RateBookSnapshotLoader;
+import com.isec.platform.reactive.infra.tx.ReactiveTransactionRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RenewalRepricingServiceTest {
+
+    private static final String TENANT = "SANLAM";
+    private static final LocalDate RUN_DATE = LocalDate.of(2026, 10, 17);
+
+    @Mock
+    private RenewalRepository renewalRepository;
+    @Mock
+    private RateBookSnapshotLoader snapshotLoader;
+    @Mock
+    private RateRuleRepository rateRuleRepository;
+    @Mock
+    private PricingEngine pricingEngine;
+    @Mock
+    private ReactiveTransactionRunner transactionRunner;
+
+    private RenewalRepricingService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RenewalRepricingService(renewalRepository, snapshotLoader, rateRuleRepository, pricingEngine,
+                transactionRunner, new ObjectMapper());
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "clock", Clock.fixed(RUN_DATE.atTime(1, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    @Test
+    void run_pricesPagesAfterTheCheckpointAgainstTheRateBookInEffectAtRenewal() {
+        // given
+        RenewalRun run = RenewalRun.builder().id(7L).runDate(RUN_DATE).windowFrom(RUN_DATE).windowUntil(RUN_DATE.plusDays(30))
+                .status(RenewalRun.Status.RUNNING).lastPolicyId(10L).offered(3L).build();
+        LocalDate expiry = LocalDate.of(2026, 11, 1);
+        RateBookSnapshotLoader.Snapshot snapshot = new RateBookSnapshotLoader.Snapshot(5L, "2026-11",
+                RateBookDto.builder().id(5L).tenantId(TENANT).rules(List.of()).build(), "key", null, null);
+        when(renewalRepository.claim(eq(RUN_DATE), eq(RUN_DATE), eq(RUN_DATE.plusDays(30)), anyString(), any(), any()))
+                .thenReturn(Mono.just(run));
+        when(renewalRepository.findCandidates(RUN_DATE, RUN_DATE.plusDays(30), 10L, 2))
+                .thenReturn(Flux.just(candidate(11L, expiry), candidate(12L, expiry)));
+        when(renewalRepository.findCandidates(RUN_DATE, RUN_DATE.plusDays(30), 12L, 2))
+                .thenReturn(Flux.just(candidate(14L, expiry)));
+        when(snapshotLoader.loadAt(TENANT, LocalDateTime.of(2026, 11, 2, 0, 0))).thenReturn(Mono.just(snapshot));
+        RateRule commercial = new RateRule();
+        commercial.setId(100L);
+        commercial.setCategory("COMMERCIAL");
+        when(rateRuleRepository.findAllByTenantIdAndRuleType(TENANT, RuleType.BASE_PREMIUM)).thenReturn(Flux.just(commercial));
+        when(pricingEngine.priceCandidate(eq(snapshot), any())).thenAnswer(invocation -> {
+            RatingContext context = invocation.getArgument(1);
+            assertThat(context.getCategory()).isEqualTo("COMMERCIAL");
+            assertThat(context.getVehicleAge()).isEqualTo(6);
+            assertThat(context.getSelectedAddonIds()).containsExactly(200L);
+            PricingResult result = new PricingResult();
+            result.setTotalPremium(new BigDecimal("52000.00"));
+            result.setReferralDecision(context.getVehicleValue().compareTo(new BigDecimal("5000000")) > 0
+                    ? ReferralDecision.REFERRED : ReferralDecision.NONE);
+            return result;
+        });
+        when(transactionRunner.inTransaction(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(renewalRepository.insertOffers(any())).thenReturn(Mono.just(1L));
+        when(renewalRepository.advance(any(), anyString(), any(), any())).thenReturn(Mono.empty());
+        when(renewalRepository.complete(eq(run), anyString(), any())).thenReturn(Mono.empty());
+
+        // when & then
+        StepVerifier.create(service.run(RUN_DATE))
+                .assertNext(completed -> {
+                    assertThat(completed.getLastPolicyId()).isEqualTo(14L);
+                    assertThat(completed.getOffered()).isEqualTo(5L);
+                    assertThat(completed.getReferred()).isEqualTo(1L);
+                })
+                .verifyComplete();
+        ArgumentCaptor<List<RenewalOffer>> offers = ArgumentCaptor.captor();
+        verify(renewalRepository, times(2)).insertOffers(offers.capture());
+        assertThat(offers.getAllValues()).flatMap(page -> page)
+                .extracting(RenewalOffer::getPolicyId, RenewalOffer::getStatus, RenewalOffer::getRateBookId,
+                        RenewalOffer::getRenewalStartDate, RenewalOffer::getTenantId)
+                .containsExactlyInAnyOrder(
+                        tuple(11L, RenewalOfferStatus.OFFERED, 5L, expiry.plusDays(1), TENANT),
+                        tuple(12L, RenewalOfferStatus.REFERRED, 5L, expiry.plusDays(1), TENANT),
+                        tuple(14L, RenewalOfferStatus.OFFERED, 5L, expiry.plusDays(1), TENANT));
+        verify(snapshotLoader, times(1)).loadAt(anyString(), any());
+    }
+
+    @Test
+    void run_recordsDeclinesAndMissingRateBooksWithoutFailingTheRun() {
+        // given
+        RenewalRun run = RenewalRun.builder().id(8L).runDate(RUN_DATE).windowFrom(RUN_DATE).windowUntil(RUN_DATE.plusDays(30))
+                .status(RenewalRun.Status.RUNNING).build();
+        RateBookSnapshotLoader.Snapshot snapshot = new RateBookSnapshotLoader.Snapshot(5L, "2026-11",
+                RateBookDto.builder().id(5L).tenantId(TENANT).rules(List.of()).build(), "key", null, null);
+        when(renewalRepository.claim(any(), any(), any(), anyString(), any(), any())).thenReturn(Mono.just(run));
+        when(renewalRepository.findCandidates(any(), any(), eq(0L), anyInt()))
+                .thenReturn(Flux.just(candidate(1L, LocalDate.of(2026, 11, 1)), candidate(2L, LocalDate.of(2026, 11, 5))));
+        when(renewalRepository.findCandidates(any(), any(), eq(2L), anyInt())).thenReturn(Flux.empty());
+        when(snapshotLoader.loadAt(TENANT, LocalDateTime.of(2026, 11, 2, 0, 0))).thenReturn(Mono.just(snapshot));
+        when(snapshotLoader.loadAt(TENANT, LocalDateTime.of(2026, 11, 6, 0, 0))).thenReturn(Mono.empty());
+        when(rateRuleRepository.findAllByTenantIdAndRuleType(TENANT, RuleType.BASE_PREMIUM)).thenReturn(Flux.empty());
+        when(pricingEngine.priceCandidate(eq(snapshot), any())).thenThrow(new IllegalStateException("Not eligible for cover: Vehicle too old"));
+        when(transactionRunner.inTransaction(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(renewalRepository.insertOffers(any())).thenReturn(Mono.just(2L));
+        when(renewalRepository.advance(any(), anyString(), any(), any())).thenReturn(Mono.empty());
+        when(renewalRepository.complete(eq(run), anyString(), any())).thenReturn(Mono.empty());
+
+        // when & then
+        StepVerifier.create(service.run(RUN_DATE))
+                .assertNext(completed -> {
+                    assertThat(completed.getDeclined()).isEqualTo(1L);
+                    assertThat(completed.getFailed()).isEqualTo(1L);
+                })
+                .verifyComplete();
+        ArgumentCaptor<List<RenewalOffer>> offers = ArgumentCaptor.captor();
+        verify(renewalRepository).insertOffers(offers.capture());
+        assertThat(offers.getValue())
+                .extracting(RenewalOffer::getPolicyId, RenewalOffer::getStatus, RenewalOffer::getReason)
+                .containsExactlyInAnyOrder(
+                        tuple(1L, RenewalOfferStatus.DECLINED, "Not eligible for cover: Vehicle too old"),
+                        tuple(2L, RenewalOfferStatus.FAILED, "No rate book in effect on 2026-11-06"));
+    }
+
+    @Test
+    void run_doesNothingWhenTheRunIsCompletedOrLeasedElsewhere() {
+        // given
+        when(renewalRepository.claim(any(), any(), any(), anyString(), any(), any())).thenReturn(Mono.empty());
+
+        // when & then
+        StepVerifier.create(service.run(RUN_DATE)).verifyComplete();
+        verify(renewalRepository, never()).findCandidates(any(), any(), anyLong(), anyInt());
+    }
+
+    private static RenewalCandidate candidate(long policyId, LocalDate expiry) {
+        return RenewalCandidate.builder()
+                .policyId(policyId)
+                .tenantId(TENANT)
+                .expiryDate(expiry)
+                .currentPremium(new BigDecimal("50000.00"))
+                .applicationId(policyId + 1000)
+                .vehicleMake("TOYOTA")
+                .vehicleModel("AXIO")
+                .yearOfManufacture(2020)
+                .vehicleValue(policyId == 12L ? new BigDecimal("6000000") : new BigDecimal("1500000"))
+                .appliedRuleIds(List.of(100L, 200L))
+                .addonRuleIds(Set.of(200L))
+                .build();
+    }
+}
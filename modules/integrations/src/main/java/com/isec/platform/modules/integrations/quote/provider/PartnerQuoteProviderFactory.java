@@ -21,4 +21,10 @@ public class PartnerQuoteProviderFactory {
         return Optional.ofNullable(providers.get(providerType))
                 .orElseThrow(() -> new IllegalArgumentException("Unsupported partner quote provider: " + providerType));
     }
+
+    public List<PartnerQuoteProvider> getProviders(QuoteLifecycleCapability capability) {
+        return providers.values().stream()
+                .filter(provider -> provider.supportedCapabilities().contains(capability))
+                .toList();
+    }
 }
@@ -0,0 +1,108 @@
+package com.isec.platform.modules.rating.compiler;
+
+import com.isec.platform.modules.rating.dto.AddonBreakdown;
+import com.isec.platform.modules.rating.dto.PricingResult;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import com.isec.platform.modules.rating.dto.ReferralDecision;
+import com.isec.platform.modules.rating.service.CategoryRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class of the classes generated by {@link RateBookCompiler}.
+ * <p>
+ * Generated code only contains the rule expressions and the phase control flow; everything else (category
+ * dispatch, premium arithmetic, error reporting) lives here so it is written once and behaves like the
+ * interpreted engine and {@link com.isec.platform.modules.rating.service.RuleMatcher}.
+ */
+@Slf4j
+public abstract class AbstractCompiledRateBook implements CompiledRateBook {
+
+    private final RateBookDto.RateRuleDto[] rules;
+    // Ids equal to the generated dispatch ordinals
+    private final CategoryRegistry categoryOrdinals;
+    private final PricingResultAssembler assembler;
+
+    protected AbstractCompiledRateBook(RateBookDto.RateRuleDto[] rules, Map<String, Integer> categoryOrdinals,
+                                       PricingResultAssembler assembler) {
+        this.rules = rules;
+        this.categoryOrdinals = inOrdinalOrder(categoryOrdinals);
+        this.assembler = assembler;
+    }
+
+    /**
+     * Position of the context's category in the generated dispatch, or -1 when the rate book has no rules for it.
+     */
+    protected final int categoryOrdinal(RatingContext context) {
+        return categoryOrdinals.lookup(context.getCategory());
+    }
+
+    protected final Long ruleId(int rule) {
+        return rules[rule].getId();
+    }
+
+    protected final boolean conditionFailed(int rule, Exception e) {
+        log.error("Error evaluating condition for rule {}: {}", rules[rule].getId(), e.getMessage());
+        return false;
+    }
+
+    protected final Object valueFailed(int rule, Exception e) {
+        log.error("Error evaluating value for rule {}: {}", rules[rule].getId(), e.getMessage());
+        return null;
+    }
+
+    protected final RuntimeException notEligible(int rule) {
+        return new IllegalStateException("Not eligible for cover: " + rules[rule].getDescription());
+    }
+
+    protected final RuntimeException noBasePremium(RatingContext context) {
+        return new IllegalStateException("No base premium rule matched for category: " + context.getCategory());
+    }
+
+    protected final BigDecimal basePremium(RatingContext context, Object value) {
+        BigDecimal amount = toBigDecimal(value);
+        // If the value is > 1, treat it as a flat premium, otherwise treat as a rate
+        if (amount.compareTo(BigDecimal.ONE) > 0) {
+            return amount.setScale(0, RoundingMode.UP);
+        }
+        return context.getVehicleValue().multiply(amount).setScale(0, RoundingMode.UP);
+    }
+
+    protected final BigDecimal minimumPremium(Object value, BigDecimal basePremium) {
+        return toBigDecimal(value).max(basePremium);
+    }
+
+    protected final AddonBreakdown addon(int rule, Object value) {
+        RateBookDto.RateRuleDto addon = rules[rule];
+        BigDecimal amount = toBigDecimal(value).setScale(0, RoundingMode.UP);
+        return new AddonBreakdown(addon.getDescription(), addon.getDescription(), amount, addon.getId());
+    }
+
+    protected final PricingResult result(BigDecimal basePremium, List<AddonBreakdown> addons, int referralRule,
+                                         boolean minimumPremiumApplied, List<Long> appliedRuleIds) {
+        return referralRule < 0
+                ? assembler.assemble(basePremium, addons, ReferralDecision.NONE, null, minimumPremiumApplied, appliedRuleIds)
+                : assembler.assemble(basePremium, addons, ReferralDecision.REFERRED, rules[referralRule].getDescription(),
+                        minimumPremiumApplied, appliedRuleIds);
+    }
+
+    private static CategoryRegistry inOrdinalOrder(Map<String, Integer> categoryOrdinals) {
+        String[] categories = new String[categoryOrdinals.size()];
+        categoryOrdinals.forEach((category, ordinal) -> categories[ordinal] = category);
+        return CategoryRegistry.of(Arrays.asList(categories));
+    }
+
+    // Same conversion as RuleMatcher.evaluateBigDecimal
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal bd) return bd;
+        if (value instanceof Number n) return BigDecimal.valueOf(n.doubleValue());
+        if (value instanceof String s) return new BigDecimal(s);
+        return BigDecimal.ZERO;
+    }
+}
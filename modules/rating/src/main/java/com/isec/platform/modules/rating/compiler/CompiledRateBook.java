@@ -0,0 +1,15 @@
+package com.isec.platform.modules.rating.compiler;
+
+import com.isec.platform.modules.rating.dto.PricingResult;
+import com.isec.platform.modules.rating.dto.RatingContext;
+
+/**
+ * A rate book snapshot turned into a single generated class by {@link RateBookCompiler}.
+ * <p>
+ * Implementations price exactly like the interpreted {@code PricingEngine} path, including the exceptions
+ * raised for ineligible risks and unmatched categories. Instances are immutable and thread-safe.
+ */
+public interface CompiledRateBook {
+
+    PricingResult price(RatingContext context);
+}
@@ -0,0 +1,104 @@
+package com.isec.platform.modules.rating.compiler;
+
+import com.isec.platform.modules.rating.service.RateBookSnapshotLoader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the compiled form of each opted-in tenant's current rate book snapshot.
+ * <p>
+ * Compilation is triggered by the first quote against a new snapshot and runs in the background; until it
+ * completes, or if it fails, the tenant keeps being priced by the interpreted engine. Entries are keyed by
+ * tenant and tied to the snapshot instance they were compiled from, so a reloaded snapshot is recompiled
+ * even when its version name did not change. A snapshot about to take effect can be compiled ahead with
+ * {@link #prepare}; it replaces the current entry on its first quote.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CompiledRateBookRegistry {
+
+    private static final String ALL_TENANTS = "*";
+
+    private final RateBookCompiler compiler;
+
+    @Value("${rating.compiled.tenants:}")
+    private List<String> compiledTenants = List.of();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Entry> upcoming = new ConcurrentHashMap<>();
+
+    /**
+     * Compiled rate book for the snapshot, or null when the interpreted engine should be used.
+     */
+    public CompiledRateBook lookup(RateBookSnapshotLoader.Snapshot snapshot, PricingResultAssembler assembler) {
+        String tenantId = snapshot.rateBook().getTenantId();
+        if (tenantId == null || !isEnabled(tenantId)) {
+            return null;
+        }
+        Entry current = entries.get(tenantId);
+        if (current != null && current.snapshot == snapshot) {
+            return current.compiled;
+        }
+        Entry prepared = upcoming.get(tenantId);
+        if (prepared != null && prepared.snapshot == snapshot) {
+            entries.put(tenantId, prepared);
+            upcoming.remove(tenantId, prepared);
+            return prepared.compiled;
+        }
+        Entry pending = new Entry(snapshot, null);
+        boolean claimed = current == null
+                ? entries.putIfAbsent(tenantId, pending) == null
+                : entries.replace(tenantId, current, pending);
+        if (claimed) {
+            Mono.fromCallable(() -> compiler.compile(snapshot, assembler))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .subscribe(
+                            compiled -> entries.replace(tenantId, pending, new Entry(snapshot, compiled)),
+                            error -> log.warn("Rate book {} stays on the interpreted engine: {}",
+                                    snapshot.cacheKey(), error.getMessage()));
+        }
+        return null;
+    }
+
+    /**
+     * Compiles a snapshot that is not in use yet, completing once it is compiled or has failed to.
+     */
+    public Mono<Void> prepare(RateBookSnapshotLoader.Snapshot snapshot, PricingResultAssembler assembler) {
+        String tenantId = snapshot.rateBook().getTenantId();
+        if (tenantId == null || !isEnabled(tenantId)) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> compiler.compile(snapshot, assembler))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(compiled -> upcoming.put(tenantId, new Entry(snapshot, compiled)))
+                .onErrorResume(e -> {
+                    log.warn("Upcoming rate book {} will start on the interpreted engine: {}", snapshot.cacheKey(), e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    public boolean isEnabled(String tenantId) {
+        return compiledTenants.contains(ALL_TENANTS) || compiledTenants.contains(tenantId);
+    }
+
+    // Identity semantics on purpose: entries are swapped with compare-and-set on the instance
+    private static final class Entry {
+        private final RateBookSnapshotLoader.Snapshot snapshot;
+        private final CompiledRateBook compiled;
+
+        private Entry(RateBookSnapshotLoader.Snapshot snapshot, CompiledRateBook compiled) {
+            this.snapshot = snapshot;
+            this.compiled = compiled;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.isec.platform.modules.rating.compiler;
+
+import com.isec.platform.modules.rating.dto.AddonBreakdown;
+import com.isec.platform.modules.rating.dto.PricingResult;
+import com.isec.platform.modules.rating.dto.ReferralDecision;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Applies statutory charges and totals to the outcome of the rule phases. Supplied by the pricing engine so that
+ * compiled and interpreted rate books share one implementation of the charge schedule.
+ */
+@FunctionalInterface
+public interface PricingResultAssembler {
+
+    PricingResult assemble(BigDecimal basePremium, List<AddonBreakdown> addons, ReferralDecision referralDecision,
+                           String referralReason, boolean minimumPremiumApplied, List<Long> appliedRuleIds);
+}
@@ -0,0 +1,16 @@
+package com.isec.platform.modules.rating.compiler;
+
+/**
+ * Raised when a rate book cannot be compiled, typically because a rule uses an expression outside the
+ * grammar supported by {@link RateBookCompiler}. The rate book keeps being priced by the interpreter.
+ */
+public class RateBookCompilationException extends RuntimeException {
+
+    public RateBookCompilationException(String message) {
+        super(message);
+    }
+
+    public RateBookCompilationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
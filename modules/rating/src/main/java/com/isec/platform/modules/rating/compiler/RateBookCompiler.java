@@ -0,0 +1,433 @@
+package com.isec.platform.modules.rating.compiler;
+
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import com.isec.platform.modules.rating.expression.Node;
+import com.isec.platform.modules.rating.expression.Operator;
+import com.isec.platform.modules.rating.expression.RatingExpression;
+import com.isec.platform.modules.rating.expression.RatingExpressionException;
+import com.isec.platform.modules.rating.expression.ValueType;
+import com.isec.platform.modules.rating.service.RateBookIndex;
+import com.isec.platform.modules.rating.service.RateBookSnapshotLoader;
+import lombok.extern.slf4j.Slf4j;
+import org.codehaus.commons.compiler.CompileException;
+import org.codehaus.janino.SimpleCompiler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.expression.ParseException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns a rate book snapshot into a single generated {@link CompiledRateBook} class, compiled in memory with Janino.
+ * <p>
+ * Rule expressions are parsed with {@link RatingExpression#compile(String)} and their typed syntax tree is turned
+ * into Java source calling the same {@link com.isec.platform.modules.rating.expression.Operations} the interpreter
+ * uses, so both engines price identically. Rules that only the SpEL fallback of
+ * {@link com.isec.platform.modules.rating.service.RuleMatcher} can evaluate, and translated SpEL rules unless
+ * {@code rating.expressions.native-translated} is enabled, fail compilation with a
+ * {@link RateBookCompilationException} and the rate book stays on the interpreted engine.
+ * <p>
+ * The generated class contains no reflection: fields are read through their getters and each rule condition
+ * and value is a plain method, so a quote is priced by straight-line code that the JIT can inline.
+ */
+@Component
+@Slf4j
+public class RateBookCompiler {
+
+    static final String GENERATED_PACKAGE = "com.isec.platform.modules.rating.compiler.generated";
+
+    // Keeps every generated method well below HotSpot's 8000 byte limit for JIT compilation
+    private static final int RULES_PER_METHOD = 32;
+
+    private final AtomicLong classCounter = new AtomicLong();
+
+    @Value("${rating.expressions.native-translated:false}")
+    private boolean nativeTranslated = false;
+
+    public CompiledRateBook compile(RateBookSnapshotLoader.Snapshot snapshot, PricingResultAssembler assembler) {
+        long start = System.nanoTime();
+        String className = "RateBook" + snapshot.rateBookId() + "_" + classCounter.incrementAndGet();
+        SourceBuilder builder = new SourceBuilder(className);
+        String source = builder.build(snapshot.index());
+
+        try {
+            SimpleCompiler compiler = new SimpleCompiler();
+            compiler.setParentClassLoader(RateBookCompiler.class.getClassLoader());
+            compiler.cook(source);
+            Class<?> compiled = compiler.getClassLoader().loadClass(GENERATED_PACKAGE + "." + className);
+            CompiledRateBook rateBook = (CompiledRateBook) compiled
+                    .getConstructor(RateBookDto.RateRuleDto[].class, Map.class, PricingResultAssembler.class, Object[].class)
+                    .newInstance(builder.rules(), builder.categoryOrdinals(), assembler, builder.constants());
+            log.info("Compiled rate book {} ({} rules) in {} ms", snapshot.cacheKey(), builder.rules().length,
+                    (System.nanoTime() - start) / 1_000_000);
+            return rateBook;
+        } catch (CompileException e) {
+            throw new RateBookCompilationException("Generated source for rate book " + snapshot.cacheKey()
+                    + " does not compile: " + e.getMessage(), e);
+        } catch (ReflectiveOperationException e) {
+            throw new RateBookCompilationException("Cannot instantiate compiled rate book " + snapshot.cacheKey(), e);
+        }
+    }
+
+    /**
+     * Generates the Java source for one rate book. Rules are numbered by their position in {@link #rules()}, which
+     * the generated code uses to refer back to ids and descriptions.
+     */
+    private final class SourceBuilder {
+
+        private final String className;
+        private final List<RateBookDto.RateRuleDto> rules = new ArrayList<>();
+        private final List<Object> constants = new ArrayList<>();
+        private final Map<String, Integer> categoryOrdinals = new HashMap<>();
+        private final StringBuilder members = new StringBuilder();
+        private int auxiliaryMethods;
+
+        SourceBuilder(String className) {
+            this.className = className;
+        }
+
+        RateBookDto.RateRuleDto[] rules() {
+            return rules.toArray(new RateBookDto.RateRuleDto[0]);
+        }
+
+        Object[] constants() {
+            return constants.toArray();
+        }
+
+        Map<String, Integer> categoryOrdinals() {
+            return Map.copyOf(categoryOrdinals);
+        }
+
+        String build(RateBookIndex index) {
+            StringBuilder dispatch = new StringBuilder();
+            for (String category : index.categories()) {
+                int ordinal = categoryOrdinals.size();
+                categoryOrdinals.put(category, ordinal);
+                dispatch.append("            case ").append(ordinal).append(": return price").append(ordinal).append("(c);\n");
+                category(ordinal, index, category);
+            }
+
+            StringBuilder source = new StringBuilder()
+                    .append("package ").append(GENERATED_PACKAGE).append(";\n\n")
+                    .append("import com.isec.platform.modules.rating.compiler.AbstractCompiledRateBook;\n")
+                    .append("import com.isec.platform.modules.rating.compiler.PricingResultAssembler;\n")
+                    .append("import com.isec.platform.modules.rating.dto.PricingResult;\n")
+                    .append("import com.isec.platform.modules.rating.dto.RateBookDto;\n")
+                    .append("import com.isec.platform.modules.rating.dto.RatingContext;\n")
+                    .append("import com.isec.platform.modules.rating.expression.Operations;\n")
+                    .append("import java.math.BigDecimal;\n")
+                    .append("import java.util.ArrayList;\n")
+                    .append("import java.util.List;\n")
+                    .append("import java.util.Map;\n")
+                    .append("import java.util.Set;\n\n")
+                    .append("public final class ").append(className).append(" extends AbstractCompiledRateBook {\n\n");
+            for (int i = 0; i < constants.size(); i++) {
+                source.append("    private final Object k").append(i).append(";\n");
+            }
+            source.append("\n    public ").append(className)
+                    .append("(RateBookDto.RateRuleDto[] rules, Map categories, PricingResultAssembler assembler, Object[] constants) {\n")
+                    .append("        super(rules, categories, assembler);\n");
+            for (int i = 0; i < constants.size(); i++) {
+                source.append("        this.k").append(i).append(" = constants[").append(i).append("];\n");
+            }
+            return source.append("    }\n\n")
+                    .append("    public PricingResult price(RatingContext c) {\n")
+                    .append("        switch (categoryOrdinal(c)) {\n")
+                    .append(dispatch)
+                    .append("            default: throw noBasePremium(c);\n")
+                    .append("        }\n")
+                    .append("    }\n")
+                    .append(members)
+                    .append("}\n")
+                    .toString();
+        }
+
+        private void category(int ordinal, RateBookIndex index, String category) {
+            List<Integer> eligibility = register(index.rules(category, RuleType.ELIGIBILITY));
+            List<Integer> referral = register(index.rules(category, RuleType.REFERRAL));
+            List<Integer> base = register(index.rules(category, RuleType.BASE_PREMIUM));
+            List<Integer> minimum = register(index.rules(category, RuleType.MIN_PREMIUM));
+            List<Integer> addons = register(index.rules(category, RuleType.ADDON));
+
+            StringBuilder body = new StringBuilder()
+                    .append("\n    private PricingResult price").append(ordinal).append("(RatingContext c) {\n")
+                    .append("        List applied = new ArrayList();\n");
+            for (String chunk : eligibilityChunks(ordinal, eligibility)) {
+                body.append("        ").append(chunk).append("(c, applied);\n");
+            }
+            body.append(firstMatch("referral", ordinal, referral))
+                    .append("        if (referral >= 0) applied.add(ruleId(referral));\n")
+                    .append(firstMatch("baseRule", ordinal, base))
+                    .append("        if (baseRule < 0) throw noBasePremium(c);\n")
+                    .append("        applied.add(ruleId(baseRule));\n")
+                    .append("        BigDecimal base = basePremium(c, ").append(valueSwitch("baseValue", ordinal, base)).append("(baseRule, c));\n")
+                    .append("        boolean minApplied = false;\n")
+                    .append(firstMatch("minRule", ordinal, minimum))
+                    .append("        if (minRule >= 0) {\n")
+                    .append("            applied.add(ruleId(minRule));\n")
+                    .append("            BigDecimal adjusted = minimumPremium(").append(valueSwitch("minValue", ordinal, minimum)).append("(minRule, c), base);\n")
+                    .append("            if (adjusted.compareTo(base) > 0) {\n")
+                    .append("                minApplied = true;\n")
+                    .append("                base = adjusted;\n")
+                    .append("            }\n")
+                    .append("        }\n")
+                    .append("        List addons = new ArrayList();\n")
+                    .append("        Set selected = c.getSelectedAddonIds();\n")
+                    .append("        if (selected != null && !selected.isEmpty()) {\n");
+            for (String chunk : addonChunks(ordinal, addons)) {
+                body.append("            ").append(chunk).append("(c, selected, applied, addons);\n");
+            }
+            body.append("        }\n")
+                    .append("        return result(base, addons, referral, minApplied, applied);\n")
+                    .append("    }\n");
+            members.append(body);
+        }
+
+        private List<Integer> register(List<RateBookDto.RateRuleDto> phaseRules) {
+            List<Integer> slots = new ArrayList<>(phaseRules.size());
+            for (RateBookDto.RateRuleDto rule : phaseRules) {
+                int slot = rules.size();
+                rules.add(rule);
+                slots.add(slot);
+                members.append(conditionMethod(slot, rule)).append(valueMethod(slot, rule));
+            }
+            return slots;
+        }
+
+        private List<String> eligibilityChunks(int ordinal, List<Integer> slots) {
+            List<String> names = new ArrayList<>();
+            for (List<Integer> chunk : chunks(slots)) {
+                String name = "eligibility" + ordinal + "_" + names.size();
+                names.add(name);
+                members.append("\n    private void ").append(name).append("(RatingContext c, List applied) {\n");
+                for (int slot : chunk) {
+                    members.append("        if (!when").append(slot).append("(c)) throw notEligible(").append(slot).append(");\n")
+                            .append("        applied.add(ruleId(").append(slot).append("));\n");
+                }
+                members.append("    }\n");
+            }
+            return names;
+        }
+
+        private String firstMatch(String variable, int ordinal, List<Integer> slots) {
+            StringBuilder statements = new StringBuilder("        int ").append(variable).append(" = -1;\n");
+            int index = 0;
+            for (List<Integer> chunk : chunks(slots)) {
+                String name = variable + ordinal + "_" + index++;
+                members.append("\n    private int ").append(name).append("(RatingContext c) {\n");
+                for (int slot : chunk) {
+                    members.append("        if (when").append(slot).append("(c)) return ").append(slot).append(";\n");
+                }
+                members.append("        return -1;\n    }\n");
+                statements.append("        if (").append(variable).append(" < 0) ").append(variable).append(" = ").append(name).append("(c);\n");
+            }
+            return statements.toString();
+        }
+
+        private String valueSwitch(String prefix, int ordinal, List<Integer> slots) {
+            String name = prefix + ordinal;
+            members.append("\n    private Object ").append(name).append("(int rule, RatingContext c) {\n")
+                    .append("        switch (rule) {\n");
+            for (int slot : slots) {
+                members.append("            case ").append(slot).append(": return value").append(slot).append("(c);\n");
+            }
+            members.append("            default: return null;\n        }\n    }\n");
+            return name;
+        }
+
+        private List<String> addonChunks(int ordinal, List<Integer> slots) {
+            List<String> names = new ArrayList<>();
+            // Addons without an id can never be selected
+            List<Integer> selectable = slots.stream().filter(slot -> rules.get(slot).getId() != null).toList();
+            for (List<Integer> chunk : chunks(selectable)) {
+                String name = "addons" + ordinal + "_" + names.size();
+                names.add(name);
+                members.append("\n    private void ").append(name).append("(RatingContext c, Set selected, List applied, List addons) {\n");
+                for (int slot : chunk) {
+                    members.append("        if (selected.contains(ruleId(").append(slot).append(")) && when").append(slot).append("(c)) {\n")
+                            .append("            addons.add(addon(").append(slot).append(", value").append(slot).append("(c)));\n")
+                            .append("            applied.add(ruleId(").append(slot).append("));\n")
+                            .append("        }\n");
+                }
+                members.append("    }\n");
+            }
+            return names;
+        }
+
+        private List<List<Integer>> chunks(List<Integer> slots) {
+            List<List<Integer>> chunks = new ArrayList<>();
+            for (int from = 0; from < slots.size(); from += RULES_PER_METHOD) {
+                chunks.add(slots.subList(from, Math.min(slots.size(), from + RULES_PER_METHOD)));
+            }
+            return chunks;
+        }
+
+        private String conditionMethod(int slot, RateBookDto.RateRuleDto rule) {
+            String expression = rule.getConditionExpression();
+            StringBuilder method = new StringBuilder("\n    private boolean when").append(slot).append("(RatingContext c) {\n");
+            if (expression == null || expression.isBlank()) {
+                return method.append("        return true;\n    }\n").toString();
+            }
+            Node root = parse(rule, expression);
+            String test = root.type() == ValueType.BOOLEAN ? test(root) : "Operations.condition(" + value(root) + ")";
+            return method.append("        try {\n")
+                    .append("            return ").append(test).append(";\n")
+                    .append("        } catch (Exception e) {\n")
+                    .append("            return conditionFailed(").append(slot).append(", e);\n")
+                    .append("        }\n    }\n")
+                    .toString();
+        }
+
+        private String valueMethod(int slot, RateBookDto.RateRuleDto rule) {
+            String expression = rule.getValueExpression();
+            StringBuilder method = new StringBuilder("\n    private Object value").append(slot).append("(RatingContext c) {\n");
+            if (expression == null || expression.isBlank()) {
+                return method.append("        return null;\n    }\n").toString();
+            }
+            String value = value(parse(rule, expression));
+            return method.append("        try {\n")
+                    .append("            return ").append(value).append(";\n")
+                    .append("        } catch (Exception e) {\n")
+                    .append("            return valueFailed(").append(slot).append(", e);\n")
+                    .append("        }\n    }\n")
+                    .toString();
+        }
+
+        private Node parse(RateBookDto.RateRuleDto rule, String expression) {
+            RatingExpression parsed;
+            try {
+                parsed = RatingExpression.compile(expression);
+            } catch (RatingExpressionException | ParseException e) {
+                throw new RateBookCompilationException("Rule " + rule.getId() + " cannot be compiled: " + e.getMessage(), e);
+            }
+            if (parsed.isTranslated() && !nativeTranslated) {
+                throw new RateBookCompilationException("Rule " + rule.getId() + " is SpEL, which is evaluated by SpEL "
+                        + "until rating.expressions.native-translated is enabled");
+            }
+            return parsed.root();
+        }
+
+        // ---- Code generation
+
+        /**
+         * Java expression of type boolean.
+         */
+        private String test(Node node) {
+            if (node instanceof Node.Literal literal && literal.value() instanceof Boolean b) {
+                return b.toString();
+            } else if (node instanceof Node.Binary binary && binary.operator() == Operator.AND) {
+                return "(" + test(binary.left()) + " && " + test(binary.right()) + ")";
+            } else if (node instanceof Node.Binary binary && binary.operator() == Operator.OR) {
+                return "(" + test(binary.left()) + " || " + test(binary.right()) + ")";
+            } else if (node instanceof Node.Binary binary && binary.operator().isComparison()) {
+                return operations(binary.operator().method(), binary.left(), binary.right());
+            } else if (node instanceof Node.Unary unary && unary.operator() == Operator.NOT) {
+                return "!" + test(unary.operand());
+            } else if (node instanceof Node.Membership membership) {
+                return membership(membership);
+            } else if (node instanceof Node.Range range) {
+                return range(range);
+            }
+            return "Operations.truth(" + value(node) + ")";
+        }
+
+        /**
+         * Java expression of type Object.
+         */
+        private String value(Node node) {
+            if (node instanceof Node.Literal literal) {
+                return literal.value() == null ? "null" : constant(literal.value());
+            } else if (node instanceof Node.Field field) {
+                return "Operations.value(c." + field.field().getter() + "())";
+            } else if (node instanceof Node.DataLookup lookup) {
+                return "Operations.lookup(c.getAdditionalData(), (String) " + constant(lookup.key()) + ")";
+            } else if (node instanceof Node.Unary unary && unary.operator() == Operator.NEGATE) {
+                return operations("negate", unary.operand());
+            } else if (node instanceof Node.Binary binary && binary.operator().isArithmetic()) {
+                return operations(binary.operator().method(), binary.left(), binary.right());
+            } else if (node instanceof Node.Conditional conditional) {
+                return "(" + test(conditional.condition()) + " ? " + value(conditional.whenTrue())
+                        + " : " + value(conditional.whenFalse()) + ")";
+            } else if (node instanceof Node.Call call) {
+                return call(call);
+            }
+            return "Boolean.valueOf(" + test(node) + ")";
+        }
+
+        private String call(Node.Call call) {
+            List<Node> arguments = call.arguments();
+            switch (call.function()) {
+                case MAX:
+                case MIN: {
+                    String result = value(arguments.get(0));
+                    for (int i = 1; i < arguments.size(); i++) {
+                        result = "Operations." + call.function().method() + "(" + result + ", " + value(arguments.get(i)) + ")";
+                    }
+                    return result;
+                }
+                case COALESCE:
+                    return coalesce(arguments);
+                default:
+                    return operations(call.function().method(), arguments.toArray(new Node[0]));
+            }
+        }
+
+        // Operands after the first must only be evaluated when needed, so these constructs get their own method
+
+        private String coalesce(List<Node> arguments) {
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < arguments.size() - 1; i++) {
+                body.append("        Object v").append(i).append(" = ").append(value(arguments.get(i))).append(";\n")
+                        .append("        if (v").append(i).append(" != null) return v").append(i).append(";\n");
+            }
+            body.append("        return ").append(value(arguments.get(arguments.size() - 1))).append(";\n");
+            return auxiliaryMethod("Object", body);
+        }
+
+        private String membership(Node.Membership membership) {
+            StringBuilder body = new StringBuilder("        Object v = ").append(value(membership.value())).append(";\n");
+            for (Node candidate : membership.candidates()) {
+                body.append("        if (Operations.eq(v, ").append(value(candidate)).append(")) return ")
+                        .append(!membership.negated()).append(";\n");
+            }
+            body.append("        return ").append(membership.negated()).append(";\n");
+            return auxiliaryMethod("boolean", body);
+        }
+
+        private String range(Node.Range range) {
+            StringBuilder body = new StringBuilder("        Object v = ").append(value(range.value())).append(";\n")
+                    .append("        boolean inside = Operations.le(").append(value(range.lower())).append(", v)")
+                    .append(" && Operations.le(v, ").append(value(range.upper())).append(");\n")
+                    .append("        return inside != ").append(range.negated()).append(";\n");
+            return auxiliaryMethod("boolean", body);
+        }
+
+        // The body is generated before the method is added, as generating it may add further methods
+        private String auxiliaryMethod(String returnType, CharSequence body) {
+            String name = "aux" + auxiliaryMethods++;
+            members.append("\n    private ").append(returnType).append(" ").append(name).append("(RatingContext c) {\n")
+                    .append(body)
+                    .append("    }\n");
+            return name + "(c)";
+        }
+
+        private String operations(String method, Node... operands) {
+            List<String> arguments = new ArrayList<>(operands.length);
+            for (Node operand : operands) {
+                arguments.add(value(operand));
+            }
+            return "Operations." + method + "(" + String.join(", ", arguments) + ")";
+        }
+
+        private String constant(Object value) {
+            constants.add(value);
+            return "k" + (constants.size() - 1);
+        }
+    }
+}
@@ -2,9 +2,14 @@ package com.isec.platform.modules.rating.controller;
 
 import com.isec.platform.modules.rating.domain.RateBook;
 import com.isec.platform.modules.rating.dto.RateBookRequest;
+import com.isec.platform.modules.rating.dto.SimulationRequest;
+import com.isec.platform.modules.rating.dto.SimulationResult;
 import com.isec.platform.modules.rating.service.RateBookService;
+import com.isec.platform.modules.rating.service.RateBookSimulationService;
+import com.isec.platform.modules.rating.service.SimulationCsv;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +24,7 @@ import java.util.List;
 public class RateBookController {
 
     private final RateBookService rateBookService;
+    private final RateBookSimulationService simulationService;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'RETAIL_USER')")
@@ -53,4 +59,20 @@ public class RateBookController {
         return rateBookService.deleteRateBook(id)
                 .then(Mono.just(ResponseEntity.noContent().build()));
     }
+
+    /**
+     * Re-prices historical quotes against the rate book (typically an inactive candidate) and streams one line per
+     * quote followed by a summary, as NDJSON or, with {@code Accept: text/csv}, CSV.
+     */
+    @PostMapping(value = "/{id}/simulations", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'RETAIL_USER')")
+    public Flux<SimulationResult> simulate(@PathVariable Long id, @RequestBody(required = false) SimulationRequest request) {
+        return simulationService.simulate(id, request != null ? request : new SimulationRequest());
+    }
+
+    @PostMapping(value = "/{id}/simulations", produces = "text/csv")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RETAIL_USER')")
+    public Flux<String> simulateCsv(@PathVariable Long id, @RequestBody(required = false) SimulationRequest request) {
+        return SimulationCsv.lines(simulationService.simulate(id, request != null ? request : new SimulationRequest()));
+    }
 }
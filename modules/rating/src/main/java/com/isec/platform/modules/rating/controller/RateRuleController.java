@@ -1,10 +1,13 @@
 package com.isec.platform.modules.rating.controller;
 
 import com.isec.platform.modules.rating.domain.RateRule;
+import com.isec.platform.modules.rating.dto.ExpressionMigrationResult;
 import com.isec.platform.modules.rating.dto.RateRuleRequest;
 import com.isec.platform.modules.rating.service.RateRuleService;
+import com.isec.platform.modules.rating.service.RuleExpressionMigrationValidator;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +22,7 @@ import java.util.List;
 public class RateRuleController {
 
     private final RateRuleService rateRuleService;
+    private final RuleExpressionMigrationValidator migrationValidator;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'RETAIL_USER')") // RETAIL_USER here implies Tenant Admin role mapping
@@ -47,6 +51,12 @@ public class RateRuleController {
         return rateRuleService.listRules(rateBookId);
     }
 
+    @GetMapping(value = "/expression-migration", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Flux<ExpressionMigrationResult> validateExpressionMigration() {
+        return migrationValidator.validateAll();
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'RETAIL_USER')")
     public Mono<ResponseEntity<Void>> deleteRule(@PathVariable Long id) {
@@ -2,12 +2,16 @@ package com.isec.platform.modules.rating.controller;
 
 import com.isec.platform.modules.rating.domain.AnonymousQuote;
 import com.isec.platform.modules.rating.dto.AnonymousQuoteRequest;
+import com.isec.platform.modules.rating.dto.BatchPricingResult;
+import com.isec.platform.modules.rating.dto.BatchQuoteItem;
 import com.isec.platform.modules.rating.service.RatingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -25,6 +29,14 @@ public class RatingController {
                 .map(ResponseEntity::ok);
     }
 
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('RETAIL_USER', 'AGENT', 'ADMIN')")
+    public Flux<BatchPricingResult> priceBatch(
+            @RequestBody Flux<BatchQuoteItem> items,
+            @RequestParam(defaultValue = "true") boolean ordered) {
+        return ratingService.priceBatch(items, ordered);
+    }
+
     @PostMapping("/calculate")
     @PreAuthorize("hasAnyRole('RETAIL_USER', 'AGENT', 'ADMIN')")
     public Mono<ResponseEntity<RatingService.PremiumBreakdown>> calculatePremium(
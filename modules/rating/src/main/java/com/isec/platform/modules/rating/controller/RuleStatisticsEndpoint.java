@@ -0,0 +1,35 @@
+package com.isec.platform.modules.rating.controller;
+
+import com.isec.platform.modules.rating.dto.RuleStatistics;
+import com.isec.platform.modules.rating.service.RuleSelectivity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/ratingrules}: per-rule evaluation and match counts behind the adaptive rule ordering, optionally
+ * for one tenant ({@code /actuator/ratingrules/{tenantId}}).
+ */
+@Component
+@Endpoint(id = "ratingrules")
+@RequiredArgsConstructor
+public class RuleStatisticsEndpoint {
+
+    private final RuleSelectivity ruleSelectivity;
+
+    @ReadOperation
+    public List<RuleStatistics> rules() {
+        return ruleSelectivity.statistics();
+    }
+
+    @ReadOperation
+    public List<RuleStatistics> tenantRules(@Selector String tenantId) {
+        return ruleSelectivity.statistics().stream()
+                .filter(statistics -> tenantId.equals(statistics.getTenantId()))
+                .toList();
+    }
+}
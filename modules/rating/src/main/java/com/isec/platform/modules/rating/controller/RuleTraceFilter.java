@@ -0,0 +1,24 @@
+package com.isec.platform.modules.rating.controller;
+
+import com.isec.platform.modules.rating.service.RuleTraceSampler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Traces every quote priced while handling a request with {@value RuleTraceSampler#FORCE_HEADER}{@code : true},
+ * e.g. to reproduce a disputed premium.
+ */
+@Component
+public class RuleTraceFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!"true".equalsIgnoreCase(exchange.getRequest().getHeaders().getFirst(RuleTraceSampler.FORCE_HEADER))) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).contextWrite(RuleTraceSampler::force);
+    }
+}
@@ -0,0 +1,178 @@
+package com.isec.platform.modules.rating.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of KES held as a whole number of cents, for arithmetic on the pricing path without intermediate
+ * {@link BigDecimal}s. Amounts convert to {@code BigDecimal} only when they leave the engine.
+ * <p>
+ * Products with a {@link Rate} are computed exactly and rounded once, to cents or to whole shillings, with
+ * {@link RoundingMode#UP} or {@link RoundingMode#HALF_UP}, so results equal the corresponding
+ * {@code multiply(...).setScale(...)} on {@code BigDecimal}s. Operations throw {@link ArithmeticException} on
+ * overflow rather than wrap.
+ */
+public final class Money {
+
+    public static final Money ZERO = new Money(0);
+
+    /**
+     * Amounts up to this many cents, ten trillion shillings, can be added up and multiplied by rates of at most one
+     * without overflow; callers check {@link #isWithinPricingRange()} up front and use {@code BigDecimal}s beyond it.
+     */
+    public static final long MAX_PRICING_CENTS = 1_000_000_000_000_000L;
+
+    private static final int SCALE = 2;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L};
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * The amount as money, or {@code null} if it has fractions of a cent or does not fit.
+     */
+    public static Money exact(BigDecimal amount) {
+        if (amount.scale() > SCALE) {
+            amount = amount.stripTrailingZeros();
+            if (amount.scale() > SCALE) {
+                return null;
+            }
+        }
+        if (amount.precision() - amount.scale() > 16) {
+            return null;
+        }
+        return ofCents(amount.movePointRight(SCALE).longValueExact());
+    }
+
+    public long cents() {
+        return cents;
+    }
+
+    public boolean isWithinPricingRange() {
+        return Math.abs(cents) <= MAX_PRICING_CENTS;
+    }
+
+    /**
+     * Whether {@link #times} this amount by {@code rate} stays within range.
+     */
+    public boolean canMultiply(Rate rate) {
+        return Math.multiplyHigh(cents, rate.unscaled) == (cents * rate.unscaled) >> 63;
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    /**
+     * This amount times {@code rate}, rounded once to the given precision.
+     */
+    public Money times(Rate rate, Precision precision, RoundingMode rounding) {
+        long product = Math.multiplyExact(cents, rate.unscaled);
+        return ofCents(Math.multiplyExact(divide(product, POWERS_OF_TEN[rate.scale] * precision.cents, rounding), precision.cents));
+    }
+
+    public Money round(Precision precision, RoundingMode rounding) {
+        return ofCents(divide(cents, precision.cents, rounding) * precision.cents);
+    }
+
+    /**
+     * The amount with two decimals, or none for {@link Precision#SHILLINGS}; the amount must be a whole number of
+     * shillings then.
+     */
+    public BigDecimal toBigDecimal(Precision precision) {
+        if (precision == Precision.SHILLINGS) {
+            if (cents % Precision.SHILLINGS.cents != 0) {
+                throw new ArithmeticException("Not a whole number of shillings: " + this);
+            }
+            return BigDecimal.valueOf(cents / Precision.SHILLINGS.cents);
+        }
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    private static long divide(long dividend, long divisor, RoundingMode rounding) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        long awayFromZero = quotient + Long.signum(dividend);
+        return switch (rounding) {
+            case UP -> awayFromZero;
+            case DOWN -> quotient;
+            // divisor is at most 10^17, so twice the remainder cannot overflow
+            case HALF_UP -> 2 * Math.abs(remainder) >= divisor ? awayFromZero : quotient;
+            default -> throw new IllegalArgumentException("Unsupported rounding: " + rounding);
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && other.cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return "KES " + BigDecimal.valueOf(cents, SCALE).toPlainString();
+    }
+
+    public enum Precision {
+        CENTS(1),
+        SHILLINGS(100);
+
+        private final long cents;
+
+        Precision(long cents) {
+            this.cents = cents;
+        }
+    }
+
+    /**
+     * A multiplier such as a levy rate, held as an unscaled {@code long} and a decimal scale of at most
+     * {@value #MAX_SCALE}.
+     */
+    public static final class Rate {
+
+        static final int MAX_SCALE = 15;
+
+        private final long unscaled;
+        private final int scale;
+
+        private Rate(long unscaled, int scale) {
+            this.unscaled = unscaled;
+            this.scale = scale;
+        }
+
+        /**
+         * The rate, or {@code null} if it needs more than {@value #MAX_SCALE} decimals or does not fit.
+         */
+        public static Rate exact(BigDecimal rate) {
+            BigDecimal stripped = rate.stripTrailingZeros();
+            int digits = stripped.scale() < 0 ? stripped.precision() - stripped.scale() : stripped.precision();
+            if (stripped.scale() > MAX_SCALE || digits > 18) {
+                return null;
+            }
+            int scale = Math.max(stripped.scale(), 0);
+            return new Rate(stripped.setScale(scale).unscaledValue().longValueExact(), scale);
+        }
+
+        @Override
+        public String toString() {
+            return BigDecimal.valueOf(unscaled, scale).toPlainString();
+        }
+    }
+}
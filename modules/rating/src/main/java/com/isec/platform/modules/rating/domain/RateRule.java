@@ -26,7 +26,7 @@ public class RateRule extends TenantBaseEntity {
 
     private int priority;
 
-    private String conditionExpression; // SpEL expression
+    private String conditionExpression; // Rating expression (legacy SpEL is translated)
 
-    private String valueExpression; // SpEL expression or constant
+    private String valueExpression; // Rating expression or constant
 }
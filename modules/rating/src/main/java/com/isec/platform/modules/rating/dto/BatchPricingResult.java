@@ -0,0 +1,24 @@
+package com.isec.platform.modules.rating.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPricingResult {
+    private long index;
+    private PricingResult pricing;
+    private String error;
+
+    public static BatchPricingResult success(long index, PricingResult pricing) {
+        return BatchPricingResult.builder().index(index).pricing(pricing).build();
+    }
+
+    public static BatchPricingResult failure(long index, String error) {
+        return BatchPricingResult.builder().index(index).error(error).build();
+    }
+}
@@ -0,0 +1,28 @@
+package com.isec.platform.modules.rating.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One vehicle of a fleet/batch pricing request. Items are identified in the response by their
+ * zero-based position in the submitted batch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchQuoteItem {
+    private String category;
+    private String vehicleMake;
+    private String vehicleModel;
+    private Integer yearOfManufacture;
+    private BigDecimal vehicleValue;
+    private Set<Long> selectedAddonIds;
+    private Map<String, Object> additionalData;
+}
@@ -0,0 +1,38 @@
+package com.isec.platform.modules.rating.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of checking one stored rule expression against the rating expression language.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpressionMigrationResult {
+
+    public enum Status {
+        /** Already written in the rating expression language. */
+        NATIVE,
+        /** Legacy SpEL, translated with identical results on the sample contexts. */
+        TRANSLATED,
+        /** Translated, but pricing differs from SpEL on at least one sample context (see message). */
+        DIVERGENT,
+        /** Only evaluable through the SpEL fallback. */
+        SPEL_ONLY,
+        /** Valid in neither language. */
+        INVALID
+    }
+
+    private Long ruleId;
+    private Long rateBookId;
+    private String tenantId;
+    private String field;
+    private String expression;
+    private String translation;
+    private Status status;
+    private String message;
+}
@@ -0,0 +1,28 @@
+package com.isec.platform.modules.rating.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A previously priced quote, rebuilt into the context it was priced with, as replayed by a simulation.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoricalQuote {
+    private SimulationRequest.Source source;
+    private String reference;
+    private LocalDateTime quotedAt;
+    private RatingContext context;
+    private BigDecimal baselinePremium;
+    // Null for partner-priced quotes, which carry no referral decision
+    private ReferralDecision baselineDecision;
+    private List<Long> baselineRuleIds;
+}
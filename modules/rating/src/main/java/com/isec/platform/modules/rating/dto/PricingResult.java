@@ -1,5 +1,6 @@
 package com.isec.platform.modules.rating.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,7 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class PricingResult {
@@ -30,6 +31,10 @@ public class PricingResult {
     @Builder.Default
     private List<AddonBreakdown> addons = new ArrayList<>();
 
+    // Only on traced quotes
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private PricingTrace trace;
+
     public void addAppliedRule(Long id) {
         if (id != null) this.appliedRuleIds.add(id);
     }
@@ -0,0 +1,49 @@
+package com.isec.platform.modules.rating.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.isec.platform.modules.rating.domain.RuleType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every rule condition evaluated while pricing a traced quote, in evaluation order, with the context values it read
+ * and how long it took. Only the last {@code capacity} evaluations are kept; {@code dropped} counts the others.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PricingTrace {
+    private Trigger trigger;
+    private Long rateBookId;
+    private String rateBookVersion;
+    private int capacity;
+    private long dropped;
+    private List<Entry> rules;
+
+    public enum Trigger {
+        SAMPLED, FORCED
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Entry {
+        private Long ruleId;
+        private RuleType ruleType;
+        private Map<String, Object> inputs;
+        private boolean matched;
+        // Premium, rate or amount of a matched rule with a value
+        private BigDecimal value;
+        private long nanos;
+    }
+}
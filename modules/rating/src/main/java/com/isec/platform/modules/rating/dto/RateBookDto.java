@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -18,6 +19,8 @@ public class RateBookDto implements Serializable {
     private String tenantId;
     private String name;
     private String versionName;
+    private LocalDateTime effectiveFrom;
+    private LocalDateTime effectiveTo;
     private List<RateRuleDto> rules;
 
     @Data
@@ -0,0 +1,28 @@
+package com.isec.platform.modules.rating.dto;
+
+import com.isec.platform.modules.rating.domain.RuleType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How often a rule's condition was evaluated and matched by the interpreting pricing engine since startup, with
+ * the cost estimate used to order it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleStatistics {
+    private Long ruleId;
+    private String tenantId;
+    private String category;
+    private RuleType ruleType;
+    private String description;
+    private int priority;
+    private int cost;
+    private long evaluated;
+    private long matched;
+    private Double matchRate;
+}
@@ -0,0 +1,40 @@
+package com.isec.platform.modules.rating.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A historical quote re-priced against a candidate rate book.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulatedQuote {
+    private SimulationRequest.Source source;
+    private String reference;
+    private LocalDateTime quotedAt;
+    private String category;
+    private BigDecimal baselinePremium;
+    private ReferralDecision baselineDecision;
+    private BigDecimal candidatePremium;
+    private Outcome candidateOutcome;
+    // Referral reason, or why the quote was declined or could not be priced
+    private String candidateReason;
+    // Candidate minus baseline total premium, when both are known
+    private BigDecimal premiumDelta;
+
+    @Builder.Default
+    private List<Long> candidateRuleIds = new ArrayList<>();
+
+    public enum Outcome {
+        ACCEPTED, REFERRED, DECLINED, FAILED
+    }
+}
@@ -0,0 +1,36 @@
+package com.isec.platform.modules.rating.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Which historical quotes of the candidate rate book's tenant to re-price in a what-if simulation.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationRequest {
+    @Builder.Default
+    private Source source = Source.ALL;
+    // Quotes created from (inclusive) and to (exclusive); open-ended when not set
+    private LocalDateTime from;
+    private LocalDateTime to;
+    // At most this many quotes per source, capped by rating.simulation.max-quotes
+    private Integer limit;
+    // Application pricing snapshots do not record the category; used when it cannot be told from their rules
+    @Builder.Default
+    private String defaultCategory = "PRIVATE_CAR";
+
+    public enum Source {
+        /** {@code applications.pricing_snapshot}, priced by our own rate books */
+        APPLICATIONS,
+        /** {@code motor_quote_applications.premium_result}, priced by the partner */
+        MOTOR_QUOTES,
+        ALL
+    }
+}
@@ -0,0 +1,26 @@
+package com.isec.platform.modules.rating.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a simulation stream: a re-priced quote, or the summary that ends the stream.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SimulationResult {
+    private SimulatedQuote quote;
+    private SimulationSummary summary;
+
+    public static SimulationResult of(SimulatedQuote quote) {
+        return new SimulationResult(quote, null);
+    }
+
+    public static SimulationResult of(SimulationSummary summary) {
+        return new SimulationResult(null, summary);
+    }
+}
@@ -0,0 +1,47 @@
+package com.isec.platform.modules.rating.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Aggregate effect of a candidate rate book on the replayed quotes.
+ * <p>
+ * Premium figures are over the quotes with both a baseline and a candidate premium. The baseline referral rate is
+ * over the quotes that recorded a referral decision (our own applications); candidate rates are over all quotes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationSummary {
+    private long quotes;
+    private long accepted;
+    private long referred;
+    private long declined;
+    private long failed;
+
+    private BigDecimal baselineReferralRate;
+    private BigDecimal candidateReferralRate;
+    private BigDecimal candidateDeclineRate;
+
+    private long compared;
+    private BigDecimal baselineTotalPremium;
+    private BigDecimal candidateTotalPremium;
+    private BigDecimal totalPremiumChangePercent;
+    private BigDecimal minPremiumDelta;
+    private BigDecimal maxPremiumDelta;
+    private BigDecimal meanPremiumDelta;
+
+    // Quotes per band of per-quote premium change, and per premium band before and after
+    private Map<String, Long> premiumChangeDistribution;
+    private Map<String, Long> baselinePremiumDistribution;
+    private Map<String, Long> candidatePremiumDistribution;
+
+    // Quotes each candidate rule applied to, by rule id
+    private Map<Long, Long> ruleHits;
+}
@@ -0,0 +1,80 @@
+package com.isec.platform.modules.rating.expression;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Functions callable from rule expressions. {@link #method()} names the {@link Operations} method implementing
+ * the function; {@link #MAX}, {@link #MIN} and {@link #COALESCE} accept any number of arguments from two upwards,
+ * {@code max}/{@code min} being applied pairwise from the left and {@code coalesce} evaluating lazily.
+ */
+public enum BuiltinFunction {
+    MAX("max", "max", 2, Integer.MAX_VALUE, ValueType.NUMBER, ValueType.NUMBER),
+    MIN("min", "min", 2, Integer.MAX_VALUE, ValueType.NUMBER, ValueType.NUMBER),
+    ABS("abs", "abs", 1, 1, ValueType.NUMBER, ValueType.NUMBER),
+    FLOOR("floor", "floor", 1, 1, ValueType.NUMBER, ValueType.NUMBER),
+    CEIL("ceil", "ceil", 1, 1, ValueType.NUMBER, ValueType.NUMBER),
+    ROUND("round", "round", 1, 2, ValueType.NUMBER, ValueType.NUMBER),
+    INT("int", "toInt", 1, 1, ValueType.ANY, ValueType.NUMBER),
+    DECIMAL("decimal", "toDecimal", 1, 1, ValueType.ANY, ValueType.NUMBER),
+    STRING("string", "toText", 1, 1, ValueType.ANY, ValueType.STRING),
+    LOWER("lower", "lower", 1, 1, ValueType.STRING, ValueType.STRING),
+    UPPER("upper", "upper", 1, 1, ValueType.STRING, ValueType.STRING),
+    TRIM("trim", "trim", 1, 1, ValueType.STRING, ValueType.STRING),
+    LENGTH("length", "length", 1, 1, ValueType.STRING, ValueType.NUMBER),
+    STARTS_WITH("startsWith", "startsWith", 2, 2, ValueType.STRING, ValueType.BOOLEAN),
+    ENDS_WITH("endsWith", "endsWith", 2, 2, ValueType.STRING, ValueType.BOOLEAN),
+    CONTAINS("contains", "contains", 2, 2, ValueType.STRING, ValueType.BOOLEAN),
+    IEQUALS("iequals", "equalsIgnoreCase", 2, 2, ValueType.STRING, ValueType.BOOLEAN),
+    COALESCE("coalesce", null, 2, Integer.MAX_VALUE, ValueType.ANY, ValueType.ANY);
+
+    private static final Map<String, BuiltinFunction> BY_NAME = Stream.of(values())
+            .collect(Collectors.toUnmodifiableMap(BuiltinFunction::functionName, Function.identity()));
+
+    private final String name;
+    private final String method;
+    private final int minArguments;
+    private final int maxArguments;
+    private final ValueType parameterType;
+    private final ValueType resultType;
+
+    BuiltinFunction(String name, String method, int minArguments, int maxArguments,
+                    ValueType parameterType, ValueType resultType) {
+        this.name = name;
+        this.method = method;
+        this.minArguments = minArguments;
+        this.maxArguments = maxArguments;
+        this.parameterType = parameterType;
+        this.resultType = resultType;
+    }
+
+    public String functionName() {
+        return name;
+    }
+
+    public String method() {
+        return method;
+    }
+
+    int minArguments() {
+        return minArguments;
+    }
+
+    int maxArguments() {
+        return maxArguments;
+    }
+
+    ValueType parameterType() {
+        return parameterType;
+    }
+
+    ValueType resultType() {
+        return resultType;
+    }
+
+    static BuiltinFunction byName(String name) {
+        return BY_NAME.get(name);
+    }
+}
@@ -0,0 +1,66 @@
+package com.isec.platform.modules.rating.expression;
+
+import com.isec.platform.modules.rating.dto.RatingContext;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The {@link RatingContext} properties an expression may refer to. Values are read through their getters and
+ * normalized with {@link Operations#value(Object)}, so integers are always {@code Long} and decimals {@code BigDecimal}.
+ */
+public enum ContextField {
+    TENANT_ID("tenantId", "getTenantId", ValueType.STRING),
+    CATEGORY("category", "getCategory", ValueType.STRING),
+    VEHICLE_VALUE("vehicleValue", "getVehicleValue", ValueType.NUMBER),
+    VEHICLE_AGE("vehicleAge", "getVehicleAge", ValueType.NUMBER),
+    VEHICLE_MAKE("vehicleMake", "getVehicleMake", ValueType.STRING),
+    VEHICLE_MODEL("vehicleModel", "getVehicleModel", ValueType.STRING),
+    ADDITIONAL_DATA("additionalData", "getAdditionalData", ValueType.MAP);
+
+    private static final Map<String, ContextField> BY_NAME = Stream.of(values())
+            .collect(Collectors.toUnmodifiableMap(field -> field.name, Function.identity()));
+
+    private final String name;
+    private final String getter;
+    private final ValueType type;
+
+    ContextField(String name, String getter, ValueType type) {
+        this.name = name;
+        this.getter = getter;
+        this.type = type;
+    }
+
+    public String fieldName() {
+        return name;
+    }
+
+    /**
+     * Name of the {@link RatingContext} getter, used by generated code.
+     */
+    public String getter() {
+        return getter;
+    }
+
+    public ValueType type() {
+        return type;
+    }
+
+    public Object read(RatingContext context) {
+        return Operations.value(switch (this) {
+            case TENANT_ID -> context.getTenantId();
+            case CATEGORY -> context.getCategory();
+            case VEHICLE_VALUE -> context.getVehicleValue();
+            case VEHICLE_AGE -> context.getVehicleAge();
+            case VEHICLE_MAKE -> context.getVehicleMake();
+            case VEHICLE_MODEL -> context.getVehicleModel();
+            case ADDITIONAL_DATA -> context.getAdditionalData();
+        });
+    }
+
+    static ContextField byName(String name) {
+        return BY_NAME.get(name);
+    }
+}
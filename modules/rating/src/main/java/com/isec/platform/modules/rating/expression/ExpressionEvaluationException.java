@@ -0,0 +1,12 @@
+package com.isec.platform.modules.rating.expression;
+
+/**
+ * Thrown while evaluating a parsed expression, e.g. for arithmetic on a missing value or a non-numeric
+ * {@code additionalData} entry.
+ */
+public class ExpressionEvaluationException extends RuntimeException {
+
+    public ExpressionEvaluationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,149 @@
+package com.isec.platform.modules.rating.expression;
+
+import com.isec.platform.modules.rating.dto.RatingContext;
+
+import java.util.List;
+
+/**
+ * Typed syntax tree of a rating expression. Nodes are immutable and evaluate directly against a
+ * {@link RatingContext}; all operator semantics live in {@link Operations}.
+ */
+public sealed interface Node permits Node.Literal, Node.Field, Node.DataLookup, Node.Unary, Node.Binary,
+        Node.Conditional, Node.Membership, Node.Range, Node.Call {
+
+    ValueType type();
+
+    Object evaluate(RatingContext context);
+
+    record Literal(Object value, ValueType type) implements Node {
+        public Object evaluate(RatingContext context) {
+            return value;
+        }
+    }
+
+    record Field(ContextField field) implements Node {
+        public ValueType type() {
+            return field.type();
+        }
+
+        public Object evaluate(RatingContext context) {
+            return field.read(context);
+        }
+    }
+
+    /**
+     * {@code additionalData['key']}.
+     */
+    record DataLookup(String key) implements Node {
+        public ValueType type() {
+            return ValueType.ANY;
+        }
+
+        public Object evaluate(RatingContext context) {
+            return Operations.lookup(context.getAdditionalData(), key);
+        }
+    }
+
+    record Unary(Operator operator, Node operand, ValueType type) implements Node {
+        public Object evaluate(RatingContext context) {
+            return operator == Operator.NOT
+                    ? Boolean.valueOf(!Operations.truth(operand.evaluate(context)))
+                    : Operations.negate(operand.evaluate(context));
+        }
+    }
+
+    record Binary(Operator operator, Node left, Node right, ValueType type) implements Node {
+        public Object evaluate(RatingContext context) {
+            return switch (operator) {
+                case AND -> Boolean.valueOf(Operations.truth(left.evaluate(context)) && Operations.truth(right.evaluate(context)));
+                case OR -> Boolean.valueOf(Operations.truth(left.evaluate(context)) || Operations.truth(right.evaluate(context)));
+                default -> operator.apply(left.evaluate(context), right.evaluate(context));
+            };
+        }
+    }
+
+    record Conditional(Node condition, Node whenTrue, Node whenFalse, ValueType type) implements Node {
+        public Object evaluate(RatingContext context) {
+            return Operations.truth(condition.evaluate(context)) ? whenTrue.evaluate(context) : whenFalse.evaluate(context);
+        }
+    }
+
+    /**
+     * {@code value in (a, b, ...)}, or {@code not in} when negated.
+     */
+    record Membership(Node value, List<Node> candidates, boolean negated) implements Node {
+        public ValueType type() {
+            return ValueType.BOOLEAN;
+        }
+
+        public Object evaluate(RatingContext context) {
+            Object actual = value.evaluate(context);
+            for (int i = 0; i < candidates.size(); i++) {
+                if (Operations.eq(actual, candidates.get(i).evaluate(context))) {
+                    return Boolean.valueOf(!negated);
+                }
+            }
+            return Boolean.valueOf(negated);
+        }
+    }
+
+    /**
+     * {@code value between lower and upper}, bounds inclusive, or {@code not between} when negated.
+     */
+    record Range(Node value, Node lower, Node upper, boolean negated) implements Node {
+        public ValueType type() {
+            return ValueType.BOOLEAN;
+        }
+
+        public Object evaluate(RatingContext context) {
+            Object actual = value.evaluate(context);
+            boolean inside = Operations.le(lower.evaluate(context), actual) && Operations.le(actual, upper.evaluate(context));
+            return Boolean.valueOf(inside != negated);
+        }
+    }
+
+    record Call(BuiltinFunction function, List<Node> arguments, ValueType type) implements Node {
+        public Object evaluate(RatingContext context) {
+            return switch (function) {
+                case MAX, MIN -> {
+                    Object result = arguments.get(0).evaluate(context);
+                    for (int i = 1; i < arguments.size(); i++) {
+                        Object next = arguments.get(i).evaluate(context);
+                        result = function == BuiltinFunction.MAX ? Operations.max(result, next) : Operations.min(result, next);
+                    }
+                    yield result;
+                }
+                case COALESCE -> {
+                    for (int i = 0; i < arguments.size() - 1; i++) {
+                        Object candidate = arguments.get(i).evaluate(context);
+                        if (candidate != null) {
+                            yield candidate;
+                        }
+                    }
+                    yield arguments.get(arguments.size() - 1).evaluate(context);
+                }
+                case ABS -> Operations.abs(argument(0, context));
+                case FLOOR -> Operations.floor(argument(0, context));
+                case CEIL -> Operations.ceil(argument(0, context));
+                case ROUND -> arguments.size() == 1
+                        ? Operations.round(argument(0, context))
+                        : Operations.round(argument(0, context), argument(1, context));
+                case INT -> Operations.toInt(argument(0, context));
+                case DECIMAL -> Operations.toDecimal(argument(0, context));
+                case STRING -> Operations.toText(argument(0, context));
+                case LOWER -> Operations.lower(argument(0, context));
+                case UPPER -> Operations.upper(argument(0, context));
+                case TRIM -> Operations.trim(argument(0, context));
+                case LENGTH -> Operations.length(argument(0, context));
+                case STARTS_WITH -> Operations.startsWith(argument(0, context), argument(1, context));
+                case ENDS_WITH -> Operations.endsWith(argument(0, context), argument(1, context));
+                case CONTAINS -> Operations.contains(argument(0, context), argument(1, context));
+                case IEQUALS -> Operations.equalsIgnoreCase(argument(0, context), argument(1, context));
+            };
+        }
+
+        private Object argument(int index, RatingContext context) {
+            return arguments.get(index).evaluate(context);
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package com.isec.platform.modules.rating.expression;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runtime semantics of the rating expression language, shared by the {@link Node} interpreter and by the classes
+ * generated by {@link com.isec.platform.modules.rating.compiler.RateBookCompiler}.
+ * <p>
+ * Values are restricted to {@code null}, {@code Boolean}, {@code String}, {@code Map} (only {@code additionalData})
+ * and two numeric representations: {@code Long} for integers and {@code BigDecimal} for everything else. Integer
+ * arithmetic stays on {@code long} (including truncating division) and widens to {@code BigDecimal} on overflow
+ * or when either operand is a decimal; decimal division is rounded to {@link MathContext#DECIMAL64}.
+ * <p>
+ * As with the SpEL rules this language replaces, {@code null} orders before any other value.
+ */
+public final class Operations {
+
+    private static final MathContext DIVISION = MathContext.DECIMAL64;
+
+    private Operations() {
+    }
+
+    // ---- Values
+
+    /**
+     * Normalizes a value read from the {@link com.isec.platform.modules.rating.dto.RatingContext} into the
+     * representations listed above.
+     */
+    public static Object value(Object raw) {
+        if (raw == null || raw instanceof Long || raw instanceof BigDecimal || raw instanceof String
+                || raw instanceof Boolean) {
+            return raw;
+        }
+        if (raw instanceof Integer || raw instanceof Short || raw instanceof Byte) {
+            return ((Number) raw).longValue();
+        }
+        if (raw instanceof Double || raw instanceof Float) {
+            double d = ((Number) raw).doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                throw new ExpressionEvaluationException("Unsupported numeric value: " + raw);
+            }
+            return BigDecimal.valueOf(d);
+        }
+        if (raw instanceof BigInteger bi) {
+            return new BigDecimal(bi);
+        }
+        if (raw instanceof Number n) {
+            return new BigDecimal(n.toString());
+        }
+        if (raw instanceof Character ch) {
+            return ch.toString();
+        }
+        return raw;
+    }
+
+    /**
+     * {@code additionalData['key']}; a missing map reads as {@code null} like a missing key.
+     */
+    public static Object lookup(Object data, String key) {
+        if (data == null) {
+            return null;
+        }
+        if (data instanceof Map<?, ?> map) {
+            return value(map.get(key));
+        }
+        throw new ExpressionEvaluationException("Cannot index into a " + typeName(data));
+    }
+
+    public static boolean truth(Object value) {
+        if (value instanceof Boolean b) {
+            return b;
+        }
+        throw new ExpressionEvaluationException("Expected a boolean but found " + describe(value));
+    }
+
+    /**
+     * Outcome of a rule condition: like {@link #truth(Object)}, except that a {@code null} result does not match.
+     */
+    public static boolean condition(Object value) {
+        return value != null && truth(value);
+    }
+
+    // ---- Arithmetic
+
+    public static Object add(Object left, Object right) {
+        Object l = number(left, "+");
+        Object r = number(right, "+");
+        if (l instanceof Long a && r instanceof Long b) {
+            long sum = a + b;
+            if (((a ^ sum) & (b ^ sum)) >= 0) {
+                return sum;
+            }
+        }
+        return decimal(l).add(decimal(r));
+    }
+
+    public static Object subtract(Object left, Object right) {
+        Object l = number(left, "-");
+        Object r = number(right, "-");
+        if (l instanceof Long a && r instanceof Long b) {
+            long difference = a - b;
+            if (((a ^ b) & (a ^ difference)) >= 0) {
+                return difference;
+            }
+        }
+        return decimal(l).subtract(decimal(r));
+    }
+
+    public static Object multiply(Object left, Object right) {
+        Object l = number(left, "*");
+        Object r = number(right, "*");
+        if (l instanceof Long a && r instanceof Long b) {
+            long high = Math.multiplyHigh(a, b);
+            long product = a * b;
+            if ((high == 0 && product >= 0) || (high == -1 && product < 0)) {
+                return product;
+            }
+        }
+        return decimal(l).multiply(decimal(r));
+    }
+
+    public static Object divide(Object left, Object right) {
+        Object l = number(left, "/");
+        Object r = number(right, "/");
+        if (l instanceof Long a && r instanceof Long b) {
+            if (b == 0) {
+                throw new ExpressionEvaluationException("Division by zero");
+            }
+            if (a != Long.MIN_VALUE || b != -1) {
+                return a / b;
+            }
+        }
+        BigDecimal divisor = decimal(r);
+        if (divisor.signum() == 0) {
+            throw new ExpressionEvaluationException("Division by zero");
+        }
+        return decimal(l).divide(divisor, DIVISION);
+    }
+
+    public static Object remainder(Object left, Object right) {
+        Object l = number(left, "%");
+        Object r = number(right, "%");
+        if (l instanceof Long a && r instanceof Long b) {
+            if (b == 0) {
+                throw new ExpressionEvaluationException("Division by zero");
+            }
+            return a % b;
+        }
+        BigDecimal divisor = decimal(r);
+        if (divisor.signum() == 0) {
+            throw new ExpressionEvaluationException("Division by zero");
+        }
+        return decimal(l).remainder(divisor);
+    }
+
+    public static Object negate(Object operand) {
+        Object n = number(operand, "-");
+        if (n instanceof Long a && a != Long.MIN_VALUE) {
+            return -a;
+        }
+        return decimal(n).negate();
+    }
+
+    // ---- Comparison
+
+    public static boolean eq(Object left, Object right) {
+        if (left == right) {
+            return true;
+        }
+        if (left == null || right == null) {
+            return false;
+        }
+        if (isNumber(left) && isNumber(right)) {
+            return compareNumbers(left, right) == 0;
+        }
+        return left.equals(right);
+    }
+
+    public static boolean ne(Object left, Object right) {
+        return !eq(left, right);
+    }
+
+    public static boolean lt(Object left, Object right) {
+        return compare(left, right) < 0;
+    }
+
+    public static boolean le(Object left, Object right) {
+        return compare(left, right) <= 0;
+    }
+
+    public static boolean gt(Object left, Object right) {
+        return compare(left, right) > 0;
+    }
+
+    public static boolean ge(Object left, Object right) {
+        return compare(left, right) >= 0;
+    }
+
+    private static int compare(Object left, Object right) {
+        if (left == null) {
+            return right == null ? 0 : -1;
+        }
+        if (right == null) {
+            return 1;
+        }
+        if (isNumber(left) && isNumber(right)) {
+            return compareNumbers(left, right);
+        }
+        if (left instanceof String a && right instanceof String b) {
+            return a.compareTo(b);
+        }
+        if (left instanceof Boolean a && right instanceof Boolean b) {
+            return a.compareTo(b);
+        }
+        throw new ExpressionEvaluationException("Cannot compare " + describe(left) + " with " + describe(right));
+    }
+
+    // ---- Functions
+
+    public static Object max(Object first, Object second) {
+        Object a = number(first, "max");
+        Object b = number(second, "max");
+        return compareNumbers(a, b) >= 0 ? a : b;
+    }
+
+    public static Object min(Object first, Object second) {
+        Object a = number(first, "min");
+        Object b = number(second, "min");
+        return compareNumbers(a, b) <= 0 ? a : b;
+    }
+
+    public static Object abs(Object operand) {
+        Object n = number(operand, "abs");
+        if (n instanceof Long a && a != Long.MIN_VALUE) {
+            return a < 0 ? -a : a;
+        }
+        return decimal(n).abs();
+    }
+
+    public static Object floor(Object operand) {
+        Object n = number(operand, "floor");
+        return n instanceof Long ? n : ((BigDecimal) n).setScale(0, RoundingMode.FLOOR);
+    }
+
+    public static Object ceil(Object operand) {
+        Object n = number(operand, "ceil");
+        return n instanceof Long ? n : ((BigDecimal) n).setScale(0, RoundingMode.CEILING);
+    }
+
+    public static Object round(Object operand) {
+        Object n = number(operand, "round");
+        return n instanceof Long ? n : ((BigDecimal) n).setScale(0, RoundingMode.HALF_UP);
+    }
+
+    public static Object round(Object operand, Object scale) {
+        Object n = number(operand, "round");
+        if (!(number(scale, "round") instanceof Long places) || places < 0 || places > 18) {
+            throw new ExpressionEvaluationException("round expects a scale between 0 and 18 but found " + describe(scale));
+        }
+        return decimal(n).setScale(places.intValue(), RoundingMode.HALF_UP);
+    }
+
+    /**
+     * {@code int(x)}: truncates a number, or parses a string holding an integer.
+     */
+    public static Object toInt(Object operand) {
+        if (operand instanceof Long) {
+            return operand;
+        }
+        if (operand instanceof BigDecimal bd) {
+            try {
+                return bd.setScale(0, RoundingMode.DOWN).longValueExact();
+            } catch (ArithmeticException e) {
+                throw new ExpressionEvaluationException("Number out of integer range: " + bd);
+            }
+        }
+        if (operand instanceof String s) {
+            try {
+                return Long.parseLong(s);
+            } catch (NumberFormatException e) {
+                throw new ExpressionEvaluationException("Not an integer: '" + s + "'");
+            }
+        }
+        throw new ExpressionEvaluationException("int expects a number or string but found " + describe(operand));
+    }
+
+    /**
+     * {@code decimal(x)}: a number as {@code BigDecimal}, or a string holding a decimal number.
+     */
+    public static Object toDecimal(Object operand) {
+        if (operand instanceof BigDecimal) {
+            return operand;
+        }
+        if (operand instanceof Long l) {
+            return BigDecimal.valueOf(l);
+        }
+        if (operand instanceof String s) {
+            try {
+                return new BigDecimal(s);
+            } catch (NumberFormatException e) {
+                throw new ExpressionEvaluationException("Not a number: '" + s + "'");
+            }
+        }
+        throw new ExpressionEvaluationException("decimal expects a number or string but found " + describe(operand));
+    }
+
+    /**
+     * {@code string(x)}: the text of a non-null value.
+     */
+    public static Object toText(Object operand) {
+        if (operand == null) {
+            throw new ExpressionEvaluationException("string expects a value but found null");
+        }
+        return operand.toString();
+    }
+
+    public static Object lower(Object operand) {
+        return text(operand, "lower").toLowerCase(Locale.ROOT);
+    }
+
+    public static Object upper(Object operand) {
+        return text(operand, "upper").toUpperCase(Locale.ROOT);
+    }
+
+    public static Object trim(Object operand) {
+        return text(operand, "trim").trim();
+    }
+
+    public static Object length(Object operand) {
+        return (long) text(operand, "length").length();
+    }
+
+    public static Object startsWith(Object operand, Object prefix) {
+        return text(operand, "startsWith").startsWith(text(prefix, "startsWith"));
+    }
+
+    public static Object endsWith(Object operand, Object suffix) {
+        return text(operand, "endsWith").endsWith(text(suffix, "endsWith"));
+    }
+
+    public static Object contains(Object operand, Object part) {
+        return text(operand, "contains").contains(text(part, "contains"));
+    }
+
+    public static Object equalsIgnoreCase(Object operand, Object other) {
+        String value = text(operand, "iequals");
+        return other != null && value.equalsIgnoreCase(text(other, "iequals"));
+    }
+
+    // ---- Helpers
+
+    static boolean isNumber(Object value) {
+        return value instanceof Long || value instanceof BigDecimal;
+    }
+
+    private static Object number(Object value, String operator) {
+        if (isNumber(value)) {
+            return value;
+        }
+        Object normalized = value(value);
+        if (isNumber(normalized)) {
+            return normalized;
+        }
+        throw new ExpressionEvaluationException("Cannot apply '" + operator + "' to " + describe(value));
+    }
+
+    private static int compareNumbers(Object left, Object right) {
+        if (left instanceof Long a && right instanceof Long b) {
+            return Long.compare(a, b);
+        }
+        return decimal(left).compareTo(decimal(right));
+    }
+
+    private static BigDecimal decimal(Object number) {
+        return number instanceof Long l ? BigDecimal.valueOf(l) : (BigDecimal) number;
+    }
+
+    private static String text(Object value, String function) {
+        if (value instanceof String s) {
+            return s;
+        }
+        throw new ExpressionEvaluationException(function + " expects a string but found " + describe(value));
+    }
+
+    private static String describe(Object value) {
+        return value == null ? "null" : "a " + typeName(value);
+    }
+
+    private static String typeName(Object value) {
+        if (isNumber(value)) return "number";
+        if (value instanceof String) return "string";
+        if (value instanceof Boolean) return "boolean";
+        if (value instanceof Map) return "map";
+        return value.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,68 @@
+package com.isec.platform.modules.rating.expression;
+
+/**
+ * Unary and binary operators of the rating expression language. {@link #method()} names the {@link Operations}
+ * method implementing the operator, except for the short-circuiting {@link #AND}, {@link #OR} and {@link #NOT}.
+ */
+public enum Operator {
+    ADD("+", "add"),
+    SUBTRACT("-", "subtract"),
+    MULTIPLY("*", "multiply"),
+    DIVIDE("/", "divide"),
+    REMAINDER("%", "remainder"),
+    NEGATE("-", "negate"),
+    EQ("==", "eq"),
+    NE("!=", "ne"),
+    LT("<", "lt"),
+    LE("<=", "le"),
+    GT(">", "gt"),
+    GE(">=", "ge"),
+    AND("and", null),
+    OR("or", null),
+    NOT("not", null);
+
+    private final String symbol;
+    private final String method;
+
+    Operator(String symbol, String method) {
+        this.symbol = symbol;
+        this.method = method;
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    public String method() {
+        return method;
+    }
+
+    public boolean isArithmetic() {
+        return this == ADD || this == SUBTRACT || this == MULTIPLY || this == DIVIDE || this == REMAINDER || this == NEGATE;
+    }
+
+    public boolean isComparison() {
+        return this == EQ || this == NE || this == LT || this == LE || this == GT || this == GE;
+    }
+
+    public boolean isLogical() {
+        return this == AND || this == OR || this == NOT;
+    }
+
+    Object apply(Object left, Object right) {
+        return switch (this) {
+            case ADD -> Operations.add(left, right);
+            case SUBTRACT -> Operations.subtract(left, right);
+            case MULTIPLY -> Operations.multiply(left, right);
+            case DIVIDE -> Operations.divide(left, right);
+            case REMAINDER -> Operations.remainder(left, right);
+            case EQ -> Operations.eq(left, right);
+            case NE -> Operations.ne(left, right);
+            case LT -> Operations.lt(left, right);
+            case LE -> Operations.le(left, right);
+            case GT -> Operations.gt(left, right);
+            case GE -> Operations.ge(left, right);
+            default -> throw new IllegalStateException(this + " is not an eager binary operator");
+        };
+    }
+}
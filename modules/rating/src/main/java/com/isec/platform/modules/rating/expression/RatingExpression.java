@@ -0,0 +1,173 @@
+package com.isec.platform.modules.rating.expression;
+
+import com.isec.platform.modules.rating.dto.RatingContext;
+import org.springframework.expression.ParseException;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A parsed rule expression in the rating expression language: comparisons, arithmetic, {@code in} lists and
+ * {@code between} ranges over {@link RatingContext} fields and {@code additionalData} entries, plus a small set of
+ * {@link BuiltinFunction functions}. Expressions are type checked and constant folded when parsed and evaluated
+ * without reflection (see {@link Operations} for the value semantics).
+ * <p>
+ * Rules written in SpEL before the language was introduced are accepted by {@link #compile(String)}, which
+ * translates them with {@link SpelRuleTranslator}. A translation may not price exactly like the SpEL it came from;
+ * pricing evaluates it only once {@code rating.expressions.native-translated} is enabled.
+ */
+public final class RatingExpression {
+
+    private final String source;
+    private final String text;
+    private final Node root;
+    private final Set<ContextField> fields;
+    private final Set<String> dataKeys;
+    private final int size;
+
+    private RatingExpression(String source, String text, Node root) {
+        this.source = source;
+        this.text = text;
+        this.root = root;
+        Set<ContextField> readFields = EnumSet.noneOf(ContextField.class);
+        Set<String> readKeys = new TreeSet<>();
+        collectReferences(root, readFields, readKeys);
+        this.fields = Collections.unmodifiableSet(readFields);
+        this.dataKeys = Collections.unmodifiableSet(readKeys);
+        this.size = size(root);
+    }
+
+    /**
+     * Parses an expression written in the rating expression language.
+     *
+     * @throws RatingExpressionException if the expression does not parse or type check
+     */
+    public static RatingExpression parse(String text) {
+        return new RatingExpression(text, text, RatingExpressionParser.parse(text));
+    }
+
+    /**
+     * Parses a rule expression as stored in {@code rate_rules}: either in the rating expression language or,
+     * failing that, as a legacy SpEL expression translated to it.
+     *
+     * @throws RatingExpressionException if the expression is neither, or uses SpEL constructs with no translation
+     */
+    public static RatingExpression compile(String source) {
+        try {
+            return parse(source);
+        } catch (RatingExpressionException notNative) {
+            String translated;
+            try {
+                translated = SpelRuleTranslator.translate(source);
+            } catch (ParseException notSpel) {
+                throw notNative;
+            }
+            return new RatingExpression(source, translated, RatingExpressionParser.parse(translated));
+        }
+    }
+
+    /**
+     * The expression as it was stored.
+     */
+    public String source() {
+        return source;
+    }
+
+    /**
+     * The expression in the rating expression language; differs from {@link #source()} for translated SpEL rules.
+     */
+    public String text() {
+        return text;
+    }
+
+    public boolean isTranslated() {
+        return !source.equals(text);
+    }
+
+    public Node root() {
+        return root;
+    }
+
+    /**
+     * The {@link RatingContext} fields the expression reads, after constant folding. Lookups of
+     * {@code additionalData} entries are reported by {@link #dataKeys()} rather than as {@link ContextField#ADDITIONAL_DATA}.
+     */
+    public Set<ContextField> fields() {
+        return fields;
+    }
+
+    /**
+     * The {@code additionalData} keys the expression looks up, in sorted order.
+     */
+    public Set<String> dataKeys() {
+        return dataKeys;
+    }
+
+    /**
+     * The number of nodes in the expression, after constant folding; a rough measure of its evaluation cost.
+     */
+    public int size() {
+        return size;
+    }
+
+    public Object evaluate(RatingContext context) {
+        return root.evaluate(context);
+    }
+
+    /**
+     * Evaluates the expression as a rule condition; a {@code null} result does not match.
+     */
+    public boolean test(RatingContext context) {
+        return Operations.condition(root.evaluate(context));
+    }
+
+    private static void collectReferences(Node node, Set<ContextField> fields, Set<String> dataKeys) {
+        if (node instanceof Node.Field field) {
+            fields.add(field.field());
+        } else if (node instanceof Node.DataLookup lookup) {
+            dataKeys.add(lookup.key());
+        } else if (node instanceof Node.Unary unary) {
+            collectReferences(unary.operand(), fields, dataKeys);
+        } else if (node instanceof Node.Binary binary) {
+            collectReferences(binary.left(), fields, dataKeys);
+            collectReferences(binary.right(), fields, dataKeys);
+        } else if (node instanceof Node.Conditional conditional) {
+            collectReferences(conditional.condition(), fields, dataKeys);
+            collectReferences(conditional.whenTrue(), fields, dataKeys);
+            collectReferences(conditional.whenFalse(), fields, dataKeys);
+        } else if (node instanceof Node.Membership membership) {
+            collectReferences(membership.value(), fields, dataKeys);
+            membership.candidates().forEach(candidate -> collectReferences(candidate, fields, dataKeys));
+        } else if (node instanceof Node.Range range) {
+            collectReferences(range.value(), fields, dataKeys);
+            collectReferences(range.lower(), fields, dataKeys);
+            collectReferences(range.upper(), fields, dataKeys);
+        } else if (node instanceof Node.Call call) {
+            call.arguments().forEach(argument -> collectReferences(argument, fields, dataKeys));
+        }
+    }
+
+    private static int size(Node node) {
+        if (node instanceof Node.Unary unary) {
+            return 1 + size(unary.operand());
+        } else if (node instanceof Node.Binary binary) {
+            return 1 + size(binary.left()) + size(binary.right());
+        } else if (node instanceof Node.Conditional conditional) {
+            return 1 + size(conditional.condition()) + size(conditional.whenTrue()) + size(conditional.whenFalse());
+        } else if (node instanceof Node.Membership membership) {
+            return 1 + size(membership.value()) + membership.candidates().stream().mapToInt(RatingExpression::size).sum();
+        } else if (node instanceof Node.Range range) {
+            return 1 + size(range.value()) + size(range.lower()) + size(range.upper());
+        } else if (node instanceof Node.Call call) {
+            return 1 + call.arguments().stream().mapToInt(RatingExpression::size).sum();
+        }
+        return 1;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,12 @@
+package com.isec.platform.modules.rating.expression;
+
+/**
+ * Thrown when a rule expression is not valid in the rating expression language, either because it does not parse,
+ * does not type check, or (for legacy SpEL rules) uses a construct that has no translation.
+ */
+public class RatingExpressionException extends RuntimeException {
+
+    public RatingExpressionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,493 @@
+package com.isec.platform.modules.rating.expression;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Recursive descent parser of the rating expression language.
+ * <pre>
+ * expression     := or ('?' expression ':' expression)?
+ * or             := and (('or' | '||') and)*
+ * and            := not (('and' | '&amp;&amp;') not)*
+ * not            := ('not' | '!') not | comparison
+ * comparison     := additive (op additive
+ *                   | 'not'? 'in' '(' expression (',' expression)* ')'
+ *                   | 'not'? 'between' additive 'and' additive)?
+ * additive       := multiplicative (('+' | '-') multiplicative)*
+ * multiplicative := unary (('*' | '/' | '%') unary)*
+ * unary          := '-' unary | primary
+ * primary        := number | 'string' | true | false | null | '(' expression ')'
+ *                 | function '(' expression (',' expression)* ')'
+ *                 | field | additionalData '[' 'string' ']'
+ * </pre>
+ * Keywords are case-insensitive; field and function names are not. Every node is type checked as it is built and
+ * folded into a literal when all of its operands are literals.
+ */
+final class RatingExpressionParser {
+
+    private enum Kind { NUMBER, STRING, WORD, SYMBOL, END }
+
+    private record Token(Kind kind, String text, int position) {
+    }
+
+    private final String source;
+    private final List<Token> tokens;
+    private int next;
+
+    private RatingExpressionParser(String source) {
+        this.source = source;
+        this.tokens = tokenize(source);
+    }
+
+    static Node parse(String source) {
+        RatingExpressionParser parser = new RatingExpressionParser(source);
+        Node root = parser.expression();
+        Token trailing = parser.peek();
+        if (trailing.kind != Kind.END) {
+            throw parser.error("Unexpected '" + trailing.text + "'", trailing);
+        }
+        if (root.type() == ValueType.MAP) {
+            throw parser.error("additionalData can only be indexed or compared with null", parser.tokens.get(0));
+        }
+        return root;
+    }
+
+    // ---- Grammar
+
+    private Node expression() {
+        Node condition = or();
+        Token question = peek();
+        if (!acceptSymbol("?")) {
+            return condition;
+        }
+        requireType(ValueType.BOOLEAN, condition, question);
+        Node whenTrue = expression();
+        expectSymbol(":");
+        Node whenFalse = expression();
+        if (condition instanceof Node.Literal literal && literal.value() instanceof Boolean chosen) {
+            return chosen ? whenTrue : whenFalse;
+        }
+        ValueType type = whenTrue.type() == whenFalse.type() ? whenTrue.type() : ValueType.ANY;
+        return new Node.Conditional(condition, whenTrue, whenFalse, type);
+    }
+
+    private Node or() {
+        Node left = and();
+        while (true) {
+            Token operator = peek();
+            if (!acceptKeyword("or") && !acceptSymbol("||")) {
+                return left;
+            }
+            left = logical(Operator.OR, left, and(), operator);
+        }
+    }
+
+    private Node and() {
+        Node left = not();
+        while (true) {
+            Token operator = peek();
+            if (!acceptKeyword("and") && !acceptSymbol("&&")) {
+                return left;
+            }
+            left = logical(Operator.AND, left, not(), operator);
+        }
+    }
+
+    private Node not() {
+        Token operator = peek();
+        if (acceptKeyword("not") || acceptSymbol("!")) {
+            Node operand = not();
+            requireType(ValueType.BOOLEAN, operand, operator);
+            return fold(new Node.Unary(Operator.NOT, operand, ValueType.BOOLEAN));
+        }
+        return comparison();
+    }
+
+    private Node comparison() {
+        Node left = additive();
+        Token token = peek();
+        Operator operator = comparisonOperator(token);
+        if (operator != null) {
+            next++;
+            Node right = additive();
+            checkComparable(operator, left, right, token);
+            if (comparisonOperator(peek()) != null) {
+                throw error("Comparisons cannot be chained", peek());
+            }
+            return fold(new Node.Binary(operator, left, right, ValueType.BOOLEAN));
+        }
+        boolean negated = isKeyword(token, "not") && (isKeyword(peek(1), "in") || isKeyword(peek(1), "between"));
+        if (negated) {
+            next++;
+        }
+        if (acceptKeyword("in")) {
+            return membership(left, negated, token);
+        }
+        if (acceptKeyword("between")) {
+            Node lower = additive();
+            expectKeyword("and");
+            Node upper = additive();
+            checkComparable(Operator.LE, lower, left, token);
+            checkComparable(Operator.LE, left, upper, token);
+            return fold(new Node.Range(left, lower, upper, negated));
+        }
+        return left;
+    }
+
+    private Node membership(Node value, boolean negated, Token token) {
+        expectSymbol("(");
+        List<Node> candidates = new ArrayList<>();
+        do {
+            Node candidate = expression();
+            checkComparable(Operator.EQ, value, candidate, token);
+            candidates.add(candidate);
+        } while (acceptSymbol(","));
+        expectSymbol(")");
+        return fold(new Node.Membership(value, List.copyOf(candidates), negated));
+    }
+
+    private Node additive() {
+        Node left = multiplicative();
+        while (true) {
+            Token token = peek();
+            Operator operator = acceptSymbol("+") ? Operator.ADD : acceptSymbol("-") ? Operator.SUBTRACT : null;
+            if (operator == null) {
+                return left;
+            }
+            left = arithmetic(operator, left, multiplicative(), token);
+        }
+    }
+
+    private Node multiplicative() {
+        Node left = unary();
+        while (true) {
+            Token token = peek();
+            Operator operator = acceptSymbol("*") ? Operator.MULTIPLY
+                    : acceptSymbol("/") ? Operator.DIVIDE
+                    : acceptSymbol("%") ? Operator.REMAINDER : null;
+            if (operator == null) {
+                return left;
+            }
+            left = arithmetic(operator, left, unary(), token);
+        }
+    }
+
+    private Node unary() {
+        Token token = peek();
+        if (acceptSymbol("-")) {
+            Node operand = unary();
+            requireType(ValueType.NUMBER, operand, token);
+            return fold(new Node.Unary(Operator.NEGATE, operand, ValueType.NUMBER));
+        }
+        return primary();
+    }
+
+    private Node primary() {
+        Token token = peek();
+        next++;
+        switch (token.kind) {
+            case NUMBER:
+                return new Node.Literal(number(token.text), ValueType.NUMBER);
+            case STRING:
+                return new Node.Literal(token.text, ValueType.STRING);
+            case SYMBOL:
+                if (token.text.equals("(")) {
+                    Node inner = expression();
+                    expectSymbol(")");
+                    return inner;
+                }
+                throw error("Unexpected '" + token.text + "'", token);
+            case WORD:
+                return word(token);
+            default:
+                throw error("Unexpected end of expression", token);
+        }
+    }
+
+    private Node word(Token token) {
+        String keyword = token.text.toLowerCase(Locale.ROOT);
+        switch (keyword) {
+            case "true":
+                return new Node.Literal(Boolean.TRUE, ValueType.BOOLEAN);
+            case "false":
+                return new Node.Literal(Boolean.FALSE, ValueType.BOOLEAN);
+            case "null":
+                return new Node.Literal(null, ValueType.NULL);
+            case "and", "or", "not", "in", "between":
+                throw error("Unexpected '" + token.text + "'", token);
+            default:
+                break;
+        }
+        if (isSymbol(peek(), "(")) {
+            return call(token);
+        }
+        ContextField field = ContextField.byName(token.text);
+        if (field == null) {
+            throw error("Unknown field '" + token.text + "'", token);
+        }
+        if (field == ContextField.ADDITIONAL_DATA && acceptSymbol("[")) {
+            Token key = peek();
+            if (key.kind != Kind.STRING) {
+                throw error("additionalData must be indexed by a string literal", key);
+            }
+            next++;
+            expectSymbol("]");
+            return new Node.DataLookup(key.text);
+        }
+        return new Node.Field(field);
+    }
+
+    private Node call(Token name) {
+        BuiltinFunction function = BuiltinFunction.byName(name.text);
+        if (function == null) {
+            throw error("Unknown function '" + name.text + "'", name);
+        }
+        expectSymbol("(");
+        List<Node> arguments = new ArrayList<>();
+        if (!isSymbol(peek(), ")")) {
+            do {
+                Node argument = expression();
+                requireType(function.parameterType(), argument, name);
+                arguments.add(argument);
+            } while (acceptSymbol(","));
+        }
+        expectSymbol(")");
+        if (arguments.size() < function.minArguments() || arguments.size() > function.maxArguments()) {
+            throw error("Wrong number of arguments for " + function.functionName() + ": " + arguments.size(), name);
+        }
+        ValueType type = function.resultType();
+        if (function == BuiltinFunction.COALESCE) {
+            type = ValueType.NULL;
+            for (Node argument : arguments) {
+                if (argument.type() != ValueType.NULL) {
+                    type = type == ValueType.NULL || type == argument.type() ? argument.type() : ValueType.ANY;
+                }
+            }
+        }
+        return fold(new Node.Call(function, List.copyOf(arguments), type));
+    }
+
+    // ---- Node construction
+
+    private Node logical(Operator operator, Node left, Node right, Token token) {
+        requireType(ValueType.BOOLEAN, left, token);
+        requireType(ValueType.BOOLEAN, right, token);
+        if (left instanceof Node.Literal literal && literal.value() instanceof Boolean value) {
+            boolean shortCircuits = operator == Operator.AND ? !value : value;
+            if (shortCircuits) {
+                return literal;
+            }
+            if (right.type() == ValueType.BOOLEAN) {
+                return right;
+            }
+        }
+        return fold(new Node.Binary(operator, left, right, ValueType.BOOLEAN));
+    }
+
+    private Node arithmetic(Operator operator, Node left, Node right, Token token) {
+        requireType(ValueType.NUMBER, left, token);
+        requireType(ValueType.NUMBER, right, token);
+        return fold(new Node.Binary(operator, left, right, ValueType.NUMBER));
+    }
+
+    /**
+     * Replaces a node whose operands are all literals by its value. Expressions that fail, such as a division by a
+     * literal zero, are left alone so they fail when the rule is evaluated, like any other evaluation error.
+     */
+    private static Node fold(Node node) {
+        if (!operandsAreLiterals(node)) {
+            return node;
+        }
+        try {
+            Object value = node.evaluate(null);
+            return new Node.Literal(value, value == null ? ValueType.NULL : node.type());
+        } catch (ExpressionEvaluationException | ArithmeticException e) {
+            return node;
+        }
+    }
+
+    private static boolean operandsAreLiterals(Node node) {
+        if (node instanceof Node.Unary unary) {
+            return unary.operand() instanceof Node.Literal;
+        } else if (node instanceof Node.Binary binary) {
+            return binary.left() instanceof Node.Literal && binary.right() instanceof Node.Literal;
+        } else if (node instanceof Node.Membership membership) {
+            return membership.value() instanceof Node.Literal
+                    && membership.candidates().stream().allMatch(Node.Literal.class::isInstance);
+        } else if (node instanceof Node.Range range) {
+            return range.value() instanceof Node.Literal && range.lower() instanceof Node.Literal
+                    && range.upper() instanceof Node.Literal;
+        } else if (node instanceof Node.Call call) {
+            return call.arguments().stream().allMatch(Node.Literal.class::isInstance);
+        }
+        return false;
+    }
+
+    private void requireType(ValueType expected, Node operand, Token token) {
+        if (!expected.accepts(operand.type())) {
+            throw error("Expected " + describe(expected) + " but found " + describe(operand.type()), token);
+        }
+    }
+
+    private void checkComparable(Operator operator, Node left, Node right, Token token) {
+        ValueType l = left.type();
+        ValueType r = right.type();
+        if (l == ValueType.MAP || r == ValueType.MAP) {
+            boolean nullCheck = (operator == Operator.EQ || operator == Operator.NE)
+                    && (l == ValueType.NULL || r == ValueType.NULL);
+            if (!nullCheck) {
+                throw error("additionalData can only be indexed or compared with null", token);
+            }
+            return;
+        }
+        if (l != r && l != ValueType.ANY && r != ValueType.ANY && l != ValueType.NULL && r != ValueType.NULL) {
+            throw error("Cannot compare " + describe(l) + " with " + describe(r), token);
+        }
+    }
+
+    private static Object number(String text) {
+        if (text.indexOf('.') < 0) {
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                // Too large for a long
+            }
+        }
+        return new BigDecimal(text);
+    }
+
+    private static Operator comparisonOperator(Token token) {
+        if (token.kind != Kind.SYMBOL) {
+            return null;
+        }
+        return switch (token.text) {
+            case "==" -> Operator.EQ;
+            case "!=" -> Operator.NE;
+            case "<" -> Operator.LT;
+            case "<=" -> Operator.LE;
+            case ">" -> Operator.GT;
+            case ">=" -> Operator.GE;
+            default -> null;
+        };
+    }
+
+    private static String describe(ValueType type) {
+        return switch (type) {
+            case BOOLEAN -> "a boolean";
+            case NUMBER -> "a number";
+            case STRING -> "a string";
+            case MAP -> "additionalData";
+            case NULL -> "null";
+            case ANY -> "any value";
+        };
+    }
+
+    // ---- Tokens
+
+    private Token peek() {
+        return tokens.get(next);
+    }
+
+    private Token peek(int ahead) {
+        return tokens.get(Math.min(next + ahead, tokens.size() - 1));
+    }
+
+    private boolean acceptSymbol(String symbol) {
+        if (isSymbol(peek(), symbol)) {
+            next++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean acceptKeyword(String keyword) {
+        if (isKeyword(peek(), keyword)) {
+            next++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expectSymbol(String symbol) {
+        if (!acceptSymbol(symbol)) {
+            throw error("Expected '" + symbol + "'", peek());
+        }
+    }
+
+    private void expectKeyword(String keyword) {
+        if (!acceptKeyword(keyword)) {
+            throw error("Expected '" + keyword + "'", peek());
+        }
+    }
+
+    private static boolean isSymbol(Token token, String symbol) {
+        return token.kind == Kind.SYMBOL && token.text.equals(symbol);
+    }
+
+    private static boolean isKeyword(Token token, String keyword) {
+        return token.kind == Kind.WORD && token.text.equalsIgnoreCase(keyword);
+    }
+
+    private RatingExpressionException error(String message, Token token) {
+        return new RatingExpressionException(message + " at position " + token.position + " in: " + source);
+    }
+
+    private List<Token> tokenize(String text) {
+        List<Token> result = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char ch = text.charAt(i);
+            if (Character.isWhitespace(ch)) {
+                i++;
+            } else if (Character.isDigit(ch)) {
+                int start = i;
+                while (i < text.length() && Character.isDigit(text.charAt(i))) i++;
+                if (i + 1 < text.length() && text.charAt(i) == '.' && Character.isDigit(text.charAt(i + 1))) {
+                    i++;
+                    while (i < text.length() && Character.isDigit(text.charAt(i))) i++;
+                }
+                result.add(new Token(Kind.NUMBER, text.substring(start, i), start));
+            } else if (Character.isLetter(ch) || ch == '_') {
+                int start = i;
+                while (i < text.length() && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '_')) i++;
+                result.add(new Token(Kind.WORD, text.substring(start, i), start));
+            } else if (ch == '\'') {
+                int start = i++;
+                StringBuilder value = new StringBuilder();
+                while (true) {
+                    if (i >= text.length()) {
+                        throw new RatingExpressionException("Unterminated string at position " + start + " in: " + source);
+                    }
+                    char c = text.charAt(i++);
+                    if (c == '\'') {
+                        if (i < text.length() && text.charAt(i) == '\'') {
+                            value.append('\'');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        value.append(c);
+                    }
+                }
+                result.add(new Token(Kind.STRING, value.toString(), start));
+            } else {
+                String two = i + 1 < text.length() ? text.substring(i, i + 2) : "";
+                if (two.equals("==") || two.equals("!=") || two.equals("<=") || two.equals(">=")
+                        || two.equals("&&") || two.equals("||")) {
+                    result.add(new Token(Kind.SYMBOL, two, i));
+                    i += 2;
+                } else if ("+-*/%()<>!?:,[]".indexOf(ch) >= 0) {
+                    result.add(new Token(Kind.SYMBOL, String.valueOf(ch), i));
+                    i++;
+                } else {
+                    throw new RatingExpressionException("Unexpected character '" + ch + "' at position " + i + " in: " + source);
+                }
+            }
+        }
+        result.add(new Token(Kind.END, "end of expression", text.length()));
+        return result;
+    }
+}
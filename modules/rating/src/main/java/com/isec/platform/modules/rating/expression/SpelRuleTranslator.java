@@ -0,0 +1,247 @@
+package com.isec.platform.modules.rating.expression;
+
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.BooleanLiteral;
+import org.springframework.expression.spel.ast.CompoundExpression;
+import org.springframework.expression.spel.ast.Elvis;
+import org.springframework.expression.spel.ast.FloatLiteral;
+import org.springframework.expression.spel.ast.Indexer;
+import org.springframework.expression.spel.ast.InlineList;
+import org.springframework.expression.spel.ast.IntLiteral;
+import org.springframework.expression.spel.ast.Literal;
+import org.springframework.expression.spel.ast.LongLiteral;
+import org.springframework.expression.spel.ast.MethodReference;
+import org.springframework.expression.spel.ast.NullLiteral;
+import org.springframework.expression.spel.ast.OpAnd;
+import org.springframework.expression.spel.ast.OpDivide;
+import org.springframework.expression.spel.ast.OpEQ;
+import org.springframework.expression.spel.ast.OpGE;
+import org.springframework.expression.spel.ast.OpGT;
+import org.springframework.expression.spel.ast.OpLE;
+import org.springframework.expression.spel.ast.OpLT;
+import org.springframework.expression.spel.ast.OpMinus;
+import org.springframework.expression.spel.ast.OpModulus;
+import org.springframework.expression.spel.ast.OpMultiply;
+import org.springframework.expression.spel.ast.OpNE;
+import org.springframework.expression.spel.ast.OpOr;
+import org.springframework.expression.spel.ast.OpPlus;
+import org.springframework.expression.spel.ast.OperatorBetween;
+import org.springframework.expression.spel.ast.OperatorNot;
+import org.springframework.expression.spel.ast.PropertyOrFieldReference;
+import org.springframework.expression.spel.ast.RealLiteral;
+import org.springframework.expression.spel.ast.StringLiteral;
+import org.springframework.expression.spel.ast.Ternary;
+import org.springframework.expression.spel.ast.TypeReference;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Translates the SpEL rule expressions written before the rating expression language existed.
+ * <p>
+ * Only the subset that rate rules actually use is translated: literals, {@code RatingContext} properties,
+ * {@code additionalData['key']}, arithmetic, comparison and boolean operators, the ternary and Elvis operators,
+ * {@code between} and inline-list {@code contains}, and the number/string methods and {@code java.lang.Math},
+ * {@code Integer}, {@code Long} and {@code Double} static methods listed below. Conversions keep their SpEL
+ * meaning: {@code x.doubleValue()} becomes {@code decimal(x)} (failing on null like the method call did) and
+ * {@code Integer.parseInt(s)} becomes {@code int(s)}.
+ * <p>
+ * The translation is not always value-for-value identical: the new language computes with exact decimals where
+ * SpEL used {@code double}, and {@code coalesce} only skips nulls where the Elvis operator also skipped empty
+ * strings. {@link com.isec.platform.modules.rating.service.RuleExpressionMigrationValidator} reports rules for
+ * which this changes a price.
+ */
+public final class SpelRuleTranslator {
+
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+
+    private static final Map<String, String> STATIC_METHODS = Map.ofEntries(
+            Map.entry("java.lang.Math.max/2", "max"),
+            Map.entry("java.lang.Math.min/2", "min"),
+            Map.entry("java.lang.Math.abs/1", "abs"),
+            Map.entry("java.lang.Math.round/1", "round"),
+            Map.entry("java.lang.Math.ceil/1", "ceil"),
+            Map.entry("java.lang.Math.floor/1", "floor"),
+            Map.entry("java.lang.Integer.parseInt/1", "int"),
+            Map.entry("java.lang.Long.parseLong/1", "int"),
+            Map.entry("java.lang.Double.parseDouble/1", "decimal"));
+
+    private static final Map<String, String> INSTANCE_METHODS = Map.ofEntries(
+            Map.entry("doubleValue/0", "decimal"),
+            Map.entry("floatValue/0", "decimal"),
+            Map.entry("intValue/0", "int"),
+            Map.entry("longValue/0", "int"),
+            Map.entry("toString/0", "string"),
+            Map.entry("equalsIgnoreCase/1", "iequals"),
+            Map.entry("startsWith/1", "startsWith"),
+            Map.entry("endsWith/1", "endsWith"),
+            Map.entry("contains/1", "contains"),
+            Map.entry("toUpperCase/0", "upper"),
+            Map.entry("toLowerCase/0", "lower"),
+            Map.entry("trim/0", "trim"),
+            Map.entry("length/0", "length"));
+
+    private SpelRuleTranslator() {
+    }
+
+    /**
+     * @return the expression in the rating expression language
+     * @throws ParseException            if the expression is not valid SpEL either
+     * @throws RatingExpressionException if it uses a construct that has no translation
+     */
+    public static String translate(String spel) {
+        return translate(PARSER.parseRaw(spel).getAST());
+    }
+
+    private static String translate(SpelNode node) {
+        if (node instanceof NullLiteral) {
+            return "null";
+        } else if (node instanceof BooleanLiteral || node instanceof IntLiteral || node instanceof LongLiteral) {
+            return String.valueOf(((Literal) node).getLiteralValue().getValue());
+        } else if (node instanceof RealLiteral || node instanceof FloatLiteral) {
+            return decimal((Number) ((Literal) node).getLiteralValue().getValue(), node);
+        } else if (node instanceof StringLiteral literal) {
+            return "'" + String.valueOf(literal.getLiteralValue().getValue()).replace("'", "''") + "'";
+        } else if (node instanceof OpAnd) {
+            return binary("and", node);
+        } else if (node instanceof OpOr) {
+            return binary("or", node);
+        } else if (node instanceof OperatorNot) {
+            return "not " + operand(node.getChild(0));
+        } else if (node instanceof OpEQ) {
+            return binary("==", node);
+        } else if (node instanceof OpNE) {
+            return binary("!=", node);
+        } else if (node instanceof OpLT) {
+            return binary("<", node);
+        } else if (node instanceof OpLE) {
+            return binary("<=", node);
+        } else if (node instanceof OpGT) {
+            return binary(">", node);
+        } else if (node instanceof OpGE) {
+            return binary(">=", node);
+        } else if (node instanceof OpPlus) {
+            return node.getChildCount() == 1 ? translate(node.getChild(0)) : binary("+", node);
+        } else if (node instanceof OpMinus) {
+            return node.getChildCount() == 1 ? "-" + operand(node.getChild(0)) : binary("-", node);
+        } else if (node instanceof OpMultiply) {
+            return binary("*", node);
+        } else if (node instanceof OpDivide) {
+            return binary("/", node);
+        } else if (node instanceof OpModulus) {
+            return binary("%", node);
+        } else if (node instanceof OperatorBetween && node.getChild(1) instanceof InlineList bounds
+                && bounds.getChildCount() == 2) {
+            return operand(node.getChild(0)) + " between " + operand(bounds.getChild(0)) + " and " + operand(bounds.getChild(1));
+        } else if (node instanceof Ternary) {
+            return operand(node.getChild(0)) + " ? " + operand(node.getChild(1)) + " : " + operand(node.getChild(2));
+        } else if (node instanceof Elvis) {
+            return "coalesce(" + translate(node.getChild(0)) + ", " + translate(node.getChild(1)) + ")";
+        } else if (node instanceof PropertyOrFieldReference property && !property.isNullSafe()) {
+            return property.getName();
+        } else if (node instanceof CompoundExpression) {
+            return compound(node);
+        }
+        throw unsupported(node);
+    }
+
+    private static String compound(SpelNode node) {
+        SpelNode first = node.getChild(0);
+        String current;
+        int next = 1;
+        if (first instanceof TypeReference type && node.getChild(1) instanceof MethodReference method) {
+            current = staticCall(type, method);
+            next = 2;
+        } else if (first instanceof InlineList list && node.getChild(1) instanceof MethodReference method
+                && method.getName().equals("contains") && method.getChildCount() == 1 && !method.isNullSafe()) {
+            current = "(" + operand(method.getChild(0)) + " in " + arguments(list) + ")";
+            next = 2;
+        } else if (first instanceof PropertyOrFieldReference property && property.getName().equals("additionalData")
+                && !property.isNullSafe() && node.getChild(1) instanceof Indexer indexer
+                && indexer.getChild(0) instanceof StringLiteral key) {
+            current = "additionalData[" + translate(key) + "]";
+            next = 2;
+        } else if (first instanceof MethodReference || first instanceof TypeReference || first instanceof InlineList) {
+            throw unsupported(first);
+        } else {
+            current = translate(first);
+        }
+
+        for (int i = next; i < node.getChildCount(); i++) {
+            if (!(node.getChild(i) instanceof MethodReference method) || method.isNullSafe()) {
+                throw unsupported(node.getChild(i));
+            }
+            current = instanceCall(current, method);
+        }
+        return current;
+    }
+
+    private static String staticCall(TypeReference type, MethodReference method) {
+        String typeName = type.getChild(0).toStringAST();
+        if (!typeName.contains(".")) {
+            typeName = "java.lang." + typeName;
+        }
+        String function = STATIC_METHODS.get(typeName + "." + method.getName() + "/" + method.getChildCount());
+        if (function == null || method.isNullSafe()) {
+            throw unsupported(type);
+        }
+        return function + arguments(method);
+    }
+
+    private static String instanceCall(String target, MethodReference method) {
+        String signature = method.getName() + "/" + method.getChildCount();
+        if (signature.equals("equals/1")) {
+            return "(" + target + " == " + operand(method.getChild(0)) + ")";
+        }
+        if (signature.equals("isEmpty/0")) {
+            return "(length(" + target + ") == 0)";
+        }
+        String function = INSTANCE_METHODS.get(signature);
+        if (function == null) {
+            throw unsupported(method);
+        }
+        List<String> arguments = new ArrayList<>();
+        arguments.add(target);
+        for (int i = 0; i < method.getChildCount(); i++) {
+            arguments.add(translate(method.getChild(i)));
+        }
+        return function + "(" + String.join(", ", arguments) + ")";
+    }
+
+    private static String arguments(SpelNode parent) {
+        List<String> arguments = new ArrayList<>();
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            arguments.add(translate(parent.getChild(i)));
+        }
+        return "(" + String.join(", ", arguments) + ")";
+    }
+
+    private static String binary(String operator, SpelNode node) {
+        return operand(node.getChild(0)) + " " + operator + " " + operand(node.getChild(1));
+    }
+
+    // Operands of operators are parenthesized unless they are atoms, so SpEL precedence carries over as is
+    private static String operand(SpelNode node) {
+        String translated = translate(node);
+        boolean atom = node instanceof Literal || node instanceof PropertyOrFieldReference
+                || node instanceof CompoundExpression || node instanceof Elvis;
+        return atom ? translated : "(" + translated + ")";
+    }
+
+    private static String decimal(Number value, SpelNode node) {
+        double d = value.doubleValue();
+        if (Double.isNaN(d) || Double.isInfinite(d)) {
+            throw unsupported(node);
+        }
+        String text = (value instanceof Float ? new BigDecimal(value.toString()) : BigDecimal.valueOf(d)).toPlainString();
+        return text.contains(".") ? text : text + ".0";
+    }
+
+    private static RatingExpressionException unsupported(SpelNode node) {
+        return new RatingExpressionException("Unsupported expression construct: " + node.toStringAST());
+    }
+}
@@ -0,0 +1,20 @@
+package com.isec.platform.modules.rating.expression;
+
+/**
+ * Static type of a {@link Node}, checked when an expression is parsed.
+ * <p>
+ * {@link #ANY} is used where the type is only known at evaluation time, i.e. for {@code additionalData} lookups;
+ * operators accept it wherever they accept a concrete type and check the value when the rule is evaluated.
+ */
+public enum ValueType {
+    BOOLEAN,
+    NUMBER,
+    STRING,
+    MAP,
+    NULL,
+    ANY;
+
+    boolean accepts(ValueType actual) {
+        return actual == this || actual == ANY || this == ANY;
+    }
+}
@@ -0,0 +1,172 @@
+package com.isec.platform.modules.rating.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.isec.platform.modules.rating.dto.AddonBreakdown;
+import com.isec.platform.modules.rating.dto.HistoricalQuote;
+import com.isec.platform.modules.rating.dto.PricingResult;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import com.isec.platform.modules.rating.dto.SimulationRequest;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams quotes priced in the past, for replaying them against a candidate rate book. The tables belong to the
+ * applications module, which depends on rating, so they are read with plain SQL rather than its entities.
+ * <p>
+ * Rows are fetched in pages of {@value #FETCH_SIZE} as they are consumed, so a large corpus is never held in memory.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class HistoricalQuoteRepository {
+
+    static final int FETCH_SIZE = 500;
+
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {
+    };
+
+    private final DatabaseClient databaseClient;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Applications created from an official quote, with the {@link PricingResult} they were priced at.
+     */
+    public Flux<HistoricalQuote> findApplications(String tenantId, LocalDateTime from, LocalDateTime to, int limit) {
+        return databaseClient.sql("SELECT id, quote_id, vehicle_value, year_of_manufacture, vehicle_make, vehicle_model, " +
+                        "pricing_snapshot, created_at FROM applications WHERE tenant_id = :tenantId " +
+                        "AND pricing_snapshot IS NOT NULL AND created_at >= :from AND created_at < :to ORDER BY id LIMIT :limit")
+                .bind("tenantId", tenantId)
+                .bind("from", from)
+                .bind("to", to)
+                .bind("limit", limit)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(row -> toApplicationQuote(tenantId, row))
+                .all();
+    }
+
+    /**
+     * Partner motor quotes with a calculated premium; their baseline is the partner's gross premium.
+     */
+    public Flux<HistoricalQuote> findMotorQuotes(String tenantId, LocalDateTime from, LocalDateTime to, int limit) {
+        return databaseClient.sql("SELECT id, quote_id, insurance_details, vehicle_details, premium_result, created_at " +
+                        "FROM motor_quote_applications WHERE tenant_id = :tenantId AND premium_result IS NOT NULL " +
+                        "AND created_at >= :from AND created_at < :to ORDER BY id LIMIT :limit")
+                .bind("tenantId", tenantId)
+                .bind("from", from)
+                .bind("to", to)
+                .bind("limit", limit)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(row -> toMotorQuote(tenantId, row))
+                .all();
+    }
+
+    HistoricalQuote toApplicationQuote(String tenantId, Readable row) {
+        Long id = row.get("id", Long.class);
+        LocalDateTime quotedAt = row.get("created_at", LocalDateTime.class);
+        PricingResult pricing = read(row.get("pricing_snapshot", String.class), PricingResult.class, "application", id);
+        Set<Long> addonIds = pricing == null || pricing.getAddons() == null ? Set.of() : pricing.getAddons().stream()
+                .map(AddonBreakdown::getRuleId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        RatingContext context = RatingContext.builder()
+                .tenantId(tenantId)
+                .vehicleValue(row.get("vehicle_value", BigDecimal.class))
+                .vehicleAge(vehicleAge(quotedAt, row.get("year_of_manufacture", Integer.class)))
+                .vehicleMake(row.get("vehicle_make", String.class))
+                .vehicleModel(row.get("vehicle_model", String.class))
+                .selectedAddonIds(new HashSet<>(addonIds))
+                .build();
+        return HistoricalQuote.builder()
+                .source(SimulationRequest.Source.APPLICATIONS)
+                .reference(reference(row.get("quote_id", String.class), id))
+                .quotedAt(quotedAt)
+                .context(context)
+                .baselinePremium(pricing == null ? null : pricing.getTotalPremium())
+                .baselineDecision(pricing == null ? null : pricing.getReferralDecision())
+                .baselineRuleIds(pricing == null ? List.of() : pricing.getAppliedRuleIds())
+                .build();
+    }
+
+    HistoricalQuote toMotorQuote(String tenantId, Readable row) {
+        Long id = row.get("id", Long.class);
+        LocalDateTime quotedAt = row.get("created_at", LocalDateTime.class);
+        JsonNode insurance = read(row.get("insurance_details", String.class), JsonNode.class, "motor quote", id);
+        JsonNode vehicle = read(row.get("vehicle_details", String.class), JsonNode.class, "motor quote", id);
+        JsonNode premium = read(row.get("premium_result", String.class), JsonNode.class, "motor quote", id);
+
+        Set<Long> addonIds = new HashSet<>();
+        Map<String, Object> additionalData = null;
+        String category = null;
+        if (insurance != null) {
+            category = text(insurance, "category");
+            insurance.path("addonRuleIds").forEach(addonId -> addonIds.add(addonId.asLong()));
+            if (insurance.path("additionalData").isObject()) {
+                additionalData = objectMapper.convertValue(insurance.get("additionalData"), MAP);
+            }
+        }
+        RatingContext.RatingContextBuilder context = RatingContext.builder()
+                .tenantId(tenantId)
+                .category(category)
+                .selectedAddonIds(addonIds)
+                .additionalData(additionalData);
+        if (vehicle != null) {
+            context.vehicleValue(vehicle.hasNonNull("valuationAmount") ? vehicle.get("valuationAmount").decimalValue() : null)
+                    .vehicleAge(vehicleAge(quotedAt, vehicle.hasNonNull("yearOfManufacture") ? vehicle.get("yearOfManufacture").asInt() : null))
+                    .vehicleMake(text(vehicle, "makeCode"))
+                    .vehicleModel(text(vehicle, "modelCode"));
+        }
+        return HistoricalQuote.builder()
+                .source(SimulationRequest.Source.MOTOR_QUOTES)
+                .reference(reference(row.get("quote_id", String.class), id))
+                .quotedAt(quotedAt)
+                .context(context.build())
+                .baselinePremium(premium != null && premium.hasNonNull("grossPremium") ? premium.get("grossPremium").decimalValue() : null)
+                .baselineRuleIds(List.of())
+                .build();
+    }
+
+    // Vehicle age as it was computed when quoting
+    private static Integer vehicleAge(LocalDateTime quotedAt, Integer yearOfManufacture) {
+        if (quotedAt == null || yearOfManufacture == null) {
+            return null;
+        }
+        return quotedAt.getYear() - yearOfManufacture;
+    }
+
+    private static String reference(String quoteId, Long id) {
+        return quoteId != null ? quoteId : String.valueOf(id);
+    }
+
+    private static String text(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asText() : null;
+    }
+
+    private <T> T read(String json, Class<T> type, String kind, Long id) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable {} {} in simulation corpus: {}", kind, id, e.getOriginalMessage());
+            return null;
+        }
+    }
+}
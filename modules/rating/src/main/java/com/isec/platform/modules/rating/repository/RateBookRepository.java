@@ -1,15 +1,38 @@
 package com.isec.platform.modules.rating.repository;
 
 import com.isec.platform.modules.rating.domain.RateBook;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 @Repository
 public interface RateBookRepository extends ReactiveCrudRepository<RateBook, Long> {
 
-    Mono<RateBook> findByTenantIdAndActiveTrue(String tenantId);
+    /**
+     * The active rate book in effect for the tenant at the given time; when effective periods overlap, the one
+     * that started last wins.
+     */
+    @Query("SELECT * FROM rate_books WHERE tenant_id = :tenantId AND active = true AND effective_from <= :at " +
+            "AND (effective_to IS NULL OR effective_to > :at) ORDER BY effective_from DESC, id DESC LIMIT 1")
+    Mono<RateBook> findEffective(String tenantId, LocalDateTime at);
+
+    /**
+     * The next active rate book of the tenant to take effect after the given time.
+     */
+    @Query("SELECT * FROM rate_books WHERE tenant_id = :tenantId AND active = true AND effective_from > :after " +
+            "ORDER BY effective_from ASC, id DESC LIMIT 1")
+    Mono<RateBook> findNextEffective(String tenantId, LocalDateTime after);
+
+    /**
+     * Active rate books of all tenants taking effect after {@code from}, up to and including {@code until}.
+     */
+    @Query("SELECT * FROM rate_books WHERE active = true AND effective_from > :from AND effective_from <= :until " +
+            "ORDER BY effective_from ASC")
+    Flux<RateBook> findBecomingEffective(LocalDateTime from, LocalDateTime until);
 
     Flux<RateBook> findAllByTenantId(String tenantId);
 }
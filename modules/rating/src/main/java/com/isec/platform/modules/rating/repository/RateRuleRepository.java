@@ -1,6 +1,7 @@
 package com.isec.platform.modules.rating.repository;
 
 import com.isec.platform.modules.rating.domain.RateRule;
+import com.isec.platform.modules.rating.domain.RuleType;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -8,4 +9,6 @@ import reactor.core.publisher.Flux;
 @Repository
 public interface RateRuleRepository extends ReactiveCrudRepository<RateRule, Long> {
     Flux<RateRule> findAllByRateBookId(Long rateBookId);
+
+    Flux<RateRule> findAllByTenantIdAndRuleType(String tenantId, RuleType ruleType);
 }
@@ -1,6 +1,7 @@
 package com.isec.platform.modules.rating.service;
 
 import com.isec.platform.common.multitenancy.TenantContext;
+import com.isec.platform.modules.rating.domain.RuleType;
 import com.isec.platform.modules.rating.dto.AddonDto;
 import com.isec.platform.modules.rating.dto.RateBookDto;
 import lombok.RequiredArgsConstructor;
@@ -10,9 +11,8 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -22,17 +22,19 @@ public class AddonService {
     private final RateBookSnapshotLoader rateBookSnapshotLoader;
 
     public Flux<AddonDto> getAvailableAddons() {
-        return com.isec.platform.common.multitenancy.TenantContext.getTenantId()
-                .switchIfEmpty(Mono.error(new IllegalStateException("Attempted to fetch addons without tenant context")))
-                .flatMapMany(tenantId -> rateBookSnapshotLoader.loadActive(tenantId)
-                        .flatMapMany(snapshot -> Flux.fromIterable(snapshot.rateBook().getRules()))
-                        .filter(r -> r.getRuleType() == com.isec.platform.modules.rating.domain.RuleType.ADDON)
-                        .map(this::mapToDto));
+        return getAddons(RateBookIndex::addons);
     }
 
     public Flux<AddonDto> getAddonsByCategory(String category) {
-        return getAvailableAddons()
-                .filter(a -> a.getCategory().equalsIgnoreCase(category));
+        return getAddons(index -> index.rules(category, RuleType.ADDON));
+    }
+
+    private Flux<AddonDto> getAddons(Function<RateBookIndex, List<RateBookDto.RateRuleDto>> selector) {
+        return TenantContext.getTenantId()
+                .switchIfEmpty(Mono.error(new IllegalStateException("Attempted to fetch addons without tenant context")))
+                .flatMapMany(tenantId -> rateBookSnapshotLoader.loadActive(tenantId)
+                        .flatMapIterable(snapshot -> selector.apply(snapshot.index()))
+                        .map(this::mapToDto));
     }
 
     private AddonDto mapToDto(RateBookDto.RateRuleDto rule) {
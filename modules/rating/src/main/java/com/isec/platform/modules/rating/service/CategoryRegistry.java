@@ -0,0 +1,83 @@
+package com.isec.platform.modules.rating.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small dense ids for the categories of one rate book snapshot, so that {@link RateBookIndex} keeps rules in arrays
+ * and pricing compares a category once per quote instead of normalizing and comparing strings per rule.
+ * <p>
+ * Each snapshot has its own registry, built with its index, so that ids are never shared between tenants or
+ * outlive the snapshot. Ids follow the order the categories were given in. Looking up a category that has no id
+ * resolves to {@link #UNKNOWN}. The spellings that requests use ({@code private_car}, {@code " Private_Car"}) are
+ * remembered up to a bound, so free-form request values cannot grow the registry. Callers keep the id they looked up
+ * for the duration of one quote; it is never stored on the request.
+ */
+public final class CategoryRegistry {
+
+    public static final int UNKNOWN = -1;
+    private static final int MAX_SPELLINGS = 1024;
+
+    private final List<String> names;
+    // Normalized names and the raw spellings seen for them
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger spellings = new AtomicInteger();
+
+    private CategoryRegistry(List<String> names) {
+        this.names = List.copyOf(names);
+        for (int id = 0; id < this.names.size(); id++) {
+            ids.put(this.names.get(id), id);
+        }
+    }
+
+    /**
+     * A registry of the given categories; blank and repeated ones, in any spelling, are left out.
+     */
+    public static CategoryRegistry of(Collection<String> categories) {
+        List<String> names = new ArrayList<>();
+        for (String category : categories) {
+            String normalized = RateBookIndex.normalizeCategory(category);
+            if (normalized != null && !names.contains(normalized)) {
+                names.add(normalized);
+            }
+        }
+        return new CategoryRegistry(names);
+    }
+
+    /**
+     * Id of a category as spelled in a request, or {@link #UNKNOWN} if it has none.
+     */
+    public int lookup(String category) {
+        if (category == null) {
+            return UNKNOWN;
+        }
+        Integer id = ids.get(category);
+        if (id != null) {
+            return id;
+        }
+        String normalized = RateBookIndex.normalizeCategory(category);
+        id = normalized == null ? null : ids.get(normalized);
+        if (id == null) {
+            return UNKNOWN;
+        }
+        if (spellings.get() < MAX_SPELLINGS && ids.putIfAbsent(category, id) == null) {
+            spellings.incrementAndGet();
+        }
+        return id;
+    }
+
+    /**
+     * Normalized name of a category id.
+     */
+    public String name(int id) {
+        return names.get(id);
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
@@ -1,28 +1,46 @@
 package com.isec.platform.modules.rating.service;
 
+import com.isec.platform.modules.rating.compiler.CompiledRateBook;
+import com.isec.platform.modules.rating.compiler.CompiledRateBookRegistry;
+import com.isec.platform.modules.rating.compiler.PricingResultAssembler;
+import com.isec.platform.modules.rating.domain.Money;
 import com.isec.platform.modules.rating.dto.RateBookDto;
 import com.isec.platform.modules.rating.dto.PricingResult;
 import com.isec.platform.modules.rating.domain.RuleType;
 import com.isec.platform.modules.rating.dto.AddonBreakdown;
+import com.isec.platform.modules.rating.dto.BatchPricingResult;
 import com.isec.platform.modules.rating.dto.RatingContext;
 import com.isec.platform.modules.rating.dto.ReferralDecision;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PricingEngine {
 
+    private static final String NOT_ELIGIBLE = "Not eligible for cover: ";
+    // Simulated quotes are not real traffic
+    private static final RatingMetrics UNRECORDED = RatingMetrics.noop();
+    private static final RuleSelectivity UNOBSERVED = RuleSelectivity.unobserved();
+
     @Value("${rating.charges.pcf-rate:0.0025}")
     private BigDecimal pcfRate;
 
@@ -34,60 +52,231 @@ public class PricingEngine {
 
     private final RateBookSnapshotLoader rateBookSnapshotLoader;
     private final RuleMatcher ruleMatcher;
+    private final CompiledRateBookRegistry compiledRateBooks;
+    private final RatingMetrics ratingMetrics;
+    private final QuoteResultCache quoteResultCache;
+    private final RuleSelectivity ruleSelectivity;
+    private final RuleTraceSampler ruleTraceSampler;
+
+    private final PricingResultAssembler assembler = this::buildPricingResult;
+    // The configured charges in minor units; null if they cannot be, and charges are then computed with BigDecimals
+    private Charges charges;
 
+    /**
+     * Converts the configured charges to minor units once, so that quotes do not find out one by one whether they can
+     * be charged in minor units.
+     */
+    @PostConstruct
+    public void initCharges() {
+        charges = Charges.of(pcfRate, itlRate, certCharge);
+        if (charges == null) {
+            log.warn("Charges pcf-rate={}, itl-rate={}, cert-charge={} are not representable in minor units; "
+                    + "computing them with BigDecimal arithmetic", pcfRate, itlRate, certCharge);
+        }
+    }
+
+    /**
+     * Prices one quote against the tenant's active rate book; repeated identical quotes are served from
+     * {@link QuoteResultCache}. Quotes chosen by {@link RuleTraceSampler} are interpreted, bypassing the cache and
+     * compiled rate books, and carry a {@link PricingResult#getTrace() trace} of every rule evaluated.
+     */
     public Mono<PricingResult> price(RatingContext context) {
-        return rateBookSnapshotLoader.loadActive(context.getTenantId())
-                .switchIfEmpty(Mono.error(new IllegalStateException("No active ratebook for tenant: " + context.getTenantId())))
-                .map(snapshot -> {
-                    RateBookDto rateBook = snapshot.rateBook();
-                    List<RateBookDto.RateRuleDto> sortedRules = rateBook.getRules().stream()
-                            .sorted(Comparator.comparingInt(RateBookDto.RateRuleDto::getPriority))
-                            .toList();
-
-                    List<Long> appliedRuleIds = new ArrayList<>();
-
-                    // 1. Eligibility
-                    checkEligibility(context, sortedRules, appliedRuleIds);
-
-                    // 2. Referral
-                    ReferralInfo referralInfo = checkReferral(context, sortedRules, appliedRuleIds);
-
-                    // 3. Base premium
-                    BigDecimal basePremium = calculateBasePremium(context, sortedRules, appliedRuleIds);
-
-                    // 4. Minimum premium
-                    boolean minApplied = false;
-                    BigDecimal adjustedBasePremium = applyMinimumPremium(context, sortedRules, appliedRuleIds, basePremium);
-                    if (adjustedBasePremium.compareTo(basePremium) > 0) {
-                        minApplied = true;
-                        basePremium = adjustedBasePremium;
-                    }
+        return Mono.deferContextual(view -> {
+            long started = System.nanoTime();
+            return loadSnapshot(context.getTenantId())
+                    .map(snapshot -> {
+                        RatingMetrics.Recorder recorder = startRecording(snapshot, context, started);
+                        recorder.phase(RatingMetrics.Phase.SNAPSHOT_LOAD);
+                        RuleTrace trace = ruleTraceSampler.start(view, context.getTenantId());
+                        return trace == null ? price(snapshot, context, recorder, true) : trace(snapshot, context, recorder, trace);
+                    });
+        });
+    }
 
-                    // 5. Add-ons
-                    List<AddonBreakdown> addons = calculateAddons(context, sortedRules, appliedRuleIds);
+    /**
+     * Prices a stream of contexts (e.g. a fleet) in parallel on the bounded CPU scheduler. Each tenant's
+     * snapshot is resolved once per call. Failures are reported per item instead of terminating the stream;
+     * results carry the zero-based position of their context so they can be correlated when unordered.
+     * Batches bypass {@link QuoteResultCache} so that a fleet does not evict interactive quotes.
+     */
+    public Flux<BatchPricingResult> priceAll(Flux<RatingContext> contexts, boolean preserveOrder) {
+        Map<String, Mono<RateBookSnapshotLoader.Snapshot>> snapshots = new ConcurrentHashMap<>();
+        Function<Tuple2<Long, RatingContext>, Mono<BatchPricingResult>> priceOne = indexed -> snapshots
+                .computeIfAbsent(indexed.getT2().getTenantId(), tenantId -> loadSnapshot(tenantId).cache())
+                .publishOn(Schedulers.parallel())
+                .map(snapshot -> BatchPricingResult.success(indexed.getT1(),
+                        price(snapshot, indexed.getT2(), startRecording(snapshot, indexed.getT2(), System.nanoTime()), false)))
+                .onErrorResume(e -> Mono.just(BatchPricingResult.failure(indexed.getT1(), e.getMessage())));
 
-                    // 6. Statutory charges & Total
-                    return buildPricingResult(basePremium, addons, referralInfo, minApplied, appliedRuleIds);
-                });
+        Flux<Tuple2<Long, RatingContext>> indexed = contexts.index();
+        return preserveOrder
+                ? indexed.flatMapSequential(priceOne, Schedulers.DEFAULT_POOL_SIZE)
+                : indexed.flatMap(priceOne, Schedulers.DEFAULT_POOL_SIZE);
     }
 
-    private void checkEligibility(RatingContext context, List<RateBookDto.RateRuleDto> rules, List<Long> appliedRuleIds) {
-        rules.stream()
-                .filter(r -> r.getRuleType() == RuleType.ELIGIBILITY && r.getCategory().equalsIgnoreCase(context.getCategory()))
-                .forEach(r -> {
-                    boolean matches = ruleMatcher.matches(r, context);
-                    log.debug("Evaluating eligibility rule {}: {}, result: {}", r.getId(), r.getDescription(), matches);
-                    if (!matches) {
-                        throw new IllegalStateException("Not eligible for cover: " + r.getDescription());
-                    }
-                    appliedRuleIds.add(r.getId());
-                });
+    /**
+     * Readies what is derived from a snapshot before it takes effect: parsed expressions, its
+     * {@link QuoteResultCache} key shape and, for opted-in tenants, the compiled rate book.
+     */
+    public Mono<Void> prepare(RateBookSnapshotLoader.Snapshot snapshot) {
+        return Mono.fromRunnable(() -> {
+                    ruleMatcher.prepare(snapshot.rateBook());
+                    quoteResultCache.prepare(snapshot);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(compiledRateBooks.prepare(snapshot, assembler));
     }
 
-    private ReferralInfo checkReferral(RatingContext context, List<RateBookDto.RateRuleDto> rules, List<Long> appliedRuleIds) {
-        return rules.stream()
-                .filter(r -> r.getRuleType() == RuleType.REFERRAL && r.getCategory().equalsIgnoreCase(context.getCategory()))
-                .filter(r -> ruleMatcher.matches(r, context))
+    private Mono<RateBookSnapshotLoader.Snapshot> loadSnapshot(String tenantId) {
+        return rateBookSnapshotLoader.loadActive(tenantId)
+                .switchIfEmpty(Mono.error(new IllegalStateException("No active ratebook for tenant: " + tenantId)));
+    }
+
+    private RatingMetrics.Recorder startRecording(RateBookSnapshotLoader.Snapshot snapshot, RatingContext context, long started) {
+        return ratingMetrics.start(context, snapshot.index(), started);
+    }
+
+    private PricingResult price(RateBookSnapshotLoader.Snapshot snapshot, RatingContext context, RatingMetrics.Recorder recorder,
+                                boolean memoize) {
+        PricingResult result;
+        try {
+            result = memoize
+                    ? quoteResultCache.get(snapshot, context, recorder, () -> evaluate(snapshot, context, recorder))
+                    : evaluate(snapshot, context, recorder);
+        } catch (RuntimeException e) {
+            recorder.finish(isDeclined(e) ? RatingMetrics.Outcome.DECLINED : RatingMetrics.Outcome.FAILED);
+            throw e;
+        }
+        recorder.finish(result.getReferralDecision() == ReferralDecision.REFERRED
+                ? RatingMetrics.Outcome.REFERRED : RatingMetrics.Outcome.ACCEPTED);
+        return result;
+    }
+
+    private PricingResult trace(RateBookSnapshotLoader.Snapshot snapshot, RatingContext context, RatingMetrics.Recorder recorder,
+                                RuleTrace trace) {
+        PricingResult result;
+        try {
+            result = interpret(snapshot, context, recorder, ruleSelectivity, trace);
+        } catch (RuntimeException e) {
+            recorder.finish(isDeclined(e) ? RatingMetrics.Outcome.DECLINED : RatingMetrics.Outcome.FAILED);
+            // There is no result to carry the trace
+            log.info("Rule trace of {} quote that failed with '{}': {}", context.getTenantId(), e.getMessage(),
+                    trace.toPricingTrace(snapshot, context, ruleMatcher));
+            throw e;
+        }
+        recorder.finish(result.getReferralDecision() == ReferralDecision.REFERRED
+                ? RatingMetrics.Outcome.REFERRED : RatingMetrics.Outcome.ACCEPTED);
+        result.setTrace(trace.toPricingTrace(snapshot, context, ruleMatcher));
+        return result;
+    }
+
+    /**
+     * Prices a context against a rate book that is not in effect, e.g. a candidate in a what-if simulation. Always
+     * interpreted, and neither memoized nor recorded in the quote metrics.
+     */
+    public PricingResult priceCandidate(RateBookSnapshotLoader.Snapshot candidate, RatingContext context) {
+        return interpret(candidate, context,
+                UNRECORDED.start(context, candidate.index(), System.nanoTime()), UNOBSERVED, null);
+    }
+
+    /**
+     * Whether pricing failed because the context is not eligible for cover, as opposed to an error.
+     */
+    public static boolean isDeclined(Throwable error) {
+        return error instanceof IllegalStateException && error.getMessage() != null && error.getMessage().startsWith(NOT_ELIGIBLE);
+    }
+
+    private PricingResult evaluate(RateBookSnapshotLoader.Snapshot snapshot, RatingContext context, RatingMetrics.Recorder recorder) {
+        // Tenants opted into compiled rate books use the generated class once it is ready
+        CompiledRateBook compiled = compiledRateBooks.lookup(snapshot, assembler);
+        if (compiled != null) {
+            PricingResult result = compiled.price(context);
+            recorder.phase(RatingMetrics.Phase.COMPILED);
+            return result;
+        }
+        return interpret(snapshot, context, recorder, ruleSelectivity, null);
+    }
+
+    // trace is null unless the quote is traced
+    private PricingResult interpret(RateBookSnapshotLoader.Snapshot snapshot, RatingContext context, RatingMetrics.Recorder recorder,
+                                    RuleSelectivity selectivity, RuleTrace trace) {
+        RateBookIndex index = snapshot.index();
+        // Resolved per quote: the context may be priced concurrently against other snapshots
+        int category = index.categoryIds().lookup(context.getCategory());
+
+        List<Long> appliedRuleIds = new ArrayList<>();
+
+        // 1. Eligibility
+        checkEligibility(context, index.rules(category, RuleType.ELIGIBILITY), appliedRuleIds, recorder, selectivity, trace);
+        recorder.phase(RatingMetrics.Phase.ELIGIBILITY);
+
+        // 2. Referral
+        ReferralInfo referralInfo = checkReferral(context, index.rules(category, RuleType.REFERRAL), appliedRuleIds, recorder, selectivity,
+                trace);
+        recorder.phase(RatingMetrics.Phase.REFERRAL);
+
+        // 3. Base premium
+        BigDecimal basePremium = calculateBasePremium(context, index.rules(category, RuleType.BASE_PREMIUM), appliedRuleIds, recorder,
+                selectivity, trace);
+        recorder.phase(RatingMetrics.Phase.BASE_PREMIUM);
+
+        // 4. Minimum premium
+        boolean minApplied = false;
+        BigDecimal adjustedBasePremium = applyMinimumPremium(context, index.rules(category, RuleType.MIN_PREMIUM), appliedRuleIds, basePremium,
+                recorder, selectivity, trace);
+        if (adjustedBasePremium.compareTo(basePremium) > 0) {
+            minApplied = true;
+            basePremium = adjustedBasePremium;
+        }
+        recorder.phase(RatingMetrics.Phase.MINIMUM_PREMIUM);
+
+        // 5. Add-ons
+        List<AddonBreakdown> addons = calculateAddons(context, index, category, appliedRuleIds, recorder, selectivity, trace);
+        recorder.phase(RatingMetrics.Phase.ADDONS);
+
+        // 6. Statutory charges & Total
+        PricingResult result = buildPricingResult(basePremium, addons, referralInfo.decision(), referralInfo.reason(), minApplied, appliedRuleIds);
+        recorder.phase(RatingMetrics.Phase.CHARGES);
+        return result;
+    }
+
+    private void checkEligibility(RatingContext context, List<RateBookDto.RateRuleDto> rules, List<Long> appliedRuleIds,
+                                  RatingMetrics.Recorder recorder, RuleSelectivity selectivity, RuleTrace trace) {
+        // All rules must pass, so they may be evaluated in any order; applied rules are still listed by priority
+        List<RateBookDto.RateRuleDto> ordered = selectivity.order(rules, RuleType.ELIGIBILITY);
+        for (int i = 0; i < ordered.size(); i++) {
+            RateBookDto.RateRuleDto r = ordered.get(i);
+            boolean matches = matches(r, context, recorder, selectivity, trace);
+            log.debug("Evaluating eligibility rule {}: {}, result: {}", r.getId(), r.getDescription(), matches);
+            if (!matches) {
+                RateBookDto.RateRuleDto reason = firstFailing(context, rules, ordered.subList(0, i + 1), recorder, selectivity, trace);
+                throw new IllegalStateException(NOT_ELIGIBLE + reason.getDescription());
+            }
+        }
+        rules.forEach(r -> appliedRuleIds.add(r.getId()));
+    }
+
+    // The decline reason is the first failing rule by priority, whatever order the rules were evaluated in
+    private RateBookDto.RateRuleDto firstFailing(RatingContext context, List<RateBookDto.RateRuleDto> rules,
+                                                 List<RateBookDto.RateRuleDto> evaluated, RatingMetrics.Recorder recorder,
+                                                 RuleSelectivity selectivity, RuleTrace trace) {
+        RateBookDto.RateRuleDto failed = evaluated.get(evaluated.size() - 1);
+        for (RateBookDto.RateRuleDto r : rules) {
+            if (r == failed) {
+                return failed;
+            }
+            // Rules evaluated before the failing one passed
+            if (evaluated.stream().noneMatch(passed -> passed == r) && !matches(r, context, recorder, selectivity, trace)) {
+                return r;
+            }
+        }
+        return failed;
+    }
+
+    private ReferralInfo checkReferral(RatingContext context, List<RateBookDto.RateRuleDto> rules, List<Long> appliedRuleIds,
+                                       RatingMetrics.Recorder recorder, RuleSelectivity selectivity, RuleTrace trace) {
+        return selectivity.order(rules, RuleType.REFERRAL).stream()
+                .filter(r -> matches(r, context, recorder, selectivity, trace))
                 .findFirst()
                 .map(r -> {
                     appliedRuleIds.add(r.getId());
@@ -96,14 +285,17 @@ public class PricingEngine {
                 .orElse(new ReferralInfo(ReferralDecision.NONE, null));
     }
 
-    private BigDecimal calculateBasePremium(RatingContext context, List<RateBookDto.RateRuleDto> rules, List<Long> appliedRuleIds) {
+    private BigDecimal calculateBasePremium(RatingContext context, List<RateBookDto.RateRuleDto> rules, List<Long> appliedRuleIds,
+                                           RatingMetrics.Recorder recorder, RuleSelectivity selectivity, RuleTrace trace) {
         return rules.stream()
-                .filter(r -> r.getRuleType() == RuleType.BASE_PREMIUM && r.getCategory().equalsIgnoreCase(context.getCategory()))
-                .filter(r -> ruleMatcher.matches(r, context))
+                .filter(r -> matches(r, context, recorder, selectivity, trace))
                 .findFirst()
                 .map(r -> {
                     appliedRuleIds.add(r.getId());
                     BigDecimal value = ruleMatcher.evaluateBigDecimal(r, context);
+                    if (trace != null) {
+                        trace.value(r, value);
+                    }
                     // If the value is > 1, treat it as a flat premium, otherwise treat as a rate
                     if (value.compareTo(BigDecimal.ONE) > 0) {
                         return value.setScale(0, RoundingMode.UP);
@@ -113,52 +305,141 @@ public class PricingEngine {
                 .orElseThrow(() -> new IllegalStateException("No base premium rule matched for category: " + context.getCategory()));
     }
 
-    private BigDecimal applyMinimumPremium(RatingContext context, List<RateBookDto.RateRuleDto> rules, List<Long> appliedRuleIds, BigDecimal basePremium) {
+    private BigDecimal applyMinimumPremium(RatingContext context, List<RateBookDto.RateRuleDto> rules, List<Long> appliedRuleIds,
+                                           BigDecimal basePremium, RatingMetrics.Recorder recorder, RuleSelectivity selectivity,
+                                           RuleTrace trace) {
         return rules.stream()
-                .filter(r -> r.getRuleType() == RuleType.MIN_PREMIUM && r.getCategory().equalsIgnoreCase(context.getCategory()))
-                .filter(r -> ruleMatcher.matches(r, context))
+                .filter(r -> matches(r, context, recorder, selectivity, trace))
                 .findFirst()
                 .map(r -> {
                     appliedRuleIds.add(r.getId());
                     BigDecimal min = ruleMatcher.evaluateBigDecimal(r, context);
+                    if (trace != null) {
+                        trace.value(r, min);
+                    }
                     return min.max(basePremium);
                 })
                 .orElse(basePremium);
     }
 
-    private List<AddonBreakdown> calculateAddons(RatingContext context, List<RateBookDto.RateRuleDto> rules, List<Long> appliedRuleIds) {
+    private List<AddonBreakdown> calculateAddons(RatingContext context, RateBookIndex index, int category, List<Long> appliedRuleIds,
+                                                 RatingMetrics.Recorder recorder, RuleSelectivity selectivity, RuleTrace trace) {
         List<AddonBreakdown> addons = new ArrayList<>();
-        rules.stream()
-                .filter(r -> r.getRuleType() == RuleType.ADDON && r.getCategory().equalsIgnoreCase(context.getCategory()))
-                .filter(r -> context.getSelectedAddonIds() != null && context.getSelectedAddonIds().contains(r.getId()))
-                .filter(r -> ruleMatcher.matches(r, context))
+        Set<Long> selectedAddonIds = context.getSelectedAddonIds();
+        if (selectedAddonIds == null || selectedAddonIds.isEmpty()) {
+            return addons;
+        }
+        // Resolve selected addons by id rather than scanning every addon rule in the book
+        selectedAddonIds.stream()
+                .map(id -> index.addon(id, category))
+                .filter(Objects::nonNull)
+                .sorted(RateBookIndex.EVALUATION_ORDER)
+                .filter(r -> matches(r, context, recorder, selectivity, trace))
                 .forEach(r -> {
                     BigDecimal addonAmount = ruleMatcher.evaluateBigDecimal(r, context).setScale(0, RoundingMode.UP);
+                    if (trace != null) {
+                        trace.value(r, addonAmount);
+                    }
                     addons.add(new AddonBreakdown(r.getDescription(), r.getDescription(), addonAmount, r.getId()));
                     appliedRuleIds.add(r.getId());
                 });
         return addons;
     }
 
-    private PricingResult buildPricingResult(BigDecimal basePremium, List<AddonBreakdown> addons, ReferralInfo referralInfo, boolean minApplied, List<Long> appliedRuleIds) {
+    private boolean matches(RateBookDto.RateRuleDto rule, RatingContext context, RatingMetrics.Recorder recorder,
+                            RuleSelectivity selectivity, RuleTrace trace) {
+        if (trace == null) {
+            return recorder.ruleEvaluated(selectivity.record(context.getTenantId(), rule, ruleMatcher.matches(rule, context)));
+        }
+        long started = System.nanoTime();
+        boolean matched = ruleMatcher.matches(rule, context);
+        trace.record(rule, matched, System.nanoTime() - started);
+        return recorder.ruleEvaluated(selectivity.record(context.getTenantId(), rule, matched));
+    }
+
+    private PricingResult buildPricingResult(BigDecimal basePremium, List<AddonBreakdown> addons, ReferralDecision referralDecision,
+                                             String referralReason, boolean minApplied, List<Long> appliedRuleIds) {
+        PricingResult.PricingResultBuilder result = PricingResult.builder()
+                .basePremium(basePremium)
+                .certificateCharge(certCharge)
+                .minimumPremiumApplied(minApplied)
+                .referralDecision(referralDecision)
+                .referralReason(referralReason)
+                .appliedRuleIds(appliedRuleIds)
+                .addons(addons);
+        Charges charges = this.charges;
+        Money base = charges == null ? null : pricingAmount(basePremium);
+        Money addonTotal = base == null ? null : addonTotal(addons);
+        if (addonTotal == null) {
+            // Fractions of a cent, e.g. from a computed minimum premium, need decimal arithmetic
+            return chargeDecimal(result, basePremium, addons);
+        }
+        Money pcf = base.times(charges.pcf(), Money.Precision.SHILLINGS, RoundingMode.UP);
+        Money itl = base.times(charges.itl(), Money.Precision.SHILLINGS, RoundingMode.UP);
+        Money total = base.plus(pcf).plus(itl).plus(charges.cert()).plus(addonTotal)
+                .round(Money.Precision.SHILLINGS, RoundingMode.UP);
+        return result
+                .pcf(pcf.toBigDecimal(Money.Precision.SHILLINGS))
+                .itl(itl.toBigDecimal(Money.Precision.SHILLINGS))
+                .totalPremium(total.toBigDecimal(Money.Precision.SHILLINGS))
+                .build();
+    }
+
+    private PricingResult chargeDecimal(PricingResult.PricingResultBuilder result, BigDecimal basePremium, List<AddonBreakdown> addons) {
         BigDecimal pcf = basePremium.multiply(pcfRate).setScale(0, RoundingMode.UP);
         BigDecimal itl = basePremium.multiply(itlRate).setScale(0, RoundingMode.UP);
         BigDecimal addonTotal = addons.stream().map(AddonBreakdown::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
         BigDecimal total = basePremium.add(pcf).add(itl).add(certCharge).add(addonTotal).setScale(0, RoundingMode.UP);
-
-        return PricingResult.builder()
-                .basePremium(basePremium)
+        return result
                 .pcf(pcf)
                 .itl(itl)
-                .certificateCharge(certCharge)
                 .totalPremium(total)
-                .minimumPremiumApplied(minApplied)
-                .referralDecision(referralInfo.decision())
-                .referralReason(referralInfo.reason())
-                .appliedRuleIds(appliedRuleIds)
-                .addons(addons)
                 .build();
     }
 
+    private static Money addonTotal(List<AddonBreakdown> addons) {
+        Money total = Money.ZERO;
+        for (AddonBreakdown addon : addons) {
+            Money amount = pricingAmount(addon.getAmount());
+            if (amount == null) {
+                return null;
+            }
+            total = total.plus(amount);
+            if (!total.isWithinPricingRange()) {
+                return null;
+            }
+        }
+        return total;
+    }
+
+    // The amount in minor units if it has no fractions of a cent and is within Money's pricing range, null otherwise
+    private static Money pricingAmount(BigDecimal amount) {
+        Money money = Money.exact(amount);
+        return money != null && money.isWithinPricingRange() ? money : null;
+    }
+
+    /**
+     * The configured charges in minor units. Levy rates are between zero and one, so that charging an amount within
+     * Money's pricing range cannot overflow.
+     */
+    private record Charges(Money.Rate pcf, Money.Rate itl, Money cert) {
+
+        // null unless every charge converts exactly and within range
+        static Charges of(BigDecimal pcfRate, BigDecimal itlRate, BigDecimal certCharge) {
+            Money.Rate pcf = levy(pcfRate);
+            Money.Rate itl = levy(itlRate);
+            Money cert = certCharge == null ? null : pricingAmount(certCharge);
+            return pcf != null && itl != null && cert != null ? new Charges(pcf, itl, cert) : null;
+        }
+
+        private static Money.Rate levy(BigDecimal rate) {
+            if (rate == null || rate.signum() < 0 || rate.compareTo(BigDecimal.ONE) > 0) {
+                return null;
+            }
+            Money.Rate exact = Money.Rate.exact(rate);
+            return exact != null && Money.ofCents(Money.MAX_PRICING_CENTS).canMultiply(exact) ? exact : null;
+        }
+    }
+
     private record ReferralInfo(ReferralDecision decision, String reason) {}
 }
@@ -0,0 +1,197 @@
+package com.isec.platform.modules.rating.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.isec.platform.modules.rating.dto.PricingResult;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import com.isec.platform.modules.rating.expression.ContextField;
+import com.isec.platform.modules.rating.expression.RatingExpression;
+import com.isec.platform.modules.rating.expression.RatingExpressionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes {@link PricingEngine} results of identical quotes, e.g. the same vehicle quoted repeatedly from a
+ * landing page.
+ * <p>
+ * Results are keyed by the snapshot's {@link RateBookSnapshotLoader.Snapshot#cacheKey() cache key} plus a canonical
+ * form of only those {@link RatingContext} fields that the rate book's expressions read, besides the category,
+ * vehicle value and selected add-ons, which the engine itself uses. Quotes differing only in fields no rule looks at
+ * (say the model, in a book that never references it) share an entry. A rate book with rules that only the SpEL
+ * fallback can evaluate is keyed on every field.
+ * <p>
+ * Like {@code CompiledRateBookRegistry}, entries are held per tenant and tied to the snapshot instance they were
+ * computed from, so publishing or editing a rate book drops them on the next quote even when the version name
+ * did not change. The key shape of a snapshot about to take effect can be computed ahead with {@link #prepare}.
+ * Only successful prices are cached; hits return a copy. Tenants listed in
+ * {@code rating.quote-cache.excluded-tenants} ({@code *} for all) are always priced.
+ */
+@Component
+public class QuoteResultCache {
+
+    private static final String ALL_TENANTS = "*";
+    private static final char SEPARATOR = '|';
+
+    @Value("${rating.quote-cache.excluded-tenants:}")
+    private List<String> excludedTenants = List.of();
+
+    @Value("${rating.quote-cache.max-entries-per-tenant:10000}")
+    private long maxEntriesPerTenant = 10_000;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Entry> upcoming = new ConcurrentHashMap<>();
+
+    /**
+     * The cached result for the quote, or the result of {@code pricing}, which is cached when it completes normally.
+     */
+    public PricingResult get(RateBookSnapshotLoader.Snapshot snapshot, RatingContext context,
+                             RatingMetrics.Recorder recorder, Supplier<PricingResult> pricing) {
+        String tenantId = context.getTenantId();
+        if (tenantId == null || !isEnabled(tenantId)) {
+            return pricing.get();
+        }
+        Entry entry = entries.get(tenantId);
+        if (entry == null || entry.snapshot != snapshot) {
+            Entry prepared = upcoming.get(tenantId);
+            Entry fresh = prepared != null && prepared.snapshot == snapshot ? prepared : newEntry(snapshot);
+            entry = entries.compute(tenantId, (t, current) -> current != null && current.snapshot == snapshot ? current : fresh);
+            upcoming.remove(tenantId, fresh);
+        }
+
+        String key = entry.shape.key(snapshot.cacheKey(), context);
+        PricingResult cached = entry.results.getIfPresent(key);
+        recorder.cacheLookup(cached != null);
+        if (cached != null) {
+            return copy(cached);
+        }
+        PricingResult result = pricing.get();
+        entry.results.put(key, copy(result));
+        return result;
+    }
+
+    /**
+     * Readies an entry for a snapshot that is not in use yet.
+     */
+    public void prepare(RateBookSnapshotLoader.Snapshot snapshot) {
+        String tenantId = snapshot.rateBook().getTenantId();
+        if (tenantId != null && isEnabled(tenantId)) {
+            upcoming.put(tenantId, newEntry(snapshot));
+        }
+    }
+
+    public boolean isEnabled(String tenantId) {
+        return !excludedTenants.contains(ALL_TENANTS) && !excludedTenants.contains(tenantId);
+    }
+
+    long size(String tenantId) {
+        Entry entry = entries.get(tenantId);
+        return entry == null ? 0 : entry.results.estimatedSize();
+    }
+
+    private Entry newEntry(RateBookSnapshotLoader.Snapshot snapshot) {
+        return new Entry(snapshot, KeyShape.of(snapshot.rateBook()), Caffeine.newBuilder().maximumSize(maxEntriesPerTenant).build());
+    }
+
+    private static PricingResult copy(PricingResult result) {
+        return result.toBuilder()
+                .appliedRuleIds(new ArrayList<>(result.getAppliedRuleIds()))
+                .addons(new ArrayList<>(result.getAddons()))
+                .build();
+    }
+
+    private record Entry(RateBookSnapshotLoader.Snapshot snapshot, KeyShape shape, Cache<String, PricingResult> results) {
+    }
+
+    /**
+     * The context fields and {@code additionalData} keys that can influence a price under one rate book.
+     */
+    record KeyShape(Set<ContextField> fields, Set<String> dataKeys, boolean allData) {
+
+        // Always part of the key: the tenant through the rate book key, the category selects the rules and rates
+        // apply to the vehicle value
+        private static final Set<ContextField> ENGINE_FIELDS =
+                EnumSet.of(ContextField.TENANT_ID, ContextField.CATEGORY, ContextField.VEHICLE_VALUE);
+
+        static KeyShape of(RateBookDto rateBook) {
+            Set<ContextField> fields = EnumSet.noneOf(ContextField.class);
+            Set<String> dataKeys = new TreeSet<>();
+            List<RateBookDto.RateRuleDto> rules = rateBook == null || rateBook.getRules() == null ? List.of() : rateBook.getRules();
+            for (RateBookDto.RateRuleDto rule : rules) {
+                for (String expression : new String[]{rule.getConditionExpression(), rule.getValueExpression()}) {
+                    if (expression == null || expression.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        RatingExpression parsed = RatingExpression.compile(expression);
+                        fields.addAll(parsed.fields());
+                        dataKeys.addAll(parsed.dataKeys());
+                    } catch (RatingExpressionException e) {
+                        // Evaluated by SpEL, which may read anything
+                        return new KeyShape(EnumSet.complementOf(EnumSet.copyOf(ENGINE_FIELDS)), Set.of(), true);
+                    }
+                }
+            }
+            fields.removeAll(ENGINE_FIELDS);
+            return new KeyShape(fields, dataKeys, false);
+        }
+
+        String key(String rateBookKey, RatingContext context) {
+            StringBuilder key = new StringBuilder(96).append(rateBookKey);
+            append(key, RateBookIndex.normalizeCategory(context.getCategory()));
+            append(key, canonical(context.getVehicleValue()));
+            append(key, context.getSelectedAddonIds() == null ? null : new TreeSet<>(context.getSelectedAddonIds()));
+            Map<String, Object> data = context.getAdditionalData();
+            for (ContextField field : fields) {
+                if (field == ContextField.ADDITIONAL_DATA) {
+                    // The language only compares the map itself with null; entries are keyed by lookup below
+                    append(key, data == null ? null : allData ? canonical(new TreeMap<>(data)) : "present");
+                } else {
+                    append(key, canonical(field.read(context)));
+                }
+            }
+            for (String dataKey : dataKeys) {
+                append(key, canonical(data == null ? null : data.get(dataKey)));
+            }
+            return key.toString();
+        }
+
+        // Length-prefixed so that values containing the separator cannot collide
+        private static void append(StringBuilder key, Object value) {
+            key.append(SEPARATOR);
+            if (value == null) {
+                key.append('-');
+                return;
+            }
+            String text = value.toString();
+            key.append(text.length()).append(':').append(text);
+        }
+
+        // Typed, so that e.g. 10 and "10" (which rules may treat differently) do not share an entry
+        private static String canonical(Object value) {
+            if (value == null) {
+                return null;
+            }
+            if (value instanceof BigDecimal decimal) {
+                return decimal.stripTrailingZeros().toPlainString();
+            }
+            if (value instanceof Map<?, ?> map) {
+                StringBuilder entries = new StringBuilder("{");
+                map.forEach((k, v) -> append(entries.append(k), canonical(v)));
+                return entries.append('}').toString();
+            }
+            return value.getClass().getSimpleName() + ':' + value;
+        }
+    }
+}
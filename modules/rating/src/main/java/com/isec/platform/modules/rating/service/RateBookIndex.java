@@ -0,0 +1,178 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable lookup structure built once per rate book snapshot.
+ * <p>
+ * Rules are grouped by the id of their category in the index's own {@link CategoryRegistry} and by {@link RuleType},
+ * each group sorted in evaluation order (priority, then id), so pricing never has to sort, scan the full rule list or
+ * compare category strings per quote.
+ * Rule text is interned as the index is built, so the rules of a tenant's successive snapshots, and of tenants that
+ * share categories and wordings, share their strings.
+ */
+public final class RateBookIndex {
+
+    public static final Comparator<RateBookDto.RateRuleDto> EVALUATION_ORDER =
+            Comparator.comparingInt(RateBookDto.RateRuleDto::getPriority)
+                    .thenComparing(RateBookDto.RateRuleDto::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private static final RuleType[] RULE_TYPES = RuleType.values();
+    private static final RateBookIndex EMPTY =
+            new RateBookIndex(CategoryRegistry.of(List.of()), new List[0][], Set.of(), Map.of(), List.of());
+
+    private final CategoryRegistry categoryIds;
+    // [category id][rule type ordinal]; null where the rate book has no such rules
+    private final List<RateBookDto.RateRuleDto>[][] rulesByCategory;
+    private final Set<String> categories;
+    private final Map<Long, Addon> addonsById;
+    private final List<RateBookDto.RateRuleDto> addons;
+
+    private RateBookIndex(CategoryRegistry categoryIds, List<RateBookDto.RateRuleDto>[][] rulesByCategory,
+                          Set<String> categories, Map<Long, Addon> addonsById, List<RateBookDto.RateRuleDto> addons) {
+        this.categoryIds = categoryIds;
+        this.rulesByCategory = rulesByCategory;
+        this.categories = categories;
+        this.addonsById = addonsById;
+        this.addons = addons;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static RateBookIndex of(RateBookDto rateBook) {
+        if (rateBook == null || rateBook.getRules() == null || rateBook.getRules().isEmpty()) {
+            return EMPTY;
+        }
+
+        CategoryRegistry categoryIds = CategoryRegistry.of(rateBook.getRules().stream()
+                .map(RateBookDto.RateRuleDto::getCategory)
+                .toList());
+        Map<Integer, Map<RuleType, List<RateBookDto.RateRuleDto>>> grouped = new HashMap<>();
+        Map<Long, Addon> addonsById = new HashMap<>();
+        List<RateBookDto.RateRuleDto> addons = new ArrayList<>();
+
+        for (RateBookDto.RateRuleDto rule : rateBook.getRules()) {
+            intern(rule);
+            int categoryId = categoryIds.lookup(rule.getCategory());
+            if (rule.getRuleType() == RuleType.ADDON) {
+                addons.add(rule);
+                if (rule.getId() != null) {
+                    addonsById.put(rule.getId(), new Addon(rule, categoryId));
+                }
+            }
+            if (categoryId == CategoryRegistry.UNKNOWN || rule.getRuleType() == null) {
+                continue;
+            }
+            grouped.computeIfAbsent(categoryId, k -> new EnumMap<>(RuleType.class))
+                    .computeIfAbsent(rule.getRuleType(), k -> new ArrayList<>())
+                    .add(rule);
+        }
+
+        int size = grouped.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+        List<RateBookDto.RateRuleDto>[][] index = new List[size][];
+        Set<String> categories = new HashSet<>();
+        grouped.forEach((categoryId, byType) -> {
+            List<RateBookDto.RateRuleDto>[] sorted = new List[RULE_TYPES.length];
+            byType.forEach((type, rules) -> {
+                rules.sort(EVALUATION_ORDER);
+                sorted[type.ordinal()] = List.copyOf(rules);
+            });
+            index[categoryId] = sorted;
+            categories.add(categoryIds.name(categoryId));
+        });
+
+        return new RateBookIndex(categoryIds, index, Set.copyOf(categories), Map.copyOf(addonsById),
+                List.copyOf(addons));
+    }
+
+    /**
+     * The ids of this rate book's categories, which the other lookups by id take.
+     */
+    public CategoryRegistry categoryIds() {
+        return categoryIds;
+    }
+
+    /**
+     * Rules of the given type for a category, in evaluation order. Never null.
+     */
+    public List<RateBookDto.RateRuleDto> rules(String category, RuleType ruleType) {
+        return rules(categoryIds.lookup(category), ruleType);
+    }
+
+    /**
+     * Rules of the given type for a category id, in evaluation order. Never null.
+     */
+    public List<RateBookDto.RateRuleDto> rules(int categoryId, RuleType ruleType) {
+        if (categoryId < 0 || categoryId >= rulesByCategory.length || rulesByCategory[categoryId] == null) {
+            return List.of();
+        }
+        List<RateBookDto.RateRuleDto> rules = rulesByCategory[categoryId][ruleType.ordinal()];
+        return rules == null ? List.of() : rules;
+    }
+
+    /**
+     * Whether the rate book has at least one rule for a category id.
+     */
+    public boolean hasCategory(int categoryId) {
+        return categoryId >= 0 && categoryId < rulesByCategory.length && rulesByCategory[categoryId] != null;
+    }
+
+    /**
+     * Normalized categories that have at least one rule.
+     */
+    public Set<String> categories() {
+        return categories;
+    }
+
+    public RateBookDto.RateRuleDto addon(Long id) {
+        Addon addon = id == null ? null : addonsById.get(id);
+        return addon == null ? null : addon.rule();
+    }
+
+    /**
+     * The addon rule with the given id if it belongs to the category with the given id.
+     */
+    public RateBookDto.RateRuleDto addon(Long id, int categoryId) {
+        Addon addon = id == null ? null : addonsById.get(id);
+        return addon == null || categoryId == CategoryRegistry.UNKNOWN || addon.categoryId() != categoryId
+                ? null : addon.rule();
+    }
+
+    /**
+     * All addon rules across categories, in rate book order.
+     */
+    public List<RateBookDto.RateRuleDto> addons() {
+        return addons;
+    }
+
+    public static String normalizeCategory(String category) {
+        if (category == null || category.isBlank()) {
+            return null;
+        }
+        return category.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static void intern(RateBookDto.RateRuleDto rule) {
+        rule.setCategory(intern(rule.getCategory()));
+        rule.setDescription(intern(rule.getDescription()));
+        rule.setConditionExpression(intern(rule.getConditionExpression()));
+        rule.setValueExpression(intern(rule.getValueExpression()));
+    }
+
+    private static String intern(String value) {
+        return value == null ? null : value.intern();
+    }
+
+    private record Addon(RateBookDto.RateRuleDto rule, int categoryId) {
+    }
+}
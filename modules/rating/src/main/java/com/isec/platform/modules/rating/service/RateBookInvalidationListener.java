@@ -0,0 +1,49 @@
+package com.isec.platform.modules.rating.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Subscribes to ratebook invalidation broadcasts so that every node drops its in-process snapshot
+ * when a rate book or rule changes on any node.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateBookInvalidationListener {
+
+    private final ReactiveStringRedisTemplate stringRedisTemplate;
+    private final RateBookSnapshotLoader snapshotLoader;
+
+    private Disposable subscription;
+
+    @PostConstruct
+    public void subscribe() {
+        subscription = stringRedisTemplate.listenToChannel(RateBookSnapshotLoader.INVALIDATION_CHANNEL)
+                .map(ReactiveSubscription.Message::getMessage)
+                .doOnNext(snapshotLoader::onInvalidationMessage)
+                .doOnError(e -> {
+                    // Broadcasts may have been missed while disconnected, so local copies can no longer be trusted
+                    log.warn("Ratebook invalidation subscription failed, clearing local snapshots: {}", e.getMessage());
+                    snapshotLoader.evictAllLocal();
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
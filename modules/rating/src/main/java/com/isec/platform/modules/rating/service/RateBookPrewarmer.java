@@ -0,0 +1,67 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.domain.RateBook;
+import com.isec.platform.modules.rating.repository.RateBookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/**
+ * Prepares rate books before they take effect, so that the first quotes after a tariff change do not all wait on
+ * the database, the expression parser and the compiler.
+ * <p>
+ * Every {@code rating.ratebook.prewarm.interval-ms} it looks for active rate books starting within the next
+ * {@code rating.ratebook.prewarm.lead-minutes}. For each tenant the next one is loaded and indexed by
+ * {@link RateBookSnapshotLoader}, which holds it until it is due, and readied by {@link PricingEngine#prepare}.
+ * Every node prepares its own copy.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateBookPrewarmer {
+
+    private final RateBookRepository rateBookRepository;
+    private final RateBookSnapshotLoader snapshotLoader;
+    private final PricingEngine pricingEngine;
+
+    @Value("${rating.ratebook.prewarm.lead-minutes:15}")
+    private long leadMinutes = 15;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    @Scheduled(fixedDelayString = "${rating.ratebook.prewarm.interval-ms:60000}")
+    public void prewarmUpcoming() {
+        prewarm().subscribe(
+                null,
+                e -> log.error("Error while preparing upcoming rate books", e));
+    }
+
+    Mono<Void> prewarm() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return rateBookRepository.findBecomingEffective(now, now.plusMinutes(leadMinutes))
+                // Ordered by start, so this keeps each tenant's next tariff change
+                .distinct(RateBook::getTenantId)
+                .filter(rateBook -> !isPrepared(rateBook))
+                .concatMap(rateBook -> snapshotLoader.prepareUpcoming(rateBook.getTenantId(), rateBook.getEffectiveFrom())
+                        .flatMap(snapshot -> pricingEngine.prepare(snapshot).thenReturn(snapshot))
+                        .doOnNext(snapshot -> log.info("Prepared rate book snapshot {} taking effect at {}",
+                                snapshot.cacheKey(), rateBook.getEffectiveFrom()))
+                        .onErrorResume(e -> {
+                            log.warn("Failed to prepare rate book {} for tenant {}: {}",
+                                    rateBook.getId(), rateBook.getTenantId(), e.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    private boolean isPrepared(RateBook rateBook) {
+        RateBookSnapshotLoader.Snapshot upcoming = snapshotLoader.upcoming(rateBook.getTenantId());
+        return upcoming != null && rateBook.getEffectiveFrom().equals(upcoming.rateBook().getEffectiveFrom());
+    }
+}
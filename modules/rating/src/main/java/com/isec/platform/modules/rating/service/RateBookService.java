@@ -39,7 +39,7 @@ public class RateBookService {
                     rateBook.setTenantId(tenantId);
                     
                     return rateBookRepository.save(rateBook)
-                            .doOnNext(saved -> snapshotLoader.invalidateAll());
+                            .flatMap(saved -> snapshotLoader.invalidate(saved.getTenantId()).thenReturn(saved));
                 });
     }
 
@@ -55,7 +55,7 @@ public class RateBookService {
                     existing.setActive(request.isActive());
 
                     return rateBookRepository.save(existing)
-                            .doOnNext(saved -> snapshotLoader.invalidateAll());
+                            .flatMap(saved -> snapshotLoader.invalidate(saved.getTenantId()).thenReturn(saved));
                 });
     }
 
@@ -86,8 +86,8 @@ public class RateBookService {
         return rateBookRepository.findById(id)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("RateBook", id)))
                 .flatMap(rateBook -> validateTenantAccess(rateBook.getTenantId()).thenReturn(rateBook))
-                .flatMap(rateBook -> rateBookRepository.delete(rateBook))
-                .doOnSuccess(v -> snapshotLoader.invalidateAll());
+                .flatMap(rateBook -> rateBookRepository.delete(rateBook)
+                        .then(snapshotLoader.invalidate(rateBook.getTenantId())));
     }
 
     private Mono<Void> validateTenantAccess(String ownerTenantId) {
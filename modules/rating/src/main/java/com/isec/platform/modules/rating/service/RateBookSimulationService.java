@@ -0,0 +1,137 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.domain.RateRule;
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.HistoricalQuote;
+import com.isec.platform.modules.rating.dto.PricingResult;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import com.isec.platform.modules.rating.dto.ReferralDecision;
+import com.isec.platform.modules.rating.dto.SimulatedQuote;
+import com.isec.platform.modules.rating.dto.SimulationRequest;
+import com.isec.platform.modules.rating.dto.SimulationResult;
+import com.isec.platform.modules.rating.repository.HistoricalQuoteRepository;
+import com.isec.platform.modules.rating.repository.RateRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What-if simulation: re-prices historical quotes of a rate book's tenant against that rate book, typically an
+ * inactive candidate, so that a tariff change can be judged on real quotes before it is published.
+ * <p>
+ * Quotes are streamed from the database and priced on the bounded CPU scheduler, at most
+ * {@link Schedulers#DEFAULT_POOL_SIZE} at a time. Backpressure reaches the database cursor, so memory does not grow
+ * with the size of the corpus. The stream carries one {@link SimulatedQuote} per quote and ends with a
+ * {@link com.isec.platform.modules.rating.dto.SimulationSummary}.
+ * <p>
+ * Application pricing snapshots record neither the category nor {@code additionalData}. The category is taken from
+ * the base premium rule that priced the application, falling back to the request's default category. Rules that
+ * read {@code additionalData} see none for these quotes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RateBookSimulationService {
+
+    private static final LocalDateTime NO_LOWER_BOUND = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final RateBookService rateBookService;
+    private final RateBookSnapshotLoader snapshotLoader;
+    private final RateRuleRepository rateRuleRepository;
+    private final HistoricalQuoteRepository historicalQuoteRepository;
+    private final PricingEngine pricingEngine;
+
+    @Value("${rating.simulation.max-quotes:1000000}")
+    private int maxQuotes = 1_000_000;
+
+    public Flux<SimulationResult> simulate(Long rateBookId, SimulationRequest request) {
+        return rateBookService.getRateBook(rateBookId)
+                .flatMap(snapshotLoader::snapshotOf)
+                .flatMapMany(candidate -> {
+                    String tenantId = candidate.rateBook().getTenantId();
+                    log.info("Simulating rate book {} against {} quotes of tenant {}", candidate.cacheKey(), request.getSource(), tenantId);
+                    return rateRuleRepository.findAllByTenantIdAndRuleType(tenantId, RuleType.BASE_PREMIUM)
+                            .collectMap(RateRule::getId, RateRule::getCategory)
+                            .flatMapMany(baseRuleCategories -> replay(candidate, corpus(tenantId, request),
+                                    baseRuleCategories, request.getDefaultCategory()));
+                });
+    }
+
+    Flux<SimulationResult> replay(RateBookSnapshotLoader.Snapshot candidate, Flux<HistoricalQuote> corpus,
+                                  Map<Long, String> baseRuleCategories, String defaultCategory) {
+        return Flux.defer(() -> {
+            SimulationAggregator aggregator = new SimulationAggregator();
+            return corpus
+                    .flatMap(quote -> Mono.fromCallable(() -> reprice(candidate, quote, baseRuleCategories, defaultCategory))
+                            .subscribeOn(Schedulers.parallel()), Schedulers.DEFAULT_POOL_SIZE)
+                    .doOnNext(aggregator::add)
+                    .map(SimulationResult::of)
+                    .concatWith(Mono.fromCallable(() -> SimulationResult.of(aggregator.summary())));
+        });
+    }
+
+    private Flux<HistoricalQuote> corpus(String tenantId, SimulationRequest request) {
+        LocalDateTime from = request.getFrom() != null ? request.getFrom() : NO_LOWER_BOUND;
+        LocalDateTime to = request.getTo() != null ? request.getTo() : LocalDateTime.now();
+        int limit = request.getLimit() != null ? Math.min(request.getLimit(), maxQuotes) : maxQuotes;
+        SimulationRequest.Source source = request.getSource() != null ? request.getSource() : SimulationRequest.Source.ALL;
+
+        Flux<HistoricalQuote> applications = historicalQuoteRepository.findApplications(tenantId, from, to, limit);
+        Flux<HistoricalQuote> motorQuotes = historicalQuoteRepository.findMotorQuotes(tenantId, from, to, limit);
+        return switch (source) {
+            case APPLICATIONS -> applications;
+            case MOTOR_QUOTES -> motorQuotes;
+            case ALL -> applications.concatWith(motorQuotes);
+        };
+    }
+
+    private SimulatedQuote reprice(RateBookSnapshotLoader.Snapshot candidate, HistoricalQuote quote,
+                                   Map<Long, String> baseRuleCategories, String defaultCategory) {
+        RatingContext context = quote.getContext();
+        if (context.getCategory() == null) {
+            context.setCategory(category(quote.getBaselineRuleIds(), baseRuleCategories, defaultCategory));
+        }
+        SimulatedQuote.SimulatedQuoteBuilder simulated = SimulatedQuote.builder()
+                .source(quote.getSource())
+                .reference(quote.getReference())
+                .quotedAt(quote.getQuotedAt())
+                .category(context.getCategory())
+                .baselinePremium(quote.getBaselinePremium())
+                .baselineDecision(quote.getBaselineDecision());
+        try {
+            PricingResult pricing = pricingEngine.priceCandidate(candidate, context);
+            simulated.candidatePremium(pricing.getTotalPremium())
+                    .candidateOutcome(pricing.getReferralDecision() == ReferralDecision.REFERRED
+                            ? SimulatedQuote.Outcome.REFERRED : SimulatedQuote.Outcome.ACCEPTED)
+                    .candidateReason(pricing.getReferralReason())
+                    .candidateRuleIds(pricing.getAppliedRuleIds());
+            if (quote.getBaselinePremium() != null) {
+                simulated.premiumDelta(pricing.getTotalPremium().subtract(quote.getBaselinePremium()));
+            }
+        } catch (RuntimeException e) {
+            simulated.candidateOutcome(PricingEngine.isDeclined(e) ? SimulatedQuote.Outcome.DECLINED : SimulatedQuote.Outcome.FAILED)
+                    .candidateReason(e.getMessage());
+        }
+        return simulated.build();
+    }
+
+    private static String category(List<Long> baselineRuleIds, Map<Long, String> baseRuleCategories, String defaultCategory) {
+        if (baselineRuleIds != null) {
+            for (Long ruleId : baselineRuleIds) {
+                String category = baseRuleCategories.get(ruleId);
+                if (category != null) {
+                    return category;
+                }
+            }
+        }
+        return defaultCategory;
+    }
+}
@@ -1,21 +1,42 @@
 package com.isec.platform.modules.rating.service;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.isec.platform.modules.rating.domain.RateBook;
 import com.isec.platform.modules.rating.domain.RateRule;
 import com.isec.platform.modules.rating.dto.RateBookDto;
 import com.isec.platform.modules.rating.repository.RateBookRepository;
 import com.isec.platform.modules.rating.repository.RateRuleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * Loads and caches active RateBook per tenant as a DTO to avoid serialization pitfalls with R2DBC entities.
+ * <p>
+ * The rate book in effect is resolved by time: the active rate book whose {@code effectiveFrom}/{@code effectiveTo}
+ * period covers it, the latest-starting one if several do. Each snapshot knows until when it stays in effect
+ * ({@link Snapshot#validUntil()}). {@link RateBookPrewarmer} prepares the next one ahead of a tariff change through
+ * {@link #prepareUpcoming}; the first quote at or after the boundary switches the tenant to it without a reload.
+ * <p>
+ * Snapshots are held in a per-node map in front of the shared Redis copy, so steady-state pricing never
+ * leaves the JVM. Changes are invalidated per tenant and broadcast over Redis pub/sub
+ * ({@link #INVALIDATION_CHANNEL}); {@link RateBookInvalidationListener} applies them on every other node.
  */
 @Component
 @RequiredArgsConstructor
@@ -24,29 +45,261 @@ public class RateBookSnapshotLoader {
 
     private final RateBookRepository rateBookRepository;
     private final RateRuleRepository rateRuleRepository;
+    private final RuleMatcher ruleMatcher;
+    private final RuleSelectivity ruleSelectivity;
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final ReactiveStringRedisTemplate stringRedisTemplate;
 
-    public static final String RATEBOOK_CACHE = "ratebookSnapshots_v6";
+    public static final String RATEBOOK_CACHE = "ratebookSnapshots_v7";
+    public static final String INVALIDATION_CHANNEL = "ratebook:invalidations";
+    private static final String ALL_TENANTS = "*";
 
-    @Cacheable(cacheNames = RATEBOOK_CACHE, key = "#tenantId")
+    @Value("${rating.ratebook.cache.ttl-minutes:30}")
+    private long cacheTtlMinutes;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Snapshot> localSnapshots = new ConcurrentHashMap<>();
+    private final Map<String, Snapshot> upcomingSnapshots = new ConcurrentHashMap<>();
+    private final Map<String, Mono<Snapshot>> inFlightLoads = new ConcurrentHashMap<>();
+    // Bumped by every eviction, so that a load started before it does not publish a stale snapshot
+    private final AtomicLong allGeneration = new AtomicLong();
+    private final Map<String, AtomicLong> tenantGenerations = new ConcurrentHashMap<>();
+
+    // Effective dates are stored as local date-times
+    private Clock clock = Clock.systemDefaultZone();
+
+    /**
+     * The snapshot of the tenant's rate book in effect now.
+     */
     public Mono<Snapshot> loadActive(String tenantId) {
-        log.debug("Loading active rate book for tenant: {}", tenantId);
-        return rateBookRepository.findByTenantIdAndActiveTrue(tenantId)
-                .flatMap(rb -> rateRuleRepository.findAllByRateBookId(rb.getId())
-                        .collectList()
-                        .map(rules -> Snapshot.from(mapToDto(rb, rules))));
+        LocalDateTime now = LocalDateTime.now(clock);
+        Snapshot local = localSnapshots.get(tenantId);
+        if (local == null || !local.isEffectiveAt(now)) {
+            local = promoteUpcoming(tenantId, now);
+        }
+        if (local != null) {
+            return Mono.just(local);
+        }
+        // Concurrent misses for the same tenant share a single Redis/DB load
+        return inFlightLoads.computeIfAbsent(tenantId, this::loadShared);
+    }
+
+    /**
+     * The snapshot of the tenant's rate book in effect at the given time. Times before now, or not covered by the
+     * current or prepared upcoming snapshot, are resolved against the database on every call.
+     */
+    public Mono<Snapshot> loadAt(String tenantId, LocalDateTime at) {
+        if (!at.isBefore(LocalDateTime.now(clock))) {
+            for (Snapshot snapshot : new Snapshot[]{localSnapshots.get(tenantId), upcomingSnapshots.get(tenantId)}) {
+                if (snapshot != null && snapshot.isEffectiveAt(at)) {
+                    return Mono.just(snapshot);
+                }
+            }
+        }
+        return loadFromDatabase(tenantId, at);
+    }
+
+    /**
+     * Loads the snapshot in effect at {@code effectiveFrom}, a future tariff change, and holds it until it is due.
+     */
+    public Mono<Snapshot> prepareUpcoming(String tenantId, LocalDateTime effectiveFrom) {
+        long loadGeneration = generation(tenantId);
+        return loadFromDatabase(tenantId, effectiveFrom)
+                .doOnNext(snapshot -> {
+                    // An invalidation while loading may have changed what takes effect
+                    if (generation(tenantId) == loadGeneration) {
+                        upcomingSnapshots.put(tenantId, snapshot);
+                    }
+                });
+    }
+
+    /**
+     * A snapshot of the given rate book whether or not it is in effect, e.g. a candidate to simulate; not cached.
+     */
+    public Mono<Snapshot> snapshotOf(RateBook rateBook) {
+        return rateRuleRepository.findAllByRateBookId(rateBook.getId())
+                .collectList()
+                .map(rules -> Snapshot.from(mapToDto(rateBook, rules)));
+    }
+
+    /**
+     * The prepared snapshot the tenant switches to at its next tariff change, if any.
+     */
+    public Snapshot upcoming(String tenantId) {
+        return upcomingSnapshots.get(tenantId);
+    }
+
+    /**
+     * Evicts the tenant's snapshot here and in Redis, then tells every other node to drop its local copy.
+     */
+    public Mono<Void> invalidate(String tenantId) {
+        return Mono.fromRunnable(() -> evictLocal(tenantId))
+                .then(redisTemplate.delete(cacheKey(tenantId)))
+                // Evict again: a load racing with the Redis delete may have re-populated the stale snapshot
+                .then(Mono.fromRunnable(() -> evictLocal(tenantId)))
+                .then(publish(tenantId))
+                .doOnSuccess(v -> log.info("Invalidated ratebook snapshot for tenant: {}", tenantId))
+                .onErrorResume(e -> {
+                    log.error("Failed to propagate ratebook invalidation for tenant {}: {}", tenantId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    public Mono<Void> invalidateAll() {
+        return Mono.fromRunnable(this::evictAllLocal)
+                .thenMany(redisTemplate.scan(ScanOptions.scanOptions().match(RATEBOOK_CACHE + "::*").build()))
+                .flatMap(redisTemplate::delete)
+                .then(Mono.fromRunnable(this::evictAllLocal))
+                .then(publish(ALL_TENANTS))
+                .doOnSuccess(v -> log.info("Invalidated all ratebook snapshots cache"))
+                .onErrorResume(e -> {
+                    log.error("Failed to propagate ratebook invalidation for all tenants: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Applies an invalidation broadcast by another node. Messages published by this node are ignored
+     * since the local copy was already evicted when publishing.
+     */
+    void onInvalidationMessage(String message) {
+        int separator = message.indexOf(':');
+        if (separator < 0) {
+            log.warn("Ignoring malformed ratebook invalidation message: {}", message);
+            return;
+        }
+        if (nodeId.equals(message.substring(0, separator))) {
+            return;
+        }
+        String tenantId = message.substring(separator + 1);
+        if (ALL_TENANTS.equals(tenantId)) {
+            evictAllLocal();
+            return;
+        }
+        evictLocal(tenantId);
+        // Warm the new version in the background so the next quote does not pay for the reload
+        loadActive(tenantId).subscribe(
+                snapshot -> log.debug("Reloaded ratebook snapshot {} after remote invalidation", snapshot.cacheKey()),
+                error -> log.warn("Failed to reload ratebook snapshot for tenant {}: {}", tenantId, error.getMessage()));
+    }
+
+    // Compiled expressions are keyed by their text, so a tenant's changed rules never match the cached ones of others
+    void evictLocal(String tenantId) {
+        tenantGenerations.computeIfAbsent(tenantId, t -> new AtomicLong()).incrementAndGet();
+        inFlightLoads.remove(tenantId);
+        localSnapshots.remove(tenantId);
+        upcomingSnapshots.remove(tenantId);
+    }
+
+    void evictAllLocal() {
+        allGeneration.incrementAndGet();
+        inFlightLoads.clear();
+        localSnapshots.clear();
+        upcomingSnapshots.clear();
+        ruleMatcher.invalidateCache();
+    }
+
+    // Changes whenever the tenant's snapshots are evicted, alone or with every tenant's
+    private long generation(String tenantId) {
+        return allGeneration.get() + tenantGenerations.computeIfAbsent(tenantId, t -> new AtomicLong()).get();
+    }
+
+    // Switches the tenant to its prepared snapshot once that is due; concurrent quotes agree on one instance
+    private Snapshot promoteUpcoming(String tenantId, LocalDateTime now) {
+        long promoteGeneration = generation(tenantId);
+        Snapshot upcoming = upcomingSnapshots.get(tenantId);
+        if (upcoming == null || !upcoming.isEffectiveAt(now)) {
+            return null;
+        }
+        Snapshot promoted = localSnapshots.compute(tenantId, (t, current) ->
+                generation(tenantId) != promoteGeneration || current != null && current.isEffectiveAt(now) ? current : upcoming);
+        if (promoted == upcoming && upcomingSnapshots.remove(tenantId, upcoming)) {
+            log.info("Switched tenant {} to rate book snapshot {}", tenantId, upcoming.cacheKey());
+            replaced(tenantId, upcoming);
+        }
+        return promoted != null && promoted.isEffectiveAt(now) ? promoted : null;
+    }
+
+    private Mono<Snapshot> loadShared(String tenantId) {
+        long loadGeneration = generation(tenantId);
+        LocalDateTime now = LocalDateTime.now(clock);
+        AtomicReference<Mono<Snapshot>> self = new AtomicReference<>();
+        Mono<Snapshot> load = readFromRedis(tenantId)
+                // A shared copy from before a tariff change is as good as none
+                .filter(snapshot -> snapshot.isEffectiveAt(now))
+                .switchIfEmpty(Mono.defer(() -> loadFromDatabase(tenantId, now)
+                        .flatMap(snapshot -> writeToRedis(tenantId, snapshot).thenReturn(snapshot))))
+                .doOnNext(snapshot -> {
+                    // Skip publishing a snapshot that was invalidated while it was being loaded
+                    if (generation(tenantId) == loadGeneration) {
+                        localSnapshots.put(tenantId, snapshot);
+                        replaced(tenantId, snapshot);
+                    }
+                })
+                // A load that outlived an invalidation must not drop the newer load started after it
+                .doFinally(signal -> inFlightLoads.remove(tenantId, self.get()))
+                .cache();
+        self.set(load);
+        return load;
+    }
+
+    // What is kept per rule of the tenant's previous snapshot goes with it
+    private void replaced(String tenantId, Snapshot snapshot) {
+        ruleSelectivity.retain(tenantId, snapshot.rateBook());
+    }
+
+    private Mono<Snapshot> loadFromDatabase(String tenantId, LocalDateTime at) {
+        log.debug("Loading rate book in effect at {} for tenant: {}", at, tenantId);
+        return rateBookRepository.findEffective(tenantId, at)
+                .flatMap(rb -> Mono.zip(
+                                rateRuleRepository.findAllByRateBookId(rb.getId()).collectList(),
+                                rateBookRepository.findNextEffective(tenantId, at)
+                                        .map(RateBook::getEffectiveFrom)
+                                        .defaultIfEmpty(LocalDateTime.MAX))
+                        .map(t -> Snapshot.from(mapToDto(rb, t.getT1()), validUntil(rb.getEffectiveTo(), t.getT2()))));
+    }
+
+    // The rate book stays in effect until it expires or the next one starts, whichever comes first
+    private static LocalDateTime validUntil(LocalDateTime effectiveTo, LocalDateTime nextEffectiveFrom) {
+        LocalDateTime until = effectiveTo != null && effectiveTo.isBefore(nextEffectiveFrom) ? effectiveTo : nextEffectiveFrom;
+        return LocalDateTime.MAX.equals(until) ? null : until;
+    }
+
+    private Mono<Snapshot> readFromRedis(String tenantId) {
+        return redisTemplate.opsForValue().get(cacheKey(tenantId))
+                .ofType(Snapshot.class)
+                .onErrorResume(e -> {
+                    log.warn("Failed to read ratebook snapshot for tenant {} from Redis: {}", tenantId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> writeToRedis(String tenantId, Snapshot snapshot) {
+        return redisTemplate.opsForValue().set(cacheKey(tenantId), snapshot, Duration.ofMinutes(cacheTtlMinutes))
+                .onErrorResume(e -> {
+                    log.warn("Failed to write ratebook snapshot for tenant {} to Redis: {}", tenantId, e.getMessage());
+                    return Mono.just(false);
+                })
+                .then();
     }
 
-    @CacheEvict(cacheNames = RATEBOOK_CACHE, allEntries = true)
-    public void invalidateAll() {
-        log.info("Invalidated all ratebook snapshots cache");
+    private Mono<Void> publish(String tenantId) {
+        return stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + ":" + tenantId).then();
     }
 
-    private RateBookDto mapToDto(com.isec.platform.modules.rating.domain.RateBook rb, List<RateRule> rules) {
+    // Same key layout as the RedisCacheManager-backed cache this replaces, so existing entries stay readable
+    private static String cacheKey(String tenantId) {
+        return RATEBOOK_CACHE + "::" + tenantId;
+    }
+
+    private RateBookDto mapToDto(RateBook rb, List<RateRule> rules) {
         return RateBookDto.builder()
                 .id(rb.getId())
                 .tenantId(rb.getTenantId())
                 .name(rb.getName())
                 .versionName(rb.getVersionName())
+                .effectiveFrom(rb.getEffectiveFrom())
+                .effectiveTo(rb.getEffectiveTo())
                 .rules(rules.stream()
                         .map(rule -> RateBookDto.RateRuleDto.builder()
                                 .id(rule.getId())
@@ -61,10 +314,36 @@ public class RateBookSnapshotLoader {
                 .build();
     }
 
-    public record Snapshot(Long rateBookId, String version, RateBookDto rateBook, String cacheKey) {
+    /**
+     * The index is derived from the rate book and never serialized; it is rebuilt whenever a snapshot is
+     * constructed, including when it is read back from the cache. {@code validUntil} is when the snapshot stops
+     * being the one in effect, because the rate book expires or a later one starts; null if open-ended.
+     */
+    public record Snapshot(Long rateBookId, String version, RateBookDto rateBook, String cacheKey,
+                           LocalDateTime validUntil, @JsonIgnore RateBookIndex index) {
+
+        public Snapshot {
+            if (index == null) {
+                index = RateBookIndex.of(rateBook);
+            }
+        }
+
+        public Snapshot(Long rateBookId, String version, RateBookDto rateBook, String cacheKey) {
+            this(rateBookId, version, rateBook, cacheKey, null, null);
+        }
+
         public static Snapshot from(RateBookDto rb) {
+            return from(rb, rb.getEffectiveTo());
+        }
+
+        public static Snapshot from(RateBookDto rb, LocalDateTime validUntil) {
             String key = rb.getTenantId() + ":" + rb.getId() + ":" + rb.getVersionName();
-            return new Snapshot(rb.getId(), rb.getVersionName(), rb, key);
+            return new Snapshot(rb.getId(), rb.getVersionName(), rb, key, validUntil, null);
+        }
+
+        public boolean isEffectiveAt(LocalDateTime at) {
+            LocalDateTime effectiveFrom = rateBook == null ? null : rateBook.getEffectiveFrom();
+            return (effectiveFrom == null || !at.isBefore(effectiveFrom)) && (validUntil == null || at.isBefore(validUntil));
         }
     }
 }
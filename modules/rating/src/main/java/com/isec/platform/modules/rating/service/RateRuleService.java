@@ -1,11 +1,13 @@
 package com.isec.platform.modules.rating.service;
 
+import com.isec.platform.common.exception.BusinessException;
 import com.isec.platform.common.exception.ResourceNotFoundException;
 import com.isec.platform.common.multitenancy.TenantContext;
 import com.isec.platform.common.security.SecurityContextService;
 import com.isec.platform.modules.rating.domain.RateBook;
 import com.isec.platform.modules.rating.domain.RateRule;
 import com.isec.platform.modules.rating.dto.RateRuleRequest;
+import com.isec.platform.modules.rating.expression.RatingExpressionException;
 import com.isec.platform.modules.rating.repository.RateBookRepository;
 import com.isec.platform.modules.rating.repository.RateRuleRepository;
 import lombok.RequiredArgsConstructor;
@@ -27,9 +29,11 @@ public class RateRuleService {
     private final RateBookRepository rateBookRepository;
     private final SecurityContextService securityContextService;
     private final RateBookSnapshotLoader snapshotLoader;
+    private final RuleMatcher ruleMatcher;
 
     public Mono<RateRule> createRule(RateRuleRequest request) {
-        return rateBookRepository.findById(request.getRateBookId())
+        return validateExpressions(request)
+                .then(rateBookRepository.findById(request.getRateBookId()))
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("RateBook", request.getRateBookId())))
                 .flatMap(rateBook -> validateTenantAccess(rateBook.getTenantId()).thenReturn(rateBook))
                 .flatMap(rateBook -> {
@@ -45,15 +49,16 @@ public class RateRuleService {
                     rule.setTenantId(rateBook.getTenantId());
 
                     return rateRuleRepository.save(rule)
-                            .doOnNext(saved -> {
+                            .flatMap(saved -> {
                                 log.info("Rule created: {}, invalidating cache", saved.getId());
-                                snapshotLoader.invalidateAll();
+                                return snapshotLoader.invalidate(saved.getTenantId()).thenReturn(saved);
                             });
                 });
     }
 
     public Mono<RateRule> updateRule(Long id, RateRuleRequest request) {
-        return rateRuleRepository.findById(id)
+        return validateExpressions(request)
+                .then(rateRuleRepository.findById(id))
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("RateRule", id)))
                 .flatMap(existing -> validateTenantAccess(existing.getTenantId()).thenReturn(existing))
                 .flatMap(existing -> {
@@ -65,9 +70,9 @@ public class RateRuleService {
                     existing.setValueExpression(request.getValueExpression());
 
                     return rateRuleRepository.save(existing)
-                            .doOnNext(saved -> {
+                            .flatMap(saved -> {
                                 log.info("Rule updated: {}, invalidating cache", saved.getId());
-                                snapshotLoader.invalidateAll();
+                                return snapshotLoader.invalidate(saved.getTenantId()).thenReturn(saved);
                             });
                 });
     }
@@ -88,8 +93,23 @@ public class RateRuleService {
         return rateRuleRepository.findById(id)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("RateRule", id)))
                 .flatMap(rule -> validateTenantAccess(rule.getTenantId()).thenReturn(rule))
-                .flatMap(rule -> rateRuleRepository.delete(rule))
-                .doOnSuccess(v -> snapshotLoader.invalidateAll());
+                .flatMap(rule -> rateRuleRepository.delete(rule)
+                        .then(snapshotLoader.invalidate(rule.getTenantId())));
+    }
+
+    private Mono<Void> validateExpressions(RateRuleRequest request) {
+        return Mono.fromRunnable(() -> {
+            validateExpression("condition", request.getConditionExpression());
+            validateExpression("value", request.getValueExpression());
+        });
+    }
+
+    private void validateExpression(String field, String expression) {
+        try {
+            ruleMatcher.validate(expression);
+        } catch (RatingExpressionException e) {
+            throw new BusinessException("Invalid " + field + " expression: " + e.getMessage());
+        }
     }
 
     private Mono<Void> validateTenantAccess(String ownerTenantId) {
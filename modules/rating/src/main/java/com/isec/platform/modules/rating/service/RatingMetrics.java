@@ -0,0 +1,176 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.dto.RatingContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer instrumentation of quote pricing, exported through {@code /actuator/prometheus}.
+ * <ul>
+ *   <li>{@value #PHASE_TIMER}: time per pricing phase, tagged {@code phase}; {@code snapshot_load} covers the
+ *   local/Redis/database lookup of the rate book and {@code compiled} the whole evaluation of a compiled rate book</li>
+ *   <li>{@value #RULES_EVALUATED} / {@value #RULES_MATCHED}: conditions evaluated and matched per quote</li>
+ *   <li>{@value #RULE_ERRORS}: expressions that failed to evaluate and were treated as not matching or empty,
+ *   tagged {@code field} ({@code condition} or {@code value})</li>
+ *   <li>{@value #QUOTES}: quotes by {@code outcome}: accepted, referred, declined (ineligible) or failed</li>
+ *   <li>{@value #QUOTE_CACHE}: {@link QuoteResultCache} lookups by {@code result}, hit or miss</li>
+ * </ul>
+ * Everything is tagged by {@code tenant} and {@code category}. Categories without rules in the rate book are
+ * reported as {@value #OTHER_CATEGORY} so that free-form request values cannot inflate the number of series.
+ * Meters are resolved once per tenant and category; recording a quote does not touch the registry.
+ */
+@Component
+@RequiredArgsConstructor
+public class RatingMetrics {
+
+    public static final String PHASE_TIMER = "rating.price.phase";
+    public static final String RULES_EVALUATED = "rating.rules.evaluated";
+    public static final String RULES_MATCHED = "rating.rules.matched";
+    public static final String RULE_ERRORS = "rating.rule.errors";
+    public static final String QUOTES = "rating.quotes";
+    public static final String QUOTE_CACHE = "rating.quote.cache";
+    static final String OTHER_CATEGORY = "OTHER";
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Map<String, Meters>> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Metrics that are recorded nowhere, for wiring rating components outside Spring.
+     */
+    public static RatingMetrics noop() {
+        return new RatingMetrics(new CompositeMeterRegistry());
+    }
+
+    /**
+     * Starts recording a quote whose rate book lookup began at {@code startNanos} ({@link System#nanoTime()}).
+     */
+    public Recorder start(RatingContext context, RateBookIndex index, long startNanos) {
+        int category = index.categoryIds().lookup(context.getCategory());
+        String tag = index.hasCategory(category) ? index.categoryIds().name(category) : OTHER_CATEGORY;
+        return new Recorder(meters(context.getTenantId(), tag), startNanos);
+    }
+
+    public void ruleError(RatingContext context, String field) {
+        // Rules are only evaluated for categories the rate book has rules for
+        String category = RateBookIndex.normalizeCategory(context.getCategory());
+        Meters tagged = meters(context.getTenantId(), category == null ? OTHER_CATEGORY : category);
+        ("value".equals(field) ? tagged.valueErrors : tagged.conditionErrors).increment();
+    }
+
+    private Meters meters(String tenantId, String category) {
+        String tenant = tenantId == null ? "UNKNOWN" : tenantId;
+        return meters.computeIfAbsent(tenant, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(category, c -> new Meters(registry, Tags.of("tenant", tenant, "category", c)));
+    }
+
+    public enum Phase {
+        SNAPSHOT_LOAD, ELIGIBILITY, REFERRAL, BASE_PREMIUM, MINIMUM_PREMIUM, ADDONS, CHARGES, COMPILED;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public enum Outcome {
+        ACCEPTED, REFERRED, DECLINED, FAILED;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Collects the measurements of one quote. Not thread-safe; a quote is priced on a single thread.
+     */
+    public static final class Recorder {
+
+        private final Meters meters;
+        private long mark;
+        private int evaluated;
+        private int matched;
+
+        private Recorder(Meters meters, long startNanos) {
+            this.meters = meters;
+            this.mark = startNanos;
+        }
+
+        /**
+         * Records the time since the previous phase ended (or the quote started) against {@code phase}.
+         */
+        public void phase(Phase phase) {
+            long now = System.nanoTime();
+            meters.phases[phase.ordinal()].record(now - mark, TimeUnit.NANOSECONDS);
+            mark = now;
+        }
+
+        public void cacheLookup(boolean hit) {
+            (hit ? meters.cacheHits : meters.cacheMisses).increment();
+        }
+
+        public boolean ruleEvaluated(boolean ruleMatched) {
+            evaluated++;
+            if (ruleMatched) {
+                matched++;
+            }
+            return ruleMatched;
+        }
+
+        public void finish(Outcome outcome) {
+            if (evaluated > 0) {
+                meters.evaluated.increment(evaluated);
+                meters.matched.increment(matched);
+            }
+            meters.outcomes[outcome.ordinal()].increment();
+        }
+    }
+
+    private static final class Meters {
+
+        private final Timer[] phases;
+        private final Counter evaluated;
+        private final Counter matched;
+        private final Counter conditionErrors;
+        private final Counter valueErrors;
+        private final Counter[] outcomes;
+        private final Counter cacheHits;
+        private final Counter cacheMisses;
+
+        private Meters(MeterRegistry registry, Tags tags) {
+            phases = new Timer[Phase.values().length];
+            for (Phase phase : Phase.values()) {
+                phases[phase.ordinal()] = Timer.builder(PHASE_TIMER)
+                        .description("Time spent per quote pricing phase")
+                        .tags(tags.and("phase", phase.tag()))
+                        .register(registry);
+            }
+            evaluated = Counter.builder(RULES_EVALUATED).description("Rule conditions evaluated").tags(tags).register(registry);
+            matched = Counter.builder(RULES_MATCHED).description("Rule conditions matched").tags(tags).register(registry);
+            conditionErrors = Counter.builder(RULE_ERRORS).description("Rule expressions that failed to evaluate")
+                    .tags(tags.and("field", "condition")).register(registry);
+            valueErrors = Counter.builder(RULE_ERRORS).description("Rule expressions that failed to evaluate")
+                    .tags(tags.and("field", "value")).register(registry);
+            outcomes = new Counter[Outcome.values().length];
+            for (Outcome outcome : Outcome.values()) {
+                outcomes[outcome.ordinal()] = Counter.builder(QUOTES)
+                        .description("Priced quotes by outcome")
+                        .tags(tags.and("outcome", outcome.tag()))
+                        .register(registry);
+            }
+            cacheHits = Counter.builder(QUOTE_CACHE).description("Quote result cache lookups")
+                    .tags(tags.and("result", "hit")).register(registry);
+            cacheMisses = Counter.builder(QUOTE_CACHE).description("Quote result cache lookups")
+                    .tags(tags.and("result", "miss")).register(registry);
+        }
+    }
+}
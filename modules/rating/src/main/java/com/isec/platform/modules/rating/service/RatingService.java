@@ -1,10 +1,16 @@
 package com.isec.platform.modules.rating.service;
 
+import com.isec.platform.common.exception.BusinessException;
+import com.isec.platform.common.multitenancy.TenantContext;
 import com.isec.platform.modules.rating.domain.AnonymousQuote;
+import com.isec.platform.modules.rating.domain.Money;
 import com.isec.platform.modules.rating.dto.AnonymousQuoteRequest;
+import com.isec.platform.modules.rating.dto.BatchPricingResult;
+import com.isec.platform.modules.rating.dto.BatchQuoteItem;
 import com.isec.platform.modules.rating.dto.RatingContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.stereotype.Service;
 
@@ -12,8 +18,10 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Service
@@ -27,11 +35,37 @@ public class RatingService {
     private static final String QUOTE_KEY_PREFIX = "anonymous_quote:";
     private static final Duration QUOTE_TTL = Duration.ofHours(1);
 
+    @Value("${rating.batch.max-items:5000}")
+    private long maxBatchItems;
+
     private static final BigDecimal PCF_RATE = new BigDecimal("0.0025"); // 0.25%
     private static final BigDecimal ITL_RATE = new BigDecimal("0.0020"); // 0.20%
     private static final BigDecimal CERT_CHARGE = new BigDecimal("40.00");
 
+    private static final Money.Rate PCF = Money.Rate.exact(PCF_RATE);
+    private static final Money.Rate ITL = Money.Rate.exact(ITL_RATE);
+    private static final Money CERT = Money.exact(CERT_CHARGE);
+
     public PremiumBreakdown calculatePremium(BigDecimal vehicleValue, BigDecimal baseRate) {
+        Money value = Money.exact(vehicleValue);
+        Money.Rate rate = Money.Rate.exact(baseRate);
+        if (value == null || rate == null || !value.canMultiply(rate)) {
+            return calculatePremiumDecimal(vehicleValue, baseRate);
+        }
+        Money basePremium = value.times(rate, Money.Precision.CENTS, RoundingMode.HALF_UP);
+        // Levies on larger premiums could overflow
+        if (!basePremium.isWithinPricingRange()) {
+            return calculatePremiumDecimal(vehicleValue, baseRate);
+        }
+        Money pcf = basePremium.times(PCF, Money.Precision.CENTS, RoundingMode.HALF_UP);
+        Money itl = basePremium.times(ITL, Money.Precision.CENTS, RoundingMode.HALF_UP);
+        Money total = basePremium.plus(pcf).plus(itl).plus(CERT);
+        return new PremiumBreakdown(basePremium.toBigDecimal(Money.Precision.CENTS), pcf.toBigDecimal(Money.Precision.CENTS),
+                itl.toBigDecimal(Money.Precision.CENTS), CERT_CHARGE, total.toBigDecimal(Money.Precision.CENTS));
+    }
+
+    // Inputs that Money cannot hold exactly, e.g. fractions of a cent, or too large to price in minor units
+    private PremiumBreakdown calculatePremiumDecimal(BigDecimal vehicleValue, BigDecimal baseRate) {
         BigDecimal basePremium = vehicleValue.multiply(baseRate).setScale(2, RoundingMode.HALF_UP);
         BigDecimal pcf = basePremium.multiply(PCF_RATE).setScale(2, RoundingMode.HALF_UP);
         BigDecimal itl = basePremium.multiply(ITL_RATE).setScale(2, RoundingMode.HALF_UP);
@@ -80,6 +114,42 @@ public class RatingService {
                         .thenReturn(quote));
     }
 
+    /**
+     * Prices a batch of vehicles. The whole batch is read before pricing starts, so that a batch over
+     * {@code rating.batch.max-items} is rejected up front instead of failing after part of it was priced.
+     */
+    public Flux<BatchPricingResult> priceBatch(Flux<BatchQuoteItem> items, boolean preserveOrder) {
+        return TenantContext.getTenantId()
+                .switchIfEmpty(Mono.error(new BusinessException("Missing required X-Tenant-Id header")))
+                // One item past the maximum is enough to reject the batch without reading the rest
+                .zipWith(items.take(maxBatchItems + 1).collectList())
+                .flatMapMany(batch -> {
+                    String tenantId = batch.getT1();
+                    List<BatchQuoteItem> vehicles = batch.getT2();
+                    if (vehicles.size() > maxBatchItems) {
+                        return Flux.error(new BusinessException("Batch exceeds the maximum of " + maxBatchItems + " vehicles"));
+                    }
+                    log.info("Pricing batch of {} vehicles for tenant: {} (ordered: {})", vehicles.size(), tenantId,
+                            preserveOrder);
+                    Flux<RatingContext> contexts = Flux.fromIterable(vehicles)
+                            .map(item -> toRatingContext(tenantId, item));
+                    return pricingEngine.priceAll(contexts, preserveOrder);
+                });
+    }
+
+    private RatingContext toRatingContext(String tenantId, BatchQuoteItem item) {
+        return RatingContext.builder()
+                .tenantId(tenantId)
+                .category(item.getCategory() != null ? item.getCategory() : "PRIVATE_CAR")
+                .vehicleValue(item.getVehicleValue())
+                .vehicleMake(item.getVehicleMake())
+                .vehicleModel(item.getVehicleModel())
+                .vehicleAge(calculateVehicleAge(item.getYearOfManufacture()))
+                .selectedAddonIds(item.getSelectedAddonIds())
+                .additionalData(item.getAdditionalData())
+                .build();
+    }
+
     private Integer calculateVehicleAge(Integer yearOfManufacture) {
         if (yearOfManufacture == null) return null;
         return LocalDate.now().getYear() - yearOfManufacture;
@@ -0,0 +1,184 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.domain.RateRule;
+import com.isec.platform.modules.rating.dto.ExpressionMigrationResult;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import com.isec.platform.modules.rating.expression.RatingExpression;
+import com.isec.platform.modules.rating.expression.RatingExpressionException;
+import com.isec.platform.modules.rating.repository.RateRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.expression.ParseException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Checks that every rule stored in {@code rate_rules} translates to the rating expression language, and that the
+ * translation prices like SpEL did.
+ * <p>
+ * Each expression that is valid SpEL is evaluated by both engines over a grid of sample contexts around the
+ * thresholds the seeded rate books use. Conditions must match identically; values are compared the way
+ * {@link PricingEngine} uses them, i.e. amounts above one rounded up to whole units and rates to eight decimals,
+ * so that representation differences (exact decimals instead of {@code double}) are only reported when they
+ * change a price.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RuleExpressionMigrationValidator {
+
+    private static final List<BigDecimal> VEHICLE_VALUES = Arrays.asList(null, BigDecimal.ZERO,
+            new BigDecimal("450000"), new BigDecimal("500000"), new BigDecimal("600000"), new BigDecimal("600001"),
+            new BigDecimal("1000005"), new BigDecimal("2500000"), new BigDecimal("15000000"), new BigDecimal("20000000"));
+    private static final List<Integer> VEHICLE_AGES = Arrays.asList(null, 0, 4, 15, 16, 21);
+    private static final List<String> VEHICLE_MAKES = Arrays.asList(null, "Toyota", "FERRARI", "isuzu");
+    private static final Object FAILED = new Object();
+
+    private final RateRuleRepository rateRuleRepository;
+    private final RuleMatcher ruleMatcher;
+
+    public Flux<ExpressionMigrationResult> validateAll() {
+        return rateRuleRepository.findAll()
+                .publishOn(Schedulers.boundedElastic())
+                .concatMapIterable(this::validate)
+                .doOnNext(result -> {
+                    if (result.getStatus() != ExpressionMigrationResult.Status.NATIVE
+                            && result.getStatus() != ExpressionMigrationResult.Status.TRANSLATED) {
+                        log.warn("Rule {} {} expression needs attention ({}): {}", result.getRuleId(), result.getField(),
+                                result.getStatus(), result.getMessage());
+                    }
+                });
+    }
+
+    List<ExpressionMigrationResult> validate(RateRule rule) {
+        List<ExpressionMigrationResult> results = new ArrayList<>(2);
+        List<RatingContext> samples = null;
+        for (String field : List.of("condition", "value")) {
+            String expression = field.equals("condition") ? rule.getConditionExpression() : rule.getValueExpression();
+            if (expression == null || expression.isBlank()) {
+                continue;
+            }
+            if (samples == null) {
+                samples = samples(rule);
+            }
+            ExpressionMigrationResult.ExpressionMigrationResultBuilder result = ExpressionMigrationResult.builder()
+                    .ruleId(rule.getId())
+                    .rateBookId(rule.getRateBookId())
+                    .tenantId(rule.getTenantId())
+                    .field(field)
+                    .expression(expression);
+            results.add(check(expression, field.equals("condition"), samples, result));
+        }
+        return results;
+    }
+
+    private ExpressionMigrationResult check(String expression, boolean condition, List<RatingContext> samples,
+                                            ExpressionMigrationResult.ExpressionMigrationResultBuilder result) {
+        RatingExpression translated;
+        try {
+            translated = RatingExpression.compile(expression);
+        } catch (RatingExpressionException | ParseException e) {
+            boolean spel = ruleMatcher.isSpel(expression);
+            return result.status(spel ? ExpressionMigrationResult.Status.SPEL_ONLY : ExpressionMigrationResult.Status.INVALID)
+                    .message(e.getMessage())
+                    .build();
+        }
+        result.translation(translated.text());
+        ExpressionMigrationResult.Status ok = translated.isTranslated()
+                ? ExpressionMigrationResult.Status.TRANSLATED : ExpressionMigrationResult.Status.NATIVE;
+        if (!ruleMatcher.isSpel(expression)) {
+            return result.status(ok).build();
+        }
+
+        Function<RatingContext, Object> spel = condition
+                ? context -> ruleMatcher.testSpel(expression, context)
+                : context -> ruleMatcher.evaluateSpel(expression, context);
+        Function<RatingContext, Object> rating = condition ? translated::test : translated::evaluate;
+        for (RatingContext sample : samples) {
+            Object expected = outcome(spel, sample);
+            if (expected == FAILED && !translated.isTranslated()) {
+                // Written in the new language and only incidentally valid SpEL, e.g. calling max(a, b)
+                continue;
+            }
+            expected = condition ? Boolean.TRUE.equals(expected) : price(expected);
+            Object actual = outcome(rating, sample);
+            actual = condition ? Boolean.TRUE.equals(actual) : price(actual);
+            if (!Objects.equals(expected, actual)) {
+                return result.status(ExpressionMigrationResult.Status.DIVERGENT)
+                        .message(String.format("vehicleValue=%s, vehicleAge=%s, vehicleMake=%s, additionalData=%s: SpEL gives %s, translation gives %s",
+                                sample.getVehicleValue(), sample.getVehicleAge(), sample.getVehicleMake(),
+                                sample.getAdditionalData(), expected, actual))
+                        .build();
+            }
+        }
+        return result.status(ok).build();
+    }
+
+    // Failed evaluations count as a non-matching condition or a missing value, as in RuleMatcher
+    private static Object outcome(Function<RatingContext, Object> evaluation, RatingContext context) {
+        try {
+            return evaluation.apply(context);
+        } catch (RuntimeException e) {
+            return FAILED;
+        }
+    }
+
+    // Same conversion and rounding as PricingEngine applies to rule values
+    private static Object price(Object value) {
+        BigDecimal amount;
+        try {
+            amount = RuleMatcher.toBigDecimal(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return amount.abs().compareTo(BigDecimal.ONE) > 0
+                ? amount.setScale(0, RoundingMode.UP)
+                : amount.setScale(8, RoundingMode.HALF_UP);
+    }
+
+    private static List<RatingContext> samples(RateRule rule) {
+        List<RatingContext> samples = new ArrayList<>();
+        for (BigDecimal value : VEHICLE_VALUES) {
+            for (Integer age : VEHICLE_AGES) {
+                for (String make : VEHICLE_MAKES) {
+                    samples.add(RatingContext.builder()
+                            .tenantId(rule.getTenantId())
+                            .category(rule.getCategory())
+                            .vehicleValue(value)
+                            .vehicleAge(age)
+                            .vehicleMake(make)
+                            .vehicleModel(make == null ? null : make + " Model")
+                            .additionalData(additionalData(age))
+                            .build());
+                }
+            }
+        }
+        return samples;
+    }
+
+    private static Map<String, Object> additionalData(Integer age) {
+        if (age == null) {
+            return null;
+        }
+        Map<String, Object> data = new HashMap<>();
+        switch (age) {
+            case 4 -> data.put("courtesyCarDays", 10);
+            case 15 -> data.put("courtesyCarDays", "25");
+            case 16 -> data.put("windscreenLimit", 7500.5);
+            default -> {
+            }
+        }
+        return data;
+    }
+}
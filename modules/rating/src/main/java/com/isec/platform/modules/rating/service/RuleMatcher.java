@@ -1,52 +1,310 @@
 package com.isec.platform.modules.rating.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.isec.platform.modules.rating.dto.RateBookDto;
 import com.isec.platform.modules.rating.dto.RatingContext;
+import com.isec.platform.modules.rating.expression.ContextField;
+import com.isec.platform.modules.rating.expression.RatingExpression;
+import com.isec.platform.modules.rating.expression.RatingExpressionException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.ReflectiveMethodResolver;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.expression.spel.support.StandardTypeConverter;
+import org.springframework.expression.spel.support.StandardTypeLocator;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
+/**
+ * Evaluates rate rule expressions against a {@link RatingContext}.
+ * <p>
+ * Rules are written in the rating expression language ({@link RatingExpression}). Rules still stored as SpEL keep
+ * being evaluated by SpEL, in MIXED compiler mode, since their translation may price differently (exact decimals,
+ * empty strings); {@code rating.expressions.native-translated} switches them to their translation once
+ * {@link RuleExpressionMigrationValidator} reports no {@code DIVERGENT} rules. While
+ * {@code rating.expressions.spel-fallback} is enabled, SpEL rules that cannot be translated are evaluated by SpEL
+ * either way.
+ * <p>
+ * Expressions are parsed once and cached by their text, which tenants share. The cache is cleared whenever
+ * {@link RateBookSnapshotLoader} evicts all snapshots; a single tenant's changed rules are new text and compiled anew,
+ * and the cache holds at most {@value #MAX_EXPRESSIONS} expressions, so texts no longer used by any rule are dropped
+ * in time.
+ */
 @Component
 @Slf4j
 public class RuleMatcher {
 
-    private final ExpressionParser parser = new SpelExpressionParser();
+    // Reflective SpEL evaluation costs about as much as a large native expression
+    static final int SPEL_COST = 50;
+    static final int MAX_EXPRESSIONS = 10_000;
+
+    private final ExpressionParser parser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, RuleMatcher.class.getClassLoader()));
+
+    private final Cache<String, CompiledExpression> expressionCache = Caffeine.newBuilder()
+            .maximumSize(MAX_EXPRESSIONS)
+            .build();
+
+    // Shared, stateless context: the RatingContext is passed as root object per evaluation so that
+    // the reflective accessor/resolver caches are reused across quotes.
+    private final StandardEvaluationContext evaluationContext = createEvaluationContext();
+
+    @Value("${rating.expressions.spel-fallback:true}")
+    private boolean spelFallback = true;
+
+    @Value("${rating.expressions.native-translated:false}")
+    private boolean nativeTranslated = false;
+
+    private final RatingMetrics ratingMetrics;
+
+    /**
+     * For use outside Spring, e.g. tests and benchmarks; evaluation errors are not counted.
+     */
+    public RuleMatcher() {
+        this(RatingMetrics.noop());
+    }
+
+    @Autowired
+    public RuleMatcher(RatingMetrics ratingMetrics) {
+        this.ratingMetrics = ratingMetrics;
+    }
 
     public boolean matches(RateBookDto.RateRuleDto rule, RatingContext context) {
         if (rule.getConditionExpression() == null || rule.getConditionExpression().isBlank()) {
             return true;
         }
         try {
-            StandardEvaluationContext evalContext = new StandardEvaluationContext(context);
-            return Boolean.TRUE.equals(parser.parseExpression(rule.getConditionExpression()).getValue(evalContext, Boolean.class));
+            return getExpression(rule.getConditionExpression()).test(context);
         } catch (Exception e) {
             log.error("Error evaluating condition for rule {}: {}", rule.getId(), e.getMessage());
+            ratingMetrics.ruleError(context, "condition");
             return false;
         }
     }
 
+    /**
+     * Estimated cost of evaluating the rule's condition, for ordering rules cheapest first: the size of the native
+     * expression, {@value #SPEL_COST} for SpEL and nothing for a rule without condition.
+     */
+    public int cost(RateBookDto.RateRuleDto rule) {
+        if (rule.getConditionExpression() == null || rule.getConditionExpression().isBlank()) {
+            return 0;
+        }
+        try {
+            return getExpression(rule.getConditionExpression()).cost();
+        } catch (RuntimeException e) {
+            return SPEL_COST;
+        }
+    }
+
+    /**
+     * The context values the rule's condition and value read, by field name ({@code additionalData.<key>} for
+     * entries); every field for SpEL and unparseable expressions. For traces, not for the pricing path.
+     */
+    public Map<String, Object> inputs(RateBookDto.RateRuleDto rule, RatingContext context) {
+        Map<String, Object> inputs = new TreeMap<>();
+        for (String expression : new String[]{rule.getConditionExpression(), rule.getValueExpression()}) {
+            if (expression == null || expression.isBlank()) {
+                continue;
+            }
+            CompiledExpression compiled;
+            try {
+                compiled = getExpression(expression);
+            } catch (RuntimeException e) {
+                compiled = null;
+            }
+            if (compiled instanceof NativeExpression nativeExpression) {
+                RatingExpression parsed = nativeExpression.expression();
+                parsed.fields().forEach(field -> inputs.put(field.fieldName(), field.read(context)));
+                Map<String, Object> data = context.getAdditionalData();
+                parsed.dataKeys().forEach(key -> inputs.put(ContextField.ADDITIONAL_DATA.fieldName() + '.' + key,
+                        data == null ? null : data.get(key)));
+            } else {
+                for (ContextField field : ContextField.values()) {
+                    inputs.put(field.fieldName(), field.read(context));
+                }
+            }
+        }
+        return inputs;
+    }
+
     public Object evaluateValue(RateBookDto.RateRuleDto rule, RatingContext context) {
         if (rule.getValueExpression() == null || rule.getValueExpression().isBlank()) {
             return null;
         }
         try {
-            StandardEvaluationContext evalContext = new StandardEvaluationContext(context);
-            return parser.parseExpression(rule.getValueExpression()).getValue(evalContext);
+            return getExpression(rule.getValueExpression()).evaluate(context);
         } catch (Exception e) {
             log.error("Error evaluating value for rule {}: {}", rule.getId(), e.getMessage());
+            ratingMetrics.ruleError(context, "value");
             return null;
         }
     }
-    
+
     public BigDecimal evaluateBigDecimal(RateBookDto.RateRuleDto rule, RatingContext context) {
-        Object value = evaluateValue(rule, context);
+        return toBigDecimal(evaluateValue(rule, context));
+    }
+
+    /**
+     * Checks that an expression can be evaluated, i.e. that it is valid in the rating expression language, can be
+     * translated from SpEL, or is valid SpEL while the fallback is enabled.
+     *
+     * @throws RatingExpressionException describing the problem otherwise
+     */
+    public void validate(String expression) {
+        if (expression == null || expression.isBlank()) {
+            return;
+        }
+        try {
+            RatingExpression.compile(expression);
+        } catch (RatingExpressionException e) {
+            if (!spelFallback) {
+                throw e;
+            }
+            if (!isSpel(expression)) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Parses the rate book's expressions ahead of its first quote, e.g. before it takes effect. Expressions that
+     * cannot be parsed are left to fail, and be counted, when evaluated.
+     */
+    public void prepare(RateBookDto rateBook) {
+        if (rateBook.getRules() == null) {
+            return;
+        }
+        for (RateBookDto.RateRuleDto rule : rateBook.getRules()) {
+            for (String expression : new String[]{rule.getConditionExpression(), rule.getValueExpression()}) {
+                if (expression == null || expression.isBlank()) {
+                    continue;
+                }
+                try {
+                    getExpression(expression);
+                } catch (RuntimeException e) {
+                    log.warn("Rule {} expression '{}' cannot be parsed: {}", rule.getId(), expression, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops all parsed/compiled expressions. Called whenever rate book snapshots are invalidated.
+     */
+    public void invalidateCache() {
+        expressionCache.invalidateAll();
+        log.info("Cleared compiled rule expression cache");
+    }
+
+    int cachedExpressionCount() {
+        expressionCache.cleanUp();
+        return (int) expressionCache.estimatedSize();
+    }
+
+    boolean isSpel(String expression) {
+        try {
+            parser.parseExpression(expression);
+            return true;
+        } catch (ParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Evaluates an expression as SpEL regardless of the fallback setting, for comparing translations.
+     */
+    Object evaluateSpel(String expression, RatingContext context) {
+        return parser.parseExpression(expression).getValue(evaluationContext, context);
+    }
+
+    boolean testSpel(String expression, RatingContext context) {
+        return Boolean.TRUE.equals(parser.parseExpression(expression).getValue(evaluationContext, context, Boolean.class));
+    }
+
+    static BigDecimal toBigDecimal(Object value) {
         if (value instanceof BigDecimal bd) return bd;
         if (value instanceof Number n) return BigDecimal.valueOf(n.doubleValue());
         if (value instanceof String s) return new BigDecimal(s);
         return BigDecimal.ZERO;
     }
+
+    private CompiledExpression getExpression(String expressionString) {
+        return expressionCache.get(expressionString, this::compile);
+    }
+
+    private CompiledExpression compile(String expressionString) {
+        try {
+            RatingExpression expression = RatingExpression.compile(expressionString);
+            if (expression.isTranslated() && !nativeTranslated) {
+                return new SpelExpression(parser.parseExpression(expressionString), evaluationContext);
+            }
+            return new NativeExpression(expression);
+        } catch (RatingExpressionException e) {
+            if (!spelFallback) {
+                throw e;
+            }
+            Expression spel = parser.parseExpression(expressionString);
+            log.warn("Rule expression '{}' is evaluated with SpEL: {}", expressionString, e.getMessage());
+            return new SpelExpression(spel, evaluationContext);
+        }
+    }
+
+    private static StandardEvaluationContext createEvaluationContext() {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.setPropertyAccessors(List.of(new ReflectivePropertyAccessor()));
+        context.setMethodResolvers(List.of(new ReflectiveMethodResolver()));
+        context.setTypeLocator(new StandardTypeLocator(RuleMatcher.class.getClassLoader()));
+        context.setTypeConverter(new StandardTypeConverter());
+        return context;
+    }
+
+    private interface CompiledExpression {
+        boolean test(RatingContext context);
+
+        Object evaluate(RatingContext context);
+
+        int cost();
+    }
+
+    private record NativeExpression(RatingExpression expression) implements CompiledExpression {
+        public boolean test(RatingContext context) {
+            return expression.test(context);
+        }
+
+        public Object evaluate(RatingContext context) {
+            return expression.evaluate(context);
+        }
+
+        public int cost() {
+            return expression.size();
+        }
+    }
+
+    private record SpelExpression(Expression expression, StandardEvaluationContext evaluationContext) implements CompiledExpression {
+        public boolean test(RatingContext context) {
+            return Boolean.TRUE.equals(expression.getValue(evaluationContext, context, Boolean.class));
+        }
+
+        public Object evaluate(RatingContext context) {
+            return expression.getValue(evaluationContext, context);
+        }
+
+        public int cost() {
+            return SPEL_COST;
+        }
+    }
 }
@@ -0,0 +1,216 @@
+package com.isec.platform.modules.rating.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RuleStatistics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Counts how often each rule's condition is evaluated and matched by {@link PricingEngine}, and reorders rule
+ * evaluation where priority leaves room for it so that quotes are decided by the fewest, cheapest evaluations.
+ * <p>
+ * Eligibility rules must all pass, so their order does not change the outcome: they are evaluated by ascending
+ * cost over the observed probability of failing. A declined quote is still rejected with the first failing rule in
+ * priority order, so that its reason does not depend on the node or the traffic it has seen. Referral rules stop at the first match, so they are only reordered among rules
+ * of equal priority, by cost over the probability of matching. Base premium, minimum premium and add-on rules keep
+ * their priority order, as do compiled rate books.
+ * <p>
+ * Costs come from {@link RuleMatcher#cost}; probabilities are Laplace-smoothed counts since startup, dropped for rules
+ * that a tenant's new snapshot no longer has (see {@link #retain}). Orderings are
+ * kept per rule list of a {@link RateBookIndex}, and so per snapshot, and revisited every
+ * {@code rating.rule-ordering.reorder-interval} quotes; until then rules are evaluated in priority order.
+ */
+@Component
+@Slf4j
+public class RuleSelectivity {
+
+    private final RuleMatcher ruleMatcher;
+    private final boolean observed;
+
+    @Value("${rating.rule-ordering.adaptive:true}")
+    private boolean adaptive = true;
+
+    @Value("${rating.rule-ordering.reorder-interval:1024}")
+    private long reorderInterval = 1024;
+
+    private final Map<Long, Counts> counts = new ConcurrentHashMap<>();
+    // RateBookIndex hands out the same list instance for a category and type, so orderings are keyed by identity
+    private final Cache<List<RateBookDto.RateRuleDto>, Ordering> orderings = Caffeine.newBuilder().weakKeys().build();
+
+    @Autowired
+    public RuleSelectivity(RuleMatcher ruleMatcher) {
+        this(ruleMatcher, true);
+    }
+
+    private RuleSelectivity(RuleMatcher ruleMatcher, boolean observed) {
+        this.ruleMatcher = ruleMatcher;
+        this.observed = observed;
+    }
+
+    /**
+     * Keeps rules in priority order and counts nothing, for pricing that is not real traffic.
+     */
+    public static RuleSelectivity unobserved() {
+        return new RuleSelectivity(null, false);
+    }
+
+    /**
+     * The order in which to evaluate one phase's rules, as listed by {@link RateBookIndex#rules}.
+     */
+    public List<RateBookDto.RateRuleDto> order(List<RateBookDto.RateRuleDto> rules, RuleType type) {
+        if (!observed || !adaptive || rules.size() < 2 || (type != RuleType.ELIGIBILITY && type != RuleType.REFERRAL)) {
+            return rules;
+        }
+        Ordering ordering = orderings.get(rules, Ordering::new);
+        if (ordering.reads.incrementAndGet() % reorderInterval == 0) {
+            List<RateBookDto.RateRuleDto> reordered = reorder(rules, type);
+            if (!reordered.equals(ordering.rules)) {
+                log.debug("Evaluating {} rules in order {}", type, reordered.stream().map(RateBookDto.RateRuleDto::getId).toList());
+            }
+            ordering.rules = reordered;
+        }
+        return ordering.rules;
+    }
+
+    /**
+     * Counts an evaluation of the rule's condition and returns its result.
+     */
+    public boolean record(String tenantId, RateBookDto.RateRuleDto rule, boolean matched) {
+        if (!observed || rule.getId() == null) {
+            return matched;
+        }
+        Counts ruleCounts = counts.get(rule.getId());
+        if (ruleCounts == null || ruleCounts.rule != rule) {
+            // A reloaded snapshot carries new rule instances; counts survive unless the condition changed
+            ruleCounts = counts.compute(rule.getId(), (id, current) -> {
+                if (current == null || !Objects.equals(current.rule.getConditionExpression(), rule.getConditionExpression())) {
+                    return new Counts(tenantId, rule);
+                }
+                return current.rule == rule ? current : current.updatedTo(rule);
+            });
+        }
+        ruleCounts.evaluated.increment();
+        if (matched) {
+            ruleCounts.matched.increment();
+        }
+        return matched;
+    }
+
+    /**
+     * Drops the counts of the tenant's rules that its new rate book no longer has, once it replaced the tenant's
+     * snapshot.
+     */
+    public void retain(String tenantId, RateBookDto rateBook) {
+        if (!observed) {
+            return;
+        }
+        Set<Long> ruleIds = rateBook.getRules() == null ? Set.of() : rateBook.getRules().stream()
+                .map(RateBookDto.RateRuleDto::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        counts.entrySet().removeIf(entry -> Objects.equals(entry.getValue().tenantId, tenantId)
+                && !ruleIds.contains(entry.getKey()));
+    }
+
+    public List<RuleStatistics> statistics() {
+        return counts.values().stream()
+                .map(this::toStatistics)
+                .sorted(Comparator.comparing(RuleStatistics::getTenantId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(RuleStatistics::getCategory, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(RuleStatistics::getRuleType)
+                        .thenComparingInt(RuleStatistics::getPriority)
+                        .thenComparing(RuleStatistics::getRuleId))
+                .toList();
+    }
+
+    private List<RateBookDto.RateRuleDto> reorder(List<RateBookDto.RateRuleDto> rules, RuleType type) {
+        Map<RateBookDto.RateRuleDto, Double> scores = new IdentityHashMap<>();
+        rules.forEach(rule -> scores.put(rule, score(rule, type)));
+        Comparator<RateBookDto.RateRuleDto> bySelectivity = Comparator.comparingDouble(scores::get);
+        List<RateBookDto.RateRuleDto> reordered = new ArrayList<>(rules);
+        // Stable sort: ties keep priority order
+        reordered.sort(type == RuleType.REFERRAL
+                ? Comparator.comparingInt(RateBookDto.RateRuleDto::getPriority).thenComparing(bySelectivity)
+                : bySelectivity);
+        return List.copyOf(reordered);
+    }
+
+    // Expected cost of deciding the phase with this rule: lower is evaluated first
+    private double score(RateBookDto.RateRuleDto rule, RuleType type) {
+        Counts ruleCounts = rule.getId() == null ? null : counts.get(rule.getId());
+        long evaluated = ruleCounts == null ? 0 : ruleCounts.evaluated.sum();
+        long matched = ruleCounts == null ? 0 : ruleCounts.matched.sum();
+        long deciding = type == RuleType.ELIGIBILITY ? evaluated - matched : matched;
+        double probability = (deciding + 1.0) / (evaluated + 2.0);
+        return (ruleMatcher.cost(rule) + 1) / probability;
+    }
+
+    private RuleStatistics toStatistics(Counts ruleCounts) {
+        RateBookDto.RateRuleDto rule = ruleCounts.rule;
+        long evaluated = ruleCounts.evaluated.sum();
+        long matched = ruleCounts.matched.sum();
+        return RuleStatistics.builder()
+                .ruleId(rule.getId())
+                .tenantId(ruleCounts.tenantId)
+                .category(rule.getCategory())
+                .ruleType(rule.getRuleType())
+                .description(rule.getDescription())
+                .priority(rule.getPriority())
+                .cost(ruleMatcher.cost(rule))
+                .evaluated(evaluated)
+                .matched(matched)
+                .matchRate(evaluated == 0 ? null : (double) matched / evaluated)
+                .build();
+    }
+
+    private static final class Ordering {
+        private final AtomicLong reads = new AtomicLong();
+        private volatile List<RateBookDto.RateRuleDto> rules;
+
+        private Ordering(List<RateBookDto.RateRuleDto> rules) {
+            this.rules = rules;
+        }
+    }
+
+    /**
+     * Counts of one rule; they start over when its condition changes.
+     */
+    private static final class Counts {
+        private final String tenantId;
+        private final RateBookDto.RateRuleDto rule;
+        private final LongAdder evaluated;
+        private final LongAdder matched;
+
+        private Counts(String tenantId, RateBookDto.RateRuleDto rule) {
+            this(tenantId, rule, new LongAdder(), new LongAdder());
+        }
+
+        private Counts(String tenantId, RateBookDto.RateRuleDto rule, LongAdder evaluated, LongAdder matched) {
+            this.tenantId = tenantId;
+            this.rule = rule;
+            this.evaluated = evaluated;
+            this.matched = matched;
+        }
+
+        private Counts updatedTo(RateBookDto.RateRuleDto rule) {
+            return new Counts(tenantId, rule, evaluated, matched);
+        }
+    }
+}
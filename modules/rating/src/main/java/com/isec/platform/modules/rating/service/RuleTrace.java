@@ -0,0 +1,78 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.dto.PricingTrace;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The rule evaluations of one traced quote, in a ring of preallocated slots that keeps the most recent
+ * {@code capacity} of them. Recording stores a reference to the rule, its result and its duration; the inputs a rule
+ * read are looked up from the quote's context only when the trace is turned into a {@link PricingTrace}. Not
+ * thread-safe; a quote is priced on a single thread.
+ */
+final class RuleTrace {
+
+    private final PricingTrace.Trigger trigger;
+    private final RateBookDto.RateRuleDto[] rules;
+    private final boolean[] matched;
+    private final long[] nanos;
+    private final BigDecimal[] values;
+    private long recorded;
+
+    RuleTrace(PricingTrace.Trigger trigger, int capacity) {
+        this.trigger = trigger;
+        this.rules = new RateBookDto.RateRuleDto[capacity];
+        this.matched = new boolean[capacity];
+        this.nanos = new long[capacity];
+        this.values = new BigDecimal[capacity];
+    }
+
+    void record(RateBookDto.RateRuleDto rule, boolean ruleMatched, long elapsedNanos) {
+        int slot = (int) (recorded++ % rules.length);
+        rules[slot] = rule;
+        matched[slot] = ruleMatched;
+        nanos[slot] = elapsedNanos;
+        values[slot] = null;
+    }
+
+    /**
+     * Attaches the value computed for {@code rule} to its latest evaluation.
+     */
+    void value(RateBookDto.RateRuleDto rule, BigDecimal value) {
+        if (recorded > 0) {
+            int slot = (int) ((recorded - 1) % rules.length);
+            if (rules[slot] == rule) {
+                values[slot] = value;
+            }
+        }
+    }
+
+    PricingTrace toPricingTrace(RateBookSnapshotLoader.Snapshot snapshot, RatingContext context, RuleMatcher ruleMatcher) {
+        int kept = (int) Math.min(recorded, rules.length);
+        List<PricingTrace.Entry> entries = new ArrayList<>(kept);
+        for (long i = recorded - kept; i < recorded; i++) {
+            int slot = (int) (i % rules.length);
+            RateBookDto.RateRuleDto rule = rules[slot];
+            entries.add(PricingTrace.Entry.builder()
+                    .ruleId(rule.getId())
+                    .ruleType(rule.getRuleType())
+                    .inputs(ruleMatcher.inputs(rule, context))
+                    .matched(matched[slot])
+                    .value(values[slot])
+                    .nanos(nanos[slot])
+                    .build());
+        }
+        return PricingTrace.builder()
+                .trigger(trigger)
+                .rateBookId(snapshot.rateBookId())
+                .rateBookVersion(snapshot.version())
+                .capacity(rules.length)
+                .dropped(recorded - kept)
+                .rules(entries)
+                .build();
+    }
+}
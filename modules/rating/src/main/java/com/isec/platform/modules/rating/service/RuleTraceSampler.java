@@ -0,0 +1,106 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.dto.PricingTrace;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which quotes {@link PricingEngine} traces: a share of each tenant's quotes given by
+ * {@code rating.trace.sample-rates} ({@code TENANT=rate} entries, {@code *} for tenants not listed, e.g.
+ * {@code SANLAM=0.01,*=0.001}), plus every quote of a request that carries {@value #FORCE_HEADER}{@code : true}.
+ * <p>
+ * Deciding not to trace reads the Reactor context and the tenant's rate and allocates nothing, so that quotes
+ * priced without tracing cost what they did before tracing existed.
+ */
+@Component
+@Slf4j
+public class RuleTraceSampler {
+
+    public static final String FORCE_HEADER = "X-Rating-Trace";
+    private static final String FORCE_KEY = RuleTraceSampler.class.getName() + ".force";
+    private static final String ALL_TENANTS = "*";
+
+    @Value("${rating.trace.sample-rates:}")
+    private List<String> sampleRates = List.of();
+
+    @Value("${rating.trace.capacity:256}")
+    private int capacity = 256;
+
+    // Parsed from sampleRates on first use
+    private volatile Rates rates;
+
+    /**
+     * Context under which every quote is traced.
+     */
+    public static Context force(Context context) {
+        return context.put(FORCE_KEY, Boolean.TRUE);
+    }
+
+    /**
+     * A trace to record the quote into, or {@code null} if it is not traced.
+     */
+    RuleTrace start(ContextView context, String tenantId) {
+        if (context.hasKey(FORCE_KEY)) {
+            return new RuleTrace(PricingTrace.Trigger.FORCED, capacity);
+        }
+        double rate = rates().of(tenantId);
+        if (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate) {
+            return new RuleTrace(PricingTrace.Trigger.SAMPLED, capacity);
+        }
+        return null;
+    }
+
+    private Rates rates() {
+        Rates current = rates;
+        if (current == null || current.source != sampleRates) {
+            current = Rates.parse(sampleRates);
+            rates = current;
+        }
+        return current;
+    }
+
+    private record Rates(List<String> source, Map<String, Double> byTenant, double otherTenants) {
+
+        static Rates parse(List<String> source) {
+            Map<String, Double> byTenant = new HashMap<>();
+            double otherTenants = 0;
+            for (String entry : source) {
+                int separator = entry.indexOf('=');
+                if (separator < 0) {
+                    log.warn("Ignoring trace sample rate '{}': expected TENANT=rate", entry);
+                    continue;
+                }
+                String tenant = entry.substring(0, separator).trim();
+                double rate;
+                try {
+                    rate = Double.parseDouble(entry.substring(separator + 1).trim());
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring trace sample rate '{}': {} is not a number", entry, entry.substring(separator + 1));
+                    continue;
+                }
+                if (ALL_TENANTS.equals(tenant)) {
+                    otherTenants = rate;
+                } else {
+                    byTenant.put(tenant, rate);
+                }
+            }
+            return new Rates(source, Map.copyOf(byTenant), otherTenants);
+        }
+
+        double of(String tenantId) {
+            if (byTenant.isEmpty() || tenantId == null) {
+                return otherTenants;
+            }
+            Double rate = byTenant.get(tenantId);
+            return rate != null ? rate : otherTenants;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.dto.ReferralDecision;
+import com.isec.platform.modules.rating.dto.SimulatedQuote;
+import com.isec.platform.modules.rating.dto.SimulationSummary;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Folds re-priced quotes into a {@link SimulationSummary} in constant memory: counters, sums and fixed bands,
+ * plus one counter per candidate rule. Not thread-safe; quotes are added from the serialized simulation stream.
+ */
+class SimulationAggregator {
+
+    // Percentage change of a quote's premium; bands are [lower, upper)
+    private static final int[] CHANGE_BOUNDS = {-20, -10, -5, -1, 1, 5, 10, 20};
+    // Total premium in KES
+    private static final int[] PREMIUM_BOUNDS = {10_000, 25_000, 50_000, 100_000, 250_000};
+
+    private long quotes;
+    private final long[] outcomes = new long[SimulatedQuote.Outcome.values().length];
+    private long withBaselineDecision;
+    private long baselineReferred;
+
+    private long compared;
+    private BigDecimal baselineTotal = BigDecimal.ZERO;
+    private BigDecimal candidateTotal = BigDecimal.ZERO;
+    private BigDecimal minDelta;
+    private BigDecimal maxDelta;
+    private final long[] changeBands = new long[CHANGE_BOUNDS.length + 1];
+    private final long[] baselineBands = new long[PREMIUM_BOUNDS.length + 1];
+    private final long[] candidateBands = new long[PREMIUM_BOUNDS.length + 1];
+
+    private final Map<Long, Long> ruleHits = new TreeMap<>();
+
+    void add(SimulatedQuote quote) {
+        quotes++;
+        outcomes[quote.getCandidateOutcome().ordinal()]++;
+        if (quote.getBaselineDecision() != null) {
+            withBaselineDecision++;
+            if (quote.getBaselineDecision() == ReferralDecision.REFERRED) {
+                baselineReferred++;
+            }
+        }
+        quote.getCandidateRuleIds().forEach(ruleId -> ruleHits.merge(ruleId, 1L, Long::sum));
+        if (quote.getBaselinePremium() != null) {
+            baselineBands[band(PREMIUM_BOUNDS, quote.getBaselinePremium())]++;
+        }
+        if (quote.getCandidatePremium() != null) {
+            candidateBands[band(PREMIUM_BOUNDS, quote.getCandidatePremium())]++;
+        }
+        if (quote.getPremiumDelta() == null) {
+            return;
+        }
+
+        compared++;
+        baselineTotal = baselineTotal.add(quote.getBaselinePremium());
+        candidateTotal = candidateTotal.add(quote.getCandidatePremium());
+        BigDecimal delta = quote.getPremiumDelta();
+        minDelta = minDelta == null ? delta : minDelta.min(delta);
+        maxDelta = maxDelta == null ? delta : maxDelta.max(delta);
+        if (quote.getBaselinePremium().signum() != 0) {
+            changeBands[band(CHANGE_BOUNDS, percent(delta, quote.getBaselinePremium()))]++;
+        }
+    }
+
+    SimulationSummary summary() {
+        return SimulationSummary.builder()
+                .quotes(quotes)
+                .accepted(outcomes[SimulatedQuote.Outcome.ACCEPTED.ordinal()])
+                .referred(outcomes[SimulatedQuote.Outcome.REFERRED.ordinal()])
+                .declined(outcomes[SimulatedQuote.Outcome.DECLINED.ordinal()])
+                .failed(outcomes[SimulatedQuote.Outcome.FAILED.ordinal()])
+                .baselineReferralRate(rate(baselineReferred, withBaselineDecision))
+                .candidateReferralRate(rate(outcomes[SimulatedQuote.Outcome.REFERRED.ordinal()], quotes))
+                .candidateDeclineRate(rate(outcomes[SimulatedQuote.Outcome.DECLINED.ordinal()], quotes))
+                .compared(compared)
+                .baselineTotalPremium(baselineTotal)
+                .candidateTotalPremium(candidateTotal)
+                .totalPremiumChangePercent(baselineTotal.signum() == 0 ? null
+                        : percent(candidateTotal.subtract(baselineTotal), baselineTotal).setScale(2, RoundingMode.HALF_UP))
+                .minPremiumDelta(minDelta)
+                .maxPremiumDelta(maxDelta)
+                .meanPremiumDelta(compared == 0 ? null
+                        : candidateTotal.subtract(baselineTotal).divide(BigDecimal.valueOf(compared), 2, RoundingMode.HALF_UP))
+                .premiumChangeDistribution(bands(CHANGE_BOUNDS, changeBands, "%"))
+                .baselinePremiumDistribution(bands(PREMIUM_BOUNDS, baselineBands, ""))
+                .candidatePremiumDistribution(bands(PREMIUM_BOUNDS, candidateBands, ""))
+                .ruleHits(ruleHits)
+                .build();
+    }
+
+    private static BigDecimal percent(BigDecimal part, BigDecimal whole) {
+        return part.multiply(BigDecimal.valueOf(100)).divide(whole, 6, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal rate(long count, long total) {
+        return total == 0 ? null : BigDecimal.valueOf(count).divide(BigDecimal.valueOf(total), 4, RoundingMode.HALF_UP);
+    }
+
+    private static int band(int[] bounds, BigDecimal value) {
+        int band = 0;
+        while (band < bounds.length && value.compareTo(BigDecimal.valueOf(bounds[band])) >= 0) {
+            band++;
+        }
+        return band;
+    }
+
+    private static Map<String, Long> bands(int[] bounds, long[] counts, String unit) {
+        Map<String, Long> bands = new LinkedHashMap<>();
+        bands.put("<" + bounds[0] + unit, counts[0]);
+        for (int i = 1; i < bounds.length; i++) {
+            bands.put(bounds[i - 1] + unit + ".." + bounds[i] + unit, counts[i]);
+        }
+        bands.put(">=" + bounds[bounds.length - 1] + unit, counts[bounds.length]);
+        return bands;
+    }
+}
@@ -0,0 +1,87 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.dto.SimulatedQuote;
+import com.isec.platform.modules.rating.dto.SimulationResult;
+import com.isec.platform.modules.rating.dto.SimulationSummary;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+
+/**
+ * Renders a simulation stream as CSV: a header and one row per quote, then, after a blank line, the summary as
+ * {@code metric,value} rows.
+ */
+public final class SimulationCsv {
+
+    static final String HEADER = "source,reference,quoted_at,category,baseline_premium,baseline_decision,"
+            + "candidate_premium,candidate_outcome,premium_delta,candidate_reason,candidate_rule_ids\n";
+
+    private SimulationCsv() {
+    }
+
+    public static Flux<String> lines(Flux<SimulationResult> results) {
+        return Flux.just(HEADER).concatWith(results.map(result -> result.getQuote() != null
+                ? row(result.getQuote())
+                : summary(result.getSummary())));
+    }
+
+    static String row(SimulatedQuote quote) {
+        return line(quote.getSource(), quote.getReference(), quote.getQuotedAt(), quote.getCategory(),
+                quote.getBaselinePremium(), quote.getBaselineDecision(), quote.getCandidatePremium(),
+                quote.getCandidateOutcome(), quote.getPremiumDelta(), quote.getCandidateReason(),
+                quote.getCandidateRuleIds().stream().map(String::valueOf).collect(Collectors.joining(" ")));
+    }
+
+    static String summary(SimulationSummary summary) {
+        StringBuilder csv = new StringBuilder("\nmetric,value\n");
+        metric(csv, "quotes", summary.getQuotes());
+        metric(csv, "accepted", summary.getAccepted());
+        metric(csv, "referred", summary.getReferred());
+        metric(csv, "declined", summary.getDeclined());
+        metric(csv, "failed", summary.getFailed());
+        metric(csv, "baseline_referral_rate", summary.getBaselineReferralRate());
+        metric(csv, "candidate_referral_rate", summary.getCandidateReferralRate());
+        metric(csv, "candidate_decline_rate", summary.getCandidateDeclineRate());
+        metric(csv, "compared", summary.getCompared());
+        metric(csv, "baseline_total_premium", summary.getBaselineTotalPremium());
+        metric(csv, "candidate_total_premium", summary.getCandidateTotalPremium());
+        metric(csv, "total_premium_change_percent", summary.getTotalPremiumChangePercent());
+        metric(csv, "min_premium_delta", summary.getMinPremiumDelta());
+        metric(csv, "max_premium_delta", summary.getMaxPremiumDelta());
+        metric(csv, "mean_premium_delta", summary.getMeanPremiumDelta());
+        metrics(csv, "premium_change", summary.getPremiumChangeDistribution());
+        metrics(csv, "baseline_premium", summary.getBaselinePremiumDistribution());
+        metrics(csv, "candidate_premium", summary.getCandidatePremiumDistribution());
+        metrics(csv, "rule_hits", summary.getRuleHits());
+        return csv.toString();
+    }
+
+    private static void metrics(StringBuilder csv, String name, Map<?, Long> values) {
+        values.forEach((key, value) -> metric(csv, name + "[" + key + "]", value));
+    }
+
+    private static void metric(StringBuilder csv, String name, Object value) {
+        csv.append(line(name, value));
+    }
+
+    private static String line(Object... values) {
+        StringJoiner line = new StringJoiner(",", "", "\n");
+        for (Object value : values) {
+            line.add(escape(value));
+        }
+        return line.toString();
+    }
+
+    private static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
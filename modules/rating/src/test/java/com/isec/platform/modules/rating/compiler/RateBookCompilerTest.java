@@ -0,0 +1,246 @@
+package com.isec.platform.modules.rating.compiler;
+
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.PricingResult;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import com.isec.platform.modules.rating.service.PricingEngine;
+import com.isec.platform.modules.rating.service.QuoteResultCache;
+import com.isec.platform.modules.rating.service.RateBookSnapshotLoader;
+import com.isec.platform.modules.rating.service.RatingMetrics;
+import com.isec.platform.modules.rating.service.RuleMatcher;
+import com.isec.platform.modules.rating.service.RuleSelectivity;
+import com.isec.platform.modules.rating.service.RuleTraceSampler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+class RateBookCompilerTest {
+
+    private static final String TENANT = "SANLAM";
+
+    private final AtomicLong ids = new AtomicLong();
+    private RateBookSnapshotLoader snapshotLoader;
+    private PricingEngine interpreted;
+    private RateBookCompiler compiler;
+
+    @BeforeEach
+    void setUp() {
+        snapshotLoader = Mockito.mock(RateBookSnapshotLoader.class);
+        // Both engines evaluate the translations of the SpEL rules below
+        RuleMatcher ruleMatcher = new RuleMatcher();
+        ReflectionTestUtils.setField(ruleMatcher, "nativeTranslated", true);
+        interpreted = new PricingEngine(snapshotLoader, ruleMatcher, Mockito.mock(CompiledRateBookRegistry.class),
+                RatingMetrics.noop(), new QuoteResultCache(), RuleSelectivity.unobserved(), new RuleTraceSampler());
+        ReflectionTestUtils.setField(interpreted, "pcfRate", new BigDecimal("0.0025"));
+        ReflectionTestUtils.setField(interpreted, "itlRate", new BigDecimal("0.0020"));
+        ReflectionTestUtils.setField(interpreted, "certCharge", new BigDecimal("40.00"));
+        interpreted.initCharges();
+        compiler = new RateBookCompiler();
+        ReflectionTestUtils.setField(compiler, "nativeTranslated", true);
+    }
+
+    @Test
+    void compiledRateBook_pricesExactlyLikeTheInterpreter() {
+        // given - rules shaped like the Liquibase rating seeds plus the other supported constructs
+        List<RateBookDto.RateRuleDto> rules = new ArrayList<>(List.of(
+                rule(RuleType.ELIGIBILITY, "PRIVATE_CAR", 1, "vehicleAge <= 20", null),
+                rule(RuleType.ELIGIBILITY, "PRIVATE_CAR", 2, "not (vehicleMake.equalsIgnoreCase('Ferrari') or vehicleMake.equalsIgnoreCase('Lamborghini'))", null),
+                rule(RuleType.ELIGIBILITY, "PRIVATE_CAR", 3, "vehicleValue.doubleValue() >= 500000 and vehicleValue.doubleValue() <= 15000000", null),
+                rule(RuleType.REFERRAL, "PRIVATE_CAR", 1, "vehicleAge > 15", null),
+                rule(RuleType.REFERRAL, "PRIVATE_CAR", 2, "vehicleModel.length() > 7", null),
+                rule(RuleType.BASE_PREMIUM, "PRIVATE_CAR", 4, "vehicleValue.doubleValue() <= 600000", "37500"),
+                rule(RuleType.BASE_PREMIUM, "PRIVATE_CAR", 10, "vehicleValue.doubleValue() > 600000", "0.04"),
+                rule(RuleType.MIN_PREMIUM, "PRIVATE_CAR", 1, "true", "vehicleValue * 0.0025 + 30000"),
+                rule(RuleType.ADDON, "PRIVATE_CAR", 30, "true",
+                        "vehicleValue.doubleValue() <= 600000 ? 5000.0 : T(java.lang.Math).max(5000.0, vehicleValue.doubleValue() * 0.005)"),
+                rule(RuleType.ADDON, "PRIVATE_CAR", 31, "true", "T(java.lang.Math).max(3000.0, vehicleValue.doubleValue() * 0.0045)"),
+                rule(RuleType.ADDON, "PRIVATE_CAR", 35, "additionalData != null && additionalData['courtesyCarDays'] != null",
+                        "(T(java.lang.Integer).parseInt(additionalData['courtesyCarDays'].toString()) / 10) * 3000"),
+                rule(RuleType.ADDON, "PRIVATE_CAR", 36, "additionalData['windscreen'] ?: false", "additionalData['windscreenLimit'] ?: 2500"),
+                rule(RuleType.ADDON, "PRIVATE_CAR", 37, "vehicleValue > 800000 && vehicleAge % 2 == 0", "vehicleValue / 400 - -100"),
+                rule(RuleType.BASE_PREMIUM, "commercial ", 1, "vehicleValue >= 500000 and vehicleValue <= 15000000", "0.06"),
+                rule(RuleType.MIN_PREMIUM, "COMMERCIAL", 1, "vehicleAge != null", "15000"),
+                rule(RuleType.ADDON, "COMMERCIAL", 1, "vehicleMake.toUpperCase().startsWith('IS')", "1000"),
+                rule(RuleType.BASE_PREMIUM, "MOTOR_CYCLE", 1, "", "2500")));
+        // Same rule text compiled into several slots must not clash
+        rules.add(rule(RuleType.REFERRAL, "MOTOR_CYCLE", 1, "vehicleAge > 15", null));
+        Set<Long> allAddons = rules.stream().filter(r -> r.getRuleType() == RuleType.ADDON)
+                .map(RateBookDto.RateRuleDto::getId).collect(java.util.stream.Collectors.toSet());
+
+        RateBookSnapshotLoader.Snapshot snapshot = snapshot(rules);
+        CompiledRateBook compiled = compiler.compile(snapshot, assembler());
+
+        List<RatingContext> contexts = new ArrayList<>();
+        for (String category : Arrays.asList("PRIVATE_CAR", "private_car", "COMMERCIAL", "MOTOR_CYCLE", "TRACTOR", null)) {
+            for (String value : Arrays.asList("450000", "500000", "600000", "600001", "1000005", "20000000", null)) {
+                for (Integer age : Arrays.asList(0, 4, 16, 21, null)) {
+                    for (String make : Arrays.asList("Toyota", "FERRARI", "isuzu", null)) {
+                        contexts.add(RatingContext.builder()
+                                .tenantId(TENANT)
+                                .category(category)
+                                .vehicleValue(value == null ? null : new BigDecimal(value))
+                                .vehicleAge(age)
+                                .vehicleMake(make)
+                                .vehicleModel(make == null ? null : make + " X")
+                                .selectedAddonIds(age == null ? null : allAddons)
+                                .additionalData(additionalData(age))
+                                .build());
+                    }
+                }
+            }
+        }
+
+        // when & then
+        int priced = 0;
+        for (RatingContext context : contexts) {
+            Outcome expected = outcome(() -> interpreted.price(context).block());
+            Outcome actual = outcome(() -> compiled.price(context));
+            assertThat(actual).as("compiled result for %s", context).isEqualTo(expected);
+            priced += expected.result() == null ? 0 : 1;
+        }
+        assertThat(priced).isGreaterThan(contexts.size() / 4);
+    }
+
+    @Test
+    void compile_rejectsExpressionsOutsideTheSupportedGrammar() {
+        // given
+        RateBookSnapshotLoader.Snapshot snapshot = snapshot(List.of(
+                rule(RuleType.BASE_PREMIUM, "PRIVATE_CAR", 1, "T(java.lang.System).exit(0) == null", "1000")));
+
+        // when & then
+        assertThatThrownBy(() -> compiler.compile(snapshot, assembler()))
+                .isInstanceOf(RateBookCompilationException.class)
+                .hasMessageContaining("Unsupported expression construct");
+    }
+
+    @Test
+    void compile_leavesTranslatedSpelRulesToTheInterpreter_byDefault() {
+        // given
+        RateBookSnapshotLoader.Snapshot snapshot = snapshot(List.of(
+                rule(RuleType.BASE_PREMIUM, "PRIVATE_CAR", 1, "vehicleValue.doubleValue() <= 600000", "37500")));
+
+        // when & then
+        assertThatThrownBy(() -> new RateBookCompiler().compile(snapshot, assembler()))
+                .isInstanceOf(RateBookCompilationException.class)
+                .hasMessageContaining("native-translated");
+    }
+
+    @Test
+    void compile_rejectsUnknownContextProperties() {
+        // given
+        RateBookSnapshotLoader.Snapshot snapshot = snapshot(List.of(
+                rule(RuleType.BASE_PREMIUM, "PRIVATE_CAR", 1, "engineSize > 2000", "1000")));
+
+        // when & then
+        assertThatThrownBy(() -> compiler.compile(snapshot, assembler()))
+                .isInstanceOf(RateBookCompilationException.class)
+                .hasMessageContaining("engineSize");
+    }
+
+    @Test
+    void registry_compilesOptedInTenantsInTheBackground() throws InterruptedException {
+        // given
+        CompiledRateBookRegistry registry = new CompiledRateBookRegistry(compiler);
+        ReflectionTestUtils.setField(registry, "compiledTenants", List.of(TENANT));
+        RateBookSnapshotLoader.Snapshot snapshot = snapshot(List.of(rule(RuleType.BASE_PREMIUM, "PRIVATE_CAR", 1, "true", "1000")));
+
+        // when
+        CompiledRateBook first = registry.lookup(snapshot, assembler());
+        CompiledRateBook ready = null;
+        for (int i = 0; i < 100 && ready == null; i++) {
+            Thread.sleep(50);
+            ready = registry.lookup(snapshot, assembler());
+        }
+
+        // then
+        assertThat(first).isNull();
+        assertThat(ready).isNotNull();
+        assertThat(registry.isEnabled("OTHER")).isFalse();
+    }
+
+    @Test
+    void registry_keepsTenantsWithUncompilableRateBooksOnTheInterpreter() throws InterruptedException {
+        // given
+        CompiledRateBookRegistry registry = new CompiledRateBookRegistry(compiler);
+        ReflectionTestUtils.setField(registry, "compiledTenants", List.of("*"));
+        RateBookSnapshotLoader.Snapshot snapshot = snapshot(List.of(rule(RuleType.BASE_PREMIUM, "PRIVATE_CAR", 1, "#root != null", "1000")));
+
+        // when
+        registry.lookup(snapshot, assembler());
+        Thread.sleep(500);
+
+        // then
+        assertThat(registry.lookup(snapshot, assembler())).isNull();
+    }
+
+    private RateBookSnapshotLoader.Snapshot snapshot(List<RateBookDto.RateRuleDto> rules) {
+        RateBookSnapshotLoader.Snapshot snapshot = RateBookSnapshotLoader.Snapshot.from(
+                RateBookDto.builder().id(1L).tenantId(TENANT).versionName("v1").rules(rules).build());
+        when(snapshotLoader.loadActive(anyString())).thenReturn(Mono.just(snapshot));
+        return snapshot;
+    }
+
+    private PricingResultAssembler assembler() {
+        return (PricingResultAssembler) ReflectionTestUtils.getField(interpreted, "assembler");
+    }
+
+    private RateBookDto.RateRuleDto rule(RuleType type, String category, int priority, String condition, String value) {
+        long id = ids.incrementAndGet();
+        return RateBookDto.RateRuleDto.builder()
+                .id(id)
+                .ruleType(type)
+                .category(category)
+                .priority(priority)
+                .description(type + " rule " + id)
+                .conditionExpression(condition)
+                .valueExpression(value)
+                .build();
+    }
+
+    private static Map<String, Object> additionalData(Integer age) {
+        if (age == null) {
+            return null;
+        }
+        Map<String, Object> data = new HashMap<>();
+        switch (age) {
+            case 0 -> data.put("courtesyCarDays", 10);
+            case 4 -> data.put("courtesyCarDays", "25");
+            case 16 -> {
+                data.put("windscreen", true);
+                data.put("windscreenLimit", 7500.5);
+            }
+            case 21 -> data.put("windscreen", "yes");
+            default -> {
+            }
+        }
+        return data;
+    }
+
+    private static Outcome outcome(java.util.function.Supplier<PricingResult> pricing) {
+        try {
+            return new Outcome(pricing.get(), null);
+        } catch (RuntimeException e) {
+            return new Outcome(null, e.getClass().getName() + ": " + e.getMessage());
+        }
+    }
+
+    private record Outcome(PricingResult result, String error) {
+    }
+}
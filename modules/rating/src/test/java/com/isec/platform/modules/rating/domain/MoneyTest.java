@@ -0,0 +1,96 @@
+package com.isec.platform.modules.rating.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Properties checked over generated amounts and rates, against the same arithmetic on {@link BigDecimal}s.
+ */
+class MoneyTest {
+
+    private static final int SAMPLES = 20_000;
+
+    private final Random random = new Random(20260401L);
+
+    @Test
+    void times_roundsLikeBigDecimal() {
+        for (int i = 0; i < SAMPLES; i++) {
+            // given
+            BigDecimal amount = amount(random, 2);
+            BigDecimal rate = rate(random);
+            Money money = Money.exact(amount);
+            Money.Rate exactRate = Money.Rate.exact(rate);
+
+            // when & then
+            for (RoundingMode rounding : new RoundingMode[]{RoundingMode.UP, RoundingMode.HALF_UP}) {
+                assertThat(money.times(exactRate, Money.Precision.SHILLINGS, rounding).toBigDecimal(Money.Precision.SHILLINGS))
+                        .as("%s x %s %s", amount, rate, rounding)
+                        .isEqualTo(amount.multiply(rate).setScale(0, rounding));
+                assertThat(money.times(exactRate, Money.Precision.CENTS, rounding).toBigDecimal(Money.Precision.CENTS))
+                        .as("%s x %s %s", amount, rate, rounding)
+                        .isEqualTo(amount.multiply(rate).setScale(2, rounding));
+            }
+        }
+    }
+
+    @Test
+    void canMultiply_isFalseExactlyWhenTheProductOverflows() {
+        Money.Rate three = Money.Rate.exact(new BigDecimal("3"));
+        long largest = Long.MAX_VALUE / 3;
+
+        assertThat(Money.ofCents(largest).canMultiply(three)).isTrue();
+        assertThat(Money.ofCents(largest + 1).canMultiply(three)).isFalse();
+        assertThat(Money.ofCents(-largest).canMultiply(three)).isTrue();
+        assertThat(Money.ofCents(-largest - 2).canMultiply(three)).isFalse();
+        assertThat(Money.ofCents(Money.MAX_PRICING_CENTS).isWithinPricingRange()).isTrue();
+        assertThat(Money.ofCents(-Money.MAX_PRICING_CENTS - 1).isWithinPricingRange()).isFalse();
+    }
+
+    @Test
+    void plusAndRound_matchBigDecimal() {
+        for (int i = 0; i < SAMPLES; i++) {
+            // given
+            BigDecimal a = amount(random, 2);
+            BigDecimal b = amount(random, 2);
+
+            // when & then
+            Money sum = Money.exact(a).plus(Money.exact(b));
+            assertThat(sum.toBigDecimal(Money.Precision.CENTS)).isEqualByComparingTo(a.add(b));
+            assertThat(sum.round(Money.Precision.SHILLINGS, RoundingMode.UP).toBigDecimal(Money.Precision.SHILLINGS))
+                    .isEqualTo(a.add(b).setScale(0, RoundingMode.UP));
+            assertThat(sum.round(Money.Precision.SHILLINGS, RoundingMode.HALF_UP).toBigDecimal(Money.Precision.SHILLINGS))
+                    .isEqualTo(a.add(b).setScale(0, RoundingMode.HALF_UP));
+        }
+    }
+
+    @Test
+    void exact_rejectsFractionsOfACent() {
+        assertThat(Money.exact(new BigDecimal("12.345"))).isNull();
+        assertThat(Money.exact(new BigDecimal("12.3400"))).isEqualTo(Money.ofCents(1234));
+        assertThat(Money.exact(new BigDecimal("1E+3"))).isEqualTo(Money.ofCents(100_000));
+        assertThat(Money.Rate.exact(new BigDecimal("0.0000000000000001"))).isNull();
+    }
+
+    /**
+     * An amount of up to a billion, negative one time in ten, with at most {@code maxScale} decimals.
+     */
+    static BigDecimal amount(Random random, int maxScale) {
+        long unscaled = (long) (random.nextDouble() * Math.pow(10, random.nextInt(10)) * Math.pow(10, maxScale));
+        BigDecimal amount = BigDecimal.valueOf(random.nextInt(10) == 0 ? -unscaled : unscaled, maxScale);
+        return amount.setScale(random.nextInt(maxScale + 1), RoundingMode.DOWN);
+    }
+
+    /**
+     * A rate such as a levy, with up to eight decimals, or now and then a multiplier above one.
+     */
+    static BigDecimal rate(Random random) {
+        int scale = 1 + random.nextInt(8);
+        long unscaled = random.nextInt(5) == 0 ? random.nextInt(100_000) : random.nextInt((int) Math.pow(10, Math.min(scale, 6)));
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+}
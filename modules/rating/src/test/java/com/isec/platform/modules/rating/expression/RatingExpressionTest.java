@@ -0,0 +1,115 @@
+package com.isec.platform.modules.rating.expression;
+
+import com.isec.platform.modules.rating.dto.RatingContext;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RatingExpressionTest {
+
+    @Test
+    void evaluate_supportsComparisonsListsAndRanges() {
+        // given
+        RatingContext context = context(new BigDecimal("750000"), 4, "Toyota");
+
+        // when & then
+        assertThat(RatingExpression.parse("vehicleValue between 500000 and 15000000 and vehicleAge <= 20").test(context)).isTrue();
+        assertThat(RatingExpression.parse("vehicleAge not between 5 and 10").test(context)).isTrue();
+        assertThat(RatingExpression.parse("upper(vehicleMake) in ('TOYOTA', 'NISSAN')").test(context)).isTrue();
+        assertThat(RatingExpression.parse("vehicleMake not in ('Ferrari', 'Lamborghini') && !(vehicleAge > 15)").test(context)).isTrue();
+        assertThat(RatingExpression.parse("category == 'PRIVATE_CAR' or vehicleAge in (1, 2)").test(context)).isTrue();
+        assertThat(RatingExpression.parse("vehicleValue > 800000 ? true : vehicleAge % 2 == 1").test(context)).isFalse();
+    }
+
+    @Test
+    void evaluate_keepsIntegersOnLongAndDecimalsExact() {
+        // given
+        RatingContext context = context(new BigDecimal("1000005"), 25, "Toyota");
+
+        // when & then
+        assertThat(RatingExpression.parse("vehicleAge / 10 * 3000").evaluate(context)).isEqualTo(6000L);
+        assertThat((BigDecimal) RatingExpression.parse("vehicleValue * 0.005").evaluate(context)).isEqualByComparingTo("5000.025");
+        assertThat((BigDecimal) RatingExpression.parse("vehicleValue / 400").evaluate(context)).isEqualByComparingTo("2500.0125");
+        assertThat((BigDecimal) RatingExpression.parse("max(5000.0, vehicleValue * 0.0045)").evaluate(context)).isEqualByComparingTo("5000.0");
+        assertThat(RatingExpression.parse("9223372036854775807 + vehicleAge").evaluate(context))
+                .isEqualTo(new BigDecimal("9223372036854775832"));
+    }
+
+    @Test
+    void evaluate_readsAdditionalDataAsNullSafeLookups() {
+        // given
+        RatingContext withData = context(BigDecimal.ONE, 1, "Toyota");
+        withData.setAdditionalData(Map.of("courtesyCarDays", "25", "windscreen", true));
+        RatingContext withoutData = context(BigDecimal.ONE, 1, "Toyota");
+
+        // when & then
+        assertThat(RatingExpression.parse("int(additionalData['courtesyCarDays']) / 10 * 3000").evaluate(withData)).isEqualTo(6000L);
+        assertThat(RatingExpression.parse("coalesce(additionalData['windscreen'], false)").test(withData)).isTrue();
+        assertThat(RatingExpression.parse("coalesce(additionalData['windscreen'], false)").test(withoutData)).isFalse();
+        assertThat(RatingExpression.parse("additionalData['courtesyCarDays'] != null").test(withoutData)).isFalse();
+        assertThat(RatingExpression.parse("additionalData == null").test(withoutData)).isTrue();
+    }
+
+    @Test
+    void evaluate_ordersNullFirstAndFailsArithmeticOnNull() {
+        // given
+        RatingContext context = context(null, null, null);
+        RatingExpression arithmetic = RatingExpression.parse("vehicleValue * 0.04");
+
+        // when & then
+        assertThat(RatingExpression.parse("vehicleAge <= 20").test(context)).isTrue();
+        assertThat(RatingExpression.parse("vehicleAge > 20").test(context)).isFalse();
+        assertThatThrownBy(() -> arithmetic.evaluate(context))
+                .isInstanceOf(ExpressionEvaluationException.class)
+                .hasMessageContaining("null");
+    }
+
+    @Test
+    void parse_foldsConstantSubexpressions() {
+        // when
+        RatingExpression constant = RatingExpression.parse("max(2500, 1000 * 3) + 0.5");
+        RatingExpression shortCircuit = RatingExpression.parse("true and vehicleAge < 10");
+        RatingExpression partial = RatingExpression.parse("vehicleValue * (0.04 / 2)");
+
+        // then
+        assertThat(constant.root()).isInstanceOf(Node.Literal.class);
+        assertThat((BigDecimal) constant.evaluate(null)).isEqualByComparingTo("3000.5");
+        assertThat(shortCircuit.root()).isInstanceOf(Node.Binary.class);
+        assertThat(((Node.Binary) shortCircuit.root()).operator()).isEqualTo(Operator.LT);
+        assertThat(((Node.Binary) partial.root()).right()).isEqualTo(new Node.Literal(new BigDecimal("0.02"), ValueType.NUMBER));
+    }
+
+    @Test
+    void parse_rejectsInvalidAndIllTypedExpressions() {
+        assertThatThrownBy(() -> RatingExpression.parse("engineSize > 2000"))
+                .isInstanceOf(RatingExpressionException.class).hasMessageContaining("Unknown field 'engineSize'");
+        assertThatThrownBy(() -> RatingExpression.parse("vehicleMake * 2"))
+                .isInstanceOf(RatingExpressionException.class).hasMessageContaining("Expected a number but found a string");
+        assertThatThrownBy(() -> RatingExpression.parse("vehicleAge == 'four'"))
+                .isInstanceOf(RatingExpressionException.class).hasMessageContaining("Cannot compare");
+        assertThatThrownBy(() -> RatingExpression.parse("vehicleAge and true"))
+                .isInstanceOf(RatingExpressionException.class).hasMessageContaining("Expected a boolean");
+        assertThatThrownBy(() -> RatingExpression.parse("vehicleValue.doubleValue() > 1"))
+                .isInstanceOf(RatingExpressionException.class).hasMessageContaining("Unexpected character '.'");
+        assertThatThrownBy(() -> RatingExpression.parse("exit(0)"))
+                .isInstanceOf(RatingExpressionException.class).hasMessageContaining("Unknown function 'exit'");
+        assertThatThrownBy(() -> RatingExpression.parse("additionalData > 1"))
+                .isInstanceOf(RatingExpressionException.class).hasMessageContaining("additionalData");
+        assertThatThrownBy(() -> RatingExpression.parse("1 < vehicleAge < 5"))
+                .isInstanceOf(RatingExpressionException.class).hasMessageContaining("chained");
+    }
+
+    private RatingContext context(BigDecimal vehicleValue, Integer vehicleAge, String vehicleMake) {
+        return RatingContext.builder()
+                .tenantId("SANLAM")
+                .category("PRIVATE_CAR")
+                .vehicleValue(vehicleValue)
+                .vehicleAge(vehicleAge)
+                .vehicleMake(vehicleMake)
+                .build();
+    }
+}
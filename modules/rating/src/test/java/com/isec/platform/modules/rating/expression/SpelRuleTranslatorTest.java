@@ -0,0 +1,74 @@
+package com.isec.platform.modules.rating.expression;
+
+import com.isec.platform.modules.rating.dto.RatingContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.ParseException;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpelRuleTranslatorTest {
+
+    @Test
+    void translate_convertsTheSeededRuleExpressions() {
+        assertThat(SpelRuleTranslator.translate("vehicleValue.doubleValue() <= 600000"))
+                .isEqualTo("decimal(vehicleValue) <= 600000");
+        assertThat(SpelRuleTranslator.translate("not (vehicleMake.equalsIgnoreCase('Ferrari') or vehicleMake.equalsIgnoreCase('Lamborghini'))"))
+                .isEqualTo("not (iequals(vehicleMake, 'Ferrari') or iequals(vehicleMake, 'Lamborghini'))");
+        assertThat(SpelRuleTranslator.translate("additionalData != null && additionalData['courtesyCarDays'] != null"))
+                .isEqualTo("(additionalData != null) and (additionalData['courtesyCarDays'] != null)");
+        assertThat(SpelRuleTranslator.translate("(T(java.lang.Integer).parseInt(additionalData['courtesyCarDays'].toString()) / 10) * 3000"))
+                .isEqualTo("(int(string(additionalData['courtesyCarDays'])) / 10) * 3000");
+        assertThat(SpelRuleTranslator.translate("vehicleValue.doubleValue() <= 600000 ? 5000.0 : T(java.lang.Math).max(5000.0, vehicleValue.doubleValue() * 0.005)"))
+                .isEqualTo("(decimal(vehicleValue) <= 600000) ? 5000.0 : max(5000.0, decimal(vehicleValue) * 0.005)");
+    }
+
+    @Test
+    void translate_mapsSpelIdiomsToTheLanguageOperators() {
+        assertThat(SpelRuleTranslator.translate("vehicleValue between {500000, 15000000}"))
+                .isEqualTo("vehicleValue between 500000 and 15000000");
+        assertThat(SpelRuleTranslator.translate("{'TOYOTA', 'NISSAN'}.contains(vehicleMake.toUpperCase())"))
+                .isEqualTo("(upper(vehicleMake) in ('TOYOTA', 'NISSAN'))");
+        assertThat(SpelRuleTranslator.translate("additionalData['windscreenLimit'] ?: 2500"))
+                .isEqualTo("coalesce(additionalData['windscreenLimit'], 2500)");
+        assertThat(SpelRuleTranslator.translate("vehicleModel.isEmpty() or vehicleMake.equals('It''s')"))
+                .isEqualTo("(length(vehicleModel) == 0) or (vehicleMake == 'It''s')");
+    }
+
+    @Test
+    void translatedExpressions_evaluateLikeTheSpelOriginals() {
+        // given
+        RatingContext context = RatingContext.builder()
+                .vehicleValue(new BigDecimal("1000000"))
+                .vehicleAge(4)
+                .vehicleMake("Ferrari")
+                .additionalData(Map.of("courtesyCarDays", 25))
+                .build();
+
+        // when & then
+        assertThat(RatingExpression.compile("(T(java.lang.Integer).parseInt(additionalData['courtesyCarDays'].toString()) / 10) * 3000")
+                .evaluate(context)).isEqualTo(6000L);
+        assertThat(RatingExpression.compile("not (vehicleMake.equalsIgnoreCase('Ferrari') or vehicleMake.equalsIgnoreCase('Lamborghini'))")
+                .test(context)).isFalse();
+        assertThat((BigDecimal) RatingExpression.compile("T(java.lang.Math).max(5000.0, vehicleValue.doubleValue() * 0.005)")
+                .evaluate(context)).isEqualByComparingTo("5000");
+        assertThat(RatingExpression.compile("vehicleValue.doubleValue() <= 600000").isTranslated()).isTrue();
+        assertThat(RatingExpression.compile("vehicleValue <= 600000").isTranslated()).isFalse();
+    }
+
+    @Test
+    void translate_rejectsConstructsOutsideTheRuleSubset() {
+        assertThatThrownBy(() -> SpelRuleTranslator.translate("T(java.lang.System).exit(0) == null"))
+                .isInstanceOf(RatingExpressionException.class)
+                .hasMessageContaining("Unsupported expression construct: T(java.lang.System)");
+        assertThatThrownBy(() -> SpelRuleTranslator.translate("#root != null"))
+                .isInstanceOf(RatingExpressionException.class);
+        assertThatThrownBy(() -> SpelRuleTranslator.translate("vehicleMake?.length() > 3"))
+                .isInstanceOf(RatingExpressionException.class);
+        assertThatThrownBy(() -> SpelRuleTranslator.translate("vehicleValue >>> 1"))
+                .isInstanceOf(ParseException.class);
+    }
+}
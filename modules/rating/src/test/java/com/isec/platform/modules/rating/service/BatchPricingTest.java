@@ -0,0 +1,71 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.common.exception.BusinessException;
+import com.isec.platform.common.multitenancy.TenantContext;
+import com.isec.platform.modules.rating.dto.BatchPricingResult;
+import com.isec.platform.modules.rating.dto.BatchQuoteItem;
+import com.isec.platform.modules.rating.dto.PricingResult;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchPricingTest {
+
+    private PricingEngine pricingEngine;
+    private RatingService ratingService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        pricingEngine = Mockito.mock(PricingEngine.class);
+        ratingService = new RatingService(Mockito.mock(ReactiveRedisTemplate.class), pricingEngine);
+        ReflectionTestUtils.setField(ratingService, "maxBatchItems", 2L);
+    }
+
+    @Test
+    void priceBatch_pricesBatchWithinLimitForTenant() {
+        // given
+        List<RatingContext> priced = new ArrayList<>();
+        when(pricingEngine.priceAll(any(), anyBoolean())).thenAnswer(invocation -> invocation.<Flux<RatingContext>>getArgument(0)
+                .doOnNext(priced::add)
+                .index()
+                .map(indexed -> BatchPricingResult.success(indexed.getT1(), PricingResult.builder().build())));
+
+        // when & then
+        StepVerifier.create(ratingService.priceBatch(Flux.just(item(), item()), true)
+                        .contextWrite(TenantContext.withTenantId("SANLAM")))
+                .expectNextCount(2)
+                .verifyComplete();
+        assertThat(priced).extracting(RatingContext::getTenantId).containsExactly("SANLAM", "SANLAM");
+    }
+
+    @Test
+    void priceBatch_rejectsOversizedBatchBeforePricing() {
+        // when & then
+        StepVerifier.create(ratingService.priceBatch(Flux.fromIterable(List.of(item(), item(), item())), true)
+                        .contextWrite(TenantContext.withTenantId("SANLAM")))
+                .expectErrorMatches(e -> e instanceof BusinessException && e.getMessage().contains("maximum of 2"))
+                .verify();
+        verify(pricingEngine, never()).priceAll(any(), anyBoolean());
+    }
+
+    private static BatchQuoteItem item() {
+        return BatchQuoteItem.builder().category("PRIVATE_CAR").vehicleValue(new BigDecimal("1000000")).build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.dto.RatingContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryRegistryTest {
+
+    @Test
+    void lookup_resolvesCategoriesInAnySpelling() {
+        // given
+        CategoryRegistry registry = CategoryRegistry.of(Arrays.asList(" Private_Car", "PRIVATE_CAR", " ", null, "COMMERCIAL"));
+
+        // when & then
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(registry.lookup("private_car ")).isZero();
+        assertThat(registry.lookup("Commercial")).isEqualTo(1);
+        assertThat(registry.name(0)).isEqualTo("PRIVATE_CAR");
+        assertThat(registry.lookup("MOTORCYCLE")).isEqualTo(CategoryRegistry.UNKNOWN);
+        assertThat(registry.lookup("MOTORCYCLE")).isEqualTo(CategoryRegistry.UNKNOWN);
+        assertThat(registry.lookup(null)).isEqualTo(CategoryRegistry.UNKNOWN);
+    }
+
+    @Test
+    void of_keepsIdsPerRegistry() {
+        // given
+        CategoryRegistry first = CategoryRegistry.of(List.of("PRIVATE_CAR", "COMMERCIAL"));
+        CategoryRegistry second = CategoryRegistry.of(List.of("COMMERCIAL"));
+
+        // when & then
+        assertThat(first.lookup("COMMERCIAL")).isEqualTo(1);
+        assertThat(second.lookup("COMMERCIAL")).isZero();
+        assertThat(second.lookup("PRIVATE_CAR")).isEqualTo(CategoryRegistry.UNKNOWN);
+    }
+
+    @Test
+    void lookup_leavesTheContextUntouched() {
+        // given
+        CategoryRegistry first = CategoryRegistry.of(List.of("CAR", "BIKE"));
+        CategoryRegistry second = CategoryRegistry.of(List.of("BIKE"));
+        RatingContext context = RatingContext.builder().category("bike").build();
+
+        // when & then
+        assertThat(first.lookup(context.getCategory())).isEqualTo(1);
+        assertThat(second.lookup(context.getCategory())).isZero();
+        assertThat(first.lookup(context.getCategory())).isEqualTo(1);
+        assertThat(context).isEqualTo(RatingContext.builder().category("bike").build());
+    }
+}
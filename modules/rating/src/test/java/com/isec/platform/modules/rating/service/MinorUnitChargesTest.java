@@ -0,0 +1,155 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.compiler.CompiledRateBookRegistry;
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.AddonBreakdown;
+import com.isec.platform.modules.rating.dto.PricingResult;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statutory charges and totals computed in minor units must equal the {@link BigDecimal} arithmetic they replaced,
+ * checked over generated rate books, vehicle values and charge rates.
+ */
+class MinorUnitChargesTest {
+
+    private static final int SAMPLES = 5_000;
+    private static final String TENANT = "SANLAM";
+
+    private final Random random = new Random(20260402L);
+    private PricingEngine pricingEngine;
+    private RatingService ratingService;
+
+    @BeforeEach
+    void setUp() {
+        pricingEngine = new PricingEngine(Mockito.mock(RateBookSnapshotLoader.class), new RuleMatcher(),
+                Mockito.mock(CompiledRateBookRegistry.class), RatingMetrics.noop(), new QuoteResultCache(),
+                RuleSelectivity.unobserved(), new RuleTraceSampler());
+        ratingService = new RatingService(null, pricingEngine);
+    }
+
+    @Test
+    void price_chargesLikeDecimalArithmetic() {
+        for (int i = 0; i < SAMPLES; i++) {
+            // given
+            BigDecimal pcfRate = decimal(1 + random.nextInt(4000), 2 + random.nextInt(5));
+            BigDecimal itlRate = decimal(1 + random.nextInt(4000), 2 + random.nextInt(5));
+            BigDecimal certCharge = decimal(random.nextInt(10_000), random.nextInt(3));
+            ReflectionTestUtils.setField(pricingEngine, "pcfRate", pcfRate);
+            ReflectionTestUtils.setField(pricingEngine, "itlRate", itlRate);
+            ReflectionTestUtils.setField(pricingEngine, "certCharge", certCharge);
+            pricingEngine.initCharges();
+            RatingContext context = RatingContext.builder()
+                    .tenantId(TENANT)
+                    .category("PRIVATE_CAR")
+                    .vehicleValue(decimal(100_000 + random.nextInt(20_000_000), random.nextInt(3)))
+                    .selectedAddonIds(Set.of(4L, 5L))
+                    .build();
+
+            // when
+            PricingResult result = pricingEngine.priceCandidate(snapshot(), context);
+
+            // then
+            BigDecimal base = result.getBasePremium();
+            BigDecimal pcf = base.multiply(pcfRate).setScale(0, RoundingMode.UP);
+            BigDecimal itl = base.multiply(itlRate).setScale(0, RoundingMode.UP);
+            BigDecimal addonTotal = result.getAddons().stream().map(AddonBreakdown::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+            assertThat(result.getPcf()).as("pcf of %s at %s", base, pcfRate).isEqualTo(pcf);
+            assertThat(result.getItl()).as("itl of %s at %s", base, itlRate).isEqualTo(itl);
+            assertThat(result.getCertificateCharge()).isSameAs(certCharge);
+            assertThat(result.getTotalPremium()).as("total of %s", result)
+                    .isEqualTo(base.add(pcf).add(itl).add(certCharge).add(addonTotal).setScale(0, RoundingMode.UP));
+        }
+    }
+
+    @Test
+    void calculatePremium_matchesDecimalArithmetic() {
+        for (int i = 0; i < SAMPLES; i++) {
+            // given
+            BigDecimal vehicleValue = decimal(random.nextInt(50_000_000), random.nextInt(5));
+            BigDecimal baseRate = decimal(random.nextInt(200_000), 1 + random.nextInt(7));
+
+            // when
+            RatingService.PremiumBreakdown breakdown = ratingService.calculatePremium(vehicleValue, baseRate);
+
+            // then
+            BigDecimal basePremium = vehicleValue.multiply(baseRate).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal pcf = basePremium.multiply(new BigDecimal("0.0025")).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal itl = basePremium.multiply(new BigDecimal("0.0020")).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal certCharge = new BigDecimal("40.00");
+            assertThat(breakdown).as("%s x %s", vehicleValue, baseRate)
+                    .isEqualTo(new RatingService.PremiumBreakdown(basePremium, pcf, itl, certCharge,
+                            basePremium.add(pcf).add(itl).add(certCharge)));
+        }
+    }
+
+    @Test
+    void price_chargesWithDecimalsWhenConfiguredRatesAreNotRepresentable() {
+        // given
+        BigDecimal pcfRate = new BigDecimal("0.0025000000000001");
+        ReflectionTestUtils.setField(pricingEngine, "pcfRate", pcfRate);
+        ReflectionTestUtils.setField(pricingEngine, "itlRate", new BigDecimal("0.0020"));
+        ReflectionTestUtils.setField(pricingEngine, "certCharge", new BigDecimal("40.00"));
+        pricingEngine.initCharges();
+        RatingContext context = RatingContext.builder().tenantId(TENANT).category("PRIVATE_CAR")
+                .vehicleValue(new BigDecimal("1000000")).build();
+
+        // when
+        PricingResult result = pricingEngine.priceCandidate(snapshot(), context);
+
+        // then
+        assertThat(result.getPcf()).isEqualTo(result.getBasePremium().multiply(pcfRate).setScale(0, RoundingMode.UP));
+    }
+
+    @Test
+    void calculatePremium_usesDecimalsBeyondMoneysPricingRange() {
+        // given
+        BigDecimal vehicleValue = new BigDecimal("90000000000000.00");
+        BigDecimal baseRate = new BigDecimal("1000");
+
+        // when
+        RatingService.PremiumBreakdown breakdown = ratingService.calculatePremium(vehicleValue, baseRate);
+
+        // then
+        assertThat(breakdown.basePremium()).isEqualByComparingTo("90000000000000000");
+        assertThat(breakdown.pcf()).isEqualByComparingTo("225000000000000");
+    }
+
+    // Base premium as a rate or a flat amount, a minimum premium that may carry fractions of a cent, and two add-ons
+    private RateBookSnapshotLoader.Snapshot snapshot() {
+        String baseValue = random.nextBoolean()
+                ? decimal(1 + random.nextInt(99_999), 5).toPlainString()
+                : decimal(100_000 + random.nextInt(10_000_000), random.nextInt(3)).toPlainString();
+        return RateBookSnapshotLoader.Snapshot.from(RateBookDto.builder()
+                .id(1L).tenantId(TENANT).versionName("v1")
+                .rules(List.of(
+                        rule(1L, RuleType.BASE_PREMIUM, baseValue),
+                        rule(2L, RuleType.MIN_PREMIUM, decimal(random.nextInt(5_000_000), random.nextInt(4)).toPlainString()),
+                        rule(4L, RuleType.ADDON, decimal(random.nextInt(2_000_000), random.nextInt(3)).toPlainString()),
+                        rule(5L, RuleType.ADDON, decimal(random.nextInt(2_000_000), random.nextInt(3)).toPlainString())))
+                .build());
+    }
+
+    private static RateBookDto.RateRuleDto rule(Long id, RuleType type, String value) {
+        return RateBookDto.RateRuleDto.builder()
+                .id(id).ruleType(type).category("PRIVATE_CAR").description("Rule " + id).priority(1)
+                .valueExpression(value)
+                .build();
+    }
+
+    private static BigDecimal decimal(long unscaled, int scale) {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+}
@@ -1,14 +1,18 @@
 package com.isec.platform.modules.rating.service;
 
 import com.isec.platform.common.multitenancy.TenantContext;
+import com.isec.platform.modules.rating.compiler.CompiledRateBookRegistry;
+import com.isec.platform.modules.rating.dto.BatchPricingResult;
 import com.isec.platform.modules.rating.dto.RateBookDto;
 import com.isec.platform.modules.rating.dto.RatingContext;
 import com.isec.platform.modules.rating.dto.PricingResult;
 import com.isec.platform.modules.rating.dto.ReferralDecision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -26,16 +30,20 @@ class PricingEngineTest {
 
     private RateBookSnapshotLoader snapshotLoader;
     private RuleMatcher ruleMatcher;
+    private SimpleMeterRegistry meterRegistry;
     private PricingEngine pricingEngine;
 
     @BeforeEach
     void setUp() {
         snapshotLoader = Mockito.mock(RateBookSnapshotLoader.class);
         ruleMatcher = Mockito.mock(RuleMatcher.class);
-        pricingEngine = new PricingEngine(snapshotLoader, ruleMatcher);
+        meterRegistry = new SimpleMeterRegistry();
+        pricingEngine = new PricingEngine(snapshotLoader, ruleMatcher, Mockito.mock(CompiledRateBookRegistry.class),
+                new RatingMetrics(meterRegistry), new QuoteResultCache(), new RuleSelectivity(ruleMatcher), new RuleTraceSampler());
         ReflectionTestUtils.setField(pricingEngine, "pcfRate", new BigDecimal("0.0025"));
         ReflectionTestUtils.setField(pricingEngine, "itlRate", new BigDecimal("0.0020"));
         ReflectionTestUtils.setField(pricingEngine, "certCharge", new BigDecimal("40.00"));
+        pricingEngine.initCharges();
     }
 
     @Test
@@ -177,4 +185,139 @@ class PricingEngineTest {
                 })
                 .verifyComplete();
     }
+
+    @Test
+    void priceAll_pricesInOrderAndReportsFailuresPerItem() {
+        // given
+        String tenantId = "TENANT1";
+        RateBookDto.RateRuleDto baseRule = RateBookDto.RateRuleDto.builder()
+                .id(1L)
+                .ruleType(com.isec.platform.modules.rating.domain.RuleType.BASE_PREMIUM)
+                .category("PRIVATE_CAR")
+                .priority(10)
+                .build();
+
+        RateBookDto rb = RateBookDto.builder()
+                .id(1L)
+                .tenantId(tenantId)
+                .rules(List.of(baseRule))
+                .build();
+
+        when(snapshotLoader.loadActive(tenantId)).thenReturn(Mono.just(RateBookSnapshotLoader.Snapshot.from(rb)));
+        when(ruleMatcher.matches(any(), any())).thenReturn(true);
+        when(ruleMatcher.evaluateBigDecimal(eq(baseRule), any())).thenReturn(new BigDecimal("0.04"));
+
+        Flux<RatingContext> contexts = Flux.range(1, 50)
+                .map(i -> RatingContext.builder()
+                        .tenantId(tenantId)
+                        .category(i == 7 ? "MOTORCYCLE" : "PRIVATE_CAR")
+                        .vehicleValue(BigDecimal.valueOf(i * 100_000L))
+                        .build());
+
+        // when & then
+        pricingEngine.priceAll(contexts, true)
+                .collectList()
+                .as(StepVerifier::create)
+                .consumeNextWith(results -> {
+                    assertThat(results).hasSize(50);
+                    assertThat(results).extracting(BatchPricingResult::getIndex)
+                            .containsExactlyElementsOf(java.util.stream.LongStream.range(0, 50).boxed().toList());
+                    assertThat(results.get(0).getPricing().getBasePremium()).isEqualByComparingTo("4000");
+                    assertThat(results.get(49).getPricing().getBasePremium()).isEqualByComparingTo("200000");
+                    assertThat(results.get(6).getPricing()).isNull();
+                    assertThat(results.get(6).getError()).contains("No base premium rule matched");
+                })
+                .verifyComplete();
+
+        Mockito.verify(snapshotLoader, Mockito.times(1)).loadActive(tenantId);
+        assertThat(meterRegistry.get(RatingMetrics.QUOTES).tags("category", "OTHER", "outcome", "failed").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void price_recordsPhaseTimingsRuleCountsAndOutcomes() {
+        // given
+        String tenantId = "TENANT1";
+        RateBookDto.RateRuleDto eligibilityRule = RateBookDto.RateRuleDto.builder()
+                .id(1L)
+                .ruleType(com.isec.platform.modules.rating.domain.RuleType.ELIGIBILITY)
+                .category("PRIVATE_CAR")
+                .description("Max age 20")
+                .priority(1)
+                .conditionExpression("vehicleAge <= 20")
+                .build();
+        RateBookDto.RateRuleDto baseRule = RateBookDto.RateRuleDto.builder()
+                .id(2L)
+                .ruleType(com.isec.platform.modules.rating.domain.RuleType.BASE_PREMIUM)
+                .category("PRIVATE_CAR")
+                .priority(10)
+                .build();
+        RateBookDto rb = RateBookDto.builder()
+                .id(1L)
+                .tenantId(tenantId)
+                .rules(List.of(eligibilityRule, baseRule))
+                .build();
+        RatingContext eligible = RatingContext.builder().tenantId(tenantId).category("private_car")
+                .vehicleValue(new BigDecimal("1000000")).vehicleAge(4).build();
+        RatingContext tooOld = RatingContext.builder().tenantId(tenantId).category("PRIVATE_CAR")
+                .vehicleValue(new BigDecimal("1000000")).vehicleAge(25).build();
+
+        when(snapshotLoader.loadActive(tenantId)).thenReturn(Mono.just(RateBookSnapshotLoader.Snapshot.from(rb)));
+        when(ruleMatcher.matches(eq(eligibilityRule), any())).thenAnswer(call -> call.<RatingContext>getArgument(1).getVehicleAge() <= 20);
+        when(ruleMatcher.matches(eq(baseRule), any())).thenReturn(true);
+        when(ruleMatcher.evaluateBigDecimal(eq(baseRule), any())).thenReturn(new BigDecimal("0.04"));
+
+        // when
+        StepVerifier.create(pricingEngine.price(eligible)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(pricingEngine.price(tooOld)).expectErrorMessage("Not eligible for cover: Max age 20").verify();
+
+        // then
+        assertThat(meterRegistry.get(RatingMetrics.QUOTES).tags("tenant", tenantId, "category", "PRIVATE_CAR", "outcome", "accepted")
+                .counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get(RatingMetrics.QUOTES).tags("outcome", "declined").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get(RatingMetrics.RULES_EVALUATED).counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get(RatingMetrics.RULES_MATCHED).counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get(RatingMetrics.PHASE_TIMER).tags("phase", "snapshot_load").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(RatingMetrics.PHASE_TIMER).tags("phase", "eligibility").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(RatingMetrics.PHASE_TIMER).tags("phase", "charges").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void price_declinesWithFirstFailingRuleByPriorityWhateverTheEvaluationOrder() {
+        // given
+        String tenantId = "TENANT1";
+        RateBookDto.RateRuleDto ageLimit = RateBookDto.RateRuleDto.builder()
+                .id(1L)
+                .ruleType(com.isec.platform.modules.rating.domain.RuleType.ELIGIBILITY)
+                .category("PRIVATE_CAR")
+                .description("Max age 20")
+                .priority(1)
+                .build();
+        RateBookDto.RateRuleDto valueLimit = RateBookDto.RateRuleDto.builder()
+                .id(2L)
+                .ruleType(com.isec.platform.modules.rating.domain.RuleType.ELIGIBILITY)
+                .category("PRIVATE_CAR")
+                .description("Max value 5M")
+                .priority(2)
+                .build();
+        RateBookDto rb = RateBookDto.builder()
+                .id(1L)
+                .tenantId(tenantId)
+                .rules(List.of(ageLimit, valueLimit))
+                .build();
+        // Statistics put the value limit first
+        RuleSelectivity selectivity = Mockito.mock(RuleSelectivity.class);
+        when(selectivity.order(any(), any())).thenReturn(List.of(valueLimit, ageLimit));
+        when(selectivity.record(any(), any(), Mockito.anyBoolean())).thenAnswer(call -> call.getArgument(2));
+        pricingEngine = new PricingEngine(snapshotLoader, ruleMatcher, Mockito.mock(CompiledRateBookRegistry.class),
+                new RatingMetrics(meterRegistry), new QuoteResultCache(), selectivity, new RuleTraceSampler());
+        RatingContext context = RatingContext.builder().tenantId(tenantId).category("PRIVATE_CAR")
+                .vehicleValue(new BigDecimal("9000000")).vehicleAge(25).build();
+
+        when(snapshotLoader.loadActive(tenantId)).thenReturn(Mono.just(RateBookSnapshotLoader.Snapshot.from(rb)));
+        when(ruleMatcher.matches(any(), any())).thenReturn(false);
+
+        // when & then
+        StepVerifier.create(pricingEngine.price(context)).expectErrorMessage("Not eligible for cover: Max age 20").verify();
+    }
 }
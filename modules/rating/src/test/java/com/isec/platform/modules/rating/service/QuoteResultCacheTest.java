@@ -0,0 +1,139 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.PricingResult;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuoteResultCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RatingMetrics ratingMetrics = new RatingMetrics(meterRegistry);
+    private final QuoteResultCache cache = new QuoteResultCache();
+    private final AtomicInteger pricings = new AtomicInteger();
+
+    @Test
+    void get_sharesResultsBetweenQuotesThatDifferOnlyInUnreferencedFields() {
+        // given - the rate book reads vehicleAge, vehicleMake and additionalData['courtesyCarDays'], never the model
+        RateBookSnapshotLoader.Snapshot snapshot = snapshot("v1",
+                rule(1L, RuleType.ELIGIBILITY, "vehicleAge <= 20", null),
+                rule(2L, RuleType.BASE_PREMIUM, "iequals(vehicleMake, 'Toyota')", "0.04"),
+                rule(3L, RuleType.ADDON, "true", "coalesce(additionalData['courtesyCarDays'], 0) * 300"));
+
+        // when
+        PricingResult first = get(snapshot, context("Corolla", 4, new BigDecimal("1000000"), Map.of("courtesyCarDays", 10, "colour", "red")));
+        PricingResult sameRisk = get(snapshot, context("Fielder", 4, new BigDecimal("1000000.00"), Map.of("courtesyCarDays", 10)));
+        get(snapshot, context("Corolla", 5, new BigDecimal("1000000"), Map.of("courtesyCarDays", 10)));
+        get(snapshot, context("Corolla", 4, new BigDecimal("1000000"), Map.of("courtesyCarDays", "10")));
+
+        // then
+        assertThat(pricings).hasValue(3);
+        assertThat(sameRisk).isEqualTo(first).isNotSameAs(first);
+        assertThat(meterRegistry.get(RatingMetrics.QUOTE_CACHE).tags("result", "hit").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get(RatingMetrics.QUOTE_CACHE).tags("result", "miss").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void get_dropsEntriesWhenTheSnapshotIsReloaded() {
+        // given
+        RateBookSnapshotLoader.Snapshot published = snapshot("v1", rule(1L, RuleType.BASE_PREMIUM, "true", "0.04"));
+        RateBookSnapshotLoader.Snapshot reloaded = snapshot("v1", rule(1L, RuleType.BASE_PREMIUM, "true", "0.05"));
+        RatingContext context = context("Corolla", 4, new BigDecimal("1000000"), null);
+
+        // when
+        get(published, context);
+        get(published, context);
+        get(reloaded, context);
+
+        // then
+        assertThat(pricings).hasValue(2);
+        assertThat(cache.size("SANLAM")).isEqualTo(1);
+    }
+
+    @Test
+    void get_keysOnEveryFieldWhenARuleNeedsTheSpelFallback() {
+        // given
+        RateBookSnapshotLoader.Snapshot snapshot = snapshot("v1",
+                rule(1L, RuleType.BASE_PREMIUM, "#root != null", "0.04"));
+
+        // when
+        get(snapshot, context("Corolla", 4, BigDecimal.TEN, Map.of("colour", "red")));
+        get(snapshot, context("Fielder", 4, BigDecimal.TEN, Map.of("colour", "red")));
+        get(snapshot, context("Fielder", 4, BigDecimal.TEN, Map.of("colour", "blue")));
+        get(snapshot, context("Fielder", 4, BigDecimal.TEN, Map.of("colour", "blue")));
+
+        // then
+        assertThat(pricings).hasValue(3);
+    }
+
+    @Test
+    void get_alwaysPricesExcludedTenants() {
+        // given
+        ReflectionTestUtils.setField(cache, "excludedTenants", List.of("APA", "SANLAM"));
+        RateBookSnapshotLoader.Snapshot snapshot = snapshot("v1", rule(1L, RuleType.BASE_PREMIUM, "true", "0.04"));
+        RatingContext context = context("Corolla", 4, BigDecimal.TEN, null);
+
+        // when
+        get(snapshot, context);
+        get(snapshot, context);
+
+        // then
+        assertThat(pricings).hasValue(2);
+        assertThat(cache.isEnabled("ICEA")).isTrue();
+    }
+
+    private PricingResult get(RateBookSnapshotLoader.Snapshot snapshot, RatingContext context) {
+        RatingMetrics.Recorder recorder = ratingMetrics.start(context, snapshot.index(), System.nanoTime());
+        Supplier<PricingResult> pricing = () -> PricingResult.builder()
+                .totalPremium(BigDecimal.valueOf(pricings.incrementAndGet()))
+                .appliedRuleIds(new ArrayList<>(List.of(1L)))
+                .build();
+        return cache.get(snapshot, context, recorder, pricing);
+    }
+
+    private RateBookSnapshotLoader.Snapshot snapshot(String version, RateBookDto.RateRuleDto... rules) {
+        return RateBookSnapshotLoader.Snapshot.from(RateBookDto.builder()
+                .id(1L)
+                .tenantId("SANLAM")
+                .versionName(version)
+                .rules(List.of(rules))
+                .build());
+    }
+
+    private RateBookDto.RateRuleDto rule(Long id, RuleType type, String condition, String value) {
+        return RateBookDto.RateRuleDto.builder()
+                .id(id)
+                .ruleType(type)
+                .category("PRIVATE_CAR")
+                .priority(1)
+                .conditionExpression(condition)
+                .valueExpression(value)
+                .build();
+    }
+
+    private RatingContext context(String model, Integer age, BigDecimal value, Map<String, Object> additionalData) {
+        return RatingContext.builder()
+                .tenantId("SANLAM")
+                .category("PRIVATE_CAR")
+                .vehicleValue(value)
+                .vehicleAge(age)
+                .vehicleMake("Toyota")
+                .vehicleModel(model)
+                .selectedAddonIds(Set.of(3L))
+                .additionalData(additionalData)
+                .build();
+    }
+}
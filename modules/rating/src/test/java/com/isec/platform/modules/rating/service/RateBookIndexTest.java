@@ -0,0 +1,88 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateBookIndexTest {
+
+    @Test
+    void of_groupsByNormalizedCategoryAndSortsByPriority() {
+        // given
+        RateBookDto rb = RateBookDto.builder()
+                .id(1L)
+                .tenantId("SANLAM")
+                .rules(List.of(
+                        rule(3L, RuleType.BASE_PREMIUM, "PRIVATE_CAR", 10),
+                        rule(1L, RuleType.BASE_PREMIUM, "private_car ", 4),
+                        rule(2L, RuleType.BASE_PREMIUM, "COMMERCIAL", 1),
+                        rule(5L, RuleType.ADDON, "PRIVATE_CAR", 30),
+                        rule(4L, RuleType.ADDON, "PRIVATE_CAR", 30)))
+                .build();
+
+        // when
+        RateBookIndex index = RateBookIndex.of(rb);
+
+        // then
+        assertThat(index.rules("Private_Car", RuleType.BASE_PREMIUM))
+                .extracting(RateBookDto.RateRuleDto::getId)
+                .containsExactly(1L, 3L);
+        assertThat(index.rules("PRIVATE_CAR", RuleType.ADDON))
+                .extracting(RateBookDto.RateRuleDto::getId)
+                .containsExactly(4L, 5L);
+        assertThat(index.rules("COMMERCIAL", RuleType.ADDON)).isEmpty();
+        assertThat(index.rules(null, RuleType.BASE_PREMIUM)).isEmpty();
+        assertThat(index.addon(5L).getPriority()).isEqualTo(30);
+        assertThat(index.addon(3L)).isNull();
+        assertThat(index.addons()).extracting(RateBookDto.RateRuleDto::getId).containsExactly(5L, 4L);
+    }
+
+    @Test
+    void of_indexesByCategoryIdAndInternsRuleText() {
+        // given
+        RateBookDto rb = RateBookDto.builder()
+                .id(1L)
+                .rules(List.of(
+                        rule(1L, RuleType.BASE_PREMIUM, new String("PRIVATE_CAR"), 4),
+                        rule(2L, RuleType.ADDON, new String("PRIVATE_CAR"), 30),
+                        rule(3L, RuleType.ADDON, "COMMERCIAL", 30)))
+                .build();
+
+        // when
+        RateBookIndex index = RateBookIndex.of(rb);
+
+        // then
+        int privateCar = index.categoryIds().lookup("private_car");
+        int commercial = index.categoryIds().lookup("COMMERCIAL");
+        assertThat(index.hasCategory(privateCar)).isTrue();
+        assertThat(index.rules(privateCar, RuleType.BASE_PREMIUM)).extracting(RateBookDto.RateRuleDto::getId).containsExactly(1L);
+        assertThat(index.addon(2L, privateCar)).isNotNull();
+        assertThat(index.addon(2L, commercial)).isNull();
+        assertThat(index.addon(3L, CategoryRegistry.UNKNOWN)).isNull();
+        assertThat(index.rules(CategoryRegistry.UNKNOWN, RuleType.BASE_PREMIUM)).isEmpty();
+        assertThat(rb.getRules().get(0).getCategory()).isSameAs(rb.getRules().get(1).getCategory());
+        assertThat(rb.getRules().get(0).getDescription()).isSameAs("Rule 1".intern());
+    }
+
+    @Test
+    void of_handlesEmptyRateBook() {
+        RateBookIndex index = RateBookIndex.of(RateBookDto.builder().id(1L).build());
+
+        assertThat(index.rules("PRIVATE_CAR", RuleType.BASE_PREMIUM)).isEmpty();
+        assertThat(index.addons()).isEmpty();
+    }
+
+    private RateBookDto.RateRuleDto rule(Long id, RuleType type, String category, int priority) {
+        return RateBookDto.RateRuleDto.builder()
+                .id(id)
+                .ruleType(type)
+                .category(category)
+                .priority(priority)
+                .description("Rule " + id)
+                .build();
+    }
+}
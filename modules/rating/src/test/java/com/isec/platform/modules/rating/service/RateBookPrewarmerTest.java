@@ -0,0 +1,85 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.domain.RateBook;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.repository.RateBookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RateBookPrewarmerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 31, 23, 50);
+
+    private RateBookRepository rateBookRepository;
+    private RateBookSnapshotLoader snapshotLoader;
+    private PricingEngine pricingEngine;
+    private RateBookPrewarmer prewarmer;
+
+    @BeforeEach
+    void setUp() {
+        rateBookRepository = Mockito.mock(RateBookRepository.class);
+        snapshotLoader = Mockito.mock(RateBookSnapshotLoader.class);
+        pricingEngine = Mockito.mock(PricingEngine.class);
+        prewarmer = new RateBookPrewarmer(rateBookRepository, snapshotLoader, pricingEngine);
+        ReflectionTestUtils.setField(prewarmer, "leadMinutes", 15L);
+        ReflectionTestUtils.setField(prewarmer, "clock", Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        when(pricingEngine.prepare(any())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void prewarm_preparesEachTenantsNextRateBook() {
+        // given
+        LocalDateTime cutover = NOW.plusMinutes(10);
+        when(rateBookRepository.findBecomingEffective(NOW, NOW.plusMinutes(15))).thenReturn(Flux.just(
+                rateBook(2L, "SANLAM", cutover), rateBook(3L, "SANLAM", cutover.plusMinutes(1)), rateBook(4L, "APA", cutover)));
+        RateBookSnapshotLoader.Snapshot sanlam = snapshot(2L, "SANLAM", cutover);
+        RateBookSnapshotLoader.Snapshot apa = snapshot(4L, "APA", cutover);
+        when(snapshotLoader.prepareUpcoming("SANLAM", cutover)).thenReturn(Mono.just(sanlam));
+        when(snapshotLoader.prepareUpcoming("APA", cutover)).thenReturn(Mono.error(new IllegalStateException("DB down")));
+
+        // when & then
+        StepVerifier.create(prewarmer.prewarm()).verifyComplete();
+        verify(snapshotLoader, times(2)).prepareUpcoming(anyString(), any());
+        verify(pricingEngine).prepare(sanlam);
+        verify(pricingEngine, never()).prepare(apa);
+    }
+
+    @Test
+    void prewarm_skipsRateBooksAlreadyPrepared() {
+        // given
+        LocalDateTime cutover = NOW.plusMinutes(10);
+        when(rateBookRepository.findBecomingEffective(NOW, NOW.plusMinutes(15))).thenReturn(Flux.just(rateBook(2L, "SANLAM", cutover)));
+        when(snapshotLoader.upcoming("SANLAM")).thenReturn(snapshot(2L, "SANLAM", cutover));
+
+        // when & then
+        StepVerifier.create(prewarmer.prewarm()).verifyComplete();
+        verify(snapshotLoader, never()).prepareUpcoming(anyString(), any());
+    }
+
+    private static RateBook rateBook(Long id, String tenantId, LocalDateTime effectiveFrom) {
+        RateBook rateBook = RateBook.builder().id(id).versionName("v" + id).active(true).effectiveFrom(effectiveFrom).build();
+        rateBook.setTenantId(tenantId);
+        return rateBook;
+    }
+
+    private static RateBookSnapshotLoader.Snapshot snapshot(Long id, String tenantId, LocalDateTime effectiveFrom) {
+        return RateBookSnapshotLoader.Snapshot.from(RateBookDto.builder()
+                .id(id).tenantId(tenantId).versionName("v" + id).effectiveFrom(effectiveFrom).build());
+    }
+}
@@ -0,0 +1,144 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.compiler.CompiledRateBookRegistry;
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.HistoricalQuote;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import com.isec.platform.modules.rating.dto.ReferralDecision;
+import com.isec.platform.modules.rating.dto.SimulatedQuote;
+import com.isec.platform.modules.rating.dto.SimulationRequest;
+import com.isec.platform.modules.rating.dto.SimulationResult;
+import com.isec.platform.modules.rating.dto.SimulationSummary;
+import com.isec.platform.modules.rating.repository.HistoricalQuoteRepository;
+import com.isec.platform.modules.rating.repository.RateRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateBookSimulationServiceTest {
+
+    private static final String TENANT = "SANLAM";
+
+    private RateBookSimulationService simulationService;
+    private RateBookSnapshotLoader.Snapshot candidate;
+
+    @BeforeEach
+    void setUp() {
+        PricingEngine pricingEngine = new PricingEngine(Mockito.mock(RateBookSnapshotLoader.class), new RuleMatcher(),
+                Mockito.mock(CompiledRateBookRegistry.class), RatingMetrics.noop(), new QuoteResultCache(),
+                RuleSelectivity.unobserved(), new RuleTraceSampler());
+        ReflectionTestUtils.setField(pricingEngine, "pcfRate", new BigDecimal("0.0025"));
+        ReflectionTestUtils.setField(pricingEngine, "itlRate", new BigDecimal("0.0020"));
+        ReflectionTestUtils.setField(pricingEngine, "certCharge", new BigDecimal("40.00"));
+        pricingEngine.initCharges();
+        simulationService = new RateBookSimulationService(Mockito.mock(RateBookService.class), Mockito.mock(RateBookSnapshotLoader.class),
+                Mockito.mock(RateRuleRepository.class), Mockito.mock(HistoricalQuoteRepository.class), pricingEngine);
+
+        candidate = RateBookSnapshotLoader.Snapshot.from(RateBookDto.builder()
+                .id(5L).tenantId(TENANT).versionName("v2-candidate")
+                .rules(List.of(
+                        rule(1L, RuleType.ELIGIBILITY, "Vehicle older than 15 years", "vehicleAge <= 15", null),
+                        rule(2L, RuleType.REFERRAL, "High value vehicle", "vehicleValue > 5000000", null),
+                        rule(3L, RuleType.BASE_PREMIUM, "Base rate", null, "0.05")))
+                .build());
+    }
+
+    @Test
+    void replay_repricesEachQuoteAndEndsWithSummary() {
+        // given
+        Flux<HistoricalQuote> corpus = Flux.just(
+                quote(SimulationRequest.Source.APPLICATIONS, "Q1", null, "1000000", 5, "40000", ReferralDecision.NONE, List.of(99L)),
+                quote(SimulationRequest.Source.APPLICATIONS, "Q2", null, "6000000", 2, "240000", ReferralDecision.REFERRED, List.of()),
+                quote(SimulationRequest.Source.MOTOR_QUOTES, "Q3", "PRIVATE_CAR", "800000", 20, "30000", null, List.of()),
+                quote(SimulationRequest.Source.MOTOR_QUOTES, "Q4", "PRIVATE_CAR", null, 3, "30000", null, List.of()));
+
+        // when
+        List<SimulationResult> results = simulationService.replay(candidate, corpus, Map.of(99L, "PRIVATE_CAR"), "PRIVATE_CAR")
+                .collectList().block();
+
+        // then
+        assertThat(results).hasSize(5);
+        Map<String, SimulatedQuote> quotes = results.subList(0, 4).stream()
+                .map(SimulationResult::getQuote)
+                .collect(Collectors.toMap(SimulatedQuote::getReference, Function.identity()));
+        assertThat(quotes.get("Q1").getCandidateOutcome()).isEqualTo(SimulatedQuote.Outcome.ACCEPTED);
+        assertThat(quotes.get("Q1").getCandidatePremium()).isEqualByComparingTo("50265");
+        assertThat(quotes.get("Q1").getPremiumDelta()).isEqualByComparingTo("10265");
+        assertThat(quotes.get("Q2").getCandidateOutcome()).isEqualTo(SimulatedQuote.Outcome.REFERRED);
+        assertThat(quotes.get("Q2").getCategory()).isEqualTo("PRIVATE_CAR");
+        assertThat(quotes.get("Q3").getCandidateOutcome()).isEqualTo(SimulatedQuote.Outcome.DECLINED);
+        assertThat(quotes.get("Q3").getCandidateReason()).contains("Vehicle older than 15 years");
+        assertThat(quotes.get("Q4").getCandidateOutcome()).isEqualTo(SimulatedQuote.Outcome.FAILED);
+        assertThat(quotes.get("Q4").getPremiumDelta()).isNull();
+
+        SimulationSummary summary = results.get(4).getSummary();
+        assertThat(summary.getQuotes()).isEqualTo(4);
+        assertThat(summary.getAccepted()).isEqualTo(1);
+        assertThat(summary.getReferred()).isEqualTo(1);
+        assertThat(summary.getDeclined()).isEqualTo(1);
+        assertThat(summary.getFailed()).isEqualTo(1);
+        assertThat(summary.getBaselineReferralRate()).isEqualByComparingTo("0.5");
+        assertThat(summary.getCandidateReferralRate()).isEqualByComparingTo("0.25");
+        assertThat(summary.getCandidateDeclineRate()).isEqualByComparingTo("0.25");
+        assertThat(summary.getCompared()).isEqualTo(2);
+        assertThat(summary.getBaselineTotalPremium()).isEqualByComparingTo("280000");
+        assertThat(summary.getCandidateTotalPremium()).isEqualByComparingTo("351655");
+        assertThat(summary.getPremiumChangeDistribution()).containsEntry(">=20%", 2L);
+        assertThat(summary.getRuleHits()).containsExactly(Map.entry(1L, 2L), Map.entry(2L, 1L), Map.entry(3L, 2L));
+    }
+
+    @Test
+    void csv_rendersQuoteRowsAndSummaryMetrics() {
+        // given
+        Flux<HistoricalQuote> corpus = Flux.just(
+                quote(SimulationRequest.Source.MOTOR_QUOTES, "Q,1", "PRIVATE_CAR", "1000000", 5, "40000", null, List.of()));
+
+        // when
+        List<String> lines = SimulationCsv.lines(simulationService.replay(candidate, corpus, Map.of(), "PRIVATE_CAR"))
+                .collectList().block();
+
+        // then
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).isEqualTo(SimulationCsv.HEADER);
+        assertThat(lines.get(1)).startsWith("MOTOR_QUOTES,\"Q,1\",").contains(",50265,ACCEPTED,10265,,1 3\n");
+        assertThat(lines.get(2)).contains("\nquotes,1\n", "\nrule_hits[3],1\n", "\npremium_change[>=20%],1\n");
+    }
+
+    private static RateBookDto.RateRuleDto rule(Long id, RuleType type, String description, String condition, String value) {
+        return RateBookDto.RateRuleDto.builder()
+                .id(id).ruleType(type).category("PRIVATE_CAR").description(description).priority(1)
+                .conditionExpression(condition).valueExpression(value)
+                .build();
+    }
+
+    private static HistoricalQuote quote(SimulationRequest.Source source, String reference, String category, String vehicleValue,
+                                         int vehicleAge, String baselinePremium, ReferralDecision baselineDecision,
+                                         List<Long> baselineRuleIds) {
+        return HistoricalQuote.builder()
+                .source(source)
+                .reference(reference)
+                .context(RatingContext.builder()
+                        .tenantId(TENANT)
+                        .category(category)
+                        .vehicleValue(vehicleValue == null ? null : new BigDecimal(vehicleValue))
+                        .vehicleAge(vehicleAge)
+                        .selectedAddonIds(Set.of())
+                        .build())
+                .baselinePremium(new BigDecimal(baselinePremium))
+                .baselineDecision(baselineDecision)
+                .baselineRuleIds(baselineRuleIds)
+                .build();
+    }
+}
@@ -0,0 +1,268 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.domain.RateBook;
+import com.isec.platform.modules.rating.domain.RateRule;
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.repository.RateBookRepository;
+import com.isec.platform.modules.rating.repository.RateRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RateBookSnapshotLoaderTest {
+
+    private static final String TENANT = "SANLAM";
+    private static final String CACHE_KEY = RateBookSnapshotLoader.RATEBOOK_CACHE + "::" + TENANT;
+
+    private RateBookRepository rateBookRepository;
+    private RateRuleRepository rateRuleRepository;
+    private RuleMatcher ruleMatcher;
+    private RuleSelectivity ruleSelectivity;
+    private ReactiveRedisTemplate<String, Object> redisTemplate;
+    private ReactiveValueOperations<String, Object> valueOps;
+    private ReactiveStringRedisTemplate stringRedisTemplate;
+    private RateBookSnapshotLoader loader;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        rateBookRepository = Mockito.mock(RateBookRepository.class);
+        rateRuleRepository = Mockito.mock(RateRuleRepository.class);
+        ruleMatcher = Mockito.mock(RuleMatcher.class);
+        ruleSelectivity = Mockito.mock(RuleSelectivity.class);
+        redisTemplate = Mockito.mock(ReactiveRedisTemplate.class);
+        valueOps = Mockito.mock(ReactiveValueOperations.class);
+        stringRedisTemplate = Mockito.mock(ReactiveStringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get(anyString())).thenReturn(Mono.empty());
+        when(valueOps.set(anyString(), any(), any())).thenReturn(Mono.just(true));
+        when(redisTemplate.delete(anyString())).thenReturn(Mono.just(1L));
+        when(stringRedisTemplate.convertAndSend(anyString(), anyString())).thenReturn(Mono.just(1L));
+
+        loader = new RateBookSnapshotLoader(rateBookRepository, rateRuleRepository, ruleMatcher, ruleSelectivity, redisTemplate, stringRedisTemplate);
+        ReflectionTestUtils.setField(loader, "cacheTtlMinutes", 30L);
+
+        RateBook rateBook = RateBook.builder().id(1L).name("Sanlam").versionName("v1").active(true)
+                .effectiveFrom(LocalDateTime.of(2024, 1, 1, 0, 0)).build();
+        rateBook.setTenantId(TENANT);
+        when(rateBookRepository.findEffective(eq(TENANT), any())).thenReturn(Mono.just(rateBook));
+        when(rateBookRepository.findNextEffective(eq(TENANT), any())).thenReturn(Mono.empty());
+        when(rateRuleRepository.findAllByRateBookId(1L)).thenReturn(Flux.just(RateRule.builder()
+                .id(10L).rateBookId(1L).ruleType(RuleType.BASE_PREMIUM).category("PRIVATE_CAR").priority(1).build()));
+    }
+
+    @Test
+    void loadActive_servesFromLocalCacheAfterFirstLoad() {
+        // when
+        StepVerifier.create(loader.loadActive(TENANT))
+                .consumeNextWith(snapshot -> assertThat(snapshot.cacheKey()).isEqualTo("SANLAM:1:v1"))
+                .verifyComplete();
+        StepVerifier.create(loader.loadActive(TENANT))
+                .consumeNextWith(snapshot -> assertThat(snapshot.index().rules("PRIVATE_CAR", RuleType.BASE_PREMIUM)).hasSize(1))
+                .verifyComplete();
+
+        // then
+        verify(valueOps, times(1)).get(CACHE_KEY);
+        verify(valueOps, times(1)).set(eq(CACHE_KEY), any(), any());
+        verify(rateBookRepository, times(1)).findEffective(eq(TENANT), any());
+        verify(ruleSelectivity, times(1)).retain(eq(TENANT), any());
+    }
+
+    @Test
+    void loadActive_prefersSharedRedisCopyOverDatabase() {
+        // given
+        RateBookSnapshotLoader.Snapshot shared = RateBookSnapshotLoader.Snapshot.from(
+                com.isec.platform.modules.rating.dto.RateBookDto.builder().id(7L).tenantId(TENANT).versionName("v7").build());
+        when(valueOps.get(CACHE_KEY)).thenReturn(Mono.just(shared));
+
+        // when & then
+        StepVerifier.create(loader.loadActive(TENANT))
+                .consumeNextWith(snapshot -> assertThat(snapshot.rateBookId()).isEqualTo(7L))
+                .verifyComplete();
+        verify(rateBookRepository, never()).findEffective(anyString(), any());
+    }
+
+    @Test
+    void loadActive_ignoresSharedCopyNoLongerInEffect() {
+        // given
+        RateBookSnapshotLoader.Snapshot expired = RateBookSnapshotLoader.Snapshot.from(
+                com.isec.platform.modules.rating.dto.RateBookDto.builder().id(7L).tenantId(TENANT).versionName("v7")
+                        .effectiveFrom(LocalDateTime.of(2024, 1, 1, 0, 0)).build(),
+                LocalDateTime.of(2025, 1, 1, 0, 0));
+        when(valueOps.get(CACHE_KEY)).thenReturn(Mono.just(expired));
+
+        // when & then
+        StepVerifier.create(loader.loadActive(TENANT))
+                .consumeNextWith(snapshot -> assertThat(snapshot.rateBookId()).isEqualTo(1L))
+                .verifyComplete();
+        verify(valueOps).set(eq(CACHE_KEY), any(), any());
+    }
+
+    @Test
+    void loadActive_switchesToPreparedRateBookWhenItTakesEffect() {
+        // given
+        LocalDateTime cutover = LocalDateTime.of(2026, 4, 1, 0, 0);
+        RateBook next = RateBook.builder().id(2L).name("Sanlam").versionName("v2").active(true).effectiveFrom(cutover).build();
+        next.setTenantId(TENANT);
+        when(rateBookRepository.findEffective(TENANT, cutover)).thenReturn(Mono.just(next));
+        when(rateBookRepository.findNextEffective(TENANT, cutover.minusMinutes(10))).thenReturn(Mono.just(next));
+        when(rateRuleRepository.findAllByRateBookId(2L)).thenReturn(Flux.empty());
+        setClock(cutover.minusMinutes(10));
+
+        RateBookSnapshotLoader.Snapshot current = loader.loadActive(TENANT).block();
+        RateBookSnapshotLoader.Snapshot upcoming = loader.prepareUpcoming(TENANT, cutover).block();
+
+        // when & then
+        assertThat(current.validUntil()).isEqualTo(cutover);
+        setClock(cutover.minusNanos(1));
+        assertThat(loader.loadActive(TENANT).block()).isSameAs(current);
+        setClock(cutover);
+        assertThat(loader.loadActive(TENANT).block()).isSameAs(upcoming);
+        assertThat(loader.loadActive(TENANT).block().cacheKey()).isEqualTo("SANLAM:2:v2");
+        assertThat(loader.upcoming(TENANT)).isNull();
+        verify(rateBookRepository, times(1)).findEffective(TENANT, cutover);
+        verify(valueOps, times(1)).get(CACHE_KEY);
+    }
+
+    @Test
+    void invalidate_dropsPreparedRateBook() {
+        // given
+        LocalDateTime cutover = LocalDateTime.now().plusMinutes(5);
+        loader.prepareUpcoming(TENANT, cutover).block();
+
+        // when
+        StepVerifier.create(loader.invalidate(TENANT)).verifyComplete();
+
+        // then
+        assertThat(loader.upcoming(TENANT)).isNull();
+    }
+
+    @Test
+    void loadActive_fallsBackToDatabaseWhenRedisFails() {
+        // given
+        when(valueOps.get(CACHE_KEY)).thenReturn(Mono.error(new IllegalStateException("Redis down")));
+        when(valueOps.set(anyString(), any(), any())).thenReturn(Mono.error(new IllegalStateException("Redis down")));
+
+        // when & then
+        StepVerifier.create(loader.loadActive(TENANT))
+                .consumeNextWith(snapshot -> assertThat(snapshot.rateBookId()).isEqualTo(1L))
+                .verifyComplete();
+    }
+
+    @Test
+    void invalidate_evictsLocalAndSharedCopiesAndBroadcasts() {
+        // given
+        loader.loadActive(TENANT).block();
+
+        // when
+        StepVerifier.create(loader.invalidate(TENANT)).verifyComplete();
+        loader.loadActive(TENANT).block();
+
+        // then
+        verify(redisTemplate).delete(CACHE_KEY);
+        verify(stringRedisTemplate).convertAndSend(eq(RateBookSnapshotLoader.INVALIDATION_CHANNEL), Mockito.endsWith(":" + TENANT));
+        // Other tenants' compiled expressions stay cached
+        verify(ruleMatcher, never()).invalidateCache();
+        verify(rateBookRepository, times(2)).findEffective(eq(TENANT), any());
+    }
+
+    @Test
+    void invalidateAll_clearsCompiledExpressions() {
+        // given
+        when(redisTemplate.scan(any())).thenReturn(Flux.just(CACHE_KEY));
+
+        // when
+        StepVerifier.create(loader.invalidateAll()).verifyComplete();
+
+        // then
+        verify(redisTemplate).delete(CACHE_KEY);
+        verify(ruleMatcher, Mockito.atLeastOnce()).invalidateCache();
+    }
+
+    @Test
+    void loadActive_keepsLoadThatRacedWithAnotherTenantsInvalidation() {
+        // given
+        Sinks.Empty<Object> redisRead = Sinks.empty();
+        when(valueOps.get(CACHE_KEY)).thenReturn(redisRead.asMono());
+        loader.loadActive(TENANT).subscribe();
+
+        // when
+        loader.evictLocal("OTHER");
+        redisRead.tryEmitEmpty();
+
+        // then
+        StepVerifier.create(loader.loadActive(TENANT))
+                .consumeNextWith(snapshot -> assertThat(snapshot.rateBookId()).isEqualTo(1L))
+                .verifyComplete();
+        verify(rateBookRepository, times(1)).findEffective(eq(TENANT), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loadActive_loadFinishingAfterAnInvalidationLeavesTheNewerLoadInFlight() {
+        // given
+        Sinks.Empty<Object> staleRead = Sinks.empty();
+        Sinks.Empty<Object> freshRead = Sinks.empty();
+        when(valueOps.get(CACHE_KEY)).thenReturn(staleRead.asMono(), freshRead.asMono());
+        loader.loadActive(TENANT).subscribe();
+        loader.evictLocal(TENANT);
+        loader.loadActive(TENANT).subscribe();
+
+        // when
+        staleRead.tryEmitEmpty();
+
+        // then
+        Map<String, ?> inFlightLoads = (Map<String, ?>) ReflectionTestUtils.getField(loader, "inFlightLoads");
+        assertThat(inFlightLoads).containsKey(TENANT);
+        loader.loadActive(TENANT).subscribe();
+        verify(valueOps, times(2)).get(CACHE_KEY);
+    }
+
+    @Test
+    void onInvalidationMessage_ignoresOwnBroadcastsAndEvictsOnRemoteOnes() {
+        // given
+        loader.loadActive(TENANT).block();
+        String nodeId = (String) ReflectionTestUtils.getField(loader, "nodeId");
+
+        // when - own broadcast
+        loader.onInvalidationMessage(nodeId + ":" + TENANT);
+        loader.loadActive(TENANT).block();
+
+        // then
+        verify(rateBookRepository, times(1)).findEffective(eq(TENANT), any());
+
+        // when - remote broadcast (reloads in the background)
+        loader.onInvalidationMessage("other-node:" + TENANT);
+
+        // then
+        verify(rateBookRepository, times(2)).findEffective(eq(TENANT), any());
+        verify(stringRedisTemplate, never()).convertAndSend(anyString(), startsWith("other-node"));
+    }
+
+    private void setClock(LocalDateTime now) {
+        ReflectionTestUtils.setField(loader, "clock", Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+}
@@ -45,6 +45,8 @@ class RedisSerializationTest {
                 .rules(List.of(
                         RateBookDto.RateRuleDto.builder()
                                 .id(100L)
+                                .ruleType(com.isec.platform.modules.rating.domain.RuleType.ADDON)
+                                .category("PRIVATE_CAR")
                                 .description("Test Rule")
                                 .priority(1)
                                 .build()
@@ -63,5 +65,8 @@ class RedisSerializationTest {
         assertThat(result.rateBook().getTenantId()).isEqualTo("SANLAM");
         assertThat(result.rateBook().getRules()).hasSize(1);
         assertThat(result.rateBook().getRules().get(0).getDescription()).isEqualTo("Test Rule");
+        assertThat(new String(serialized)).doesNotContain("\"index\"");
+        assertThat(result.index().addon(100L)).isNotNull();
+        assertThat(result.index().rules("private_car", com.isec.platform.modules.rating.domain.RuleType.ADDON)).hasSize(1);
     }
 }
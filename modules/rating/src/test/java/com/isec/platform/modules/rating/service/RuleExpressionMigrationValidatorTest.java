@@ -0,0 +1,75 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.domain.RateRule;
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.ExpressionMigrationResult;
+import com.isec.platform.modules.rating.repository.RateRuleRepository;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class RuleExpressionMigrationValidatorTest {
+
+    private final RateRuleRepository rateRuleRepository = Mockito.mock(RateRuleRepository.class);
+    private final RuleExpressionMigrationValidator validator =
+            new RuleExpressionMigrationValidator(rateRuleRepository, new RuleMatcher());
+
+    @Test
+    void validateAll_classifiesEveryStoredExpression() {
+        // given
+        when(rateRuleRepository.findAll()).thenReturn(Flux.just(
+                rule(1L, "vehicleValue between 500000 and 15000000", null),
+                rule(2L, "vehicleValue.doubleValue() <= 600000", "37500"),
+                rule(3L, "true", "T(java.lang.Math).max(5000.0, vehicleValue.doubleValue() * 0.005)"),
+                rule(4L, "#root != null", null),
+                rule(5L, "vehicleValue >>> 1", null)));
+
+        // when & then
+        StepVerifier.create(validator.validateAll().collectList())
+                .assertNext(results -> {
+                    assertThat(results).extracting(ExpressionMigrationResult::getRuleId, ExpressionMigrationResult::getField,
+                                    ExpressionMigrationResult::getStatus)
+                            .containsExactly(
+                                    Tuple.tuple(1L, "condition", ExpressionMigrationResult.Status.NATIVE),
+                                    Tuple.tuple(2L, "condition", ExpressionMigrationResult.Status.TRANSLATED),
+                                    Tuple.tuple(2L, "value", ExpressionMigrationResult.Status.NATIVE),
+                                    Tuple.tuple(3L, "condition", ExpressionMigrationResult.Status.NATIVE),
+                                    Tuple.tuple(3L, "value", ExpressionMigrationResult.Status.TRANSLATED),
+                                    Tuple.tuple(4L, "condition", ExpressionMigrationResult.Status.SPEL_ONLY),
+                                    Tuple.tuple(5L, "condition", ExpressionMigrationResult.Status.INVALID));
+                    assertThat(results.get(1).getTranslation()).isEqualTo("decimal(vehicleValue) <= 600000");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void validate_reportsTranslationsThatChangeAPrice() {
+        // given - SpEL divides BigDecimals at the scale of the operands, the new language does not
+        RateRule rule = rule(6L, null, "vehicleValue / 400");
+
+        // when
+        ExpressionMigrationResult result = validator.validate(rule).get(0);
+
+        // then
+        assertThat(result.getStatus()).isEqualTo(ExpressionMigrationResult.Status.DIVERGENT);
+        assertThat(result.getMessage()).contains("vehicleValue=600001", "SpEL gives 1500", "translation gives 1501");
+    }
+
+    private RateRule rule(Long id, String condition, String value) {
+        RateRule rule = RateRule.builder()
+                .id(id)
+                .rateBookId(1L)
+                .ruleType(RuleType.ADDON)
+                .category("PRIVATE_CAR")
+                .conditionExpression(condition)
+                .valueExpression(value)
+                .build();
+        rule.setTenantId("SANLAM");
+        return rule;
+    }
+}
@@ -0,0 +1,154 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleMatcherTest {
+
+    private RuleMatcher ruleMatcher;
+
+    @BeforeEach
+    void setUp() {
+        ruleMatcher = new RuleMatcher();
+    }
+
+    @Test
+    void matches_reusesParsedExpressionAcrossEvaluations() {
+        // given
+        RateBookDto.RateRuleDto rule = rule("vehicleValue.doubleValue() <= 600000", "37500");
+
+        // when & then
+        for (int i = 0; i < 5; i++) {
+            assertThat(ruleMatcher.matches(rule, context(new BigDecimal("500000")))).isTrue();
+            assertThat(ruleMatcher.matches(rule, context(new BigDecimal("700000")))).isFalse();
+        }
+        assertThat(ruleMatcher.evaluateBigDecimal(rule, context(new BigDecimal("500000")))).isEqualByComparingTo("37500");
+        assertThat(ruleMatcher.cachedExpressionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void matches_survivesNullPropertiesAfterCompilation() {
+        // given
+        RateBookDto.RateRuleDto rule = rule("vehicleAge <= 20", null);
+        RatingContext aged = context(new BigDecimal("500000"));
+        aged.setVehicleAge(4);
+
+        // when & then - warm up until the expression is compiled, then hit it with a null property
+        for (int i = 0; i < 5; i++) {
+            assertThat(ruleMatcher.matches(rule, aged)).isTrue();
+        }
+        assertThat(ruleMatcher.matches(rule, context(new BigDecimal("500000")))).isTrue();
+    }
+
+    @Test
+    void evaluateBigDecimal_supportsMapIndexingAndTypeReferences() {
+        // given
+        RateBookDto.RateRuleDto rule = rule(
+                "additionalData != null && additionalData['courtesyCarDays'] != null",
+                "(T(java.lang.Integer).parseInt(additionalData['courtesyCarDays'].toString()) / 10) * 3000");
+        RatingContext context = context(new BigDecimal("500000"));
+        context.setAdditionalData(Map.of("courtesyCarDays", 20));
+
+        // when & then
+        assertThat(ruleMatcher.matches(rule, context)).isTrue();
+        assertThat(ruleMatcher.evaluateBigDecimal(rule, context)).isEqualByComparingTo("6000");
+    }
+
+    @Test
+    void invalidateCache_dropsParsedExpressions() {
+        // given
+        RateBookDto.RateRuleDto rule = rule("true", "0.04");
+        ruleMatcher.matches(rule, context(BigDecimal.ONE));
+        ruleMatcher.evaluateValue(rule, context(BigDecimal.ONE));
+        assertThat(ruleMatcher.cachedExpressionCount()).isEqualTo(2);
+
+        // when
+        ruleMatcher.invalidateCache();
+
+        // then
+        assertThat(ruleMatcher.cachedExpressionCount()).isZero();
+    }
+
+    @Test
+    void matches_keepsAtMostTheMaximumNumberOfExpressions() {
+        // given
+        RatingContext context = context(BigDecimal.ONE);
+
+        // when
+        for (int i = 0; i < RuleMatcher.MAX_EXPRESSIONS + 100; i++) {
+            ruleMatcher.matches(rule("vehicleValue > " + i, null), context);
+        }
+
+        // then
+        assertThat(ruleMatcher.cachedExpressionCount()).isLessThanOrEqualTo(RuleMatcher.MAX_EXPRESSIONS);
+    }
+
+    @Test
+    void matches_returnsFalseForInvalidExpression() {
+        // given
+        RateBookDto.RateRuleDto rule = rule("vehicleValue >>> 1", null);
+
+        // when & then
+        assertThat(ruleMatcher.matches(rule, context(BigDecimal.ONE))).isFalse();
+    }
+
+    @Test
+    void evaluationErrors_areCountedPerTenantCategoryAndField() {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RuleMatcher instrumented = new RuleMatcher(new RatingMetrics(meterRegistry));
+        RateBookDto.RateRuleDto rule = rule("vehicleValue >>> 1", "vehicleValue * 0.04");
+
+        // when
+        instrumented.matches(rule, context(BigDecimal.ONE));
+        instrumented.evaluateValue(rule, context(null));
+        instrumented.evaluateValue(rule, context(null));
+
+        // then
+        assertThat(meterRegistry.get(RatingMetrics.RULE_ERRORS).tags("tenant", "SANLAM", "category", "PRIVATE_CAR", "field", "condition")
+                .counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get(RatingMetrics.RULE_ERRORS).tags("field", "value").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void translatedSpelRules_stayOnSpel_untilNativeEvaluationIsEnabled() {
+        // given
+        RateBookDto.RateRuleDto rule = rule("vehicleValue.doubleValue() <= 600000", null);
+        RuleMatcher nativeMatcher = new RuleMatcher();
+        ReflectionTestUtils.setField(nativeMatcher, "nativeTranslated", true);
+
+        // when & then
+        assertThat(ruleMatcher.cost(rule)).isEqualTo(RuleMatcher.SPEL_COST);
+        assertThat(nativeMatcher.cost(rule)).isLessThan(RuleMatcher.SPEL_COST);
+        assertThat(ruleMatcher.matches(rule, context(new BigDecimal("500000")))).isTrue();
+        assertThat(nativeMatcher.matches(rule, context(new BigDecimal("500000")))).isTrue();
+    }
+
+    private RateBookDto.RateRuleDto rule(String condition, String value) {
+        return RateBookDto.RateRuleDto.builder()
+                .id(1L)
+                .ruleType(RuleType.BASE_PREMIUM)
+                .category("PRIVATE_CAR")
+                .conditionExpression(condition)
+                .valueExpression(value)
+                .build();
+    }
+
+    private RatingContext context(BigDecimal vehicleValue) {
+        return RatingContext.builder()
+                .tenantId("SANLAM")
+                .category("PRIVATE_CAR")
+                .vehicleValue(vehicleValue)
+                .build();
+    }
+}
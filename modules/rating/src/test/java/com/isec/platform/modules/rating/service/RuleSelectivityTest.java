@@ -0,0 +1,111 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RuleStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class RuleSelectivityTest {
+
+    private static final String TENANT = "SANLAM";
+
+    private RuleSelectivity selectivity;
+
+    @BeforeEach
+    void setUp() {
+        selectivity = new RuleSelectivity(new RuleMatcher());
+        ReflectionTestUtils.setField(selectivity, "reorderInterval", 4L);
+    }
+
+    @Test
+    void order_evaluatesEligibilityRulesMostLikelyToFailFirstOnceObserved() {
+        // given
+        RateBookDto.RateRuleDto ageLimit = rule(1L, RuleType.ELIGIBILITY, 1, "vehicleAge <= 15 and vehicleValue > 0");
+        RateBookDto.RateRuleDto valueLimit = rule(2L, RuleType.ELIGIBILITY, 2, "vehicleValue <= 10000000");
+        List<RateBookDto.RateRuleDto> rules = List.of(ageLimit, valueLimit);
+        for (int i = 0; i < 10; i++) {
+            selectivity.record(TENANT, ageLimit, true);
+            selectivity.record(TENANT, valueLimit, i % 2 == 0);
+        }
+
+        // when & then
+        for (int i = 0; i < 3; i++) {
+            assertThat(selectivity.order(rules, RuleType.ELIGIBILITY)).containsExactly(ageLimit, valueLimit);
+        }
+        assertThat(selectivity.order(rules, RuleType.ELIGIBILITY)).containsExactly(valueLimit, ageLimit);
+        assertThat(selectivity.statistics())
+                .extracting(RuleStatistics::getRuleId, RuleStatistics::getEvaluated, RuleStatistics::getMatched, RuleStatistics::getMatchRate)
+                .containsExactly(tuple(1L, 10L, 10L, 1.0), tuple(2L, 10L, 5L, 0.5));
+    }
+
+    @Test
+    void order_reordersReferralRulesOnlyWithinEqualPriority() {
+        // given
+        RateBookDto.RateRuleDto first = rule(3L, RuleType.REFERRAL, 0, "vehicleValue > 20000000");
+        RateBookDto.RateRuleDto rarelyMatching = rule(1L, RuleType.REFERRAL, 1, "vehicleAge > 25");
+        RateBookDto.RateRuleDto oftenMatching = rule(2L, RuleType.REFERRAL, 1, "vehicleAge > 10");
+        List<RateBookDto.RateRuleDto> rules = List.of(first, rarelyMatching, oftenMatching);
+        for (int i = 0; i < 10; i++) {
+            selectivity.record(TENANT, first, false);
+            selectivity.record(TENANT, rarelyMatching, false);
+            selectivity.record(TENANT, oftenMatching, true);
+        }
+
+        // when
+        List<RateBookDto.RateRuleDto> ordered = null;
+        for (int i = 0; i < 4; i++) {
+            ordered = selectivity.order(rules, RuleType.REFERRAL);
+        }
+
+        // then
+        assertThat(ordered).containsExactly(first, oftenMatching, rarelyMatching);
+        assertThat(selectivity.order(rules, RuleType.BASE_PREMIUM)).isSameAs(rules);
+    }
+
+    @Test
+    void unobserved_keepsPriorityOrderAndCountsNothing() {
+        // given
+        RuleSelectivity unobserved = RuleSelectivity.unobserved();
+        RateBookDto.RateRuleDto ageLimit = rule(1L, RuleType.ELIGIBILITY, 1, "vehicleAge <= 15");
+        RateBookDto.RateRuleDto valueLimit = rule(2L, RuleType.ELIGIBILITY, 2, "vehicleValue <= 10000000");
+        List<RateBookDto.RateRuleDto> rules = List.of(ageLimit, valueLimit);
+
+        // when & then
+        for (int i = 0; i < 2048; i++) {
+            unobserved.record(TENANT, valueLimit, false);
+            assertThat(unobserved.order(rules, RuleType.ELIGIBILITY)).isSameAs(rules);
+        }
+        assertThat(unobserved.statistics()).isEmpty();
+    }
+
+    @Test
+    void retain_dropsCountsOfRulesTheTenantsNewRateBookNoLongerHas() {
+        // given
+        RateBookDto.RateRuleDto kept = rule(1L, RuleType.ELIGIBILITY, 1, "vehicleAge <= 15");
+        RateBookDto.RateRuleDto removed = rule(2L, RuleType.ELIGIBILITY, 2, "vehicleValue <= 10000000");
+        RateBookDto.RateRuleDto otherTenants = rule(3L, RuleType.ELIGIBILITY, 1, "vehicleAge <= 20");
+        selectivity.record(TENANT, kept, true);
+        selectivity.record(TENANT, removed, true);
+        selectivity.record("OTHER", otherTenants, true);
+
+        // when
+        selectivity.retain(TENANT, RateBookDto.builder().tenantId(TENANT).rules(List.of(kept)).build());
+
+        // then
+        assertThat(selectivity.statistics()).extracting(RuleStatistics::getRuleId).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    private static RateBookDto.RateRuleDto rule(Long id, RuleType type, int priority, String condition) {
+        return RateBookDto.RateRuleDto.builder()
+                .id(id).ruleType(type).category("PRIVATE_CAR").description("Rule " + id).priority(priority)
+                .conditionExpression(condition)
+                .build();
+    }
+}
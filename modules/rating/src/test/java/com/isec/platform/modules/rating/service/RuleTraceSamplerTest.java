@@ -0,0 +1,126 @@
+package com.isec.platform.modules.rating.service;
+
+import com.isec.platform.modules.rating.compiler.CompiledRateBookRegistry;
+import com.isec.platform.modules.rating.domain.RuleType;
+import com.isec.platform.modules.rating.dto.PricingTrace;
+import com.isec.platform.modules.rating.dto.RateBookDto;
+import com.isec.platform.modules.rating.dto.RatingContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.when;
+
+class RuleTraceSamplerTest {
+
+    private static final String TENANT = "SANLAM";
+
+    private RateBookSnapshotLoader snapshotLoader;
+    private RuleTraceSampler sampler;
+    private PricingEngine pricingEngine;
+
+    @BeforeEach
+    void setUp() {
+        snapshotLoader = Mockito.mock(RateBookSnapshotLoader.class);
+        sampler = new RuleTraceSampler();
+        RuleMatcher ruleMatcher = new RuleMatcher();
+        pricingEngine = new PricingEngine(snapshotLoader, ruleMatcher, Mockito.mock(CompiledRateBookRegistry.class),
+                RatingMetrics.noop(), new QuoteResultCache(), new RuleSelectivity(ruleMatcher), sampler);
+        ReflectionTestUtils.setField(pricingEngine, "pcfRate", new BigDecimal("0.0025"));
+        ReflectionTestUtils.setField(pricingEngine, "itlRate", new BigDecimal("0.0020"));
+        ReflectionTestUtils.setField(pricingEngine, "certCharge", new BigDecimal("40.00"));
+        pricingEngine.initCharges();
+        RateBookDto rateBook = RateBookDto.builder()
+                .id(1L).tenantId(TENANT).versionName("v1")
+                .rules(List.of(
+                        rule(1L, RuleType.ELIGIBILITY, 1, "vehicleAge <= 15", null),
+                        rule(2L, RuleType.REFERRAL, 1, "vehicleValue > 10000000 or vehicleMake == 'FERRARI'", null),
+                        rule(3L, RuleType.BASE_PREMIUM, 1, "vehicleValue <= 600000", "37500"),
+                        rule(4L, RuleType.BASE_PREMIUM, 2, null, "0.04")))
+                .build();
+        when(snapshotLoader.loadActive(TENANT)).thenReturn(Mono.just(RateBookSnapshotLoader.Snapshot.from(rateBook)));
+    }
+
+    @Test
+    void price_tracesEveryRuleEvaluatedWhenForced() {
+        // when & then
+        pricingEngine.price(context())
+                .contextWrite(RuleTraceSampler::force)
+                .as(StepVerifier::create)
+                .consumeNextWith(result -> {
+                    PricingTrace trace = result.getTrace();
+                    assertThat(trace.getTrigger()).isEqualTo(PricingTrace.Trigger.FORCED);
+                    assertThat(trace.getRateBookVersion()).isEqualTo("v1");
+                    assertThat(trace.getDropped()).isZero();
+                    assertThat(trace.getRules())
+                            .extracting(PricingTrace.Entry::getRuleId, PricingTrace.Entry::isMatched, PricingTrace.Entry::getValue)
+                            .containsExactly(tuple(1L, true, null), tuple(2L, false, null), tuple(3L, false, null),
+                                    tuple(4L, true, new BigDecimal("0.04")));
+                    assertThat(trace.getRules().get(1).getInputs())
+                            .isEqualTo(Map.of("vehicleValue", new BigDecimal("1000000"), "vehicleMake", "TOYOTA"));
+                    assertThat(trace.getRules().get(3).getInputs()).isEmpty();
+                    assertThat(trace.getRules()).allSatisfy(entry -> assertThat(entry.getNanos()).isNotNegative());
+                })
+                .verifyComplete();
+        pricingEngine.price(context())
+                .as(StepVerifier::create)
+                .consumeNextWith(result -> assertThat(result.getTrace()).isNull())
+                .verifyComplete();
+    }
+
+    @Test
+    void price_keepsTheLatestEvaluationsWhenTheTraceOverflows() {
+        // given
+        ReflectionTestUtils.setField(sampler, "capacity", 2);
+
+        // when & then
+        pricingEngine.price(context())
+                .contextWrite(Context.of("unrelated", true))
+                .contextWrite(RuleTraceSampler::force)
+                .as(StepVerifier::create)
+                .consumeNextWith(result -> {
+                    assertThat(result.getTrace().getDropped()).isEqualTo(2);
+                    assertThat(result.getTrace().getRules()).extracting(PricingTrace.Entry::getRuleId).containsExactly(3L, 4L);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void start_samplesByTenantRate() {
+        // given
+        ReflectionTestUtils.setField(sampler, "sampleRates", List.of("SANLAM=1", "APA=0", "*=0", "broken"));
+
+        // when & then
+        assertThat(sampler.start(Context.empty(), TENANT)).isNotNull();
+        assertThat(sampler.start(Context.empty(), "APA")).isNull();
+        assertThat(sampler.start(Context.empty(), "JUBILEE")).isNull();
+        assertThat(sampler.start(RuleTraceSampler.force(Context.empty()), "APA")).isNotNull();
+    }
+
+    private static RatingContext context() {
+        return RatingContext.builder()
+                .tenantId(TENANT)
+                .category("PRIVATE_CAR")
+                .vehicleValue(new BigDecimal("1000000"))
+                .vehicleAge(4)
+                .vehicleMake("TOYOTA")
+                .build();
+    }
+
+    private static RateBookDto.RateRuleDto rule(Long id, RuleType type, int priority, String condition, String value) {
+        return RateBookDto.RateRuleDto.builder()
+                .id(id).ruleType(type).category("PRIVATE_CAR").description("Rule " + id).priority(priority)
+                .conditionExpression(condition).valueExpression(value)
+                .build();
+    }
+}
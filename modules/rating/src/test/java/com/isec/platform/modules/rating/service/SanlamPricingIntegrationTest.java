@@ -1,5 +1,6 @@
 package com.isec.platform.modules.rating.service;
 
+import com.isec.platform.modules.rating.compiler.CompiledRateBookRegistry;
 import com.isec.platform.modules.rating.dto.RateBookDto;
 import com.isec.platform.modules.rating.dto.RatingContext;
 import com.isec.platform.modules.rating.dto.PricingResult;
@@ -32,10 +33,12 @@ class SanlamPricingIntegrationTest {
     void setUp() {
         snapshotLoader = Mockito.mock(RateBookSnapshotLoader.class);
         ruleMatcher = new RuleMatcher(); // Use real RuleMatcher to test SpEL
-        pricingEngine = new PricingEngine(snapshotLoader, ruleMatcher);
+        pricingEngine = new PricingEngine(snapshotLoader, ruleMatcher, Mockito.mock(CompiledRateBookRegistry.class),
+                RatingMetrics.noop(), new QuoteResultCache(), new RuleSelectivity(ruleMatcher), new RuleTraceSampler());
         ReflectionTestUtils.setField(pricingEngine, "pcfRate", new BigDecimal("0.0025"));
         ReflectionTestUtils.setField(pricingEngine, "itlRate", new BigDecimal("0.0020"));
         ReflectionTestUtils.setField(pricingEngine, "certCharge", new BigDecimal("40.00"));
+        pricingEngine.initCharges();
     }
 
     @Test
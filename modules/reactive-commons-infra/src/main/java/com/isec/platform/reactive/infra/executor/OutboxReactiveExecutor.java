@@ -1,9 +1,9 @@
 package com.isec.platform.reactive.infra.executor;
 
 import com.isec.platform.reactive.infra.outbox.OutboxEvent;
-import com.isec.platform.reactive.infra.outbox.OutboxRepository;
 import com.isec.platform.reactive.infra.tx.ReactiveTransactionRunner;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
@@ -16,7 +16,7 @@ import java.util.function.Supplier;
 public class OutboxReactiveExecutor implements ReactiveOperationExecutor {
 
     private final ReactiveTransactionRunner transactionRunner;
-    private final OutboxRepository outboxRepository;
+    private final R2dbcEntityTemplate entityTemplate;
 
     @Override
     public <T> Mono<T> executeDirect(Mono<T> dbOperation, Supplier<Mono<?>> httpOperation) {
@@ -31,9 +31,9 @@ public class OutboxReactiveExecutor implements ReactiveOperationExecutor {
         if (event.getStatus() == null) event.setStatus(OutboxEvent.OutboxStatus.PENDING);
         if (event.getRetryCount() == null) event.setRetryCount(0);
 
-        // Execute both in the same transaction
+        // Execute both in the same transaction; insert, as save() would update an event whose id is already set
         Mono<T> combinedOperation = dbOperation
-                .flatMap(result -> outboxRepository.save(event).thenReturn(result));
+                .flatMap(result -> entityTemplate.insert(event).thenReturn(result));
 
         return transactionRunner.inTransaction(combinedOperation);
     }
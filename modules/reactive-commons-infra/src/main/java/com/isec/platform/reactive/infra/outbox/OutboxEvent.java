@@ -24,6 +24,8 @@ public class OutboxEvent {
     private Integer retryCount;
     private LocalDateTime createdAt;
     private LocalDateTime lastAttemptAt;
+    // Not picked up before then: while a worker holds it, or until its next retry
+    private LocalDateTime nextAttemptAt;
     private String errorMessage;
     private String idempotencyKey;
 
@@ -1,13 +1,25 @@
 package com.isec.platform.reactive.infra.outbox;
 
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 public interface OutboxRepository extends ReactiveCrudRepository<OutboxEvent, UUID> {
     
-    @Query("SELECT * FROM outbox_events WHERE status = 'PENDING' OR (status = 'FAILED' AND retry_count < :maxRetries) ORDER BY created_at ASC LIMIT :limit")
-    Flux<OutboxEvent> findEventsToProcess(int maxRetries, int limit);
+    @Query("SELECT * FROM outbox_events WHERE (status = 'PENDING' OR (status = 'FAILED' AND retry_count < :maxRetries)) " +
+            "AND (next_attempt_at IS NULL OR next_attempt_at <= :now) ORDER BY created_at ASC LIMIT :limit")
+    Flux<OutboxEvent> findEventsToProcess(int maxRetries, LocalDateTime now, int limit);
+
+    /**
+     * Takes the event for one worker until {@code leaseUntil}; 0 if another worker took it first.
+     */
+    @Modifying
+    @Query("UPDATE outbox_events SET next_attempt_at = :leaseUntil, last_attempt_at = :now " +
+            "WHERE id = :id AND status <> 'PROCESSED' AND (next_attempt_at IS NULL OR next_attempt_at <= :now)")
+    Mono<Integer> claim(UUID id, LocalDateTime now, LocalDateTime leaseUntil);
 }
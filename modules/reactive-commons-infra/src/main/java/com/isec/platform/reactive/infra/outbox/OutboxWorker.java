@@ -2,13 +2,26 @@ package com.isec.platform.reactive.infra.outbox;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Hands pending outbox events to their handlers.
+ * <p>
+ * Each event is claimed with a conditional update before it is handled, so that it runs on one worker at a time
+ * even with several nodes polling; a claim lasts {@code infra.outbox.lease-seconds}, after which an event whose
+ * worker died is picked up again. A failed event is retried after a backoff that doubles from
+ * {@code backoff-base-ms} up to {@code backoff-max-ms}, randomized by half either way so that events failing together
+ * do not retry together, and is marked {@code FAILED} after {@code max-retries} attempts.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -17,23 +30,54 @@ public class OutboxWorker {
     private final OutboxRepository outboxRepository;
     private final List<OutboxEventHandler> handlers;
 
+    @Value("${infra.outbox.max-retries:5}")
+    private int maxRetries = 5;
+
+    @Value("${infra.outbox.batch-size:10}")
+    private int batchSize = 10;
+
+    @Value("${infra.outbox.concurrency:10}")
+    private int concurrency = 10;
+
+    @Value("${infra.outbox.lease-seconds:300}")
+    private long leaseSeconds = 300;
+
+    @Value("${infra.outbox.backoff-base-ms:1000}")
+    private long backoffBaseMs = 1000;
+
+    @Value("${infra.outbox.backoff-max-ms:300000}")
+    private long backoffMaxMs = 300000;
+
+    private final AtomicBoolean polling = new AtomicBoolean();
+
     @Scheduled(fixedDelayString = "${infra.outbox.poll-interval-ms:5000}")
     public void processOutboxEvents() {
-        outboxRepository.findEventsToProcess(5, 10)
-                .flatMap(this::processEvent)
+        // A slow batch is not overlapped by the next poll
+        if (!polling.compareAndSet(false, true)) {
+            return;
+        }
+        outboxRepository.findEventsToProcess(maxRetries, LocalDateTime.now(), batchSize)
+                .flatMap(this::claimAndProcess, concurrency)
                 .subscribeOn(reactor.core.scheduler.Schedulers.boundedElastic())
+                .doFinally(signal -> polling.set(false))
                 .subscribe(
                         null,
                         e -> log.error("Error in OutboxWorker during processing", e)
                 );
     }
 
+    Mono<Void> claimAndProcess(OutboxEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        return outboxRepository.claim(event.getId(), now, now.plusSeconds(leaseSeconds))
+                .filter(claimed -> claimed > 0)
+                .flatMap(claimed -> processEvent(event));
+    }
+
     private Mono<Void> processEvent(OutboxEvent event) {
         log.debug("Processing outbox event: {}", event.getId());
-        
-        return findHandler(event.getType())
-                .handle(event)
-                .then(markAsProcessed(event))
+
+        return Mono.defer(() -> findHandler(event.getType()).handle(event))
+                .then(Mono.defer(() -> markAsProcessed(event)))
                 .onErrorResume(e -> markAsFailed(event, e.getMessage()));
     }
 
@@ -47,6 +91,7 @@ public class OutboxWorker {
     private Mono<Void> markAsProcessed(OutboxEvent event) {
         event.setStatus(OutboxEvent.OutboxStatus.PROCESSED);
         event.setLastAttemptAt(LocalDateTime.now());
+        event.setNextAttemptAt(null);
         return outboxRepository.save(event).then();
     }
 
@@ -54,12 +99,20 @@ public class OutboxWorker {
         log.error("Failed to process outbox event {}: {}", event.getId(), error);
         event.setRetryCount(event.getRetryCount() + 1);
         event.setLastAttemptAt(LocalDateTime.now());
+        event.setNextAttemptAt(event.getLastAttemptAt().plus(backoff(event.getRetryCount())));
         event.setErrorMessage(error);
-        
-        if (event.getRetryCount() >= 5) {
+
+        if (event.getRetryCount() >= maxRetries) {
             event.setStatus(OutboxEvent.OutboxStatus.FAILED);
         }
-        
+
         return outboxRepository.save(event).then();
     }
+
+    // Delay before the attempt after the given number of failures
+    Duration backoff(int failures) {
+        long exponential = backoffBaseMs << Math.min(failures - 1, 30);
+        long delay = exponential <= 0 ? backoffMaxMs : Math.min(exponential, backoffMaxMs);
+        return Duration.ofMillis((long) (delay * ThreadLocalRandom.current().nextDouble(0.5, 1.5)));
+    }
 }
@@ -0,0 +1,133 @@
+package com.isec.platform.reactive.infra.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxWorkerTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+    @Mock
+    private OutboxEventHandler handler;
+
+    private OutboxWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new OutboxWorker(outboxRepository, List.of(handler));
+        lenient().when(handler.canHandle("TEST_EVENT")).thenReturn(true);
+        lenient().when(outboxRepository.save(any(OutboxEvent.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    @Test
+    void claimAndProcess_skipsEventClaimedByAnotherWorker() {
+        // given
+        OutboxEvent event = event(0);
+        when(outboxRepository.claim(eq(event.getId()), any(), any())).thenReturn(Mono.just(0));
+
+        // when & then
+        StepVerifier.create(worker.claimAndProcess(event))
+                .verifyComplete();
+        verify(handler, never()).handle(any());
+        verify(outboxRepository, never()).save(any());
+    }
+
+    @Test
+    void claimAndProcess_marksEventProcessedWhenHandled() {
+        // given
+        OutboxEvent event = event(0);
+        when(outboxRepository.claim(eq(event.getId()), any(), any())).thenReturn(Mono.just(1));
+        when(handler.handle(event)).thenReturn(Mono.empty());
+
+        // when & then
+        StepVerifier.create(worker.claimAndProcess(event))
+                .verifyComplete();
+        assertThat(saved().getStatus()).isEqualTo(OutboxEvent.OutboxStatus.PROCESSED);
+        assertThat(saved().getNextAttemptAt()).isNull();
+    }
+
+    @Test
+    void claimAndProcess_schedulesRetryAfterFailedAttempt() {
+        // given
+        OutboxEvent event = event(1);
+        when(outboxRepository.claim(eq(event.getId()), any(), any())).thenReturn(Mono.just(1));
+        when(handler.handle(event)).thenReturn(Mono.error(new RuntimeException("partner down")));
+
+        // when & then
+        StepVerifier.create(worker.claimAndProcess(event))
+                .verifyComplete();
+        OutboxEvent saved = saved();
+        assertThat(saved.getStatus()).isEqualTo(OutboxEvent.OutboxStatus.PENDING);
+        assertThat(saved.getRetryCount()).isEqualTo(2);
+        assertThat(saved.getErrorMessage()).isEqualTo("partner down");
+        assertThat(saved.getNextAttemptAt()).isAfter(saved.getLastAttemptAt());
+    }
+
+    @Test
+    void claimAndProcess_marksEventFailedAfterFinalAttempt() {
+        // given
+        OutboxEvent event = event(4);
+        when(outboxRepository.claim(eq(event.getId()), any(), any())).thenReturn(Mono.just(1));
+        when(handler.handle(event)).thenReturn(Mono.error(new RuntimeException("partner down")));
+
+        // when & then
+        StepVerifier.create(worker.claimAndProcess(event))
+                .verifyComplete();
+        OutboxEvent saved = saved();
+        assertThat(saved.getStatus()).isEqualTo(OutboxEvent.OutboxStatus.FAILED);
+        assertThat(saved.getRetryCount()).isEqualTo(5);
+    }
+
+    @Test
+    void backoff_doublesFromBaseAndStaysWithinJitterBounds() {
+        for (int i = 0; i < 1000; i++) {
+            assertThat(worker.backoff(1)).isBetween(Duration.ofMillis(500), Duration.ofMillis(1500));
+            assertThat(worker.backoff(3)).isBetween(Duration.ofMillis(2000), Duration.ofMillis(6000));
+        }
+    }
+
+    @Test
+    void backoff_isCappedAtMaxEvenForManyFailures() {
+        for (int failures : new int[]{10, 31, 64, Integer.MAX_VALUE}) {
+            assertThat(worker.backoff(failures)).isBetween(Duration.ofMillis(150000), Duration.ofMillis(450000));
+        }
+    }
+
+    private OutboxEvent saved() {
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private static OutboxEvent event(int retryCount) {
+        return OutboxEvent.builder()
+                .id(UUID.randomUUID())
+                .type("TEST_EVENT")
+                .payload("{}")
+                .status(OutboxEvent.OutboxStatus.PENDING)
+                .retryCount(retryCount)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}